@@ -0,0 +1,46 @@
+#!/bin/bash
+# Rulează același plan JMeter (stackComparisonPerfTests.jmx) pe aplicația MVC și pe cea reactivă,
+# una după alta, și afișează un rezumat per endpoint. Ambele aplicații trebuie să fie pornite pe aceeași bază de date.
+# Folosire: ./compare_stacks.sh [threads] [duration-seconds]
+set -e
+
+THREADS=${1:-500}
+DURATION=${2:-120}
+HOST=${HOST:-localhost}
+MVC_PORT=${MVC_PORT:-8080}
+REACTIVE_PORT=${REACTIVE_PORT:-8083}
+OUT=${OUT:-build/stack-comparison}
+
+rm -rf "$OUT"
+mkdir -p "$OUT"
+
+for stack in mvc reactive; do
+  port=$MVC_PORT
+  [ "$stack" = "reactive" ] && port=$REACTIVE_PORT
+  jmeter -n -t stackComparisonPerfTests.jmx \
+    -Jhost="$HOST" -Jport="$port" -Jthreads="$THREADS" -Jduration="$DURATION" \
+    -l "$OUT/$stack.jtl" -e -o "$OUT/$stack-report"
+done
+
+# Coloanele implicite ale JTL-ului CSV: 1 timeStamp, 2 elapsed, 3 label, 8 success
+summary() {
+  tail -n +2 "$1" | awk -F, '{ print $3 "," $2 "," $8 "," $1 }' | sort -t, -k1,1 -k2,2n | awk -F, '
+    function rank(q,   k) { k = int(n * q); if (k < n * q) k++; return k > 0 ? k : 1 }
+    function flush() {
+      if (label == "") return
+      p95 = values[rank(0.95)]
+      p99 = values[rank(0.99)]
+      seconds = (last - first) / 1000
+      rate = seconds > 0 ? n / seconds : n
+      printf "  %-20s %8d req %8.1f req/s  avg %6.0f ms  p95 %6d ms  p99 %6d ms  errors %5.2f%%\n", label, n, rate, sum / n, p95, p99, 100 * errors / n
+    }
+    $1 != label { flush(); label = $1; n = 0; sum = 0; errors = 0; first = $4; last = $4; delete values }
+    { values[++n] = $2; sum += $2; if ($3 != "true") errors++; if ($4 < first) first = $4; if ($4 > last) last = $4 }
+    END { flush() }'
+}
+
+for stack in mvc reactive; do
+  echo "$stack ($THREADS threads, ${DURATION}s):"
+  summary "$OUT/$stack.jtl"
+done
+echo "HTML reports: $OUT/mvc-report, $OUT/reactive-report"
@@ -0,0 +1,19 @@
+package ro.unibuc.hello.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+/**
+ * Varianta reactivă a API-ului /apartments, /bookings și /reviews: WebFlux pe Netty și ReactiveMongoRepository,
+ * peste aceleași colecții și entități ca HelloApplication. Niciun fir nu așteaptă după Mongo; un export
+ * NDJSON cere documente noi de la cursor doar pe măsură ce clientul le consumă.
+ */
+@SpringBootApplication
+@EnableReactiveMongoRepositories(basePackages = "ro.unibuc.hello.reactive.repository")
+public class ReactiveHelloApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveHelloApplication.class, args);
+    }
+}
@@ -0,0 +1,54 @@
+package ro.unibuc.hello.reactive.config;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Jurnalul de ștergeri citit de ClusterCacheSync în modul POLLING. În aplicația MVC îl scriu listener-ele;
+ * aici nu există listener-e, deci serviciile îl scriu explicit după fiecare ștergere. Fără el, o instanță MVC
+ * care face polling pe un Mongo standalone nu află niciodată de rezervările și apartamentele șterse de aici.
+ * Oprit cu cache.sync.record-deletions=false când aplicația MVC nu rulează pe aceeași bază de date.
+ */
+@Component
+public class CacheSyncDeletions {
+
+    // Același nume și același index TTL ca în ClusterCacheSync
+    static final String DELETIONS_COLLECTION = "cache_sync_deletions";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    public CacheSyncDeletions(ReactiveMongoTemplate mongoTemplate,
+                              @Value("${cache.sync.record-deletions:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    // Jurnalul trebuie să expire și dacă nicio instanță MVC nu rulează în POLLING (care ar crea indexul)
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndex() {
+        if (enabled) {
+            mongoTemplate.indexOps(DELETIONS_COLLECTION)
+                    .ensureIndex(new Index("deletedAt", Sort.Direction.ASC).expire(Duration.ofDays(1)))
+                    .block();
+        }
+    }
+
+    public Mono<Void> record(String collection, String id) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        Document deletion = new Document("collection", collection).append("entityId", id).append("deletedAt", new Date());
+        return mongoTemplate.insert(deletion, DELETIONS_COLLECTION).then();
+    }
+}
@@ -0,0 +1,44 @@
+package ro.unibuc.hello.reactive.config;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.config.AbstractReactiveMongoConfiguration;
+
+import java.util.Collection;
+import java.util.Collections;
+
+// Aceeași bază de date și aceleași entități ca MongoConfig din aplicația MVC, prin driverul reactiv
+@Configuration
+public class ReactiveMongoConfig extends AbstractReactiveMongoConfiguration {
+
+    @Value("${mongodb.connection.url}")
+    private String connectionURL;
+
+    @Override
+    protected String getDatabaseName() {
+        return "test";
+    }
+
+    @Override
+    public MongoClient reactiveMongoClient() {
+        MongoClientSettings mongoClientSettings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(connectionURL))
+                .build();
+
+        return MongoClients.create(mongoClientSettings);
+    }
+
+    @Override
+    protected boolean autoIndexCreation() {
+        return true;
+    }
+
+    @Override
+    public Collection<String> getMappingBasePackages() {
+        return Collections.singleton("ro.unibuc.hello.data");
+    }
+}
@@ -0,0 +1,36 @@
+package ro.unibuc.hello.reactive.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeConvertCallback;
+import reactor.core.publisher.Mono;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.BookingEntity;
+
+import java.time.Instant;
+
+/**
+ * Echivalentul reactiv al onBeforeConvert din ApartmentIndexListener și BookingIndexListener:
+ * cheile de căutare și updatedAt se completează la fiecare scriere, ca instanțele MVC care se
+ * sincronizează prin polling (ClusterCacheSync) să vadă și modificările făcute de aici.
+ */
+@Configuration
+public class UpdatedAtCallbacks {
+
+    @Bean
+    ReactiveBeforeConvertCallback<ApartmentEntity> apartmentBeforeConvert() {
+        return (apartment, collection) -> {
+            apartment.refreshSearchKeys();
+            apartment.setUpdatedAt(Instant.now());
+            return Mono.just(apartment);
+        };
+    }
+
+    @Bean
+    ReactiveBeforeConvertCallback<BookingEntity> bookingBeforeConvert() {
+        return (booking, collection) -> {
+            booking.setUpdatedAt(Instant.now());
+            return Mono.just(booking);
+        };
+    }
+}
@@ -0,0 +1,189 @@
+package ro.unibuc.hello.reactive.controller;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.dto.ApartmentSearchFilter;
+import ro.unibuc.hello.dto.ReviewSort;
+import ro.unibuc.hello.exception.InvalidInputException;
+import ro.unibuc.hello.reactive.service.ReactiveApartmentService;
+import ro.unibuc.hello.reactive.service.ReactiveReviewService;
+import ro.unibuc.hello.util.IdPages;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/apartments")
+public class ApartmentController {
+
+    private final ReactiveApartmentService apartmentService;
+    private final ReactiveReviewService reviewService;
+
+    public ApartmentController(ReactiveApartmentService apartmentService, ReactiveReviewService reviewService) {
+        this.apartmentService = apartmentService;
+        this.reviewService = reviewService;
+    }
+
+    // Implicit o pagină în ordinea _id (limit, cursor; vezi PageResponses); lista completă doar cu unpaged=true
+    @GetMapping
+    public Mono<ResponseEntity<Flux<ApartmentEntity>>> getAllApartments(
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            ServerHttpRequest request) {
+        if (unpaged) {
+            return PageResponses.unpaged(apartmentService.getAllApartments());
+        }
+        return PageResponses.of(apartmentService.getApartments(cursor, limit != null ? limit : IdPages.DEFAULT_LIMIT), request);
+    }
+
+    // Export NDJSON (Accept: application/x-ndjson); cursorul avansează doar cât consumă clientul
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ApartmentEntity> streamApartments() {
+        return apartmentService.streamAllApartments();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ApartmentEntity> getApartmentById(@PathVariable String id) {
+        return apartmentService.getApartmentById(id);
+    }
+
+    @PostMapping
+    public Mono<String> createApartment(@RequestBody ApartmentEntity apartment) {
+        return apartmentService.createApartment(apartment)
+                .thenReturn("Apartment successfully created!")
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(e.getMessage()));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteApartment(@PathVariable String id) {
+        return apartmentService.deleteApartment(id);
+    }
+
+    @GetMapping("/available")
+    public Flux<ApartmentEntity> getAvailableApartments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return apartmentService.findAvailableApartments(startDate, endDate);
+    }
+
+    @GetMapping("/{id}/available")
+    public Mono<Boolean> isApartmentAvailable(
+            @PathVariable String id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return apartmentService.isApartmentAvailable(id, startDate, endDate);
+    }
+
+    // Review-urile apartamentului, paginate ca /reviews (limit, cursor; vezi PageResponses)
+    @GetMapping("/{id}/reviews")
+    public Mono<ResponseEntity<Flux<ReviewEntity>>> getApartmentReviews(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "RATING") ReviewSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            ServerHttpRequest request) {
+        return PageResponses.of(reviewService.getApartmentReviews(id, sort, cursor, limit), request);
+    }
+
+    @GetMapping("/pet-friendly")
+    public Flux<ApartmentEntity> getPetFriendlyApartments() {
+        return apartmentService.getPetFriendlyApartments();
+    }
+
+    @GetMapping("/rooms/{numberOfRooms}")
+    public Flux<ApartmentEntity> getApartmentsByNumberOfRooms(@PathVariable int numberOfRooms) {
+        return apartmentService.getApartmentsByNumberOfRooms(numberOfRooms);
+    }
+
+    @GetMapping("/bathrooms/{numberOfBathrooms}")
+    public Flux<ApartmentEntity> getApartmentsByNumberOfBathrooms(@PathVariable int numberOfBathrooms) {
+        return apartmentService.getApartmentsByNumberOfBathrooms(numberOfBathrooms);
+    }
+
+    @GetMapping("/square-meters")
+    public Flux<ApartmentEntity> getApartmentsByMinimumSquareMeters(@RequestParam Double minSquareMeters) {
+        return apartmentService.getApartmentsByMinimumSquareMeters(minSquareMeters);
+    }
+
+    @GetMapping("/price")
+    public Flux<ApartmentEntity> getApartmentsByMaxPrice(@RequestParam Double maxPrice) {
+        return apartmentService.getApartmentsByMaxPrice(maxPrice);
+    }
+
+    @GetMapping("/amenities")
+    public Flux<ApartmentEntity> getApartmentsByAmenity(
+            @RequestParam List<String> amenity,
+            @RequestParam(required = false) List<String> excludedAmenity) {
+        return apartmentService.getApartmentsByAmenities(amenity, excludedAmenity);
+    }
+
+    @GetMapping("/smoking")
+    public Flux<ApartmentEntity> getApartmentsBySmokingAllowed(@RequestParam boolean smokingAllowed) {
+        return apartmentService.getApartmentsBySmokingAllowed(smokingAllowed);
+    }
+
+    @GetMapping("/location")
+    public Flux<ApartmentEntity> getApartmentsByLocation(@RequestParam String location) {
+        return apartmentService.getApartmentsByLocation(location);
+    }
+
+    @GetMapping("/filter")
+    public Flux<ApartmentEntity> getApartmentsByPriceAndSquareMeters(
+            @RequestParam Double minPrice,
+            @RequestParam Double maxPrice,
+            @RequestParam Double minSquareMeters,
+            @RequestParam Double maxSquareMeters) {
+        return apartmentService.getApartmentsByPriceAndSquareMeters(minPrice, maxPrice, minSquareMeters, maxSquareMeters);
+    }
+
+    @GetMapping("/search")
+    public Flux<ApartmentEntity> searchApartments(
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Double minSquareMeters,
+            @RequestParam(required = false) Double maxSquareMeters,
+            @RequestParam(required = false) Integer numberOfRooms,
+            @RequestParam(required = false) Integer numberOfBathrooms,
+            @RequestParam(required = false) Boolean isPetFriendly,
+            @RequestParam(required = false) Boolean smokingAllowed,
+            @RequestParam(required = false) String amenity,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) Double minAverageRating,
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) List<String> amenities,
+            @RequestParam(required = false) List<String> excludedAmenities) {
+        ApartmentSearchFilter filter = new ApartmentSearchFilter(
+                minPrice, maxPrice, minSquareMeters, maxSquareMeters,
+                numberOfRooms, numberOfBathrooms, isPetFriendly, smokingAllowed,
+                amenity, location, minAverageRating, amenities, excludedAmenities);
+        return apartmentService.searchApartments(filter, fields, limit);
+    }
+
+    @GetMapping("/by-rating")
+    public Flux<ApartmentEntity> getApartmentsByMinAverageRating(@RequestParam Double minAverageRating) {
+        return apartmentService.getApartmentsByMinAverageRating(minAverageRating);
+    }
+
+    @ExceptionHandler(InvalidInputException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleInvalidInputException(InvalidInputException ex) {
+        return ex.getMessage();
+    }
+
+    // Parametri de paginare invalizi (mărime, cursor)
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ex.getMessage();
+    }
+}
@@ -0,0 +1,119 @@
+package ro.unibuc.hello.reactive.controller;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.reactive.service.ReactiveBookingService;
+import ro.unibuc.hello.util.IdPages;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/bookings")
+public class BookingController {
+
+    private final ReactiveBookingService bookingService;
+
+    public BookingController(ReactiveBookingService bookingService) {
+        this.bookingService = bookingService;
+    }
+
+    // Implicit o pagină în ordinea _id (limit, cursor; vezi PageResponses); lista completă doar cu unpaged=true
+    @GetMapping
+    public Mono<ResponseEntity<Flux<BookingEntity>>> getAllBookings(
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            ServerHttpRequest request) {
+        if (unpaged) {
+            return PageResponses.unpaged(bookingService.getAllBookings());
+        }
+        return PageResponses.of(bookingService.getBookings(cursor, limit != null ? limit : IdPages.DEFAULT_LIMIT), request);
+    }
+
+    // Export NDJSON (Accept: application/x-ndjson); cursorul avansează doar cât consumă clientul
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookingEntity> streamBookings() {
+        return bookingService.streamAllBookings();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<BookingEntity> getBookingById(@PathVariable String id) {
+        return bookingService.getBookingById(id);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> createBooking(@RequestBody BookingEntity booking) {
+        return bookingService.createBooking(booking)
+                .<ResponseEntity<?>>map(created -> new ResponseEntity<>(created, HttpStatus.CREATED))
+                .onErrorResume(IllegalArgumentException.class, e ->
+                        Mono.just(new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST)));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteBooking(@PathVariable String id) {
+        return bookingService.deleteBooking(id);
+    }
+
+    @GetMapping("/by-apartment/{apartmentId}")
+    public Flux<BookingEntity> getBookingsForApartment(@PathVariable String apartmentId) {
+        return bookingService.getBookingsForApartment(apartmentId);
+    }
+
+    @GetMapping("/by-apartment-and-user")
+    public Flux<BookingEntity> getBookingsForApartmentAndUser(
+            @RequestParam String apartmentId,
+            @RequestParam String userId) {
+        return bookingService.getBookingsForApartmentAndUser(apartmentId, userId);
+    }
+
+    @GetMapping("/check-availability/{apartmentId}")
+    public Mono<ResponseEntity<?>> checkAvailability(
+            @PathVariable String apartmentId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return bookingService.isApartmentAvailable(apartmentId, startDate, endDate)
+                .<ResponseEntity<?>>map(isAvailable -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("apartmentId", apartmentId);
+                    response.put("startDate", startDate);
+                    response.put("endDate", endDate);
+                    response.put("available", isAvailable);
+                    return ResponseEntity.ok(response);
+                })
+                .onErrorResume(IllegalArgumentException.class, e ->
+                        Mono.just(new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST)));
+    }
+
+    @GetMapping("/available-apartments")
+    public Mono<ResponseEntity<?>> getAvailableApartments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return bookingService.findAvailableApartmentIds(startDate, endDate)
+                .<ResponseEntity<?>>map(availableApartmentIds -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("startDate", startDate);
+                    response.put("endDate", endDate);
+                    response.put("availableApartmentIds", availableApartmentIds);
+                    response.put("count", availableApartmentIds.size());
+                    return ResponseEntity.ok(response);
+                })
+                .onErrorResume(IllegalArgumentException.class, e ->
+                        Mono.just(new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST)));
+    }
+
+    // Parametri de paginare invalizi (mărime, cursor)
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ex.getMessage();
+    }
+}
@@ -0,0 +1,42 @@
+package ro.unibuc.hello.reactive.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.hello.dto.CursorPage;
+
+/**
+ * Ca PageResponses din aplicația MVC: corpul este lista paginii, iar pagina următoare se anunță în
+ * header-ele X-Next-Cursor și Link rel="next". Corpul rămâne un Flux, ca răspunsul nepaginat.
+ */
+final class PageResponses {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private PageResponses() {
+    }
+
+    static <T> Mono<ResponseEntity<Flux<T>>> of(Mono<CursorPage<T>> page, ServerHttpRequest request) {
+        return page.map(result -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (result.nextCursor() != null) {
+                String next = UriComponentsBuilder.fromUri(request.getURI())
+                        .replaceQueryParam("after")
+                        .replaceQueryParam("cursor", result.nextCursor())
+                        .build()
+                        .toUriString();
+                response.header(NEXT_CURSOR_HEADER, result.nextCursor());
+                response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+            }
+            return response.body(Flux.fromIterable(result.items()));
+        });
+    }
+
+    // Lista completă: elementele se scriu în array-ul JSON pe măsură ce vin din cursor
+    static <T> Mono<ResponseEntity<Flux<T>>> unpaged(Flux<T> items) {
+        return Mono.just(ResponseEntity.ok(items));
+    }
+}
@@ -0,0 +1,106 @@
+package ro.unibuc.hello.reactive.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.exception.InvalidInputException;
+import ro.unibuc.hello.reactive.service.ReactiveReviewService;
+
+@RestController
+@RequestMapping("/reviews")
+public class ReviewController {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final ReactiveReviewService reviewService;
+
+    public ReviewController(ReactiveReviewService reviewService) {
+        this.reviewService = reviewService;
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ReviewEntity> getReviewById(@PathVariable String id) {
+        return reviewService.getReviewById(id);
+    }
+
+    @PostMapping
+    public Mono<String> createReview(@RequestBody ReviewEntity review) {
+        return reviewService.createReview(review)
+                .thenReturn("Review successfully created!")
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(e.getMessage()));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteReview(@PathVariable String id) {
+        return reviewService.deleteReview(id);
+    }
+
+    // Implicit o pagină în ordinea (rating, id) (limit, cursor; vezi PageResponses); lista completă doar cu
+    // unpaged=true. after este numele vechi al parametrului cursor și este încă acceptat
+    @GetMapping
+    public Mono<ResponseEntity<Flux<ReviewEntity>>> getAllReviewsSortedByRating(
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String after,
+            ServerHttpRequest request) {
+        if (unpaged) {
+            return PageResponses.unpaged(reviewService.getAllReviewsSortedByRating());
+        }
+        return PageResponses.of(reviewService.getAllReviewsSortedByRating(cursor(cursor, after), pageSize(limit)), request);
+    }
+
+    // Obține review-urile bune (rating > 3)
+    @GetMapping("/good")
+    public Mono<ResponseEntity<Flux<ReviewEntity>>> getGoodReviews(
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String after,
+            ServerHttpRequest request) {
+        if (unpaged) {
+            return PageResponses.unpaged(reviewService.getGoodReviews());
+        }
+        return PageResponses.of(reviewService.getGoodReviews(cursor(cursor, after), pageSize(limit)), request);
+    }
+
+    // Obține review-urile rele (rating <= 3)
+    @GetMapping("/bad")
+    public Mono<ResponseEntity<Flux<ReviewEntity>>> getBadReviews(
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String after,
+            ServerHttpRequest request) {
+        if (unpaged) {
+            return PageResponses.unpaged(reviewService.getBadReviews());
+        }
+        return PageResponses.of(reviewService.getBadReviews(cursor(cursor, after), pageSize(limit)), request);
+    }
+
+    private static String cursor(String cursor, String after) {
+        return cursor != null ? cursor : after;
+    }
+
+    private static int pageSize(Integer limit) {
+        return limit != null ? limit : DEFAULT_PAGE_SIZE;
+    }
+
+    // Id de review deja existent
+    @ExceptionHandler(InvalidInputException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleInvalidInputException(InvalidInputException ex) {
+        return ex.getMessage();
+    }
+
+    // Parametri de paginare invalizi (mărime, cursor)
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ex.getMessage();
+    }
+}
@@ -0,0 +1,11 @@
+package ro.unibuc.hello.reactive.repository;
+
+import reactor.core.publisher.Mono;
+import ro.unibuc.hello.data.ApartmentEntity;
+
+public interface ReactiveApartmentRatingRepository {
+
+    // Ca ApartmentRatingRepository.applyRating: adaugă (delta = 1) sau scoate (delta = -1) un rating din agregate;
+    // se termină gol dacă apartamentul nu există
+    Mono<ApartmentEntity> applyRating(String apartmentId, Integer rating, int delta);
+}
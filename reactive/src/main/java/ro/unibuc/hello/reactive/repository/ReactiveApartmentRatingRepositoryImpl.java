@@ -0,0 +1,44 @@
+package ro.unibuc.hello.reactive.repository;
+
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+import ro.unibuc.hello.data.ApartmentEntity;
+
+import java.time.Instant;
+
+public class ReactiveApartmentRatingRepositoryImpl implements ReactiveApartmentRatingRepository {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveApartmentRatingRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<ApartmentEntity> applyRating(String apartmentId, Integer rating, int delta) {
+        Query byId = new Query(Criteria.where("id").is(apartmentId));
+
+        // Aceleași două scrieri ca în aplicația MVC: $inc atomic, apoi media calculată pe server
+        Update increment = new Update().inc("ratingCount", delta).set("updatedAt", Instant.now());
+        if (rating != null) {
+            increment.inc("ratingSum", (long) rating * delta).inc("ratingHistogram." + rating, delta);
+        }
+        AggregationUpdate average = AggregationUpdate.update()
+                .set("averageRating").toValue(ConditionalOperators.when(Criteria.where("ratingCount").gt(0))
+                        .thenValueOf(ArithmeticOperators.valueOf("ratingSum").divideBy("ratingCount"))
+                        .otherwise(Aggregation.REMOVE));
+
+        return mongoTemplate.updateFirst(byId, increment, ApartmentEntity.class)
+                .filter(result -> result.getMatchedCount() > 0)
+                .flatMap(result -> mongoTemplate.findAndModify(byId, average,
+                        FindAndModifyOptions.options().returnNew(true), ApartmentEntity.class));
+    }
+}
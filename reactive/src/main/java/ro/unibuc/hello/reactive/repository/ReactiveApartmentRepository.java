@@ -0,0 +1,35 @@
+package ro.unibuc.hello.reactive.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import ro.unibuc.hello.data.ApartmentEntity;
+
+import java.util.Collection;
+
+public interface ReactiveApartmentRepository extends ReactiveMongoRepository<ApartmentEntity, String>,
+        ReactiveApartmentRatingRepository, ReactiveApartmentSearchRepository {
+
+    // Exportul NDJSON: driverul cere loturi de cel mult 500 de documente și doar la cererea abonatului,
+    // deci un client lent oprește citirea din cursor în loc să umple memoria
+    @Meta(cursorBatchSize = 500)
+    Flux<ApartmentEntity> streamAllBy();
+
+    // Paginare keyset pe _id, cu aceleași cursoare ca IdPages din aplicația MVC
+    Flux<ApartmentEntity> findAllByOrderByIdAsc(Limit limit);
+
+    Flux<ApartmentEntity> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    // Cursor cu id String (vezi IdPages): id-urile String mai mari, apoi toate ObjectId-urile, care în ordinea
+    // tipurilor BSON vin după orice String
+    @Query(value = "{'$or': [{'_id': {'$gt': ?0}}, {'_id': {'$type': 'objectId'}}]}", sort = "{'_id': 1}")
+    Flux<ApartmentEntity> findAfterStringIdOrderByIdAsc(String id, Limit limit);
+
+    // Apartamentele libere într-un interval: toate cele care nu au rezervări suprapuse
+    Flux<ApartmentEntity> findByIdNotIn(Collection<String> bookedApartmentIds);
+
+    @Query(value = "{'_id': {'$nin': ?0}}", fields = "{'_id': 1}")
+    Flux<ApartmentEntity> findIdsNotIn(Collection<String> bookedApartmentIds);
+}
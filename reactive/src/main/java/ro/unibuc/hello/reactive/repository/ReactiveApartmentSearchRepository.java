@@ -0,0 +1,17 @@
+package ro.unibuc.hello.reactive.repository;
+
+import reactor.core.publisher.Flux;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.dto.ApartmentSearchFilter;
+
+import java.util.List;
+
+// Ca ApartmentSearchRepository: căutarea combinată rulată ca un singur query Mongo
+public interface ReactiveApartmentSearchRepository {
+
+    /**
+     * @param fields câmpurile returnate (proiecție); null sau gol pentru documentul complet
+     * @param limit  numărul maxim de rezultate; null pentru toate
+     */
+    Flux<ApartmentEntity> search(ApartmentSearchFilter filter, List<String> fields, Integer limit);
+}
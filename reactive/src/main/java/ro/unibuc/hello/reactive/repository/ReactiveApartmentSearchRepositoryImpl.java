@@ -0,0 +1,38 @@
+package ro.unibuc.hello.reactive.repository;
+
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.dto.ApartmentSearchFilter;
+import ro.unibuc.hello.repository.ApartmentSearchCriteria;
+
+import java.util.List;
+
+public class ReactiveApartmentSearchRepositoryImpl implements ReactiveApartmentSearchRepository {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveApartmentSearchRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Aceleași criterii ca în aplicația MVC; vocabularul de facilități se citește doar când e nevoie de el
+    @Override
+    public Flux<ApartmentEntity> search(ApartmentSearchFilter filter, List<String> fields, Integer limit) {
+        Mono<List<String>> amenityVocabulary = ApartmentSearchCriteria.hasAmenityFilter(filter)
+                ? mongoTemplate.findDistinct(new Query(), "amenityKeys", ApartmentEntity.class, String.class).collectList()
+                : Mono.just(List.of());
+        return amenityVocabulary.flatMapMany(vocabulary -> {
+            Query query = new Query(ApartmentSearchCriteria.of(filter, vocabulary));
+            if (fields != null && !fields.isEmpty()) {
+                query.fields().include(fields.toArray(new String[0]));
+            }
+            if (limit != null) {
+                query.limit(limit);
+            }
+            return mongoTemplate.find(query, ApartmentEntity.class);
+        });
+    }
+}
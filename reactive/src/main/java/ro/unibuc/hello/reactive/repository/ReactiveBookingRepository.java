@@ -0,0 +1,41 @@
+package ro.unibuc.hello.reactive.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.hello.data.BookingEntity;
+
+import java.time.LocalDate;
+
+public interface ReactiveBookingRepository extends ReactiveMongoRepository<BookingEntity, String> {
+
+    // O rezervare existentă se suprapune dacă începe cel târziu în endDate și se termină cel devreme în startDate
+    Mono<Boolean> existsByApartmentIdAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
+            String apartmentId, LocalDate endDate, LocalDate startDate);
+
+    // Doar existența, pe indexul (apartmentId, userId)
+    Mono<Boolean> existsByApartmentIdAndUserId(String apartmentId, String userId);
+
+    Flux<BookingEntity> findByApartmentId(String apartmentId);
+
+    Flux<BookingEntity> findByApartmentIdAndUserId(String apartmentId, String userId);
+
+    // Doar apartmentId-ul rezervărilor care se suprapun cu [startDate, endDate]
+    @Query(value = "{'startDate': {'$lte': ?1}, 'endDate': {'$gte': ?0}}", fields = "{'apartmentId': 1}")
+    Flux<BookingEntity> findBookedApartmentIds(LocalDate startDate, LocalDate endDate);
+
+    @Meta(cursorBatchSize = 500)
+    Flux<BookingEntity> streamAllBy();
+
+    Flux<BookingEntity> findAllByOrderByIdAsc(Limit limit);
+
+    Flux<BookingEntity> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    // Cursor cu id String (vezi IdPages): id-urile String mai mari, apoi toate ObjectId-urile, care în ordinea
+    // tipurilor BSON vin după orice String
+    @Query(value = "{'$or': [{'_id': {'$gt': ?0}}, {'_id': {'$type': 'objectId'}}]}", sort = "{'_id': 1}")
+    Flux<BookingEntity> findAfterStringIdOrderByIdAsc(String id, Limit limit);
+}
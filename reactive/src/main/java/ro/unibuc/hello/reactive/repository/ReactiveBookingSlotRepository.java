@@ -0,0 +1,11 @@
+package ro.unibuc.hello.reactive.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+import ro.unibuc.hello.data.BookingSlotEntity;
+
+// Aceeași colecție booking_slots ca BookingSlotRepository; folosită doar în modul SLOTS
+public interface ReactiveBookingSlotRepository extends ReactiveMongoRepository<BookingSlotEntity, String> {
+
+    Mono<Long> deleteByBookingId(String bookingId);
+}
@@ -0,0 +1,18 @@
+package ro.unibuc.hello.reactive.repository;
+
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.dto.ReviewSort;
+
+public interface ReactiveReviewPageRepository {
+
+    // Ca ReviewPageRepository.findRatingPage: ordonate după (rating, id), cu rating în (ratingAbove, ratingAtMost]
+    // și după poziția (afterRating, afterId) a cursorului; limitele și cursorul pot lipsi (null), limit 0 înseamnă toate
+    Flux<ReviewEntity> findRatingPage(Integer ratingAbove, Integer ratingAtMost, Sort.Direction direction,
+                                      Integer afterRating, String afterId, int limit);
+
+    // Ca ReviewPageRepository.findApartmentReviewsPage: review-urile apartamentului descrescător după câmpul
+    // ordinii, cu _id ca departajare, după poziția (afterValue, afterId) a cursorului
+    Flux<ReviewEntity> findApartmentReviewsPage(String apartmentId, ReviewSort sort, Object afterValue, String afterId, int limit);
+}
@@ -0,0 +1,57 @@
+package ro.unibuc.hello.reactive.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.dto.ReviewSort;
+import ro.unibuc.hello.repository.ReviewKeysetCriteria;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReactiveReviewPageRepositoryImpl implements ReactiveReviewPageRepository {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveReviewPageRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<ReviewEntity> findApartmentReviewsPage(String apartmentId, ReviewSort sort, Object afterValue, String afterId, int limit) {
+        Criteria criteria = Criteria.where("apartmentId").is(apartmentId);
+        if (afterId != null) {
+            criteria = new Criteria().andOperator(criteria,
+                    ReviewKeysetCriteria.after(sort.field(), afterValue, afterId, Sort.Direction.DESC));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, sort.field(), "id"))
+                .limit(limit);
+        return mongoTemplate.find(query, ReviewEntity.class);
+    }
+
+    @Override
+    public Flux<ReviewEntity> findRatingPage(Integer ratingAbove, Integer ratingAtMost, Sort.Direction direction,
+                                             Integer afterRating, String afterId, int limit) {
+        List<Criteria> clauses = new ArrayList<>();
+        if (ratingAbove != null) {
+            clauses.add(Criteria.where("rating").gt(ratingAbove));
+        }
+        if (ratingAtMost != null) {
+            clauses.add(Criteria.where("rating").lte(ratingAtMost));
+        }
+        if (afterId != null) {
+            clauses.add(ReviewKeysetCriteria.after("rating", afterRating, afterId, direction));
+        }
+        Criteria criteria = clauses.isEmpty() ? new Criteria() : new Criteria().andOperator(clauses);
+        Query query = new Query(criteria)
+                .with(Sort.by(direction, "rating", "id"));
+        if (limit > 0) {
+            query.limit(limit);
+        }
+        return mongoTemplate.find(query, ReviewEntity.class);
+    }
+}
@@ -0,0 +1,7 @@
+package ro.unibuc.hello.reactive.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import ro.unibuc.hello.data.ReviewEntity;
+
+public interface ReactiveReviewRepository extends ReactiveMongoRepository<ReviewEntity, String>, ReactiveReviewPageRepository {
+}
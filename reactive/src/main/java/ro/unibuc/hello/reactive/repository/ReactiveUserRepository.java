@@ -0,0 +1,8 @@
+package ro.unibuc.hello.reactive.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import ro.unibuc.hello.data.UserEntity;
+
+// Folosit doar pentru verificările de existență la crearea apartamentelor și rezervărilor
+public interface ReactiveUserRepository extends ReactiveMongoRepository<UserEntity, String> {
+}
@@ -0,0 +1,195 @@
+package ro.unibuc.hello.reactive.service;
+
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.dto.ApartmentSearchFilter;
+import ro.unibuc.hello.dto.CursorPage;
+import ro.unibuc.hello.exception.InvalidInputException;
+import ro.unibuc.hello.reactive.config.CacheSyncDeletions;
+import ro.unibuc.hello.reactive.repository.ReactiveApartmentRepository;
+import ro.unibuc.hello.reactive.repository.ReactiveBookingRepository;
+import ro.unibuc.hello.reactive.repository.ReactiveUserRepository;
+import ro.unibuc.hello.service.ApartmentSearchValidation;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class ReactiveApartmentService {
+
+    private final ReactiveApartmentRepository apartmentRepository;
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveBookingRepository bookingRepository;
+    private final CacheSyncDeletions cacheSyncDeletions;
+
+    public ReactiveApartmentService(ReactiveApartmentRepository apartmentRepository, ReactiveUserRepository userRepository,
+                                    ReactiveBookingRepository bookingRepository, CacheSyncDeletions cacheSyncDeletions) {
+        this.apartmentRepository = apartmentRepository;
+        this.userRepository = userRepository;
+        this.bookingRepository = bookingRepository;
+        this.cacheSyncDeletions = cacheSyncDeletions;
+    }
+
+    public Flux<ApartmentEntity> getAllApartments() {
+        return apartmentRepository.findAll();
+    }
+
+    public Mono<CursorPage<ApartmentEntity>> getApartments(String cursor, int limit) {
+        return ReactivePages.page("apartments", cursor, limit,
+                apartmentRepository::findAllByOrderByIdAsc,
+                apartmentRepository::findByIdGreaterThanOrderByIdAsc,
+                apartmentRepository::findAfterStringIdOrderByIdAsc,
+                ApartmentEntity::getId);
+    }
+
+    // Documentele se citesc din cursor pe măsură ce abonatul le cere
+    public Flux<ApartmentEntity> streamAllApartments() {
+        return apartmentRepository.streamAllBy();
+    }
+
+    public Mono<ApartmentEntity> getApartmentById(String id) {
+        return apartmentRepository.findById(id);
+    }
+
+    public Mono<ApartmentEntity> createApartment(ApartmentEntity apartment) {
+        return Validations.userExists(userRepository, apartment.getUserId())
+                .then(Mono.defer(() -> apartmentRepository.save(apartment)));
+    }
+
+    public Mono<Void> deleteApartment(String id) {
+        return apartmentRepository.deleteById(id)
+                .then(cacheSyncDeletions.record("apartments", id));
+    }
+
+    // Fără calendarul din memorie al aplicației MVC: ID-urile rezervate în interval vin dintr-un query,
+    // apoi citim apartamentele care nu sunt printre ele
+    public Flux<ApartmentEntity> findAvailableApartments(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return Flux.error(new InvalidInputException("Start date must not be after end date"));
+        }
+        return bookingRepository.findBookedApartmentIds(startDate, endDate)
+                .map(BookingEntity::getApartmentId)
+                .collect(Collectors.toSet())
+                .flatMapMany(apartmentRepository::findByIdNotIn);
+    }
+
+    public Mono<Boolean> isApartmentAvailable(String apartmentId, LocalDate startDate, LocalDate endDate) {
+        return bookingRepository.existsByApartmentIdAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
+                        apartmentId, endDate, startDate)
+                .map(overlaps -> !overlaps);
+    }
+
+    // Filtrele punctuale sunt cazuri particulare ale căutării combinate, cu validările și mesajele din
+    // ApartmentService; fără SearchResultCache, fiecare cerere ajunge la Mongo
+    public Flux<ApartmentEntity> getPetFriendlyApartments() {
+        return search(filter(null, null, null, null, null, null, true, null, null, null, null));
+    }
+
+    public Flux<ApartmentEntity> getApartmentsByNumberOfRooms(int numberOfRooms) {
+        if (numberOfRooms <= 0) {
+            return Flux.error(new InvalidInputException("Number of rooms must be greater than zero"));
+        }
+        return search(filter(null, null, null, null, numberOfRooms, null, null, null, null, null, null));
+    }
+
+    public Flux<ApartmentEntity> getApartmentsByNumberOfBathrooms(int numberOfBathrooms) {
+        if (numberOfBathrooms <= 0) {
+            return Flux.error(new InvalidInputException("Number of bathrooms must be greater than zero"));
+        }
+        return search(filter(null, null, null, null, null, numberOfBathrooms, null, null, null, null, null));
+    }
+
+    public Flux<ApartmentEntity> getApartmentsByMinimumSquareMeters(Double minSquareMeters) {
+        if (minSquareMeters == null || minSquareMeters < 0) {
+            return Flux.error(new InvalidInputException("Minimum square meters must be a non-negative value"));
+        }
+        return search(filter(null, null, minSquareMeters, null, null, null, null, null, null, null, null));
+    }
+
+    public Flux<ApartmentEntity> getApartmentsByMaxPrice(Double maxPrice) {
+        if (maxPrice == null || maxPrice < 0) {
+            return Flux.error(new InvalidInputException("Maximum price must be a non-negative value"));
+        }
+        return search(filter(null, maxPrice, null, null, null, null, null, null, null, null, null));
+    }
+
+    public Flux<ApartmentEntity> getApartmentsByAmenities(List<String> amenities, List<String> excludedAmenities) {
+        if (amenities == null || amenities.isEmpty()) {
+            return Flux.error(new InvalidInputException("Amenity must not be empty"));
+        }
+        return Flux.defer(() -> {
+            ApartmentSearchValidation.validateAmenities(amenities);
+            ApartmentSearchValidation.validateAmenities(excludedAmenities);
+            return apartmentRepository.search(new ApartmentSearchFilter(null, null, null, null, null, null, null, null,
+                    null, null, null, amenities, excludedAmenities), null, null);
+        });
+    }
+
+    public Flux<ApartmentEntity> getApartmentsBySmokingAllowed(boolean smokingAllowed) {
+        return search(filter(null, null, null, null, null, null, null, smokingAllowed, null, null, null));
+    }
+
+    public Flux<ApartmentEntity> getApartmentsByLocation(String location) {
+        if (location == null || location.trim().isEmpty()) {
+            return Flux.error(new InvalidInputException("Location must not be empty"));
+        }
+        return search(filter(null, null, null, null, null, null, null, null, null, location, null));
+    }
+
+    public Flux<ApartmentEntity> getApartmentsByPriceAndSquareMeters(
+            Double minPrice, Double maxPrice, Double minSquareMeters, Double maxSquareMeters) {
+        if (minPrice == null || minPrice < 0) {
+            return Flux.error(new InvalidInputException("Minimum price must be a non-negative value"));
+        }
+        if (maxPrice == null || maxPrice < 0) {
+            return Flux.error(new InvalidInputException("Maximum price must be a non-negative value"));
+        }
+        if (minPrice > maxPrice) {
+            return Flux.error(new InvalidInputException("Minimum price cannot be greater than maximum price"));
+        }
+        if (minSquareMeters == null || minSquareMeters < 0) {
+            return Flux.error(new InvalidInputException("Minimum square meters must be a non-negative value"));
+        }
+        if (maxSquareMeters == null || maxSquareMeters < 0) {
+            return Flux.error(new InvalidInputException("Maximum square meters must be a non-negative value"));
+        }
+        if (minSquareMeters > maxSquareMeters) {
+            return Flux.error(new InvalidInputException("Minimum square meters cannot be greater than maximum square meters"));
+        }
+        return search(filter(minPrice, maxPrice, minSquareMeters, maxSquareMeters, null, null, null, null, null, null, null));
+    }
+
+    public Flux<ApartmentEntity> getApartmentsByMinAverageRating(Double minAverageRating) {
+        if (minAverageRating == null) {
+            return Flux.error(new InvalidInputException("Minimum average rating must be specified"));
+        }
+        if (minAverageRating < 1 || minAverageRating > 5) {
+            return Flux.error(new InvalidInputException("Minimum average rating must be between 1 and 5"));
+        }
+        return search(filter(null, null, null, null, null, null, null, null, null, null, minAverageRating));
+    }
+
+    public Flux<ApartmentEntity> searchApartments(ApartmentSearchFilter filter, List<String> fields, Integer limit) {
+        return Flux.defer(() -> {
+            ApartmentSearchValidation.validate(filter);
+            ApartmentSearchValidation.validateProjection(fields, limit);
+            return apartmentRepository.search(filter, fields, limit);
+        });
+    }
+
+    private Flux<ApartmentEntity> search(ApartmentSearchFilter filter) {
+        return apartmentRepository.search(filter, null, null);
+    }
+
+    private static ApartmentSearchFilter filter(
+            Double minPrice, Double maxPrice, Double minSquareMeters, Double maxSquareMeters,
+            Integer numberOfRooms, Integer numberOfBathrooms, Boolean isPetFriendly, Boolean smokingAllowed,
+            String amenity, String location, Double minAverageRating) {
+        return new ApartmentSearchFilter(minPrice, maxPrice, minSquareMeters, maxSquareMeters,
+                numberOfRooms, numberOfBathrooms, isPetFriendly, smokingAllowed, amenity, location, minAverageRating);
+    }
+}
@@ -0,0 +1,157 @@
+package ro.unibuc.hello.reactive.service;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.data.BookingSlotEntity;
+import ro.unibuc.hello.reactive.config.CacheSyncDeletions;
+import ro.unibuc.hello.dto.CursorPage;
+import ro.unibuc.hello.reactive.repository.ReactiveApartmentRepository;
+import ro.unibuc.hello.reactive.repository.ReactiveBookingRepository;
+import ro.unibuc.hello.reactive.repository.ReactiveBookingSlotRepository;
+import ro.unibuc.hello.reactive.repository.ReactiveUserRepository;
+import ro.unibuc.hello.service.BookingCommitMode;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class ReactiveBookingService {
+
+    private final ReactiveBookingRepository bookingRepository;
+    private final ReactiveApartmentRepository apartmentRepository;
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveBookingSlotRepository bookingSlotRepository;
+    private final BookingCommitMode commitMode;
+    private final int maxStayDays;
+    private final CacheSyncDeletions cacheSyncDeletions;
+
+    public ReactiveBookingService(ReactiveBookingRepository bookingRepository,
+                                  ReactiveApartmentRepository apartmentRepository,
+                                  ReactiveUserRepository userRepository,
+                                  ReactiveBookingSlotRepository bookingSlotRepository,
+                                  @Value("${booking.commit-mode:DIRECT}") BookingCommitMode commitMode,
+                                  @Value("${booking.max-stay-days:365}") int maxStayDays,
+                                  CacheSyncDeletions cacheSyncDeletions) {
+        // Benzile din modul LANES sunt cozi din procesul MVC; o scriere de aici le-ar ocoli și ar putea
+        // suprapune rezervări, deci refuzăm pornirea în loc să degradăm în tăcere la DIRECT
+        if (commitMode == BookingCommitMode.LANES) {
+            throw new IllegalStateException("booking.commit-mode=LANES is not supported by the reactive module; "
+                    + "use DIRECT or SLOTS.");
+        }
+        this.bookingRepository = bookingRepository;
+        this.apartmentRepository = apartmentRepository;
+        this.userRepository = userRepository;
+        this.bookingSlotRepository = bookingSlotRepository;
+        this.commitMode = commitMode;
+        this.maxStayDays = maxStayDays;
+        this.cacheSyncDeletions = cacheSyncDeletions;
+    }
+
+    public Flux<BookingEntity> getAllBookings() {
+        return bookingRepository.findAll();
+    }
+
+    public Mono<CursorPage<BookingEntity>> getBookings(String cursor, int limit) {
+        return ReactivePages.page("bookings", cursor, limit,
+                bookingRepository::findAllByOrderByIdAsc,
+                bookingRepository::findByIdGreaterThanOrderByIdAsc,
+                bookingRepository::findAfterStringIdOrderByIdAsc,
+                BookingEntity::getId);
+    }
+
+    public Flux<BookingEntity> streamAllBookings() {
+        return bookingRepository.streamAllBy();
+    }
+
+    public Mono<BookingEntity> getBookingById(String id) {
+        return bookingRepository.findById(id);
+    }
+
+    // Aceleași reguli ca BookingService: în modul DIRECT verificarea suprapunerii și insert-ul nu sunt atomice
+    // împreună; în modul SLOTS indexul unic din booking_slots respinge suprapunerile, inclusiv față de
+    // rezervările făcute în același timp prin aplicația MVC
+    public Mono<BookingEntity> createBooking(BookingEntity booking) {
+        if (booking.getStartDate() == null || booking.getEndDate() == null) {
+            return Mono.error(new IllegalArgumentException("Start date and end date are required."));
+        }
+        if (booking.getEndDate().isBefore(booking.getStartDate())) {
+            return Mono.error(new IllegalArgumentException("End date must not be before start date."));
+        }
+        if (ChronoUnit.DAYS.between(booking.getStartDate(), booking.getEndDate()) + 1 > maxStayDays) {
+            return Mono.error(new IllegalArgumentException("A booking cannot be longer than " + maxStayDays + " days."));
+        }
+        Mono<Void> validations = Validations.apartmentExists(apartmentRepository, booking.getApartmentId())
+                .then(Validations.userExists(userRepository, booking.getUserId()));
+        if (commitMode == BookingCommitMode.SLOTS) {
+            return validations.then(Mono.defer(() -> createBookingWithSlots(booking)));
+        }
+        return validations
+                .then(bookingRepository.existsByApartmentIdAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
+                        booking.getApartmentId(), booking.getEndDate(), booking.getStartDate()))
+                .flatMap(overlaps -> overlaps
+                        ? Mono.error(new IllegalArgumentException("Apartment is not available for the selected dates."))
+                        : bookingRepository.save(booking));
+    }
+
+    // Ca BookingService.createBookingWithSlots: insert-ul ordonat al sloturilor, apoi rezervarea; la un conflict
+    // sau la o salvare eșuată sloturile deja scrise se șterg
+    private Mono<BookingEntity> createBookingWithSlots(BookingEntity booking) {
+        // Id-ul e mereu nou, ca în BookingService: un id trimis de client ar putea fi al altei rezervări
+        booking.setId(new ObjectId().toHexString());
+        Mono<Long> releaseSlots = bookingSlotRepository.deleteByBookingId(booking.getId());
+        return bookingSlotRepository.insert(BookingSlotEntity.forBooking(booking))
+                .then()
+                .onErrorResume(DuplicateKeyException.class, e -> releaseSlots.then(Mono.error(
+                        new IllegalArgumentException("Apartment is not available for the selected dates."))))
+                .then(Mono.defer(() -> bookingRepository.save(booking))
+                        .onErrorResume(e -> releaseSlots.then(Mono.error(e))));
+    }
+
+    public Mono<Void> deleteBooking(String id) {
+        // Sloturile se eliberează după rezervare, ca în BookingService; instanțele MVC care fac polling
+        // află de ștergere din jurnal
+        Mono<Void> deleted = bookingRepository.deleteById(id)
+                .then(cacheSyncDeletions.record("bookings", id));
+        if (commitMode == BookingCommitMode.SLOTS) {
+            return deleted.then(bookingSlotRepository.deleteByBookingId(id)).then();
+        }
+        return deleted;
+    }
+
+    public Mono<Boolean> isApartmentAvailable(String apartmentId, LocalDate startDate, LocalDate endDate) {
+        return Validations.apartmentExists(apartmentRepository, apartmentId)
+                .then(bookingRepository.existsByApartmentIdAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
+                        apartmentId, endDate, startDate))
+                .map(overlaps -> !overlaps);
+    }
+
+    public Flux<BookingEntity> getBookingsForApartment(String apartmentId) {
+        return bookingRepository.findByApartmentId(apartmentId);
+    }
+
+    public Flux<BookingEntity> getBookingsForApartmentAndUser(String apartmentId, String userId) {
+        return bookingRepository.findByApartmentIdAndUserId(apartmentId, userId);
+    }
+
+    // Aplicația MVC răspunde din AvailabilityCalendar; aici ID-urile rezervate vin dintr-un query și
+    // doar ID-urile apartamentelor rămase se citesc
+    public Mono<List<String>> findAvailableApartmentIds(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return Mono.error(new IllegalArgumentException("Start date must not be after end date."));
+        }
+        return bookingRepository.findBookedApartmentIds(startDate, endDate)
+                .map(BookingEntity::getApartmentId)
+                .collect(Collectors.toSet())
+                .flatMapMany(apartmentRepository::findIdsNotIn)
+                .map(ApartmentEntity::getId)
+                .collectList();
+    }
+}
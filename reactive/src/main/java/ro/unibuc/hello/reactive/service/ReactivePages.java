@@ -0,0 +1,57 @@
+package ro.unibuc.hello.reactive.service;
+
+import org.springframework.data.domain.Limit;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.hello.dto.CursorPage;
+import ro.unibuc.hello.util.IdPages;
+import ro.unibuc.hello.util.PageCursor;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * IdPages peste Flux: aceeași limită implicită și maximă și aceleași cursoare (listă | id), deci un client
+ * poate continua pe o instanță reactivă o paginare începută pe una MVC. O pagină are cel mult
+ * IdPages.MAX_LIMIT + 1 documente, așa că o strângem într-o listă ca să știm dacă mai urmează una.
+ */
+final class ReactivePages {
+
+    private ReactivePages() {
+    }
+
+    // Erorile (limită în afara [1, MAX_LIMIT], cursor invalid) ajung ca IllegalArgumentException în Mono
+    static <T> Mono<CursorPage<T>> page(String list, String cursor, int limit,
+                                        Function<Limit, Flux<T>> first,
+                                        BiFunction<String, Limit, Flux<T>> after,
+                                        BiFunction<String, Limit, Flux<T>> afterStringId,
+                                        Function<T, String> idOf) {
+        return Mono.defer(() -> {
+            if (limit < 1 || limit > IdPages.MAX_LIMIT) {
+                return Mono.error(new IllegalArgumentException("Limit must be between 1 and " + IdPages.MAX_LIMIT));
+            }
+            Flux<T> items;
+            if (cursor == null) {
+                items = first.apply(Limit.of(limit + 1));
+            } else {
+                String[] parts = PageCursor.decode(cursor, 2);
+                if (!list.equals(parts[0])) {
+                    return Mono.error(new IllegalArgumentException("Cursor does not belong to this list"));
+                }
+                // Ca în IdPages: după un cursor String urmează și toate ObjectId-urile
+                items = (IdPages.isObjectId(parts[1]) ? after : afterStringId).apply(parts[1], Limit.of(limit + 1));
+            }
+            return items.collectList().map(fetched -> trim(fetched, limit, last -> PageCursor.encode(list, idOf.apply(last))));
+        });
+    }
+
+    // Păstrează primele limit elemente; cel în plus (dacă există) arată că urmează o pagină
+    static <T> CursorPage<T> trim(List<T> fetched, int limit, Function<T, String> cursorOf) {
+        if (fetched.size() <= limit) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> page = fetched.subList(0, limit);
+        return new CursorPage<>(page, cursorOf.apply(page.get(limit - 1)));
+    }
+}
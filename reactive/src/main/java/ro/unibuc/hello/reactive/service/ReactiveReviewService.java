@@ -0,0 +1,188 @@
+package ro.unibuc.hello.reactive.service;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.hello.data.ReactionEntity;
+import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.dto.CursorPage;
+import ro.unibuc.hello.dto.ReviewSort;
+import ro.unibuc.hello.exception.InvalidInputException;
+import ro.unibuc.hello.reactive.repository.ReactiveApartmentRepository;
+import ro.unibuc.hello.reactive.repository.ReactiveBookingRepository;
+import ro.unibuc.hello.reactive.repository.ReactiveReviewRepository;
+import ro.unibuc.hello.util.PageCursor;
+
+import java.time.Instant;
+
+@Service
+public class ReactiveReviewService {
+
+    private static final int GOOD_RATING_THRESHOLD = 3;
+    private static final int MAX_REVIEWS_PAGE_SIZE = 100;
+
+    // Aceleași nume de listă ca în ReviewService, deci cursoarele sunt interschimbabile între cele două aplicații
+    private enum RatingView { ALL, GOOD, BAD }
+
+    private final ReactiveReviewRepository reviewRepository;
+    private final ReactiveBookingRepository bookingRepository;
+    private final ReactiveApartmentRepository apartmentRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveReviewService(ReactiveReviewRepository reviewRepository,
+                                 ReactiveBookingRepository bookingRepository,
+                                 ReactiveApartmentRepository apartmentRepository,
+                                 ReactiveMongoTemplate mongoTemplate) {
+        this.reviewRepository = reviewRepository;
+        this.bookingRepository = bookingRepository;
+        this.apartmentRepository = apartmentRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public Mono<ReviewEntity> getReviewById(String id) {
+        return reviewRepository.findById(id);
+    }
+
+    public Mono<ReviewEntity> createReview(ReviewEntity review) {
+        if (review.getRating() == null) {
+            return Mono.error(new IllegalArgumentException("Rating is required"));
+        }
+        if (review.getRating() < 1 || review.getRating() > 5) {
+            return Mono.error(new IllegalArgumentException("Rating must be between 1 and 5"));
+        }
+        if (review.getApartmentId() == null || review.getUserId() == null) {
+            return Mono.error(new IllegalArgumentException("User must have booked the apartment before leaving a review."));
+        }
+
+        return bookingRepository.existsByApartmentIdAndUserId(review.getApartmentId(), review.getUserId())
+                .flatMap(hasBooked -> {
+                    if (!hasBooked) {
+                        return Mono.error(new IllegalArgumentException("User must have booked the apartment before leaving a review."));
+                    }
+                    review.setCreatedAt(Instant.now());
+                    // insert, ca un id trimis de client să nu suprascrie un review existent
+                    return reviewRepository.insert(review)
+                            .onErrorMap(DuplicateKeyException.class,
+                                    e -> new InvalidInputException("Review with id " + review.getId() + " already exists"));
+                })
+                .flatMap(saved -> applyRating(saved, 1).thenReturn(saved));
+    }
+
+    // Ștergerea atomică întoarce review-ul șters, deci ratingul lui se scoade din agregate o singură dată
+    public Mono<Void> deleteReview(String id) {
+        Query byId = new Query(Criteria.where("id").is(id));
+        return mongoTemplate.findAndRemove(byId, ReviewEntity.class)
+                .flatMap(removed -> applyRating(removed, -1)
+                        .then(mongoTemplate.remove(new Query(Criteria.where("reviewId").is(id)), ReactionEntity.class)))
+                .then();
+    }
+
+    private Mono<Void> applyRating(ReviewEntity review, int delta) {
+        if (review.getApartmentId() == null) {
+            return Mono.empty();
+        }
+        return apartmentRepository.applyRating(review.getApartmentId(), review.getRating(), delta).then();
+    }
+
+    // Listele complete, citite din cursor fără a fi strânse în memorie
+    public Flux<ReviewEntity> getAllReviewsSortedByRating() {
+        return reviewRepository.findRatingPage(null, null, Sort.Direction.DESC, null, null, 0);
+    }
+
+    public Flux<ReviewEntity> getGoodReviews() {
+        return reviewRepository.findRatingPage(GOOD_RATING_THRESHOLD, null, Sort.Direction.DESC, null, null, 0);
+    }
+
+    public Flux<ReviewEntity> getBadReviews() {
+        return reviewRepository.findRatingPage(null, GOOD_RATING_THRESHOLD, Sort.Direction.ASC, null, null, 0);
+    }
+
+    public Mono<CursorPage<ReviewEntity>> getAllReviewsSortedByRating(String after, int limit) {
+        return ratingPage(RatingView.ALL, null, null, Sort.Direction.DESC, after, limit);
+    }
+
+    public Mono<CursorPage<ReviewEntity>> getGoodReviews(String after, int limit) {
+        return ratingPage(RatingView.GOOD, GOOD_RATING_THRESHOLD, null, Sort.Direction.DESC, after, limit);
+    }
+
+    public Mono<CursorPage<ReviewEntity>> getBadReviews(String after, int limit) {
+        return ratingPage(RatingView.BAD, null, GOOD_RATING_THRESHOLD, Sort.Direction.ASC, after, limit);
+    }
+
+    private Mono<CursorPage<ReviewEntity>> ratingPage(RatingView view, Integer ratingAbove, Integer ratingAtMost,
+                                                      Sort.Direction direction, String after, int limit) {
+        return Mono.defer(() -> {
+            if (limit < 1 || limit > MAX_REVIEWS_PAGE_SIZE) {
+                return Mono.error(new IllegalArgumentException("Limit must be between 1 and " + MAX_REVIEWS_PAGE_SIZE));
+            }
+            Integer afterRating = null;
+            String afterId = null;
+            if (after != null) {
+                // listă | rating | id-ul ultimului review de pe pagina anterioară
+                String[] parts = PageCursor.decode(after, 3);
+                if (!view.name().equals(parts[0])) {
+                    return Mono.error(new IllegalArgumentException("Cursor does not belong to this list"));
+                }
+                afterRating = (Integer) parseSortValue(ReviewSort.RATING, parts[1]);
+                afterId = parts[2];
+            }
+            return reviewRepository.findRatingPage(ratingAbove, ratingAtMost, direction, afterRating, afterId, limit + 1)
+                    .collectList()
+                    .map(reviews -> ReactivePages.trim(reviews, limit,
+                            last -> PageCursor.encode(view.name(), sortValue(ReviewSort.RATING, last), last.getId())));
+        });
+    }
+
+    // Ca ReviewService.getApartmentReviews, cu același format de cursor (sort | valoarea cheii | id)
+    public Mono<CursorPage<ReviewEntity>> getApartmentReviews(String apartmentId, ReviewSort sort, String cursor, int limit) {
+        return Mono.defer(() -> {
+            if (limit < 1 || limit > MAX_REVIEWS_PAGE_SIZE) {
+                return Mono.error(new IllegalArgumentException("Limit must be between 1 and " + MAX_REVIEWS_PAGE_SIZE));
+            }
+            Object afterValue = null;
+            String afterId = null;
+            if (cursor != null) {
+                String[] parts = PageCursor.decode(cursor, 3);
+                if (!sort.name().equals(parts[0])) {
+                    return Mono.error(new IllegalArgumentException("Cursor does not match sort " + sort));
+                }
+                afterValue = parseSortValue(sort, parts[1]);
+                afterId = parts[2];
+            }
+            return reviewRepository.findApartmentReviewsPage(apartmentId, sort, afterValue, afterId, limit + 1)
+                    .collectList()
+                    .map(reviews -> ReactivePages.trim(reviews, limit,
+                            last -> PageCursor.encode(sort.name(), sortValue(sort, last), last.getId())));
+        });
+    }
+
+    // Un review fără valoare pentru cheie (fără rating sau createdAt) se codifică "" și se decodifică null
+    private static String sortValue(ReviewSort sort, ReviewEntity review) {
+        Object value = switch (sort) {
+            case RATING -> review.getRating();
+            case RECENT -> review.getCreatedAt() != null ? review.getCreatedAt().toEpochMilli() : null;
+            case LIKES -> review.getLikeCount();
+        };
+        return value != null ? String.valueOf(value) : "";
+    }
+
+    private static Object parseSortValue(ReviewSort sort, String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return switch (sort) {
+                case RATING -> Integer.valueOf(value);
+                case RECENT -> Instant.ofEpochMilli(Long.parseLong(value));
+                case LIKES -> Long.valueOf(value);
+            };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
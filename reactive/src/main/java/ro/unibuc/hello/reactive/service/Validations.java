@@ -0,0 +1,27 @@
+package ro.unibuc.hello.reactive.service;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Mono;
+
+// Verificările de existență comune serviciilor; mesajele sunt aceleași ca în serviciile MVC
+final class Validations {
+
+    private Validations() {
+    }
+
+    static Mono<Void> userExists(ReactiveCrudRepository<?, String> userRepository, String userId) {
+        return exists(userRepository, userId, "User with ID " + userId + " does not exist.");
+    }
+
+    static Mono<Void> apartmentExists(ReactiveCrudRepository<?, String> apartmentRepository, String apartmentId) {
+        return exists(apartmentRepository, apartmentId, "Apartment with ID " + apartmentId + " does not exist.");
+    }
+
+    private static Mono<Void> exists(ReactiveCrudRepository<?, String> repository, String id, String message) {
+        if (id == null) {
+            return Mono.error(new IllegalArgumentException(message));
+        }
+        return repository.existsById(id)
+                .flatMap(exists -> exists ? Mono.<Void>empty() : Mono.error(new IllegalArgumentException(message)));
+    }
+}
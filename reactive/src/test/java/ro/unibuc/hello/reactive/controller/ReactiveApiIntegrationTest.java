@@ -0,0 +1,309 @@
+package ro.unibuc.hello.reactive.controller;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.data.UserEntity;
+import ro.unibuc.hello.reactive.repository.ReactiveApartmentRepository;
+import ro.unibuc.hello.reactive.repository.ReactiveBookingRepository;
+import ro.unibuc.hello.reactive.repository.ReactiveBookingSlotRepository;
+import ro.unibuc.hello.reactive.repository.ReactiveReviewRepository;
+import ro.unibuc.hello.reactive.repository.ReactiveUserRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@Testcontainers
+@Tag("IntegrationTest")
+public class ReactiveApiIntegrationTest {
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0.20")
+            .withExposedPorts(27017)
+            .withSharding();
+
+    @BeforeAll
+    public static void setUp() {
+        mongoDBContainer.start();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        mongoDBContainer.stop();
+    }
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        final String MONGO_URL = "mongodb://host.docker.internal:";
+        final String PORT = String.valueOf(mongoDBContainer.getMappedPort(27017));
+
+        registry.add("mongodb.connection.url", () -> MONGO_URL + PORT);
+        // Rezervările trec prin booking_slots, deci testele de suprapunere acoperă și sloturile
+        registry.add("booking.commit-mode", () -> "SLOTS");
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Autowired
+    private ReactiveApartmentRepository apartmentRepository;
+
+    @Autowired
+    private ReactiveBookingRepository bookingRepository;
+
+    @Autowired
+    private ReactiveBookingSlotRepository bookingSlotRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private ReactiveReviewRepository reviewRepository;
+
+    private UserEntity user;
+    private ApartmentEntity apartment;
+
+    @BeforeEach
+    public void cleanUpAndAddTestData() {
+        reviewRepository.deleteAll()
+                .then(bookingRepository.deleteAll())
+                .then(bookingSlotRepository.deleteAll())
+                .then(apartmentRepository.deleteAll())
+                .then(userRepository.deleteAll())
+                .block();
+
+        user = userRepository.save(new UserEntity("John Doe", "john.doe@example.com")).block();
+        apartment = apartmentRepository.save(new ApartmentEntity("Luxury Apartment", "București", 250.0, user.getId(),
+                3, 2, true, List.of("Wi-Fi", "TV"), 90.0, false)).block();
+    }
+
+    @Test
+    public void getAllBookings_PagesWithCursorHeaders() {
+        Flux.range(0, 5)
+                .concatMap(i -> bookingRepository.save(new BookingEntity(
+                        LocalDate.of(2025, 1, 1).plusDays(10L * i), LocalDate.of(2025, 1, 5).plusDays(10L * i),
+                        apartment.getId(), user.getId())))
+                .blockLast();
+
+        String cursor = webTestClient.get().uri("/bookings?limit=3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists("Link")
+                .expectBodyList(BookingEntity.class).hasSize(3)
+                .returnResult()
+                .getResponseHeaders().getFirst(PageResponses.NEXT_CURSOR_HEADER);
+
+        webTestClient.get().uri("/bookings?limit=3&cursor={cursor}", cursor)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(PageResponses.NEXT_CURSOR_HEADER)
+                .expectBodyList(BookingEntity.class).hasSize(2);
+
+        webTestClient.get().uri("/bookings?unpaged=true")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BookingEntity.class).hasSize(5);
+
+        webTestClient.get().uri("/bookings?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void streamApartments_WritesNdjsonUnderBackpressure() {
+        Flux.range(0, 1200)
+                .map(i -> new ApartmentEntity("Apartment " + i, "Cluj-Napoca", 100.0 + i, user.getId(),
+                        2, 1, false, List.of("Wi-Fi"), 50.0, false))
+                .concatMap(apartmentRepository::save, 64)
+                .blockLast();
+
+        // Clientul cere câte 10 documente odată; răspunsul trebuie totuși să se termine complet
+        Flux<ApartmentEntity> stream = webTestClient.get().uri("/apartments")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(ApartmentEntity.class)
+                .getResponseBody()
+                .limitRate(10);
+
+        StepVerifier.create(stream.count())
+                .expectNext(1201L)
+                .verifyComplete();
+    }
+
+    @Test
+    public void createBooking_RejectsOverlap() {
+        BookingEntity booking = new BookingEntity(LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 10),
+                apartment.getId(), user.getId());
+
+        webTestClient.post().uri("/bookings").bodyValue(booking)
+                .exchange()
+                .expectStatus().isCreated();
+
+        BookingEntity overlapping = new BookingEntity(LocalDate.of(2025, 4, 10), LocalDate.of(2025, 4, 12),
+                apartment.getId(), user.getId());
+        webTestClient.post().uri("/bookings").bodyValue(overlapping)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Apartment is not available for the selected dates.");
+    }
+
+    @Test
+    public void deleteBooking_ReleasesSlots() {
+        BookingEntity booking = new BookingEntity(LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 3),
+                apartment.getId(), user.getId());
+
+        BookingEntity created = webTestClient.post().uri("/bookings").bodyValue(booking)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(BookingEntity.class)
+                .returnResult().getResponseBody();
+        assertEquals(3L, bookingSlotRepository.count().block());
+
+        webTestClient.delete().uri("/bookings/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals(0L, bookingSlotRepository.count().block());
+        // Instanțele MVC care fac polling văd ștergerea din jurnal
+        assertEquals(1L, mongoTemplate.count(new Query(Criteria.where("collection").is("bookings")
+                .and("entityId").is(created.getId())), "cache_sync_deletions").block());
+
+        // Zilele eliberate pot fi rezervate din nou
+        webTestClient.post().uri("/bookings").bodyValue(new BookingEntity(LocalDate.of(2025, 5, 2),
+                        LocalDate.of(2025, 5, 4), apartment.getId(), user.getId()))
+                .exchange()
+                .expectStatus().isCreated();
+    }
+
+    @Test
+    public void searchAndFilters_UseMvcRules() {
+        apartmentRepository.save(new ApartmentEntity("Studio", "Cluj", 90.0, user.getId(),
+                1, 1, false, List.of("Wi-Fi"), 30.0, true)).block();
+
+        webTestClient.get().uri("/apartments/search?location=bucuresti&amenity=wi-fi&maxPrice=300")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ApartmentEntity.class).hasSize(1);
+        webTestClient.get().uri("/apartments/amenities?amenity=wi-fi&excludedAmenity=tv")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ApartmentEntity.class).hasSize(1);
+        webTestClient.get().uri("/apartments/filter?minPrice=0&maxPrice=100&minSquareMeters=0&maxSquareMeters=50")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ApartmentEntity.class).hasSize(1);
+        webTestClient.get().uri("/apartments/pet-friendly")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ApartmentEntity.class).hasSize(1);
+
+        webTestClient.get().uri("/apartments/rooms/0")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Number of rooms must be greater than zero");
+        webTestClient.get().uri("/apartments/search?fields=password")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Unknown field: password");
+    }
+
+    @Test
+    public void availabilityEndpoints_SeeBookings() {
+        bookingRepository.save(new BookingEntity(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 5),
+                apartment.getId(), user.getId())).block();
+
+        webTestClient.get().uri("/apartments/{id}/available?startDate=2025-06-05&endDate=2025-06-07", apartment.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Boolean.class).isEqualTo(false);
+        webTestClient.get().uri("/apartments/available?startDate=2025-06-06&endDate=2025-06-07")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ApartmentEntity.class).hasSize(1);
+        webTestClient.get().uri("/bookings/available-apartments?startDate=2025-06-03&endDate=2025-06-04")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.count").isEqualTo(0);
+        webTestClient.get().uri("/bookings/check-availability/missing?startDate=2025-06-03&endDate=2025-06-04")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Apartment with ID missing does not exist.");
+        webTestClient.get().uri("/bookings/by-apartment/{id}", apartment.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BookingEntity.class).hasSize(1);
+    }
+
+    @Test
+    public void createAndDeleteReview_UpdateRatingAggregates() {
+        bookingRepository.save(new BookingEntity(LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 10),
+                apartment.getId(), user.getId())).block();
+
+        IntStream.of(5, 4).forEach(rating -> webTestClient.post().uri("/reviews")
+                .bodyValue(new ReviewEntity("Nice", rating, apartment.getId(), user.getId()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Review successfully created!"));
+
+        ApartmentEntity rated = apartmentRepository.findById(apartment.getId()).block();
+        assertEquals(2, rated.getRatingCount());
+        assertEquals(4.5, rated.getAverageRating());
+
+        String goodCursor = webTestClient.get().uri("/reviews/good?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ReviewEntity.class).hasSize(1)
+                .returnResult()
+                .getResponseHeaders().getFirst(PageResponses.NEXT_CURSOR_HEADER);
+        assertNotNull(goodCursor);
+
+        // Cursorul listei "good" nu este valid pentru lista "bad"
+        webTestClient.get().uri("/reviews/bad?cursor={cursor}", goodCursor)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        String reviewId = reviewRepository.findAll().filter(review -> review.getRating() == 5).blockFirst().getId();
+        webTestClient.delete().uri("/reviews/{id}", reviewId)
+                .exchange()
+                .expectStatus().isOk();
+
+        rated = apartmentRepository.findById(apartment.getId()).block();
+        assertEquals(1, rated.getRatingCount());
+        assertEquals(4.0, rated.getAverageRating());
+    }
+
+    @Test
+    public void createReview_WithoutBooking_IsRejected() {
+        webTestClient.post().uri("/reviews")
+                .bodyValue(new ReviewEntity("Nice", 5, apartment.getId(), user.getId()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("User must have booked the apartment before leaving a review.");
+    }
+}
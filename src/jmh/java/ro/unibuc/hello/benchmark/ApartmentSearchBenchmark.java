@@ -0,0 +1,120 @@
+package ro.unibuc.hello.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.dto.ApartmentSearchFilter;
+import ro.unibuc.hello.index.ApartmentSnapshot;
+import ro.unibuc.hello.service.ApartmentSearchMode;
+import ro.unibuc.hello.service.ApartmentSearchPredicate;
+import ro.unibuc.hello.service.ApartmentService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+/**
+ * Căutarea în memorie: lanțul de filtre cu Collectors.toList() după fiecare filtru (searchApartmentsJava)
+ * comparat cu predicatul compilat și evaluat într-o singură trecere peste snapshot-ul pe coloane,
+ * plus un filtru de preț pe coloana double[] față de Double-urile din entități.
+ * Rulare: ./gradlew jmh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ApartmentSearchBenchmark {
+
+    private static final List<String> LOCATIONS = Arrays.asList(
+            "București", "Cluj-Napoca", "Iași", "Timișoara", "Brașov", "Constanța", "Sibiu", "Oradea");
+    private static final List<String> AMENITIES = Arrays.asList(
+            "Wi-Fi", "TV", "balcon", "aer condiționat", "mașină de spălat", "parcare", "grădină");
+
+    @Param({"10000", "100000", "1000000"})
+    public int apartmentCount;
+
+    private List<ApartmentEntity> apartments;
+    private ApartmentSnapshot snapshot;
+    private ApartmentService apartmentService;
+    private ApartmentSearchFilter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        apartments = new ArrayList<>(apartmentCount);
+        for (int i = 0; i < apartmentCount; i++) {
+            ApartmentEntity apartment = new ApartmentEntity();
+            apartment.setId("a" + i);
+            apartment.setLocation(LOCATIONS.get(random.nextInt(LOCATIONS.size())));
+            apartment.setPricePerNight(50.0 + random.nextInt(450));
+            apartment.setSquareMeters(25.0 + random.nextInt(150));
+            apartment.setNumberOfRooms(1 + random.nextInt(5));
+            apartment.setNumberOfBathrooms(1 + random.nextInt(3));
+            apartment.setPetFriendly(random.nextBoolean());
+            apartment.setSmokingAllowed(random.nextInt(4) == 0);
+            List<String> amenities = new ArrayList<>();
+            for (String amenity : AMENITIES) {
+                if (random.nextInt(3) == 0) {
+                    amenities.add(amenity);
+                }
+            }
+            apartment.setAmenities(amenities);
+            apartments.add(apartment);
+        }
+
+        snapshot = ApartmentSnapshot.of(apartments);
+
+        // searchApartmentsJava nu folosește dependențele serviciului
+        apartmentService = new ApartmentService(null, null, null, null, null, null, null, null, null, ApartmentSearchMode.MEMORY);
+        // O căutare tipică: buget, 2 camere, fără fumat, locație și o facilitate
+        filter = new ApartmentSearchFilter(100.0, 300.0, null, null, 2, null, null, false, "balcon", "cluj", null);
+    }
+
+    @Benchmark
+    public void chainedCollectors(Blackhole blackhole) {
+        List<ReviewEntity> reviews = Collections.emptyList();
+        blackhole.consume(apartmentService.searchApartmentsJava(apartments, reviews, filter));
+    }
+
+    @Benchmark
+    public void fusedPredicate(Blackhole blackhole) {
+        // Compilarea (inclusiv estimarea selectivității) face parte din costul fiecărei cereri
+        IntPredicate predicate = ApartmentSearchPredicate.compile(filter, snapshot);
+        List<ApartmentEntity> result = new ArrayList<>();
+        for (int row = 0; row < snapshot.size(); row++) {
+            if (predicate.test(row)) {
+                result.add(snapshot.entity(row));
+            }
+        }
+        blackhole.consume(result);
+    }
+
+    @Benchmark
+    public void columnarPriceRange(Blackhole blackhole) {
+        // Doar coloana de prețuri, fără a atinge entitățile
+        int matches = 0;
+        for (int row = 0; row < snapshot.size(); row++) {
+            double price = snapshot.price(row);
+            if (price >= 100.0 && price <= 300.0) {
+                matches++;
+            }
+        }
+        blackhole.consume(matches);
+    }
+
+    @Benchmark
+    public void boxedPriceRange(Blackhole blackhole) {
+        int matches = 0;
+        for (ApartmentEntity apartment : apartments) {
+            Double price = apartment.getPricePerNight();
+            if (price != null && price >= 100.0 && price <= 300.0) {
+                matches++;
+            }
+        }
+        blackhole.consume(matches);
+    }
+}
@@ -0,0 +1,96 @@
+package ro.unibuc.hello.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Un fir virtual care se blochează într-un bloc synchronized (sau într-un apel nativ) rămâne „lipit” de firul
+ * purtător, iar cu prea multe astfel de fire cererile așteaptă după purtători, nu după Mongo. JVM-ul semnalează
+ * fiecare caz prin evenimentul JFR jdk.VirtualThreadPinned; îl citim în proces (RecordingStream) și îl
+ * transformăm în metrica virtual.threads.pinned{location}, unde location este clasa primului cadru din afara
+ * JDK-ului (ex. o clasă com.mongodb.internal... pentru un synchronized din driver).
+ * Pornit implicit doar când Tomcat rulează pe fire virtuale (spring.threads.virtual.enabled).
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    static final String SUBMIT_FAILED_EVENT = "jdk.VirtualThreadSubmitFailed";
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final List<String> JDK_PACKAGES = List.of("java.", "javax.", "jdk.", "sun.", "com.sun.");
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration threshold;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${virtual-threads.pinning.enabled:false}") boolean enabled,
+                                       @Value("${virtual-threads.pinning.threshold-ms:20}") long thresholdMs) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || stream != null) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.enable(SUBMIT_FAILED_EVENT);
+        stream.onEvent(PINNED_EVENT, this::recordPinned);
+        stream.onEvent(SUBMIT_FAILED_EVENT, event -> meterRegistry.counter("virtual.threads.submit.failed").increment());
+        stream.startAsync();
+        log.info("Recording virtual thread pinning longer than {} ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    private void recordPinned(RecordedEvent event) {
+        List<String> types = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames().stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(frame -> frame.getMethod().getType().getName())
+                .toList();
+        pinned(location(types), event.getDuration());
+    }
+
+    void pinned(String location, Duration duration) {
+        Timer.builder("virtual.threads.pinned")
+                .description("Time virtual threads spent blocked while pinned to their carrier")
+                .tag("location", location)
+                .register(meterRegistry)
+                .record(duration);
+    }
+
+    // Clasa primului cadru (de la vârful stivei) care nu aparține JDK-ului; "jdk" dacă nu există
+    static String location(List<String> frameTypes) {
+        for (String type : frameTypes) {
+            if (JDK_PACKAGES.stream().noneMatch(type::startsWith)) {
+                return type;
+            }
+        }
+        return "jdk";
+    }
+}
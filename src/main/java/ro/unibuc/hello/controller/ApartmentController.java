@@ -1,11 +1,20 @@
 package ro.unibuc.hello.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.dto.ApartmentSearchFilter;
+import ro.unibuc.hello.dto.ReviewSort;
 import ro.unibuc.hello.exception.InvalidInputException;
 import ro.unibuc.hello.service.ApartmentService;
+import ro.unibuc.hello.service.ReviewService;
+import ro.unibuc.hello.util.IdPages;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -15,14 +24,31 @@ import java.util.Optional;
 @RequestMapping("/apartments")
 public class ApartmentController {
     private final ApartmentService apartmentService;
+    private final ReviewService reviewService;
+    private final ObjectMapper objectMapper;
 
-    public ApartmentController(ApartmentService apartmentService) {
+    public ApartmentController(ApartmentService apartmentService, ReviewService reviewService, ObjectMapper objectMapper) {
         this.apartmentService = apartmentService;
+        this.reviewService = reviewService;
+        this.objectMapper = objectMapper;
     }
 
+    // Implicit o pagină în ordinea _id (limit, cursor; vezi PageResponses); lista completă doar cu unpaged=true
     @GetMapping
-    public List<ApartmentEntity> getAllApartments() {
-        return apartmentService.getAllApartments();
+    public ResponseEntity<List<ApartmentEntity>> getAllApartments(
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        if (unpaged) {
+            return ResponseEntity.ok(apartmentService.getAllApartments());
+        }
+        return PageResponses.of(apartmentService.getApartments(cursor, limit != null ? limit : IdPages.DEFAULT_LIMIT));
+    }
+
+    // Export: toate apartamentele ca NDJSON, scrise direct din cursor (Accept: application/x-ndjson)
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamApartments() {
+        return NdjsonResponses.of(objectMapper, apartmentService::streamAllApartments);
     }
 
     @GetMapping("/{id}")
@@ -60,6 +86,16 @@ public class ApartmentController {
         return apartmentService.isApartmentAvailable(id, startDate, endDate);
     }
 
+    // Endpoint: review-urile apartamentului, paginate ca /reviews (limit, cursor; vezi PageResponses)
+    @GetMapping("/{id}/reviews")
+    public ResponseEntity<List<ReviewEntity>> getApartmentReviews(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "RATING") ReviewSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return PageResponses.of(reviewService.getApartmentReviews(id, sort, cursor, limit));
+    }
+
     // Endpoint: Apartamente pet-friendly
     @GetMapping("/pet-friendly")
     public List<ApartmentEntity> getPetFriendlyApartments() {
@@ -92,8 +128,10 @@ public class ApartmentController {
 
     // Endpoint: Apartamente cu o anumită facilitate
     @GetMapping("/amenities")
-    public List<ApartmentEntity> getApartmentsByAmenity(@RequestParam String amenity) {
-        return apartmentService.getApartmentsByAmenity(amenity);
+    public List<ApartmentEntity> getApartmentsByAmenity(
+            @RequestParam List<String> amenity,
+            @RequestParam(required = false) List<String> excludedAmenity) {
+        return apartmentService.getApartmentsByAmenities(amenity, excludedAmenity);
     }
 
     // Endpoint: Apartamente unde fumatul este permis/interzis
@@ -129,11 +167,16 @@ public class ApartmentController {
             @RequestParam(required = false) Boolean smokingAllowed,
             @RequestParam(required = false) String amenity,
             @RequestParam(required = false) String location,
-            @RequestParam(required = false) Double minAverageRating) { // Adăugat aici
-        return apartmentService.searchApartments(
+            @RequestParam(required = false) Double minAverageRating, // Adăugat aici
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) List<String> amenities,
+            @RequestParam(required = false) List<String> excludedAmenities) {
+        ApartmentSearchFilter filter = new ApartmentSearchFilter(
                 minPrice, maxPrice, minSquareMeters, maxSquareMeters,
                 numberOfRooms, numberOfBathrooms, isPetFriendly, smokingAllowed,
-                amenity, location, minAverageRating);
+                amenity, location, minAverageRating, amenities, excludedAmenities);
+        return apartmentService.searchApartments(filter, fields, limit);
     }
     @GetMapping("/by-rating")
     public List<ApartmentEntity> getApartmentsByMinAverageRating(
@@ -146,4 +189,11 @@ public class ApartmentController {
     public String handleInvalidInputException(InvalidInputException ex) {
         return ex.getMessage();
     }
+
+    // Parametri de paginare invalizi (mărime, cursor)
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ex.getMessage();
+    }
 }
\ No newline at end of file
@@ -1,11 +1,16 @@
 package ro.unibuc.hello.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.exception.ServiceUnavailableException;
 import ro.unibuc.hello.service.BookingService;
+import ro.unibuc.hello.util.IdPages;
 
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -17,14 +22,29 @@ import java.util.Optional;
 @RequestMapping("/bookings")
 public class BookingController {
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.objectMapper = objectMapper;
     }
 
+    // Implicit o pagină în ordinea _id (limit, cursor; vezi PageResponses); lista completă doar cu unpaged=true
     @GetMapping
-    public List<BookingEntity> getAllBookings() {
-        return bookingService.getAllBookings();
+    public ResponseEntity<List<BookingEntity>> getAllBookings(
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        if (unpaged) {
+            return ResponseEntity.ok(bookingService.getAllBookings());
+        }
+        return PageResponses.of(bookingService.getBookings(cursor, limit != null ? limit : IdPages.DEFAULT_LIMIT));
+    }
+
+    // Export: toate rezervările ca NDJSON, scrise direct din cursor (Accept: application/x-ndjson)
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBookings() {
+        return NdjsonResponses.of(objectMapper, bookingService::streamAllBookings);
     }
 
     @GetMapping("/{id}")
@@ -41,6 +61,11 @@ public class BookingController {
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", e.getMessage());
             return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        } catch (ServiceUnavailableException e) {
+            // Banda de scriere nu a confirmat la timp (modul LANES); cererea a fost retrasă, clientul poate reîncerca
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e) {
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "An unexpected error occurred: " + e.getMessage());
@@ -103,10 +128,21 @@ public class BookingController {
             response.put("count", availableApartmentIds.size());
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", e.getMessage());
             return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    // Parametri de paginare invalizi (limit, cursor)
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ex.getMessage();
+    }
 }
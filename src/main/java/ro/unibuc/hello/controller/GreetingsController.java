@@ -1,6 +1,8 @@
 package ro.unibuc.hello.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -9,6 +11,7 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import ro.unibuc.hello.dto.Greeting;
 import ro.unibuc.hello.exception.EntityNotFoundException;
 import ro.unibuc.hello.service.GreetingsService;
+import ro.unibuc.hello.util.IdPages;
 
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
@@ -31,10 +34,17 @@ public class GreetingsController {
         return greetingsService.buildGreetingFromInfo(title);
     }
 
+    // Implicit o pagină în ordinea _id (limit, cursor; vezi PageResponses); lista completă doar cu unpaged=true
     @GetMapping("/greetings")
     @ResponseBody
-    public List<Greeting> getAllGreetings() {
-        return greetingsService.getAllGreetings();
+    public ResponseEntity<List<Greeting>> getAllGreetings(
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        if (unpaged) {
+            return ResponseEntity.ok(greetingsService.getAllGreetings());
+        }
+        return PageResponses.of(greetingsService.getGreetings(cursor, limit != null ? limit : IdPages.DEFAULT_LIMIT));
     }
 
 
@@ -55,5 +65,12 @@ public class GreetingsController {
     public void deleteGreeting(@PathVariable String id) throws EntityNotFoundException {
         greetingsService.deleteGreeting(id);
     }
-}
 
+    // Parametri de paginare invalizi (limit, cursor)
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ResponseBody
+    public String handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ex.getMessage();
+    }
+}
@@ -0,0 +1,42 @@
+package ro.unibuc.hello.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Răspunsuri application/x-ndjson: câte un document JSON pe linie, scris pe măsură ce vine din cursorul Mongo.
+ * Nu construim nicio listă, deci memoria folosită de o cerere nu depinde de mărimea colecției
+ * (doar lotul curent al cursorului și buffer-ul răspunsului). Stream-ul se deschide abia pe thread-ul
+ * care scrie răspunsul și se închide (cu tot cu cursor) și dacă clientul se deconectează.
+ */
+final class NdjsonResponses {
+
+    private NdjsonResponses() {
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> of(ObjectMapper objectMapper, Supplier<Stream<T>> documents) {
+        // Golim doar când se umple buffer-ul, nu după fiecare document
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (Stream<T> stream = documents.get();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                         .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                Iterator<T> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    writer.writeValue(generator, iterator.next());
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
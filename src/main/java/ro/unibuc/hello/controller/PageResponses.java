@@ -0,0 +1,35 @@
+package ro.unibuc.hello.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import ro.unibuc.hello.dto.CursorPage;
+
+import java.util.List;
+
+/**
+ * Răspunsul comun al listelor paginate: corpul rămâne lista (ca în varianta nepaginată), iar pagina
+ * următoare se anunță în header-ele X-Next-Cursor și Link rel="next" (ambele lipsesc pe ultima pagină).
+ */
+final class PageResponses {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private PageResponses() {
+    }
+
+    static <T> ResponseEntity<List<T>> of(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            // Aceeași cerere, cu cursorul paginii următoare în locul celui curent
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after")
+                    .replaceQueryParam("cursor", page.nextCursor())
+                    .build()
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.items());
+    }
+}
@@ -1,8 +1,13 @@
 package ro.unibuc.hello.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ro.unibuc.hello.data.ReactionEntity;
+import ro.unibuc.hello.data.ReactionType;
 import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.exception.InvalidInputException;
 import ro.unibuc.hello.service.ReviewService;
 
 import java.util.List;
@@ -12,6 +17,8 @@ import java.util.Optional;
 @RequestMapping("/reviews")
 public class ReviewController {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     private final ReviewService reviewService;
 
     @Autowired
@@ -44,21 +51,52 @@ public class ReviewController {
         reviewService.deleteReview(id);
     }
 
-     @GetMapping
-    public List<ReviewEntity> getAllReviewsSortedByRating() {
-        return reviewService.getAllReviewsSortedByRating(); 
+    // Implicit o pagină în ordinea (rating, id) (limit, cursor; vezi PageResponses); lista completă doar cu
+    // unpaged=true. after este numele vechi al parametrului cursor și este încă acceptat
+    @GetMapping
+    public ResponseEntity<List<ReviewEntity>> getAllReviewsSortedByRating(
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String after) {
+        if (unpaged) {
+            return ResponseEntity.ok(reviewService.getAllReviewsSortedByRating());
+        }
+        return PageResponses.of(reviewService.getAllReviewsSortedByRating(cursor(cursor, after), pageSize(limit)));
     }
 
     // Obține review-urile bune (rating > 3)
     @GetMapping("/good")
-    public List<ReviewEntity> getGoodReviews() {
-        return reviewService.getGoodReviews();
+    public ResponseEntity<List<ReviewEntity>> getGoodReviews(
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String after) {
+        if (unpaged) {
+            return ResponseEntity.ok(reviewService.getGoodReviews());
+        }
+        return PageResponses.of(reviewService.getGoodReviews(cursor(cursor, after), pageSize(limit)));
     }
 
     // Obține review-urile rele (rating <= 3)
     @GetMapping("/bad")
-    public List<ReviewEntity> getBadReviews() {
-        return reviewService.getBadReviews();
+    public ResponseEntity<List<ReviewEntity>> getBadReviews(
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String after) {
+        if (unpaged) {
+            return ResponseEntity.ok(reviewService.getBadReviews());
+        }
+        return PageResponses.of(reviewService.getBadReviews(cursor(cursor, after), pageSize(limit)));
+    }
+
+    private static String cursor(String cursor, String after) {
+        return cursor != null ? cursor : after;
+    }
+
+    private static int pageSize(Integer limit) {
+        return limit != null ? limit : DEFAULT_PAGE_SIZE;
     }
 
     // Adaugă un like la review
@@ -77,4 +115,26 @@ public class ReviewController {
     public String removeReaction(@PathVariable String reviewId, @RequestParam String userId) {
         return reviewService.removeReaction(reviewId, userId);
     }
+
+    // Cine a reacționat la review, paginat (opțional doar LIKE sau DISLIKE)
+    @GetMapping("/{reviewId}/reactions")
+    public List<ReactionEntity> getReactions(@PathVariable String reviewId,
+                                             @RequestParam(required = false) ReactionType type,
+                                             @RequestParam(defaultValue = "0") int page,
+                                             @RequestParam(defaultValue = "20") int size) {
+        return reviewService.getReactions(reviewId, type, page, size);
+    }
+
+    // Id de review deja existent
+    @ExceptionHandler(InvalidInputException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleInvalidInputException(InvalidInputException ex) {
+        return ex.getMessage();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ex.getMessage();
+    }
 }
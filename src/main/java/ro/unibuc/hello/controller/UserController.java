@@ -1,8 +1,11 @@
 package ro.unibuc.hello.controller;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ro.unibuc.hello.data.UserEntity;
 import ro.unibuc.hello.service.UserService;
+import ro.unibuc.hello.util.IdPages;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,9 +19,16 @@ public class UserController {
         this.userService = userService;
     }
 
+    // Implicit o pagină în ordinea _id (limit, cursor; vezi PageResponses); lista completă doar cu unpaged=true
     @GetMapping
-    public List<UserEntity> getAllUsers() {
-        return userService.getAllUsers();
+    public ResponseEntity<List<UserEntity>> getAllUsers(
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        if (unpaged) {
+            return ResponseEntity.ok(userService.getAllUsers());
+        }
+        return PageResponses.of(userService.getUsers(cursor, limit != null ? limit : IdPages.DEFAULT_LIMIT));
     }
 
     @GetMapping("/{id}")
@@ -35,4 +45,11 @@ public class UserController {
     public void deleteUser(@PathVariable String id) {
         userService.deleteUser(id);
     }
+
+    // Parametri de paginare invalizi (limit, cursor)
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ex.getMessage();
+    }
 }
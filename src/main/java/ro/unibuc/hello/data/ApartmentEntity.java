@@ -1,8 +1,14 @@
 package ro.unibuc.hello.data;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import ro.unibuc.hello.util.TextNormalizer;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 @Document(collection = "apartments")
 public class ApartmentEntity {
@@ -26,6 +32,31 @@ public class ApartmentEntity {
     private Double squareMeters; // Suprafața apartamentului în metri pătrați
     private boolean smokingAllowed; // Indică dacă fumatul este permis
 
+    // Chei de căutare fără diacritice și cu litere mici, calculate la scriere (vezi refreshSearchKeys)
+    @JsonIgnore
+    @Indexed
+    private String locationKey;
+    @JsonIgnore
+    @Indexed
+    private List<String> amenityKeys;
+
+    // Agregatele rating-urilor, actualizate cu $inc de ReviewService (vezi ApartmentRatingRepository)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long ratingSum;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int ratingCount;
+    // "1".."5" -> numărul de review-uri cu acel rating
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Map<String, Integer> ratingHistogram;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Indexed
+    private Double averageRating;
+
+    // Momentul ultimei scrieri, pentru sincronizarea prin polling între instanțe (vezi ClusterCacheSync)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Indexed
+    private Instant updatedAt;
+
     public ApartmentEntity() {}
 
     public ApartmentEntity(String title, String location, Double pricePerNight, String userId,
@@ -85,4 +116,33 @@ public class ApartmentEntity {
 
     public boolean isSmokingAllowed() { return smokingAllowed; }
     public void setSmokingAllowed(boolean smokingAllowed) { this.smokingAllowed = smokingAllowed; }
-}
\ No newline at end of file
+
+    public String getLocationKey() { return locationKey; }
+    public void setLocationKey(String locationKey) { this.locationKey = locationKey; }
+
+    public List<String> getAmenityKeys() { return amenityKeys; }
+    public void setAmenityKeys(List<String> amenityKeys) { this.amenityKeys = amenityKeys; }
+
+    public long getRatingSum() { return ratingSum; }
+    public void setRatingSum(long ratingSum) { this.ratingSum = ratingSum; }
+
+    public int getRatingCount() { return ratingCount; }
+    public void setRatingCount(int ratingCount) { this.ratingCount = ratingCount; }
+
+    public Map<String, Integer> getRatingHistogram() { return ratingHistogram; }
+    public void setRatingHistogram(Map<String, Integer> ratingHistogram) { this.ratingHistogram = ratingHistogram; }
+
+    public Double getAverageRating() { return averageRating; }
+    public void setAverageRating(Double averageRating) { this.averageRating = averageRating; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+
+    // Recalculează locationKey și amenityKeys din location și amenities
+    public void refreshSearchKeys() {
+        this.locationKey = TextNormalizer.normalize(location);
+        this.amenityKeys = amenities == null ? null : amenities.stream()
+            .map(TextNormalizer::normalize)
+            .collect(Collectors.toList());
+    }
+}
@@ -1,10 +1,16 @@
 package ro.unibuc.hello.data;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Document(collection = "bookings")
+// Servește verificarea "a rezervat utilizatorul apartamentul?" și, prin prefix, căutările după apartmentId
+@CompoundIndex(name = "apartment_user", def = "{'apartmentId': 1, 'userId': 1}")
 public class BookingEntity {
 
     @Id
@@ -16,6 +22,11 @@ public class BookingEntity {
     private String apartmentId;  // ID-ul apartamentului rezervat
     private String userId;       // ID-ul utilizatorului care face rezervarea
 
+    // Momentul ultimei scrieri, pentru sincronizarea prin polling între instanțe (vezi ClusterCacheSync)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Indexed
+    private Instant updatedAt;
+
     // Constructori, getteri și setteri
     public BookingEntity() {}
 
@@ -65,4 +76,12 @@ public class BookingEntity {
     public void setUserId(String userId) {
         this.userId = userId;
     }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
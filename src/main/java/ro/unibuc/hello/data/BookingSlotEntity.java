@@ -0,0 +1,77 @@
+package ro.unibuc.hello.data;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// O zi ocupată dintr-o rezervare; indexul unic (apartmentId, day) face ca Mongo să respingă suprapunerile
+@Document(collection = "booking_slots")
+@CompoundIndex(name = "apartment_day_unique", def = "{'apartmentId': 1, 'day': 1}", unique = true)
+public class BookingSlotEntity {
+
+    @Id
+    private String id;
+
+    private String apartmentId;
+    private LocalDate day;
+
+    @Indexed
+    private String bookingId;
+
+    public BookingSlotEntity() {}
+
+    public BookingSlotEntity(String apartmentId, LocalDate day, String bookingId) {
+        this.apartmentId = apartmentId;
+        this.day = day;
+        this.bookingId = bookingId;
+    }
+
+    // Câte un slot pentru fiecare zi din [startDate, endDate]
+    public static List<BookingSlotEntity> forBooking(BookingEntity booking) {
+        LocalDate start = booking.getStartDate();
+        LocalDate end = booking.getEndDate() == null || booking.getEndDate().isBefore(start) ? start : booking.getEndDate();
+
+        List<BookingSlotEntity> slots = new ArrayList<>();
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            slots.add(new BookingSlotEntity(booking.getApartmentId(), day, booking.getId()));
+        }
+        return slots;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getApartmentId() {
+        return apartmentId;
+    }
+
+    public void setApartmentId(String apartmentId) {
+        this.apartmentId = apartmentId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public String getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(String bookingId) {
+        this.bookingId = bookingId;
+    }
+}
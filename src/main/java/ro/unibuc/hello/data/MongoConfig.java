@@ -31,6 +31,12 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
         return MongoClients.create(mongoClientSettings);
     }
 
+    // Creează indexurile declarate prin @Indexed / @CompoundIndex (ex. unicitatea sloturilor de rezervare)
+    @Override
+    protected boolean autoIndexCreation() {
+        return true;
+    }
+
     @Override
     public Collection<String> getMappingBasePackages() {
         return Collections.singleton("ro.unibuc.hello.data");
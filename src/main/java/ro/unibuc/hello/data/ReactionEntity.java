@@ -0,0 +1,70 @@
+package ro.unibuc.hello.data;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Reacția unui utilizator la un review; indexul unic (reviewId, userId) permite cel mult o reacție per utilizator
+@Document(collection = "review_reactions")
+@CompoundIndex(name = "review_user_unique", def = "{'reviewId': 1, 'userId': 1}", unique = true)
+public class ReactionEntity {
+
+    @Id
+    private String id;
+
+    private String reviewId;
+    private String userId;
+    private ReactionType type;
+    private Instant createdAt;
+
+    public ReactionEntity() {}
+
+    public ReactionEntity(String reviewId, String userId, ReactionType type) {
+        this.reviewId = reviewId;
+        this.userId = userId;
+        this.type = type;
+        this.createdAt = Instant.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getReviewId() {
+        return reviewId;
+    }
+
+    public void setReviewId(String reviewId) {
+        this.reviewId = reviewId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public ReactionType getType() {
+        return type;
+    }
+
+    public void setType(ReactionType type) {
+        this.type = type;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,10 @@
+package ro.unibuc.hello.data;
+
+public enum ReactionType {
+    LIKE,
+    DISLIKE;
+
+    public ReactionType opposite() {
+        return this == LIKE ? DISLIKE : LIKE;
+    }
+}
@@ -1,12 +1,23 @@
 package ro.unibuc.hello.data;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.time.Instant;
 
 @Document(collection = "reviews")
+// Un index per ordine de paginare, ca nicio listă să nu necesite sortare în memorie
+@CompoundIndexes({
+        // /reviews, /reviews/good și /reviews/bad (ultimul parcurs înapoi)
+        @CompoundIndex(name = "rating", def = "{'rating': -1, '_id': -1}"),
+        // /apartments/{id}/reviews; prefixul apartmentId servește și celelalte căutări după apartament
+        @CompoundIndex(name = "apartment_rating", def = "{'apartmentId': 1, 'rating': -1, '_id': -1}"),
+        @CompoundIndex(name = "apartment_created", def = "{'apartmentId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "apartment_likes", def = "{'apartmentId': 1, 'likeCount': -1, '_id': -1}")
+})
 public class ReviewEntity {
     
     @Id
@@ -19,8 +30,15 @@ public class ReviewEntity {
     private String apartmentId;
     private String userId;
 
-     private Set<String> likes = new HashSet<>();
-    private Set<String> dislikes = new HashSet<>();
+    // Setat de ReviewService la creare
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant createdAt;
+
+    // Reacțiile sunt în colecția review_reactions; aici păstrăm doar contoarele, întreținute cu $inc
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long likeCount;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long dislikeCount;
 
 
     // Constructori, getteri și setteri
@@ -82,37 +100,27 @@ public class ReviewEntity {
         this.userId = userId;
     }
 
-    // Getters și Setters pentru like-uri și dislike-uri
-    public void setLikes(Set<String> likes) {
-    this.likes = likes;
-}
-
-public void setDislikes(Set<String> dislikes) {
-    this.dislikes = dislikes;
-}
-    
-    public Set<String> getLikes() {
-        return likes;
+    public Instant getCreatedAt() {
+        return createdAt;
     }
 
-    public void addLike(String userId) {
-        this.likes.add(userId);
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
     }
 
-    public void removeLike(String userId) {
-        this.likes.remove(userId);
+    public long getLikeCount() {
+        return likeCount;
     }
 
-    public Set<String> getDislikes() {
-        return dislikes;
+    public void setLikeCount(long likeCount) {
+        this.likeCount = likeCount;
     }
 
-    public void addDislike(String userId) {
-        this.dislikes.add(userId);
+    public long getDislikeCount() {
+        return dislikeCount;
     }
 
-    public void removeDislike(String userId) {
-        this.dislikes.remove(userId);
+    public void setDislikeCount(long dislikeCount) {
+        this.dislikeCount = dislikeCount;
     }
-
 }
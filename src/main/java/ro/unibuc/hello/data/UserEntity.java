@@ -1,7 +1,10 @@
 package ro.unibuc.hello.data;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
 import java.util.List;
 
 @Document(collection = "users")
@@ -13,6 +16,11 @@ public class UserEntity {
     private String email;
     private List<String> apartments; // Lista de ID-uri ale apartamentelor închiriate
 
+    // Momentul ultimei scrieri, pentru sincronizarea prin polling între instanțe (vezi ClusterCacheSync)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Indexed
+    private Instant updatedAt;
+
     public UserEntity() {}
 
     public UserEntity(String name, String email) {
@@ -31,4 +39,7 @@ public class UserEntity {
 
     public List<String> getApartments() { return apartments; }
     public void setApartments(List<String> apartments) { this.apartments = apartments; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
 }
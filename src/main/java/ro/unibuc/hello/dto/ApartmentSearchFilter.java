@@ -0,0 +1,29 @@
+package ro.unibuc.hello.dto;
+
+import java.util.List;
+
+// Filtrele opționale de la /apartments/search; un câmp null înseamnă "fără filtru"
+public record ApartmentSearchFilter(
+        Double minPrice,
+        Double maxPrice,
+        Double minSquareMeters,
+        Double maxSquareMeters,
+        Integer numberOfRooms,
+        Integer numberOfBathrooms,
+        Boolean isPetFriendly,
+        Boolean smokingAllowed,
+        String amenity,
+        String location,
+        Double minAverageRating,
+        // Toate trebuie să existe (AND), respectiv niciuna (AND NOT)
+        List<String> amenities,
+        List<String> excludedAmenities) {
+
+    public ApartmentSearchFilter(
+            Double minPrice, Double maxPrice, Double minSquareMeters, Double maxSquareMeters,
+            Integer numberOfRooms, Integer numberOfBathrooms, Boolean isPetFriendly, Boolean smokingAllowed,
+            String amenity, String location, Double minAverageRating) {
+        this(minPrice, maxPrice, minSquareMeters, maxSquareMeters, numberOfRooms, numberOfBathrooms,
+                isPetFriendly, smokingAllowed, amenity, location, minAverageRating, null, null);
+    }
+}
@@ -0,0 +1,7 @@
+package ro.unibuc.hello.dto;
+
+import java.util.List;
+
+// O pagină de rezultate; nextCursor se trimite înapoi pentru pagina următoare și este null pe ultima pagină
+public record CursorPage<T>(List<T> items, String nextCursor) {
+}
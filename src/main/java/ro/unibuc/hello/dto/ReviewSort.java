@@ -0,0 +1,18 @@
+package ro.unibuc.hello.dto;
+
+// Ordinea review-urilor unui apartament; toate sunt descrescătoare, cu _id ca departajare
+public enum ReviewSort {
+    RATING("rating"),
+    RECENT("createdAt"),
+    LIKES("likeCount");
+
+    private final String field;
+
+    ReviewSort(String field) {
+        this.field = field;
+    }
+
+    public String field() {
+        return field;
+    }
+}
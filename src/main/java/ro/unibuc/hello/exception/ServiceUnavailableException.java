@@ -0,0 +1,7 @@
+package ro.unibuc.hello.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,89 @@
+package ro.unibuc.hello.index;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index inversat: facilitate normalizată ("aer conditionat") -> bitmap comprimat cu rândurile din
+ * ApartmentSnapshot care o au. Face parte din snapshot, deci este imutabil și se reconstruiește odată cu el.
+ * Un termen caută ca substring (ca filtrul vechi), așa că îi corespunde reuniunea tuturor facilităților
+ * care îl conțin; dicționarul de facilități distincte este mic, deci asta e ieftin.
+ */
+public final class AmenityIndex {
+
+    private final int size;
+    private final Map<String, RoaringBitmap> postings;
+
+    AmenityIndex(ApartmentEntity[] entities) {
+        Map<String, RoaringBitmap> postings = new HashMap<>();
+        for (int row = 0; row < entities.length; row++) {
+            // amenityKeys sunt deja normalizate; pentru documentele nemigrate normalizăm aici, o singură dată
+            List<String> keys = entities[row].getAmenityKeys();
+            boolean normalized = keys != null;
+            if (!normalized) {
+                keys = entities[row].getAmenities();
+            }
+            if (keys == null) {
+                continue;
+            }
+            for (String key : keys) {
+                if (key != null) {
+                    postings.computeIfAbsent(normalized ? key : TextNormalizer.normalize(key), k -> new RoaringBitmap()).add(row);
+                }
+            }
+        }
+        for (RoaringBitmap rows : postings.values()) {
+            rows.runOptimize();
+        }
+        this.size = entities.length;
+        this.postings = postings;
+    }
+
+    // Rândurile cu cel puțin o facilitate care conține termenul (deja normalizat)
+    public RoaringBitmap matching(String normalizedTerm) {
+        List<RoaringBitmap> matches = new ArrayList<>();
+        postings.forEach((amenity, rows) -> {
+            if (amenity.contains(normalizedTerm)) {
+                matches.add(rows);
+            }
+        });
+        if (matches.isEmpty()) {
+            return new RoaringBitmap();
+        }
+        return FastAggregation.or(matches.iterator());
+    }
+
+    /**
+     * Intersecția termenilor din included minus reuniunea celor din excluded (termeni nenormalizați).
+     * Fără termeni incluși pornim de la toate rândurile.
+     */
+    public RoaringBitmap select(Collection<String> included, Collection<String> excluded) {
+        RoaringBitmap result = null;
+        if (included != null) {
+            for (String term : included) {
+                RoaringBitmap rows = matching(TextNormalizer.normalize(term));
+                result = result == null ? rows : RoaringBitmap.and(result, rows);
+                if (result.isEmpty()) {
+                    return result;
+                }
+            }
+        }
+        if (result == null) {
+            result = RoaringBitmap.bitmapOfRange(0, size);
+        }
+        if (excluded != null) {
+            for (String term : excluded) {
+                result = RoaringBitmap.andNot(result, matching(TextNormalizer.normalize(term)));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,132 @@
+package ro.unibuc.hello.index;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.repository.ApartmentRepository;
+import ro.unibuc.hello.service.ApartmentSearchMode;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/**
+ * Copia în memorie a apartamentelor, folosită de căutare în modul MEMORY și, în ambele moduri, de
+ * căutarea după facilități (AmenityIndex).
+ * Cititorii lucrează pe un ApartmentSnapshot imutabil, fără lock-uri; scrierile modifică doar harta
+ * de mai jos și marchează snapshot-ul ca vechi, iar următoarea citire construiește unul nou (copy-on-write).
+ * Excepție: o scriere care schimbă doar ratingul (fiecare review) înlocuiește direct rândul în snapshot.
+ * Se încarcă leneș din ApartmentRepository și este ținut la zi de ApartmentIndexListener.
+ */
+@Component
+public class ApartmentCatalogue {
+
+    private final ApartmentRepository apartmentRepository;
+    private final ApartmentSearchMode searchMode;
+    private final Object writeLock = new Object();
+
+    // Sursa pentru snapshot-uri; accesată doar sub writeLock
+    private final Map<String, ApartmentEntity> apartments = new LinkedHashMap<>();
+    private boolean loaded = false;
+
+    // null înseamnă că trebuie reconstruit
+    private volatile ApartmentSnapshot snapshot;
+
+    public ApartmentCatalogue(ApartmentRepository apartmentRepository,
+                              @Value("${apartment.search.mode:QUERY}") ApartmentSearchMode searchMode) {
+        this.apartmentRepository = apartmentRepository;
+        this.searchMode = searchMode;
+    }
+
+    // În modul QUERY doar căutarea după facilități citește catalogul, așa că îl încărcăm abia la prima ei cerere
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (searchMode == ApartmentSearchMode.MEMORY) {
+            snapshot();
+        }
+    }
+
+    /**
+     * O singură trecere peste snapshot-ul curent; limit null înseamnă fără limită.
+     * Predicatul este construit pe același snapshot pe care se face scanarea.
+     */
+    public List<ApartmentEntity> filter(Function<ApartmentSnapshot, IntPredicate> compiler, Integer limit) {
+        ApartmentSnapshot current = snapshot();
+        IntPredicate predicate = compiler.apply(current);
+        int max = limit != null ? Math.min(limit, current.size()) : current.size();
+
+        int[] rows = new int[Math.min(max, 1024)];
+        int count = 0;
+        for (int row = 0; row < current.size() && count < max; row++) {
+            if (predicate.test(row)) {
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, Math.min(max, rows.length * 2));
+                }
+                rows[count++] = row;
+            }
+        }
+        return current.materialize(rows, count);
+    }
+
+    // Materializează direct rândurile alese (de exemplu un bitmap din AmenityIndex), fără scanare
+    public List<ApartmentEntity> select(Function<ApartmentSnapshot, RoaringBitmap> selector) {
+        ApartmentSnapshot current = snapshot();
+        return current.materialize(selector.apply(current));
+    }
+
+    public ApartmentSnapshot snapshot() {
+        ApartmentSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (writeLock) {
+            if (snapshot == null) {
+                if (!loaded) {
+                    apartments.clear();
+                    for (ApartmentEntity apartment : apartmentRepository.findAll()) {
+                        apartments.put(apartment.getId(), apartment);
+                    }
+                    loaded = true;
+                }
+                snapshot = ApartmentSnapshot.of(apartments.values());
+            }
+            return snapshot;
+        }
+    }
+
+    public void put(ApartmentEntity apartment) {
+        if (apartment.getId() == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (loaded) {
+                // Cheia existentă își păstrează poziția, deci rândurile rămân aceleași ca la o reconstruire
+                apartments.put(apartment.getId(), apartment);
+                ApartmentSnapshot current = snapshot;
+                snapshot = current != null ? current.withUpdated(apartment) : null;
+            }
+        }
+    }
+
+    public void remove(String apartmentId) {
+        synchronized (writeLock) {
+            if (loaded && apartments.remove(apartmentId) != null) {
+                snapshot = null;
+            }
+        }
+    }
+
+    public void invalidate() {
+        synchronized (writeLock) {
+            apartments.clear();
+            loaded = false;
+            snapshot = null;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ro.unibuc.hello.index;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.ApartmentEntity;
+
+import java.time.Instant;
+
+/**
+ * Ține indexurile de apartamente și cheile de căutare la zi pentru orice scriere făcută prin Spring Data.
+ */
+@Component
+public class ApartmentIndexListener extends AbstractMongoEventListener<ApartmentEntity> {
+
+    private final LocalCaches localCaches;
+    private final ClusterCacheSync clusterCacheSync;
+
+    public ApartmentIndexListener(LocalCaches localCaches, ClusterCacheSync clusterCacheSync) {
+        this.localCaches = localCaches;
+        this.clusterCacheSync = clusterCacheSync;
+    }
+
+    // Cheile de căutare și updatedAt se calculează la fiecare scriere, oricine ar face-o (servicii, date inițiale, teste)
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<ApartmentEntity> event) {
+        event.getSource().refreshSearchKeys();
+        event.getSource().setUpdatedAt(Instant.now());
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<ApartmentEntity> event) {
+        localCaches.apartmentSaved(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<ApartmentEntity> event) {
+        Object id = event.getSource().get("_id");
+        if (id instanceof String || id instanceof ObjectId) {
+            localCaches.apartmentDeleted(id.toString());
+            clusterCacheSync.recordDeletion(event.getCollectionName(), id.toString());
+        } else {
+            localCaches.apartmentsInvalidated();
+            clusterCacheSync.recordDeletion(event.getCollectionName(), null);
+        }
+    }
+}
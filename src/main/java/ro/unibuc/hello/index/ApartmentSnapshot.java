@@ -0,0 +1,180 @@
+package ro.unibuc.hello.index;
+
+import org.roaringbitmap.RoaringBitmap;
+import ro.unibuc.hello.data.ApartmentEntity;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Copie imutabilă, pe coloane, a catalogului de apartamente.
+ * Filtrele numerice citesc doar array-uri de primitive (fără Double boxed și fără a atinge entitatea),
+ * iar entitățile se materializează doar pentru rândurile care trec de filtre.
+ * Facilitățile sunt indexate într-un AmenityIndex pe aceleași rânduri.
+ * Nu se modifică niciodată după construcție; ApartmentCatalogue construiește una nouă la fiecare schimbare.
+ * O schimbare doar de rating (fiecare review scris) produce prin withUpdated o copie care refolosește
+ * celelalte coloane și AmenityIndex.
+ */
+public final class ApartmentSnapshot {
+
+    // Valoare folosită când numărul de camere/băi nu încape într-un byte; atunci citim din entitate
+    private static final byte OVERFLOW = -1;
+
+    public static final ApartmentSnapshot EMPTY = of(List.of());
+
+    private final ApartmentEntity[] entities;
+    // NaN pentru valori lipsă, deci orice comparație cu ele este falsă (ca în Mongo)
+    private final double[] price;
+    private final double[] sqm;
+    private final double[] averageRating;
+    private final byte[] rooms;
+    private final byte[] baths;
+    private final BitSet petFriendly;
+    private final BitSet smokingAllowed;
+    private final AmenityIndex amenities;
+    // id -> rând, comun tuturor copiilor produse de withUpdated
+    private final Map<String, Integer> rowsById;
+
+    private ApartmentSnapshot(ApartmentEntity[] entities) {
+        int size = entities.length;
+        this.entities = entities;
+        this.price = new double[size];
+        this.sqm = new double[size];
+        this.averageRating = new double[size];
+        this.rooms = new byte[size];
+        this.baths = new byte[size];
+        this.petFriendly = new BitSet(size);
+        this.smokingAllowed = new BitSet(size);
+
+        for (int row = 0; row < size; row++) {
+            ApartmentEntity apartment = entities[row];
+            price[row] = apartment.getPricePerNight() != null ? apartment.getPricePerNight() : Double.NaN;
+            sqm[row] = apartment.getSquareMeters() != null ? apartment.getSquareMeters() : Double.NaN;
+            averageRating[row] = apartment.getAverageRating() != null ? apartment.getAverageRating() : Double.NaN;
+            rooms[row] = toByte(apartment.getNumberOfRooms());
+            baths[row] = toByte(apartment.getNumberOfBathrooms());
+            petFriendly.set(row, apartment.isPetFriendly());
+            smokingAllowed.set(row, apartment.isSmokingAllowed());
+        }
+        this.amenities = new AmenityIndex(entities);
+        this.rowsById = new HashMap<>(size * 2);
+        for (int row = 0; row < size; row++) {
+            rowsById.put(entities[row].getId(), row);
+        }
+    }
+
+    private ApartmentSnapshot(ApartmentSnapshot base, ApartmentEntity[] entities, double[] averageRating) {
+        this.entities = entities;
+        this.price = base.price;
+        this.sqm = base.sqm;
+        this.averageRating = averageRating;
+        this.rooms = base.rooms;
+        this.baths = base.baths;
+        this.petFriendly = base.petFriendly;
+        this.smokingAllowed = base.smokingAllowed;
+        this.amenities = base.amenities;
+        this.rowsById = base.rowsById;
+    }
+
+    public static ApartmentSnapshot of(Collection<ApartmentEntity> apartments) {
+        return new ApartmentSnapshot(apartments.toArray(new ApartmentEntity[0]));
+    }
+
+    /**
+     * Copia cu apartamentul înlocuit pe rândul lui, dacă față de versiunea din snapshot s-au schimbat doar
+     * câmpuri care nu sunt coloane (ratingul și restul entității); se copiază doar entitățile și coloana de
+     * rating. Întoarce null dacă apartamentul lipsește sau o coloană indexată s-a schimbat, iar atunci
+     * snapshot-ul trebuie reconstruit.
+     */
+    public ApartmentSnapshot withUpdated(ApartmentEntity apartment) {
+        Integer row = rowsById.get(apartment.getId());
+        if (row == null || !sameColumns(row, apartment)) {
+            return null;
+        }
+        ApartmentEntity[] updatedEntities = entities.clone();
+        updatedEntities[row] = apartment;
+        double[] updatedRating = averageRating.clone();
+        updatedRating[row] = apartment.getAverageRating() != null ? apartment.getAverageRating() : Double.NaN;
+        return new ApartmentSnapshot(this, updatedEntities, updatedRating);
+    }
+
+    private boolean sameColumns(int row, ApartmentEntity apartment) {
+        ApartmentEntity previous = entities[row];
+        return Objects.equals(previous.getPricePerNight(), apartment.getPricePerNight())
+                && Objects.equals(previous.getSquareMeters(), apartment.getSquareMeters())
+                && previous.getNumberOfRooms() == apartment.getNumberOfRooms()
+                && previous.getNumberOfBathrooms() == apartment.getNumberOfBathrooms()
+                && previous.isPetFriendly() == apartment.isPetFriendly()
+                && previous.isSmokingAllowed() == apartment.isSmokingAllowed()
+                && Objects.equals(previous.getAmenityKeys(), apartment.getAmenityKeys())
+                && Objects.equals(previous.getAmenities(), apartment.getAmenities());
+    }
+
+    public int size() {
+        return entities.length;
+    }
+
+    public ApartmentEntity entity(int row) {
+        return entities[row];
+    }
+
+    public double price(int row) {
+        return price[row];
+    }
+
+    public double squareMeters(int row) {
+        return sqm[row];
+    }
+
+    public double averageRating(int row) {
+        return averageRating[row];
+    }
+
+    public int rooms(int row) {
+        byte value = rooms[row];
+        return value != OVERFLOW ? value : entities[row].getNumberOfRooms();
+    }
+
+    public int bathrooms(int row) {
+        byte value = baths[row];
+        return value != OVERFLOW ? value : entities[row].getNumberOfBathrooms();
+    }
+
+    public boolean isPetFriendly(int row) {
+        return petFriendly.get(row);
+    }
+
+    public boolean isSmokingAllowed(int row) {
+        return smokingAllowed.get(row);
+    }
+
+    public AmenityIndex amenities() {
+        return amenities;
+    }
+
+    // Materializează primele count rânduri din rows, în ordinea lor
+    public List<ApartmentEntity> materialize(int[] rows, int count) {
+        List<ApartmentEntity> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(entities[rows[i]]);
+        }
+        return result;
+    }
+
+    public List<ApartmentEntity> materialize(RoaringBitmap rows) {
+        List<ApartmentEntity> result = new ArrayList<>(rows.getCardinality());
+        for (int row : rows.toArray()) {
+            result.add(entities[row]);
+        }
+        return result;
+    }
+
+    private static byte toByte(int value) {
+        return value >= 0 && value <= Byte.MAX_VALUE ? (byte) value : OVERFLOW;
+    }
+}
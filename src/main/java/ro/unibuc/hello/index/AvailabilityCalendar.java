@@ -0,0 +1,274 @@
+package ro.unibuc.hello.index;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.repository.ApartmentRepository;
+import ro.unibuc.hello.repository.BookingRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Calendar de ocupare cu granularitate de o zi.
+ * Fiecare apartament primește un ordinal, iar pentru fiecare zi (epoch day) păstrăm un bitmap
+ * comprimat cu ordinalele apartamentelor ocupate în acea zi. "Ce apartamente sunt libere între X și Y"
+ * devine un OR pe zilele din interval și o diferență față de bitmap-ul apartamentelor existente.
+ * Rezervările mai lungi decât booking.max-stay-days (date vechi, dinainte de limită) nu se desfac pe zile;
+ * ele rămân intervale și se verifică direct la fiecare căutare, deci memoria nu crește cu lungimea lor.
+ */
+@Component
+public class AvailabilityCalendar {
+
+    private final ApartmentRepository apartmentRepository;
+    private final BookingRepository bookingRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<String> apartmentIds = new ArrayList<>();
+    private final RoaringBitmap liveApartments = new RoaringBitmap();
+
+    // epoch day -> ordinalele apartamentelor ocupate
+    private final TreeMap<Long, RoaringBitmap> bookedByDay = new TreeMap<>();
+    private final Map<String, DaySpan> bookings = new HashMap<>();
+    private final Map<Integer, Set<String>> bookingsByOrdinal = new HashMap<>();
+    // Rezervările peste maxSpanDays zile, păstrate ca intervale
+    private final Map<String, DaySpan> longBookings = new HashMap<>();
+    private final long maxSpanDays;
+
+    private boolean loaded = false;
+
+    public AvailabilityCalendar(ApartmentRepository apartmentRepository, BookingRepository bookingRepository,
+                                @Value("${booking.max-stay-days:365}") int maxSpanDays) {
+        this.apartmentRepository = apartmentRepository;
+        this.bookingRepository = bookingRepository;
+        this.maxSpanDays = maxSpanDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        ensureLoaded();
+    }
+
+    // Aceeași semantică de suprapunere ca BookingService.findBookedApartmentIdsJava
+    public List<String> findAvailableApartmentIds(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date.");
+        }
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            long firstDay = startDate.toEpochDay();
+            long lastDay = endDate.toEpochDay();
+            RoaringBitmap booked = FastAggregation.or(
+                    bookedByDay.subMap(firstDay, true, lastDay, true).values().iterator());
+            if (!longBookings.isEmpty()) {
+                RoaringBitmap bookedLong = new RoaringBitmap();
+                for (DaySpan span : longBookings.values()) {
+                    if (span.firstDay() <= lastDay && span.lastDay() >= firstDay) {
+                        bookedLong.add(span.ordinal());
+                    }
+                }
+                booked = RoaringBitmap.or(booked, bookedLong);
+            }
+            RoaringBitmap available = RoaringBitmap.andNot(liveApartments, booked);
+
+            List<String> result = new ArrayList<>(available.getCardinality());
+            for (int ordinal : available.toArray()) {
+                result.add(apartmentIds.get(ordinal));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void putApartment(String apartmentId) {
+        if (apartmentId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                liveApartments.add(ordinalOf(apartmentId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeApartment(String apartmentId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(apartmentId);
+            if (loaded && ordinal != null) {
+                liveApartments.remove(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putBooking(BookingEntity booking) {
+        if (booking.getId() == null || booking.getApartmentId() == null || booking.getStartDate() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                removeBookingLocked(booking.getId());
+                addBookingLocked(booking);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeBooking(String bookingId) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                removeBookingLocked(bookingId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            clearLocked();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            clearLocked();
+            for (ApartmentEntity apartment : apartmentRepository.findAllIds()) {
+                liveApartments.add(ordinalOf(apartment.getId()));
+            }
+            for (BookingEntity booking : bookingRepository.findAll()) {
+                if (booking.getId() != null && booking.getApartmentId() != null && booking.getStartDate() != null) {
+                    addBookingLocked(booking);
+                }
+            }
+            for (RoaringBitmap day : bookedByDay.values()) {
+                day.runOptimize();
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clearLocked() {
+        ordinals.clear();
+        apartmentIds.clear();
+        liveApartments.clear();
+        bookedByDay.clear();
+        bookings.clear();
+        bookingsByOrdinal.clear();
+        longBookings.clear();
+    }
+
+    // Ordinalele nu se refolosesc până la următoarea reîncărcare
+    private int ordinalOf(String apartmentId) {
+        Integer ordinal = ordinals.get(apartmentId);
+        if (ordinal == null) {
+            ordinal = apartmentIds.size();
+            apartmentIds.add(apartmentId);
+            ordinals.put(apartmentId, ordinal);
+        }
+        return ordinal;
+    }
+
+    private void addBookingLocked(BookingEntity booking) {
+        DaySpan span = DaySpan.of(ordinalOf(booking.getApartmentId()), booking);
+        if (span.lastDay() - span.firstDay() + 1 > maxSpanDays) {
+            longBookings.put(booking.getId(), span);
+            return;
+        }
+        bookings.put(booking.getId(), span);
+        bookingsByOrdinal.computeIfAbsent(span.ordinal(), o -> new HashSet<>()).add(booking.getId());
+        markDays(span.ordinal(), span.firstDay(), span.lastDay());
+    }
+
+    private void removeBookingLocked(String bookingId) {
+        if (longBookings.remove(bookingId) != null) {
+            return;
+        }
+        DaySpan span = bookings.remove(bookingId);
+        if (span == null) {
+            return;
+        }
+        Set<String> remaining = bookingsByOrdinal.get(span.ordinal());
+        remaining.remove(bookingId);
+
+        for (long day = span.firstDay(); day <= span.lastDay(); day++) {
+            RoaringBitmap booked = bookedByDay.get(day);
+            if (booked != null) {
+                booked.remove(span.ordinal());
+                if (booked.isEmpty()) {
+                    bookedByDay.remove(day);
+                }
+            }
+        }
+
+        // Zilele acoperite și de alte rezervări ale aceluiași apartament rămân ocupate
+        for (String otherId : remaining) {
+            DaySpan other = bookings.get(otherId);
+            long from = Math.max(other.firstDay(), span.firstDay());
+            long to = Math.min(other.lastDay(), span.lastDay());
+            markDays(span.ordinal(), from, to);
+        }
+        if (remaining.isEmpty()) {
+            bookingsByOrdinal.remove(span.ordinal());
+        }
+    }
+
+    private void markDays(int ordinal, long fromDay, long toDay) {
+        for (long day = fromDay; day <= toDay; day++) {
+            bookedByDay.computeIfAbsent(day, d -> new RoaringBitmap()).add(ordinal);
+        }
+    }
+
+    private record DaySpan(int ordinal, long firstDay, long lastDay) {
+
+        // O rezervare cu endDate lipsă sau înaintea lui startDate ocupă doar ziua de start
+        static DaySpan of(int ordinal, BookingEntity booking) {
+            long first = booking.getStartDate().toEpochDay();
+            long last = booking.getEndDate() == null ? first : Math.max(first, booking.getEndDate().toEpochDay());
+            return new DaySpan(ordinal, first, last);
+        }
+    }
+}
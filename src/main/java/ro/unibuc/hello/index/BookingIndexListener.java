@@ -0,0 +1,50 @@
+package ro.unibuc.hello.index;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.BookingEntity;
+
+import java.time.Instant;
+
+/**
+ * Ține indexurile de rezervări la zi pentru orice scriere făcută prin Spring Data
+ * (servicii, datele inițiale din HelloApplication, teste).
+ */
+@Component
+public class BookingIndexListener extends AbstractMongoEventListener<BookingEntity> {
+
+    private final LocalCaches localCaches;
+    private final ClusterCacheSync clusterCacheSync;
+
+    public BookingIndexListener(LocalCaches localCaches, ClusterCacheSync clusterCacheSync) {
+        this.localCaches = localCaches;
+        this.clusterCacheSync = clusterCacheSync;
+    }
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<BookingEntity> event) {
+        event.getSource().setUpdatedAt(Instant.now());
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<BookingEntity> event) {
+        localCaches.bookingSaved(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<BookingEntity> event) {
+        Object id = event.getSource().get("_id");
+        if (id instanceof String || id instanceof ObjectId) {
+            localCaches.bookingDeleted(id.toString());
+            clusterCacheSync.recordDeletion(event.getCollectionName(), id.toString());
+        } else {
+            // Ștergere după un query arbitrar (ex. deleteAll) - reîncărcăm la următoarea cerere
+            localCaches.bookingsInvalidated();
+            clusterCacheSync.recordDeletion(event.getCollectionName(), null);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package ro.unibuc.hello.index;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.repository.BookingRepository;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index în memorie al rezervărilor, pe apartament.
+ * Pentru fiecare apartament păstrăm intervalele ocupate îmbinate (start -> end, disjuncte și sortate),
+ * astfel încât verificarea unei suprapuneri este un singur floorEntry, adică O(log n).
+ * Indexul se încarcă leneș din BookingRepository și este ținut la zi de BookingIndexListener.
+ */
+@Component
+public class BookingIntervalIndex {
+
+    private final BookingRepository bookingRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // bookingId -> intervalul rezervării
+    private final Map<String, Span> bookings = new HashMap<>();
+    // apartmentId -> (bookingId -> interval), folosit la reconstruirea după ștergere
+    private final Map<String, Map<String, Span>> bookingsByApartment = new HashMap<>();
+    // apartmentId -> intervale ocupate îmbinate
+    private final Map<String, TreeMap<LocalDate, LocalDate>> occupied = new HashMap<>();
+
+    private boolean loaded = false;
+
+    public BookingIntervalIndex(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        ensureLoaded();
+    }
+
+    // Aceeași semantică de suprapunere ca BookingService.findOverlappingBookingsJava
+    public boolean hasOverlap(String apartmentId, LocalDate startDate, LocalDate endDate) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            TreeMap<LocalDate, LocalDate> ranges = occupied.get(apartmentId);
+            if (ranges == null) {
+                return false;
+            }
+            Map.Entry<LocalDate, LocalDate> candidate = ranges.floorEntry(endDate);
+            return candidate != null && !candidate.getValue().isBefore(startDate);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(BookingEntity booking) {
+        if (booking.getId() == null || booking.getApartmentId() == null || booking.getStartDate() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                // Rezervarea va fi citită oricum la următoarea încărcare
+                return;
+            }
+            removeLocked(booking.getId());
+            addLocked(booking);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String bookingId) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                removeLocked(bookingId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Golește indexul; următoarea interogare îl reîncarcă din Mongo
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            clearLocked();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            clearLocked();
+            for (BookingEntity booking : bookingRepository.findAll()) {
+                if (booking.getId() != null && booking.getApartmentId() != null && booking.getStartDate() != null) {
+                    addLocked(booking);
+                }
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clearLocked() {
+        bookings.clear();
+        bookingsByApartment.clear();
+        occupied.clear();
+    }
+
+    private void addLocked(BookingEntity booking) {
+        Span span = Span.of(booking);
+        bookings.put(booking.getId(), span);
+        bookingsByApartment.computeIfAbsent(span.apartmentId(), id -> new HashMap<>()).put(booking.getId(), span);
+        merge(occupied.computeIfAbsent(span.apartmentId(), id -> new TreeMap<>()), span.start(), span.end());
+    }
+
+    private void removeLocked(String bookingId) {
+        Span span = bookings.remove(bookingId);
+        if (span == null) {
+            return;
+        }
+        Map<String, Span> remaining = bookingsByApartment.get(span.apartmentId());
+        remaining.remove(bookingId);
+        if (remaining.isEmpty()) {
+            bookingsByApartment.remove(span.apartmentId());
+            occupied.remove(span.apartmentId());
+            return;
+        }
+
+        // Intervalele îmbinate nu se pot "desface", așa că le refacem doar pentru acest apartament
+        TreeMap<LocalDate, LocalDate> ranges = new TreeMap<>();
+        for (Span other : remaining.values()) {
+            merge(ranges, other.start(), other.end());
+        }
+        occupied.put(span.apartmentId(), ranges);
+    }
+
+    // Îmbină [start, end] cu intervalele care se suprapun sau sunt adiacente
+    private static void merge(TreeMap<LocalDate, LocalDate> ranges, LocalDate start, LocalDate end) {
+        Map.Entry<LocalDate, LocalDate> previous = ranges.floorEntry(start);
+        if (previous != null && !previous.getValue().isBefore(start.minusDays(1))) {
+            start = previous.getKey();
+            end = max(end, previous.getValue());
+            ranges.remove(previous.getKey());
+        }
+
+        Map.Entry<LocalDate, LocalDate> next = ranges.ceilingEntry(start);
+        while (next != null && !next.getKey().isAfter(end.plusDays(1))) {
+            end = max(end, next.getValue());
+            ranges.remove(next.getKey());
+            next = ranges.ceilingEntry(start);
+        }
+
+        ranges.put(start, end);
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private record Span(String apartmentId, LocalDate start, LocalDate end) {
+
+        // O rezervare cu endDate lipsă sau înaintea lui startDate ocupă doar ziua de start
+        static Span of(BookingEntity booking) {
+            LocalDate start = booking.getStartDate();
+            LocalDate end = booking.getEndDate() == null ? start : max(start, booking.getEndDate());
+            return new Span(booking.getApartmentId(), start, end);
+        }
+    }
+}
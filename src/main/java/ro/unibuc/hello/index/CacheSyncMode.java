@@ -0,0 +1,13 @@
+package ro.unibuc.hello.index;
+
+// Cum află o instanță de scrierile făcute de celelalte (proprietatea cache.sync.mode)
+public enum CacheSyncMode {
+    // O singură instanță; ajung listener-ele Spring Data
+    NONE,
+    // Change stream pe baza de date; necesită replica set sau mongos
+    CHANGE_STREAM,
+    // Interogări periodice după updatedAt și după jurnalul de ștergeri; merge pe un Mongo standalone
+    POLLING,
+    // CHANGE_STREAM dacă serverul îl suportă, altfel POLLING
+    AUTO
+}
@@ -0,0 +1,352 @@
+package ro.unibuc.hello.index;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.data.UserEntity;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aduce în structurile din memorie ale acestei instanțe scrierile făcute de celelalte instanțe.
+ * CHANGE_STREAM urmărește colecțiile apartments, bookings și users și își salvează periodic resume token-ul
+ * în cache_sync_tokens, ca după o repornire să continue de unde a rămas. Token-ul e cheiat după
+ * cache.sync.instance-id (implicit HOSTNAME, care se schimbă la fiecare pod nou), deci token-urile
+ * instanțelor dispărute expiră după o zi fără salvări. POLLING citește periodic documentele
+ * cu updatedAt recent și ștergerile din cache_sync_deletions (scrise de listener-e doar în acest mod și, mereu,
+ * de modulul reactiv, vezi CacheSyncDeletions).
+ * Review-urile nu sunt urmărite: nicio structură din memorie nu derivă din ele, iar agregatele de rating
+ * stau pe documentul apartamentului. Aplicarea trece prin LocalCaches și este idempotentă, deci
+ * propriile scrieri, văzute încă o dată pe aici, nu strică nimic.
+ */
+@Component
+public class ClusterCacheSync {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterCacheSync.class);
+
+    static final String TOKENS_COLLECTION = "cache_sync_tokens";
+    static final String DELETIONS_COLLECTION = "cache_sync_deletions";
+    private static final List<String> COLLECTIONS = List.of("apartments", "bookings", "users");
+    // Coduri Mongo pentru un resume token care nu mai poate fi folosit
+    private static final Set<Integer> LOST_HISTORY_CODES = Set.of(260, 280, 286);
+    private static final long RETRY_DELAY_MS = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final LocalCaches localCaches;
+    private final CacheSyncMode configuredMode;
+    private final String instanceId;
+    private final long pollIntervalMs;
+    private final long pollOverlapMs;
+    private final long tokenSaveIntervalMs;
+
+    private volatile CacheSyncMode mode = CacheSyncMode.NONE;
+    private volatile boolean running;
+    private Thread worker;
+
+    public ClusterCacheSync(MongoTemplate mongoTemplate, LocalCaches localCaches,
+                            @Value("${cache.sync.mode:NONE}") CacheSyncMode configuredMode,
+                            @Value("${cache.sync.instance-id:${HOSTNAME:local}}") String instanceId,
+                            @Value("${cache.sync.poll-interval-ms:1000}") long pollIntervalMs,
+                            @Value("${cache.sync.poll-overlap-ms:5000}") long pollOverlapMs,
+                            @Value("${cache.sync.token-save-interval-ms:1000}") long tokenSaveIntervalMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.localCaches = localCaches;
+        this.configuredMode = configuredMode;
+        this.instanceId = instanceId;
+        this.pollIntervalMs = pollIntervalMs;
+        this.pollOverlapMs = pollOverlapMs;
+        this.tokenSaveIntervalMs = tokenSaveIntervalMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running || configuredMode == CacheSyncMode.NONE) {
+            return;
+        }
+        mode = configuredMode == CacheSyncMode.AUTO
+                ? (supportsChangeStreams() ? CacheSyncMode.CHANGE_STREAM : CacheSyncMode.POLLING)
+                : configuredMode;
+        running = true;
+        if (mode == CacheSyncMode.POLLING) {
+            // Ștergerile se păstrează o zi; o instanță oprită mai mult își reîncarcă oricum cache-urile la pornire
+            mongoTemplate.indexOps(DELETIONS_COLLECTION)
+                    .ensureIndex(new Index("deletedAt", Sort.Direction.ASC).expire(Duration.ofDays(1)));
+        } else {
+            // O instanță activă își salvează token-ul des; doar token-urile instanțelor dispărute ajung să expire
+            mongoTemplate.indexOps(TOKENS_COLLECTION)
+                    .ensureIndex(new Index("savedAt", Sort.Direction.ASC).expire(Duration.ofDays(1)));
+        }
+        worker = new Thread(mode == CacheSyncMode.CHANGE_STREAM ? this::followChangeStream : this::poll,
+                "cache-sync-" + mode.name().toLowerCase());
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Cache sync started in {} mode", mode);
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = worker;
+            worker = null;
+        }
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public CacheSyncMode mode() {
+        return mode;
+    }
+
+    // Apelat de listener-e după o ștergere locală; id null înseamnă o ștergere după query (toată colecția)
+    public void recordDeletion(String collection, String id) {
+        if (mode != CacheSyncMode.POLLING) {
+            return;
+        }
+        Document deletion = new Document("collection", collection).append("entityId", id).append("deletedAt", new Date());
+        mongoTemplate.getCollection(DELETIONS_COLLECTION).insertOne(deletion);
+    }
+
+    private boolean supportsChangeStreams() {
+        Document hello = mongoTemplate.getDb().runCommand(new Document("hello", 1));
+        // Membru de replica set sau mongos
+        return hello.containsKey("setName") || "isdbgrid".equals(hello.getString("msg"));
+    }
+
+    private void followChangeStream() {
+        BsonDocument token = loadToken();
+        long lastSave = System.currentTimeMillis();
+        while (running) {
+            ChangeStreamIterable<Document> stream = mongoTemplate.getDb()
+                    .watch(List.of(Aggregates.match(Filters.in("ns.coll", COLLECTIONS))))
+                    .fullDocument(FullDocument.UPDATE_LOOKUP)
+                    .maxAwaitTime(1, TimeUnit.SECONDS);
+            if (token != null) {
+                stream = stream.resumeAfter(token);
+            }
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+                while (running) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change != null && !apply(change)) {
+                        // Stream invalidat (colecție ștearsă sau redenumită); pornim unul nou de acum
+                        token = null;
+                        break;
+                    }
+                    BsonDocument latest = cursor.getResumeToken();
+                    if (latest != null) {
+                        token = latest;
+                        if (System.currentTimeMillis() - lastSave >= tokenSaveIntervalMs) {
+                            saveToken(token);
+                            lastSave = System.currentTimeMillis();
+                        }
+                    }
+                }
+            } catch (MongoCommandException e) {
+                if (LOST_HISTORY_CODES.contains(e.getErrorCode())) {
+                    // Evenimentele dintre token și acum nu mai există în oplog; nu știm ce am ratat
+                    log.warn("Change stream history lost, invalidating local caches", e);
+                    token = null;
+                    localCaches.invalidateAll();
+                } else if (running) {
+                    log.warn("Change stream failed, retrying", e);
+                    sleep(RETRY_DELAY_MS);
+                }
+            } catch (MongoException | IllegalStateException e) {
+                if (running) {
+                    log.warn("Change stream failed, retrying", e);
+                    sleep(RETRY_DELAY_MS);
+                }
+            }
+        }
+        if (token != null) {
+            saveToken(token);
+        }
+    }
+
+    // false dacă stream-ul nu mai poate continua
+    private boolean apply(ChangeStreamDocument<Document> change) {
+        String collection = change.getNamespace() != null ? change.getNamespace().getCollectionName() : null;
+        switch (change.getOperationType()) {
+            case INSERT, UPDATE, REPLACE -> {
+                Document document = change.getFullDocument();
+                String id = idOf(change.getDocumentKey());
+                if (document != null) {
+                    saved(collection, document);
+                } else if (id != null) {
+                    // Documentul a fost șters între timp; ștergerea vine ca eveniment separat
+                    deleted(collection, id);
+                }
+            }
+            case DELETE -> {
+                String id = idOf(change.getDocumentKey());
+                if (id != null) {
+                    deleted(collection, id);
+                }
+            }
+            case DROP, RENAME -> invalidated(collection);
+            case DROP_DATABASE, INVALIDATE -> {
+                localCaches.invalidateAll();
+                return false;
+            }
+            default -> {
+                // Alte operații (ex. createIndexes) nu schimbă datele
+            }
+        }
+        return true;
+    }
+
+    private void poll() {
+        Instant since = Instant.now();
+        Set<String> seen = new HashSet<>();
+        while (running) {
+            Instant pollStart = Instant.now();
+            // Suprapunerea acoperă diferențele de ceas dintre instanțe; ce am aplicat deja la pasul anterior sărim
+            Date from = Date.from(since.minusMillis(pollOverlapMs));
+            Set<String> current = new HashSet<>();
+            try {
+                for (String collection : COLLECTIONS) {
+                    Query changed = new Query(Criteria.where("updatedAt").gte(from));
+                    for (Document document : mongoTemplate.find(changed, Document.class, collection)) {
+                        String key = collection + "/" + document.get("_id") + "/" + document.get("updatedAt");
+                        current.add(key);
+                        if (!seen.contains(key)) {
+                            saved(collection, document);
+                        }
+                    }
+                }
+                Query deletions = new Query(Criteria.where("deletedAt").gte(from));
+                for (Document deletion : mongoTemplate.find(deletions, Document.class, DELETIONS_COLLECTION)) {
+                    String key = DELETIONS_COLLECTION + "/" + deletion.get("_id");
+                    current.add(key);
+                    if (!seen.contains(key)) {
+                        String id = deletion.getString("entityId");
+                        if (id != null) {
+                            deleted(deletion.getString("collection"), id);
+                        } else {
+                            invalidated(deletion.getString("collection"));
+                        }
+                    }
+                }
+                seen = current;
+                since = pollStart;
+            } catch (MongoException e) {
+                log.warn("Cache sync poll failed, retrying", e);
+            }
+            sleep(pollIntervalMs);
+        }
+    }
+
+    private void saved(String collection, Document document) {
+        switch (collection) {
+            case "apartments" -> localCaches.apartmentSaved(mongoTemplate.getConverter().read(ApartmentEntity.class, document));
+            case "bookings" -> localCaches.bookingSaved(mongoTemplate.getConverter().read(BookingEntity.class, document));
+            case "users" -> localCaches.userSaved(mongoTemplate.getConverter().read(UserEntity.class, document));
+            default -> {
+            }
+        }
+    }
+
+    private void deleted(String collection, String id) {
+        switch (collection) {
+            case "apartments" -> localCaches.apartmentDeleted(id);
+            case "bookings" -> localCaches.bookingDeleted(id);
+            case "users" -> localCaches.userDeleted(id);
+            default -> {
+            }
+        }
+    }
+
+    private void invalidated(String collection) {
+        if (collection == null) {
+            localCaches.invalidateAll();
+            return;
+        }
+        switch (collection) {
+            case "apartments" -> localCaches.apartmentsInvalidated();
+            case "bookings" -> localCaches.bookingsInvalidated();
+            case "users" -> localCaches.usersInvalidated();
+            default -> {
+            }
+        }
+    }
+
+    // Id-urile sunt String în entități; ObjectId-urile le convertim ca Spring Data
+    private static String idOf(BsonDocument documentKey) {
+        if (documentKey == null) {
+            return null;
+        }
+        BsonValue id = documentKey.get("_id");
+        if (id == null) {
+            return null;
+        }
+        if (id instanceof BsonObjectId objectId) {
+            return objectId.getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : null;
+    }
+
+    private BsonDocument loadToken() {
+        Document stored = mongoTemplate.findById(instanceId, Document.class, TOKENS_COLLECTION);
+        if (stored == null || stored.get("token") == null) {
+            return null;
+        }
+        return ((Document) stored.get("token")).toBsonDocument();
+    }
+
+    private void saveToken(BsonDocument token) {
+        try {
+            mongoTemplate.upsert(new Query(Criteria.where("_id").is(instanceId)),
+                    new Update().set("token", Document.parse(token.toJson())).set("savedAt", new Date()),
+                    TOKENS_COLLECTION);
+        } catch (MongoException e) {
+            // Următoarea salvare va reîncerca; în cel mai rău caz reluăm câteva evenimente
+            log.warn("Could not store change stream resume token", e);
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package ro.unibuc.hello.index;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.data.UserEntity;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Near-cache pentru citirile după id de la GET /apartments/{id}, /users/{id} și /bookings/{id}.
+ * Fiecare tip are propriul TTL; toate sunt mărginite ca număr de intrări. Cererile simultane pentru
+ * același id lipsă din cache așteaptă o singură încărcare din Mongo; încărcarea rulează pe firul primei
+ * cereri, în afara compute-ului Caffeine, deci un fir virtual nu rămâne lipit de purtător pe durata ei.
+ * Se cachează și "nu există", ca un id inexistent cerut des să nu ajungă mereu în Mongo.
+ * Scrierile prin Spring Data ajung aici din listener-ele de index; statisticile sunt la /actuator/entitycache.
+ */
+@Component
+public class EntityCache {
+
+    private final Region<ApartmentEntity> apartments;
+    private final Region<UserEntity> users;
+    private final Region<BookingEntity> bookings;
+
+    public EntityCache(MeterRegistry meterRegistry,
+                       @Value("${entity.cache.max-size:10000}") long maxSize,
+                       @Value("${entity.cache.apartments.ttl-seconds:60}") long apartmentsTtlSeconds,
+                       @Value("${entity.cache.users.ttl-seconds:300}") long usersTtlSeconds,
+                       @Value("${entity.cache.bookings.ttl-seconds:30}") long bookingsTtlSeconds) {
+        this.apartments = new Region<>("entities.apartments", maxSize, apartmentsTtlSeconds, meterRegistry);
+        this.users = new Region<>("entities.users", maxSize, usersTtlSeconds, meterRegistry);
+        this.bookings = new Region<>("entities.bookings", maxSize, bookingsTtlSeconds, meterRegistry);
+    }
+
+    public Optional<ApartmentEntity> apartment(String id, Function<String, Optional<ApartmentEntity>> loader) {
+        return apartments.get(id, loader);
+    }
+
+    public void putApartment(ApartmentEntity apartment) {
+        apartments.put(apartment.getId(), apartment);
+    }
+
+    public void evictApartment(String id) {
+        apartments.evict(id);
+    }
+
+    public void invalidateApartments() {
+        apartments.invalidateAll();
+    }
+
+    public Optional<UserEntity> user(String id, Function<String, Optional<UserEntity>> loader) {
+        return users.get(id, loader);
+    }
+
+    public void putUser(UserEntity user) {
+        users.put(user.getId(), user);
+    }
+
+    public void evictUser(String id) {
+        users.evict(id);
+    }
+
+    public void invalidateUsers() {
+        users.invalidateAll();
+    }
+
+    public Optional<BookingEntity> booking(String id, Function<String, Optional<BookingEntity>> loader) {
+        return bookings.get(id, loader);
+    }
+
+    public void putBooking(BookingEntity booking) {
+        bookings.put(booking.getId(), booking);
+    }
+
+    public void evictBooking(String id) {
+        bookings.evict(id);
+    }
+
+    public void invalidateBookings() {
+        bookings.invalidateAll();
+    }
+
+    // Statisticile fiecărui tip, pentru EntityCacheEndpoint
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("apartments", apartments.stats());
+        stats.put("users", users.stats());
+        stats.put("bookings", bookings.stats());
+        return stats;
+    }
+
+    private static final class Region<T> {
+
+        private final AsyncCache<String, Optional<T>> cache;
+        private final long ttlSeconds;
+
+        Region(String name, long maxSize, long ttlSeconds, MeterRegistry meterRegistry) {
+            this.ttlSeconds = ttlSeconds;
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                    .recordStats()
+                    .buildAsync();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), name);
+        }
+
+        Optional<T> get(String id, Function<String, Optional<T>> loader) {
+            if (id == null) {
+                return Optional.empty();
+            }
+            // În compute se instalează doar un viitor gol; prima cerere îl completează din Mongo,
+            // celelalte îl așteaptă. Un put sau evict în timpul încărcării înlocuiește viitorul,
+            // deci rezultatul vechi nu rămâne în cache
+            CompletableFuture<Optional<T>> placeholder = new CompletableFuture<>();
+            CompletableFuture<Optional<T>> future = cache.get(id, (key, executor) -> placeholder);
+            if (future == placeholder) {
+                try {
+                    placeholder.complete(loader.apply(id));
+                } catch (RuntimeException | Error e) {
+                    placeholder.completeExceptionally(e);
+                    throw e;
+                }
+            }
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        void put(String id, T entity) {
+            if (id != null) {
+                cache.put(id, CompletableFuture.completedFuture(Optional.of(entity)));
+            }
+        }
+
+        void evict(String id) {
+            cache.synchronous().invalidate(id);
+        }
+
+        void invalidateAll() {
+            cache.synchronous().invalidateAll();
+        }
+
+        Map<String, Object> stats() {
+            CacheStats stats = cache.synchronous().stats();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("size", cache.synchronous().estimatedSize());
+            result.put("ttlSeconds", ttlSeconds);
+            result.put("hits", stats.hitCount());
+            result.put("misses", stats.missCount());
+            result.put("hitRate", stats.hitRate());
+            result.put("loads", stats.loadCount());
+            result.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+            result.put("evictions", stats.evictionCount());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ro.unibuc.hello.index;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// /actuator/entitycache: dimensiunea și hit/miss pentru fiecare tip din EntityCache
+@Component
+@Endpoint(id = "entitycache")
+public class EntityCacheEndpoint {
+
+    private final EntityCache entityCache;
+
+    public EntityCacheEndpoint(EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> stats() {
+        return entityCache.stats();
+    }
+}
@@ -0,0 +1,117 @@
+package ro.unibuc.hello.index;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.repository.ApartmentRepository;
+import ro.unibuc.hello.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Cache mărginit "există id-ul?" pentru utilizatori și apartamente, folosit pe căile de scriere
+ * (crearea rezervărilor și a apartamentelor). Caffeine evacuează după W-TinyLFU, deci id-urile folosite des
+ * rămân în cache chiar sub un val de id-uri noi. Păstrăm și răspunsurile negative, dar pe o durată scurtă,
+ * pentru că o creare făcută de altă instanță nu ajunge la noi. Ținut la zi de UserIndexListener și
+ * ApartmentIndexListener; hit/miss se exportă ca cache.gets{cache=existence.users|existence.apartments}.
+ */
+@Component
+public class ExistenceCache {
+
+    private final UserRepository userRepository;
+    private final ApartmentRepository apartmentRepository;
+    private final Cache<String, Boolean> users;
+    private final Cache<String, Boolean> apartments;
+
+    public ExistenceCache(UserRepository userRepository, ApartmentRepository apartmentRepository, MeterRegistry meterRegistry,
+                          @Value("${existence.cache.max-size:100000}") long maxSize,
+                          @Value("${existence.cache.positive-ttl-seconds:600}") long positiveTtlSeconds,
+                          @Value("${existence.cache.negative-ttl-seconds:5}") long negativeTtlSeconds) {
+        this.userRepository = userRepository;
+        this.apartmentRepository = apartmentRepository;
+        this.users = build(maxSize, positiveTtlSeconds, negativeTtlSeconds);
+        this.apartments = build(maxSize, positiveTtlSeconds, negativeTtlSeconds);
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "existence.users");
+        CaffeineCacheMetrics.monitor(meterRegistry, apartments, "existence.apartments");
+    }
+
+    private static Cache<String, Boolean> build(long maxSize, long positiveTtlSeconds, long negativeTtlSeconds) {
+        long positiveTtl = Duration.ofSeconds(positiveTtlSeconds).toNanos();
+        long negativeTtl = Duration.ofSeconds(negativeTtlSeconds).toNanos();
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Boolean>() {
+                    @Override
+                    public long expireAfterCreate(String id, Boolean exists, long currentTime) {
+                        return exists ? positiveTtl : negativeTtl;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String id, Boolean exists, long currentTime, long currentDuration) {
+                        return exists ? positiveTtl : negativeTtl;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String id, Boolean exists, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public boolean userExists(String id) {
+        return exists(users, id, userRepository::existsById);
+    }
+
+    public boolean apartmentExists(String id) {
+        return exists(apartments, id, apartmentRepository::existsById);
+    }
+
+    // Interogarea rulează în afara cache-ului: cache.get(id, loader) ar apela existsById în
+    // ConcurrentHashMap.compute, adică într-un bloc synchronized care lipește firul virtual de purtător pe toată
+    // durata drumului la Mongo (vezi VirtualThreadPinningMonitor). putIfAbsent păstrează totuși regula de dinainte:
+    // un put din listener făcut cât timp interogam câștigă în fața răspunsului nostru, posibil mai vechi.
+    // Două miss-uri simultane pe același id pot interoga amândouă; răspunsul e același
+    private static boolean exists(Cache<String, Boolean> cache, String id, Predicate<String> loader) {
+        if (id == null) {
+            return false;
+        }
+        Boolean cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        boolean loaded = loader.test(id);
+        Boolean current = cache.asMap().putIfAbsent(id, loaded);
+        return current != null ? current : loaded;
+    }
+
+    public void userSaved(String id) {
+        users.put(id, Boolean.TRUE);
+    }
+
+    public void userDeleted(String id) {
+        users.put(id, Boolean.FALSE);
+    }
+
+    public void invalidateUsers() {
+        users.invalidateAll();
+    }
+
+    public void apartmentSaved(String id) {
+        apartments.put(id, Boolean.TRUE);
+    }
+
+    public void apartmentDeleted(String id) {
+        apartments.put(id, Boolean.FALSE);
+    }
+
+    public void invalidateApartments() {
+        apartments.invalidateAll();
+    }
+}
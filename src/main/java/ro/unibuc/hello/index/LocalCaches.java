@@ -0,0 +1,109 @@
+package ro.unibuc.hello.index;
+
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.data.UserEntity;
+
+/**
+ * Punctul unic prin care o scriere ajunge în toate structurile din memorie care depind de ea.
+ * Scrierile locale vin din listener-ele Spring Data, cele făcute de alte instanțe din ClusterCacheSync.
+ * Toate operațiile sunt idempotente, deci o scriere văzută pe ambele căi nu strică nimic.
+ */
+@Component
+public class LocalCaches {
+
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final AvailabilityCalendar availabilityCalendar;
+    private final ApartmentCatalogue apartmentCatalogue;
+    private final ReviewEligibility reviewEligibility;
+    private final ExistenceCache existenceCache;
+    private final EntityCache entityCache;
+    private final SearchResultCache searchResultCache;
+
+    public LocalCaches(BookingIntervalIndex bookingIntervalIndex, AvailabilityCalendar availabilityCalendar,
+                       ApartmentCatalogue apartmentCatalogue, ReviewEligibility reviewEligibility,
+                       ExistenceCache existenceCache, EntityCache entityCache, SearchResultCache searchResultCache) {
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.availabilityCalendar = availabilityCalendar;
+        this.apartmentCatalogue = apartmentCatalogue;
+        this.reviewEligibility = reviewEligibility;
+        this.existenceCache = existenceCache;
+        this.entityCache = entityCache;
+        this.searchResultCache = searchResultCache;
+    }
+
+    public void apartmentSaved(ApartmentEntity apartment) {
+        availabilityCalendar.putApartment(apartment.getId());
+        apartmentCatalogue.put(apartment);
+        existenceCache.apartmentSaved(apartment.getId());
+        entityCache.putApartment(apartment);
+        searchResultCache.apartmentSaved(apartment);
+    }
+
+    public void apartmentDeleted(String id) {
+        availabilityCalendar.removeApartment(id);
+        apartmentCatalogue.remove(id);
+        existenceCache.apartmentDeleted(id);
+        entityCache.evictApartment(id);
+        searchResultCache.apartmentDeleted(id);
+    }
+
+    public void apartmentsInvalidated() {
+        availabilityCalendar.invalidate();
+        apartmentCatalogue.invalidate();
+        existenceCache.invalidateApartments();
+        entityCache.invalidateApartments();
+        searchResultCache.invalidate();
+    }
+
+    // Doar agregatele de rating s-au schimbat (ex. după RatingAggregatesRepair); rezervările nu sunt afectate
+    public void apartmentRatingsInvalidated() {
+        apartmentCatalogue.invalidate();
+        entityCache.invalidateApartments();
+        searchResultCache.invalidate();
+    }
+
+    public void bookingSaved(BookingEntity booking) {
+        bookingIntervalIndex.put(booking);
+        availabilityCalendar.putBooking(booking);
+        reviewEligibility.bookingSaved(booking);
+        entityCache.putBooking(booking);
+    }
+
+    public void bookingDeleted(String id) {
+        bookingIntervalIndex.remove(id);
+        availabilityCalendar.removeBooking(id);
+        reviewEligibility.bookingRemoved();
+        entityCache.evictBooking(id);
+    }
+
+    public void bookingsInvalidated() {
+        bookingIntervalIndex.invalidate();
+        availabilityCalendar.invalidate();
+        reviewEligibility.invalidate();
+        entityCache.invalidateBookings();
+    }
+
+    public void userSaved(UserEntity user) {
+        existenceCache.userSaved(user.getId());
+        entityCache.putUser(user);
+    }
+
+    public void userDeleted(String id) {
+        existenceCache.userDeleted(id);
+        entityCache.evictUser(id);
+    }
+
+    public void usersInvalidated() {
+        existenceCache.invalidateUsers();
+        entityCache.invalidateUsers();
+    }
+
+    // Folosit când nu mai putem ști ce s-a pierdut (ex. istoricul change stream-ului a expirat)
+    public void invalidateAll() {
+        apartmentsInvalidated();
+        bookingsInvalidated();
+        usersInvalidated();
+    }
+}
@@ -0,0 +1,185 @@
+package ro.unibuc.hello.index;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.repository.BookingRepository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Răspunde dacă un utilizator a rezervat un apartament (condiția pentru a lăsa un review).
+ * Un filtru Bloom cu toate perechile (apartament, utilizator) respinge fără Mongo aproape toate perechile
+ * fără rezervare; un "poate" se confirmă cu un exists pe indexul (apartmentId, userId), iar confirmările
+ * se păstrează într-un cache LRU mărginit. Ținut la zi de BookingIndexListener.
+ *
+ * Rezervările făcute de alte instanțe ajung în filtru doar prin ClusterCacheSync: aproape imediat cu
+ * CHANGE_STREAM, după cel mult cache.sync.poll-interval-ms cu POLLING. În acest interval un review pentru
+ * o rezervare nouă de pe altă instanță poate fi respins. Cu mai multe instanțe și cache.sync.mode=NONE
+ * filtrul nu află deloc de acele rezervări; pentru acest caz review.eligibility.confirm-negatives=true
+ * confirmă și un "nu" al filtrului în Mongo. Implicit este oprit, ca o singură instanță (sau una
+ * sincronizată) să respingă perechile fără rezervare fără niciun drum la Mongo.
+ */
+@Component
+public class ReviewEligibility {
+
+    // Capacitatea minimă a filtrului, ca primele rezervări să nu declanșeze reconstrucții dese
+    private static final int MIN_CAPACITY = 1024;
+
+    private final BookingRepository bookingRepository;
+    private final double falsePositiveRate;
+    private final int confirmCacheSize;
+    private final boolean confirmNegatives;
+    private final Counter bloomRejections;
+    private final Counter negativeQueries;
+    private final Counter cacheHits;
+    private final Counter queries;
+
+    // Filtrul curent; null înseamnă că trebuie (re)încărcat
+    private volatile BloomFilter filter;
+    private int capacity;
+    private int insertions;
+
+    private final Map<String, Boolean> confirmed;
+
+    public ReviewEligibility(BookingRepository bookingRepository, MeterRegistry meterRegistry,
+                             @Value("${review.eligibility.false-positive-rate:0.01}") double falsePositiveRate,
+                             @Value("${review.eligibility.confirm-cache-size:10000}") int confirmCacheSize,
+                             @Value("${review.eligibility.confirm-negatives:false}") boolean confirmNegatives) {
+        this.bookingRepository = bookingRepository;
+        this.confirmNegatives = confirmNegatives;
+        this.falsePositiveRate = falsePositiveRate;
+        this.confirmCacheSize = confirmCacheSize;
+        this.confirmed = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > ReviewEligibility.this.confirmCacheSize;
+            }
+        };
+        this.bloomRejections = counter(meterRegistry, "bloom_reject");
+        this.negativeQueries = counter(meterRegistry, "bloom_reject_query");
+        this.cacheHits = counter(meterRegistry, "cache_hit");
+        this.queries = counter(meterRegistry, "query");
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("reviews.eligibility.checks")
+                .description("Verificări de eligibilitate pentru review, după cum au fost rezolvate")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        ensureLoaded();
+    }
+
+    public boolean hasBooked(String apartmentId, String userId) {
+        if (apartmentId == null || userId == null) {
+            return false;
+        }
+        String key = key(apartmentId, userId);
+        if (!ensureLoaded().mightContain(key)) {
+            if (!confirmNegatives) {
+                bloomRejections.increment();
+                return false;
+            }
+            // Rezervarea poate fi scrisă de o instanță nesincronizată; o adăugăm în filtru dacă există
+            negativeQueries.increment();
+            boolean booked = bookingRepository.existsByApartmentIdAndUserId(apartmentId, userId);
+            if (booked) {
+                bookingSaved(apartmentId, userId);
+            }
+            return booked;
+        }
+        synchronized (confirmed) {
+            if (confirmed.containsKey(key)) {
+                cacheHits.increment();
+                return true;
+            }
+        }
+        queries.increment();
+        boolean booked = bookingRepository.existsByApartmentIdAndUserId(apartmentId, userId);
+        if (booked) {
+            synchronized (confirmed) {
+                confirmed.put(key, Boolean.TRUE);
+            }
+        }
+        return booked;
+    }
+
+    public void bookingSaved(BookingEntity booking) {
+        if (booking.getApartmentId() == null || booking.getUserId() == null) {
+            return;
+        }
+        bookingSaved(booking.getApartmentId(), booking.getUserId());
+    }
+
+    private void bookingSaved(String apartmentId, String userId) {
+        String key = key(apartmentId, userId);
+        synchronized (this) {
+            if (filter == null) {
+                // Rezervarea va fi citită oricum la următoarea încărcare
+                return;
+            }
+            filter.add(key);
+            if (++insertions > capacity) {
+                // Filtrul s-a umplut peste capacitate și rata de fals pozitive crește; îl reconstruim mai mare
+                filter = null;
+            }
+        }
+        synchronized (confirmed) {
+            confirmed.put(key, Boolean.TRUE);
+        }
+    }
+
+    // Nu știm perechea rezervării șterse (evenimentul are doar id-ul), deci renunțăm la toate confirmările;
+    // filtrul rămâne corect, o pereche ștearsă fiind doar un fals pozitiv verificat în Mongo
+    public void bookingRemoved() {
+        synchronized (confirmed) {
+            confirmed.clear();
+        }
+    }
+
+    // Golește tot; filtrul se reîncarcă din Mongo la următoarea cerere
+    public void invalidate() {
+        synchronized (this) {
+            filter = null;
+        }
+        bookingRemoved();
+    }
+
+    private BloomFilter ensureLoaded() {
+        BloomFilter current = filter;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (filter != null) {
+                return filter;
+            }
+            List<BookingEntity> pairs = bookingRepository.findAllApartmentUserPairs();
+            int newCapacity = Math.max(MIN_CAPACITY, pairs.size() * 2);
+            BloomFilter loaded = new BloomFilter(newCapacity, falsePositiveRate);
+            for (BookingEntity booking : pairs) {
+                if (booking.getApartmentId() != null && booking.getUserId() != null) {
+                    loaded.add(key(booking.getApartmentId(), booking.getUserId()));
+                }
+            }
+            capacity = newCapacity;
+            insertions = pairs.size();
+            filter = loaded;
+            return loaded;
+        }
+    }
+
+    private static String key(String apartmentId, String userId) {
+        return apartmentId + '\u0000' + userId;
+    }
+}
@@ -0,0 +1,129 @@
+package ro.unibuc.hello.index;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.ApartmentEntity;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Cache pentru rezultatele căutărilor de apartamente, cheiat pe (operație, parametri canonicalizați)
+ * și mărginit după greutatea totală (numărul de apartamente din rezultate) și după numărul de intrări.
+ * Fiecare intrare își ține predicatul, compilat la inserare, care spune ce apartament ar intra în rezultat,
+ * deci la o scriere scoatem doar intrările afectate: cele care conțin deja apartamentul sau în care noua
+ * lui versiune ar intra. Snapshot-ul cu un rând al apartamentului scris se construiește o singură dată
+ * per scriere și este evaluat de predicatele tuturor intrărilor.
+ * Versiunea catalogului crește la fiecare scriere; un rezultat încărcat în timp ce versiunea s-a schimbat
+ * nu rămâne în cache, pentru că scrierea concurentă poate să nu se fi reflectat în el.
+ * Ținut la zi prin LocalCaches, deci vede și scrierile altor instanțe când ClusterCacheSync este activ;
+ * altfel TTL-ul mărginește cât de vechi poate fi un rezultat.
+ */
+@Component
+public class SearchResultCache {
+
+    private record Key(String operation, Object parameters) {
+    }
+
+    // ids sunt apartamentele din rezultat; matcher decide dacă apartamentul din snapshot-ul cu un rând
+    // ar face parte din el; version este versiunea catalogului de la începutul încărcării
+    private record Entry(List<ApartmentEntity> result, Set<String> ids, Predicate<ApartmentSnapshot> matcher, long version) {
+    }
+
+    private final Cache<Key, Entry> cache;
+    private final AtomicLong version = new AtomicLong();
+    private final Counter evicted;
+    private final Counter kept;
+
+    public SearchResultCache(MeterRegistry meterRegistry,
+                             @Value("${search.cache.max-weight:100000}") long maxWeight,
+                             @Value("${search.cache.max-entries:5000}") long maxEntries,
+                             @Value("${search.cache.ttl-seconds:300}") long ttlSeconds) {
+        if (maxEntries <= 0 || maxEntries > maxWeight) {
+            throw new IllegalArgumentException("Search cache entries must be positive and at most the maximum weight.");
+        }
+        // Caffeine nu acceptă maximumSize împreună cu maximumWeight; fiecare intrare costă deci cel puțin
+        // maxWeight / maxEntries, iar numărul lor (și predicatele evaluate la o scriere) rămâne sub maxEntries
+        int minEntryWeight = (int) Math.min(Integer.MAX_VALUE, maxWeight / maxEntries);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Key key, Entry entry) -> Math.max(entry.result().size() + 1, minEntryWeight))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "search.results");
+        Gauge.builder("search.results.catalogue.version", version, AtomicLong::get).register(meterRegistry);
+        this.evicted = Counter.builder("search.results.write.checks").tag("result", "evicted").register(meterRegistry);
+        this.kept = Counter.builder("search.results.write.checks").tag("result", "kept").register(meterRegistry);
+    }
+
+    /**
+     * Rezultatul din cache sau cel dat de loader. parameters trebuie să fie deja canonicalizați;
+     * matcher primește un snapshot cu un singur rând și trebuie să accepte exact apartamentele pe care
+     * query-ul le-ar întoarce.
+     */
+    public List<ApartmentEntity> get(String operation, Object parameters, Predicate<ApartmentSnapshot> matcher,
+                                     Supplier<List<ApartmentEntity>> loader) {
+        Key key = new Key(operation, parameters);
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.result();
+        }
+
+        long loadVersion = version.get();
+        List<ApartmentEntity> result = Collections.unmodifiableList(loader.get());
+        Set<String> ids = new HashSet<>();
+        for (ApartmentEntity apartment : result) {
+            ids.add(apartment.getId());
+        }
+        Entry entry = new Entry(result, ids, matcher, loadVersion);
+        // Întâi publicăm, apoi verificăm versiunea: o scriere concurentă ori vede intrarea și o evaluează,
+        // ori a schimbat deja versiunea și o scoatem noi
+        cache.put(key, entry);
+        if (version.get() != entry.version()) {
+            cache.asMap().remove(key, entry);
+        }
+        return result;
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public void apartmentSaved(ApartmentEntity apartment) {
+        version.incrementAndGet();
+        ApartmentSnapshot written = ApartmentSnapshot.of(List.of(apartment));
+        cache.asMap().values().removeIf(entry -> {
+            boolean affected = entry.ids().contains(apartment.getId()) || entry.matcher().test(written);
+            (affected ? evicted : kept).increment();
+            return affected;
+        });
+    }
+
+    // Un apartament șters schimbă doar rezultatele în care apărea
+    public void apartmentDeleted(String id) {
+        version.incrementAndGet();
+        cache.asMap().values().removeIf(entry -> {
+            boolean affected = entry.ids().contains(id);
+            (affected ? evicted : kept).increment();
+            return affected;
+        });
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+        cache.invalidateAll();
+    }
+}
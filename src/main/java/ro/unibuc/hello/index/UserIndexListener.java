@@ -0,0 +1,48 @@
+package ro.unibuc.hello.index;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.UserEntity;
+
+import java.time.Instant;
+
+/**
+ * Ține ExistenceCache și EntityCache la zi pentru orice scriere de utilizatori făcută prin Spring Data.
+ */
+@Component
+public class UserIndexListener extends AbstractMongoEventListener<UserEntity> {
+
+    private final LocalCaches localCaches;
+    private final ClusterCacheSync clusterCacheSync;
+
+    public UserIndexListener(LocalCaches localCaches, ClusterCacheSync clusterCacheSync) {
+        this.localCaches = localCaches;
+        this.clusterCacheSync = clusterCacheSync;
+    }
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<UserEntity> event) {
+        event.getSource().setUpdatedAt(Instant.now());
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<UserEntity> event) {
+        localCaches.userSaved(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<UserEntity> event) {
+        Object id = event.getSource().get("_id");
+        if (id instanceof String || id instanceof ObjectId) {
+            localCaches.userDeleted(id.toString());
+            clusterCacheSync.recordDeletion(event.getCollectionName(), id.toString());
+        } else {
+            localCaches.usersInvalidated();
+            clusterCacheSync.recordDeletion(event.getCollectionName(), null);
+        }
+    }
+}
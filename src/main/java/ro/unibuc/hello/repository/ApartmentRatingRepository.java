@@ -0,0 +1,16 @@
+package ro.unibuc.hello.repository;
+
+import ro.unibuc.hello.data.ApartmentEntity;
+
+// Fragment de repository: agregatele rating-urilor întreținute incremental pe documentul apartamentului
+public interface ApartmentRatingRepository {
+
+    /**
+     * Adaugă (delta = 1) sau scoate (delta = -1) un rating din ratingSum, ratingCount și ratingHistogram,
+     * apoi recalculează averageRating din valorile rezultate.
+     * Un rating null contează doar la ratingCount (ca 0 în medie).
+     *
+     * @return apartamentul actualizat sau null dacă nu există
+     */
+    ApartmentEntity applyRating(String apartmentId, Integer rating, int delta);
+}
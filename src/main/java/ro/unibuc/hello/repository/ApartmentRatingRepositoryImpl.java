@@ -0,0 +1,46 @@
+package ro.unibuc.hello.repository;
+
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import ro.unibuc.hello.data.ApartmentEntity;
+
+import java.time.Instant;
+
+public class ApartmentRatingRepositoryImpl implements ApartmentRatingRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    public ApartmentRatingRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public ApartmentEntity applyRating(String apartmentId, Integer rating, int delta) {
+        Query byId = new Query(Criteria.where("id").is(apartmentId));
+
+        // $inc este atomic pe document, deci review-urile concurente nu își pierd actualizările
+        // updatedAt anunță modificarea și instanțelor care se sincronizează prin polling
+        Update increment = new Update().inc("ratingCount", delta).set("updatedAt", Instant.now());
+        if (rating != null) {
+            increment.inc("ratingSum", (long) rating * delta).inc("ratingHistogram." + rating, delta);
+        }
+        if (mongoTemplate.updateFirst(byId, increment, ApartmentEntity.class).getMatchedCount() == 0) {
+            return null;
+        }
+
+        // Media se calculează pe server din valorile curente, nu din cele citite de noi;
+        // ultima scriere vede mereu sumele finale, deci media converge și la actualizări concurente
+        AggregationUpdate average = AggregationUpdate.update()
+                .set("averageRating").toValue(ConditionalOperators.when(Criteria.where("ratingCount").gt(0))
+                        .thenValueOf(ArithmeticOperators.valueOf("ratingSum").divideBy("ratingCount"))
+                        .otherwise(Aggregation.REMOVE));
+        return mongoTemplate.findAndModify(byId, average, FindAndModifyOptions.options().returnNew(true), ApartmentEntity.class);
+    }
+}
@@ -1,12 +1,15 @@
 package ro.unibuc.hello.repository;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import ro.unibuc.hello.data.ApartmentEntity;
 
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface ApartmentRepository extends MongoRepository<ApartmentEntity, String> {
+public interface ApartmentRepository extends MongoRepository<ApartmentEntity, String>, ApartmentSearchRepository, ApartmentRatingRepository {
 
     // Căutăm apartamentele după numărul de băi
     List<ApartmentEntity> findByNumberOfBathrooms(int numberOfBathrooms);
@@ -37,11 +40,32 @@ public interface ApartmentRepository extends MongoRepository<ApartmentEntity, St
     List<ApartmentEntity> findByPricePerNightBetweenAndSquareMetersBetween(
         Double minPrice, Double maxPrice, Double minSquareMeters, Double maxSquareMeters);
 
-    // Metoda existentă actualizată pentru case-insensitive
-    @Query("{ 'location': { $regex: ?0, $options: 'i' } }")
-    List<ApartmentEntity> findByLocationIgnoreCase(String location);
+    // Căutare după cheia normalizată a locației (substring, cu caracterele speciale escape-uite)
+    List<ApartmentEntity> findByLocationKeyContaining(String locationKey);
+
+    // Folosește indexul pe averageRating, întreținut incremental de ReviewService
+    List<ApartmentEntity> findByAverageRatingGreaterThanEqual(Double minAverageRating);
 
     @Query("{ 'amenities': { $regex: ?0, $options: 'i' } }")
     List<ApartmentEntity> findByAmenitiesContainingIgnoreCase(String amenity);
+
+    // Doar ID-urile, pentru construirea indexurilor în memorie
+    @Query(value = "{}", fields = "{ '_id': 1 }")
+    List<ApartmentEntity> findAllIds();
     
-}
\ No newline at end of file
+
+    // Exportul NDJSON: documentele vin din cursor în loturi de câte 500, fără a construi o listă;
+    // stream-ul ține cursorul deschis până la close
+    @Meta(cursorBatchSize = 500)
+    Stream<ApartmentEntity> streamAllBy();
+
+    // Paginare keyset pe _id (vezi IdPages): prima pagină, respectiv cea de după id-ul dat
+    List<ApartmentEntity> findAllByOrderByIdAsc(Limit limit);
+
+    List<ApartmentEntity> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    // Cursor cu id String (vezi IdPages): id-urile String mai mari, apoi toate ObjectId-urile, care în ordinea
+    // tipurilor BSON vin după orice String
+    @Query(value = "{'$or': [{'_id': {'$gt': ?0}}, {'_id': {'$type': 'objectId'}}]}", sort = "{'_id': 1}")
+    List<ApartmentEntity> findAfterStringIdOrderByIdAsc(String id, Limit limit);
+}
@@ -0,0 +1,88 @@
+package ro.unibuc.hello.repository;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+import ro.unibuc.hello.dto.ApartmentSearchFilter;
+import ro.unibuc.hello.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Filtrul de la /apartments/search tradus în criterii Mongo; comun ApartmentSearchRepositoryImpl și
+// modulului reactiv, deci fără nicio dependență de driver
+public final class ApartmentSearchCriteria {
+
+    private ApartmentSearchCriteria() {
+    }
+
+    // Vocabularul de facilități (valorile distincte din amenityKeys) trebuie citit doar pentru aceste filtre
+    public static boolean hasAmenityFilter(ApartmentSearchFilter filter) {
+        return filter.amenity() != null || filter.amenities() != null || filter.excludedAmenities() != null;
+    }
+
+    // Doar filtrele prezente ajung în query, combinate cu $and
+    public static Criteria of(ApartmentSearchFilter filter, List<String> amenityVocabulary) {
+        List<Criteria> criteria = new ArrayList<>();
+
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            criteria.add(range("pricePerNight", filter.minPrice(), filter.maxPrice()));
+        }
+        if (filter.minSquareMeters() != null || filter.maxSquareMeters() != null) {
+            criteria.add(range("squareMeters", filter.minSquareMeters(), filter.maxSquareMeters()));
+        }
+        if (filter.numberOfRooms() != null) {
+            criteria.add(Criteria.where("numberOfRooms").is(filter.numberOfRooms()));
+        }
+        if (filter.numberOfBathrooms() != null) {
+            criteria.add(Criteria.where("numberOfBathrooms").is(filter.numberOfBathrooms()));
+        }
+        if (filter.isPetFriendly() != null) {
+            criteria.add(Criteria.where("isPetFriendly").is(filter.isPetFriendly()));
+        }
+        if (filter.smokingAllowed() != null) {
+            criteria.add(Criteria.where("smokingAllowed").is(filter.smokingAllowed()));
+        }
+        // averageRating e întreținut incremental din review-uri; apartamentele fără review-uri nu îl au
+        if (filter.minAverageRating() != null) {
+            criteria.add(Criteria.where("averageRating").gte(filter.minAverageRating()));
+        }
+        // Un termen de facilitate se potrivește ca substring, deci îl traducem în cheile exacte care îl conțin;
+        // $in / $nin pe amenityKeys folosesc apoi indexul multikey
+        if (filter.amenity() != null) {
+            criteria.add(Criteria.where("amenityKeys").in(keysContaining(amenityVocabulary, filter.amenity())));
+        }
+        if (filter.amenities() != null) {
+            for (String amenity : filter.amenities()) {
+                criteria.add(Criteria.where("amenityKeys").in(keysContaining(amenityVocabulary, amenity)));
+            }
+        }
+        if (filter.excludedAmenities() != null) {
+            for (String amenity : filter.excludedAmenities()) {
+                criteria.add(Criteria.where("amenityKeys").nin(keysContaining(amenityVocabulary, amenity)));
+            }
+        }
+        if (filter.location() != null) {
+            criteria.add(Criteria.where("locationKey").regex(TextNormalizer.escapeRegex(TextNormalizer.normalize(filter.location()))));
+        }
+
+        if (criteria.isEmpty()) {
+            return new Criteria();
+        }
+        return new Criteria().andOperator(criteria.toArray(new Criteria[0]));
+    }
+
+    private static List<String> keysContaining(List<String> amenityVocabulary, String amenity) {
+        String normalized = TextNormalizer.normalize(amenity);
+        return amenityVocabulary.stream().filter(key -> key.contains(normalized)).toList();
+    }
+
+    private static Criteria range(String field, Double min, Double max) {
+        Criteria criteria = Criteria.where(field);
+        if (min != null) {
+            criteria = criteria.gte(min);
+        }
+        if (max != null) {
+            criteria = criteria.lte(max);
+        }
+        return criteria;
+    }
+}
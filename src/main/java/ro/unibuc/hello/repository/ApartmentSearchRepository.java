@@ -0,0 +1,16 @@
+package ro.unibuc.hello.repository;
+
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.dto.ApartmentSearchFilter;
+
+import java.util.List;
+
+// Fragment de repository: căutarea combinată rulată ca un singur query Mongo
+public interface ApartmentSearchRepository {
+
+    /**
+     * @param fields câmpurile returnate (proiecție); null sau gol pentru documentul complet
+     * @param limit  numărul maxim de rezultate; null pentru toate
+     */
+    List<ApartmentEntity> search(ApartmentSearchFilter filter, List<String> fields, Integer limit);
+}
@@ -0,0 +1,33 @@
+package ro.unibuc.hello.repository;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.dto.ApartmentSearchFilter;
+
+import java.util.List;
+
+public class ApartmentSearchRepositoryImpl implements ApartmentSearchRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    public ApartmentSearchRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<ApartmentEntity> search(ApartmentSearchFilter filter, List<String> fields, Integer limit) {
+        // Vocabularul de facilități e mic și vine din indexul pe amenityKeys (DISTINCT_SCAN)
+        List<String> amenityVocabulary = ApartmentSearchCriteria.hasAmenityFilter(filter)
+                ? mongoTemplate.findDistinct(new Query(), "amenityKeys", ApartmentEntity.class, String.class)
+                : List.of();
+        Query query = new Query(ApartmentSearchCriteria.of(filter, amenityVocabulary));
+        if (fields != null && !fields.isEmpty()) {
+            query.fields().include(fields.toArray(new String[0]));
+        }
+        if (limit != null) {
+            query.limit(limit);
+        }
+        return mongoTemplate.find(query, ApartmentEntity.class);
+    }
+}
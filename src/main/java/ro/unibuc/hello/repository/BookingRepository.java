@@ -4,8 +4,11 @@ import ro.unibuc.hello.data.BookingEntity;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.domain.Limit;
 import java.util.List;               
 import java.time.LocalDate;          
 import org.springframework.data.mongodb.repository.Query;  
@@ -20,4 +23,26 @@ public interface BookingRepository extends MongoRepository<BookingEntity, String
     List<BookingEntity> findBookedApartmentIds(LocalDate startDate, LocalDate endDate);
 
     List<BookingEntity> findByApartmentIdAndUserId(String apartmentId, String userId);
+
+    // Doar existența, pe indexul (apartmentId, userId), fără a citi rezervările
+    boolean existsByApartmentIdAndUserId(String apartmentId, String userId);
+
+    // Perechile (apartament, utilizator) ale tuturor rezervărilor, pentru ReviewEligibility
+    @Query(value = "{}", fields = "{'apartmentId': 1, 'userId': 1}")
+    List<BookingEntity> findAllApartmentUserPairs();
+
+    // Exportul NDJSON: documentele vin din cursor în loturi de câte 500, fără a construi o listă;
+    // stream-ul ține cursorul deschis până la close
+    @Meta(cursorBatchSize = 500)
+    Stream<BookingEntity> streamAllBy();
+
+    // Paginare keyset pe _id (vezi IdPages): prima pagină, respectiv cea de după id-ul dat
+    List<BookingEntity> findAllByOrderByIdAsc(Limit limit);
+
+    List<BookingEntity> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    // Cursor cu id String (vezi IdPages): id-urile String mai mari, apoi toate ObjectId-urile, care în ordinea
+    // tipurilor BSON vin după orice String
+    @Query(value = "{'$or': [{'_id': {'$gt': ?0}}, {'_id': {'$type': 'objectId'}}]}", sort = "{'_id': 1}")
+    List<BookingEntity> findAfterStringIdOrderByIdAsc(String id, Limit limit);
 }
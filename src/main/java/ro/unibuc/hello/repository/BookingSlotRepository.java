@@ -0,0 +1,11 @@
+package ro.unibuc.hello.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import ro.unibuc.hello.data.BookingSlotEntity;
+
+public interface BookingSlotRepository extends MongoRepository<BookingSlotEntity, String> {
+
+    boolean existsByBookingId(String bookingId);
+
+    void deleteByBookingId(String bookingId);
+}
@@ -3,6 +3,8 @@ package ro.unibuc.hello.repository;
 import java.util.List;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 import ro.unibuc.hello.data.InformationEntity;
 
@@ -16,4 +18,13 @@ public interface InformationRepository extends MongoRepository<InformationEntity
     InformationEntity findByTitle(String title);
     List<InformationEntity> findByDescription(String description);
 
+    // Paginare keyset pe _id (vezi IdPages): prima pagină, respectiv cea de după id-ul dat
+    List<InformationEntity> findAllByOrderByIdAsc(Limit limit);
+
+    List<InformationEntity> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    // Cursor cu id String (vezi IdPages): id-urile String mai mari, apoi toate ObjectId-urile, care în ordinea
+    // tipurilor BSON vin după orice String
+    @Query(value = "{'$or': [{'_id': {'$gt': ?0}}, {'_id': {'$type': 'objectId'}}]}", sort = "{'_id': 1}")
+    List<InformationEntity> findAfterStringIdOrderByIdAsc(String id, Limit limit);
 }
@@ -0,0 +1,32 @@
+package ro.unibuc.hello.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
+import ro.unibuc.hello.data.ReactionEntity;
+import ro.unibuc.hello.data.ReactionType;
+
+import java.util.List;
+
+public interface ReactionRepository extends MongoRepository<ReactionEntity, String> {
+
+    // Paginile folosesc prefixul (reviewId, userId) al indexului unic
+    List<ReactionEntity> findByReviewIdOrderByUserId(String reviewId, Pageable pageable);
+
+    List<ReactionEntity> findByReviewIdAndTypeOrderByUserId(String reviewId, ReactionType type, Pageable pageable);
+
+    ReactionEntity findByReviewIdAndUserId(String reviewId, String userId);
+
+    boolean existsByReviewIdAndUserIdAndType(String reviewId, String userId, ReactionType type);
+
+    // Schimbă tipul reacției doar dacă este încă from; returnează numărul de documente modificate
+    @Query("{ 'reviewId': ?0, 'userId': ?1, 'type': ?2 }")
+    @Update("{ '$set': { 'type': ?3 } }")
+    long changeType(String reviewId, String userId, ReactionType from, ReactionType to);
+
+    // Șterge și returnează reacția (findAndRemove), ca să știm ce contor scădem
+    ReactionEntity removeByReviewIdAndUserId(String reviewId, String userId);
+
+    void deleteByReviewId(String reviewId);
+}
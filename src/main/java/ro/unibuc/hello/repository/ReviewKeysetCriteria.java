@@ -0,0 +1,34 @@
+package ro.unibuc.hello.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+// Condiția "după cursor" pentru paginile keyset de review-uri ordonate după (câmp, _id); comună
+// ReviewPageRepositoryImpl și modulului reactiv. Câmpul poate lipsi (review-uri fără rating sau createdAt):
+// Mongo sortează null/lipsă sub orice valoare, deci la DESC ele vin la final, iar la ASC la început
+public final class ReviewKeysetCriteria {
+
+    private ReviewKeysetCriteria() {
+    }
+
+    // afterValue null înseamnă că ultimul review de pe pagina anterioară nu avea valoare pentru câmp
+    public static Criteria after(String field, Object afterValue, String afterId, Sort.Direction direction) {
+        if (direction == Sort.Direction.DESC) {
+            if (afterValue == null) {
+                return Criteria.where(field).is(null).and("id").lt(afterId);
+            }
+            return new Criteria().orOperator(
+                    Criteria.where(field).lt(afterValue),
+                    Criteria.where(field).is(afterValue).and("id").lt(afterId),
+                    Criteria.where(field).is(null));
+        }
+        if (afterValue == null) {
+            return new Criteria().orOperator(
+                    Criteria.where(field).is(null).and("id").gt(afterId),
+                    Criteria.where(field).ne(null));
+        }
+        return new Criteria().orOperator(
+                Criteria.where(field).gt(afterValue),
+                Criteria.where(field).is(afterValue).and("id").gt(afterId));
+    }
+}
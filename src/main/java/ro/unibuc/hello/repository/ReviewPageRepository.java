@@ -0,0 +1,24 @@
+package ro.unibuc.hello.repository;
+
+import org.springframework.data.domain.Sort;
+import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.dto.ReviewSort;
+
+import java.util.List;
+
+// Fragment custom pentru ReviewRepository: paginarea keyset a review-urilor
+public interface ReviewPageRepository {
+
+    /**
+     * Cel mult limit review-uri ale apartamentului, în ordinea sort, aflate strict după (afterValue, afterId).
+     * Fără afterId se întoarce prima pagină.
+     */
+    List<ReviewEntity> findApartmentReviewsPage(String apartmentId, ReviewSort sort, Object afterValue, String afterId, int limit);
+
+    /**
+     * Cel mult limit review-uri cu rating > ratingAbove și <= ratingAtMost (oricare poate fi null), ordonate
+     * după (rating, _id) în direcția dată, aflate strict după (afterRating, afterId).
+     */
+    List<ReviewEntity> findRatingPage(Integer ratingAbove, Integer ratingAtMost, Sort.Direction direction,
+                                      Integer afterRating, String afterId, int limit);
+}
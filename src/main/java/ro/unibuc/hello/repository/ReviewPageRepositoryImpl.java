@@ -0,0 +1,56 @@
+package ro.unibuc.hello.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.dto.ReviewSort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReviewPageRepositoryImpl implements ReviewPageRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    public ReviewPageRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Fiecare ordine are indexul ei (apartmentId, câmp, _id), deci pagina este un scan de limit intrări
+    // din index, oricâte review-uri ar fi în colecție sau înaintea cursorului
+    @Override
+    public List<ReviewEntity> findApartmentReviewsPage(String apartmentId, ReviewSort sort, Object afterValue, String afterId, int limit) {
+        Criteria criteria = Criteria.where("apartmentId").is(apartmentId);
+        if (afterId != null) {
+            criteria = new Criteria().andOperator(criteria,
+                    ReviewKeysetCriteria.after(sort.field(), afterValue, afterId, Sort.Direction.DESC));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, sort.field(), "id"))
+                .limit(limit);
+        return mongoTemplate.find(query, ReviewEntity.class);
+    }
+
+    // Indexul (rating, _id) dă direct ordinea (parcurs înapoi pentru ASC), deci nu există sortare în memorie
+    @Override
+    public List<ReviewEntity> findRatingPage(Integer ratingAbove, Integer ratingAtMost, Sort.Direction direction,
+                                             Integer afterRating, String afterId, int limit) {
+        List<Criteria> clauses = new ArrayList<>();
+        if (ratingAbove != null) {
+            clauses.add(Criteria.where("rating").gt(ratingAbove));
+        }
+        if (ratingAtMost != null) {
+            clauses.add(Criteria.where("rating").lte(ratingAtMost));
+        }
+        if (afterId != null) {
+            clauses.add(ReviewKeysetCriteria.after("rating", afterRating, afterId, direction));
+        }
+        Criteria criteria = clauses.isEmpty() ? new Criteria() : new Criteria().andOperator(clauses);
+        Query query = new Query(criteria)
+                .with(Sort.by(direction, "rating", "id"))
+                .limit(limit);
+        return mongoTemplate.find(query, ReviewEntity.class);
+    }
+}
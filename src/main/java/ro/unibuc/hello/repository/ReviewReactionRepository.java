@@ -0,0 +1,8 @@
+package ro.unibuc.hello.repository;
+
+// Fragment de repository: contoarele de reacții păstrate pe review (reacțiile sunt în ReactionRepository)
+public interface ReviewReactionRepository {
+
+    // $inc atomic pe likeCount și dislikeCount
+    void incrementReactionCounts(String reviewId, long likeDelta, long dislikeDelta);
+}
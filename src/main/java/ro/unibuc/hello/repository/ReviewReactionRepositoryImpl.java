@@ -0,0 +1,30 @@
+package ro.unibuc.hello.repository;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import ro.unibuc.hello.data.ReviewEntity;
+
+public class ReviewReactionRepositoryImpl implements ReviewReactionRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    public ReviewReactionRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void incrementReactionCounts(String reviewId, long likeDelta, long dislikeDelta) {
+        Update update = new Update();
+        if (likeDelta != 0) {
+            update.inc("likeCount", likeDelta);
+        }
+        if (dislikeDelta != 0) {
+            update.inc("dislikeCount", dislikeDelta);
+        }
+        if (!update.getUpdateObject().isEmpty()) {
+            mongoTemplate.updateFirst(new Query(Criteria.where("id").is(reviewId)), update, ReviewEntity.class);
+        }
+    }
+}
@@ -5,7 +5,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.domain.Sort;
 import java.util.List;
 
-public interface ReviewRepository extends MongoRepository<ReviewEntity, String> {
+public interface ReviewRepository extends MongoRepository<ReviewEntity, String>, ReviewReactionRepository, ReviewPageRepository {
 
     // Metoda care returnează review-urile sortate după rating (descrescător sau crescător)
     List<ReviewEntity> findAll(Sort sort);
@@ -16,4 +16,7 @@ public interface ReviewRepository extends MongoRepository<ReviewEntity, String>
     // Returnează review-urile cu rating mai mic sau egal cu 3
     List<ReviewEntity> findByRatingLessThanEqual(int rating, Sort sort);
 
+    // Șterge și returnează review-ul (findAndRemove), ca să știm ce rating scoatem din agregate
+    ReviewEntity removeById(String id);
+
 }
@@ -2,6 +2,20 @@ package ro.unibuc.hello.repository;
 
 import ro.unibuc.hello.data.UserEntity;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.List;
 
 public interface UserRepository extends MongoRepository<UserEntity, String> {
+
+    // Paginare keyset pe _id (vezi IdPages): prima pagină, respectiv cea de după id-ul dat
+    List<UserEntity> findAllByOrderByIdAsc(Limit limit);
+
+    List<UserEntity> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    // Cursor cu id String (vezi IdPages): id-urile String mai mari, apoi toate ObjectId-urile, care în ordinea
+    // tipurilor BSON vin după orice String
+    @Query(value = "{'$or': [{'_id': {'$gt': ?0}}, {'_id': {'$type': 'objectId'}}]}", sort = "{'_id': 1}")
+    List<UserEntity> findAfterStringIdOrderByIdAsc(String id, Limit limit);
 }
@@ -0,0 +1,70 @@
+package ro.unibuc.hello.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.ApartmentEntity;
+
+/**
+ * La pornire completează locationKey și amenityKeys pentru apartamentele scrise înainte să existe
+ * aceste câmpuri. Scrierile noi le primesc din ApartmentIndexListener.
+ */
+@Component
+public class ApartmentSearchKeysMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(ApartmentSearchKeysMigration.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    public ApartmentSearchKeysMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        Query missingKeys = new Query(new Criteria().orOperator(
+                Criteria.where("location").ne(null).and("locationKey").exists(false),
+                Criteria.where("amenities").ne(null).and("amenityKeys").exists(false)));
+        missingKeys.fields().include("location", "amenities");
+
+        int updated = 0;
+        BulkOperations batch = null;
+        int batchCount = 0;
+        try (CloseableIterator<ApartmentEntity> apartments = mongoTemplate.stream(missingKeys, ApartmentEntity.class)) {
+            while (apartments.hasNext()) {
+                ApartmentEntity apartment = apartments.next();
+                apartment.refreshSearchKeys();
+                if (batch == null) {
+                    batch = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ApartmentEntity.class);
+                }
+                // $set direct, fără save, ca să nu rescriem restul documentului
+                batch.updateOne(new Query(Criteria.where("id").is(apartment.getId())), new Update()
+                        .set("locationKey", apartment.getLocationKey())
+                        .set("amenityKeys", apartment.getAmenityKeys()));
+                if (++batchCount == BATCH_SIZE) {
+                    batch.execute();
+                    updated += batchCount;
+                    batch = null;
+                    batchCount = 0;
+                }
+            }
+        }
+        if (batch != null) {
+            batch.execute();
+            updated += batchCount;
+        }
+        if (updated > 0) {
+            log.info("Filled search keys for {} apartments", updated);
+        }
+    }
+}
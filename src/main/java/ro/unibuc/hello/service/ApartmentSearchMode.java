@@ -0,0 +1,9 @@
+package ro.unibuc.hello.service;
+
+// Unde se evaluează filtrele de la /apartments/search (proprietatea apartment.search.mode)
+public enum ApartmentSearchMode {
+    // Un singur query Mongo (vezi ApartmentSearchRepositoryImpl)
+    QUERY,
+    // Predicat compilat peste catalogul ținut în memorie (vezi ApartmentCatalogue)
+    MEMORY
+}
@@ -0,0 +1,229 @@
+package ro.unibuc.hello.service;
+
+import org.roaringbitmap.RoaringBitmap;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.dto.ApartmentSearchFilter;
+import ro.unibuc.hello.index.ApartmentSnapshot;
+import ro.unibuc.hello.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Compilează filtrele prezente dintr-un ApartmentSearchFilter într-un singur predicat pe rândurile
+ * unui ApartmentSnapshot. Filtrele numerice și booleene citesc doar coloanele de primitive,
+ * facilitățile devin un bitmap din AmenityIndex, iar doar locația ajunge la entitate.
+ * Clauzele sunt ordonate după cost / (1 - selectivitate), adică întâi cele ieftine care elimină mult,
+ * iar selectivitatea se estimează pe un eșantion din snapshot (sau din valori implicite, dacă e gol).
+ * Varianta fără snapshot (RowMatcher) primește snapshot-ul la evaluare, deci se compilează o singură dată
+ * per filtru; SearchResultCache o evaluează pe snapshot-ul cu un rând al apartamentului scris.
+ */
+public final class ApartmentSearchPredicate {
+
+    // Costuri relative de evaluare a unei clauze
+    private static final double COMPARISON_COST = 1;
+    private static final double LOOKUP_COST = 4;
+    private static final double TEXT_COST = 50;
+
+    private static final int SAMPLE_SIZE = 256;
+
+    private ApartmentSearchPredicate() {}
+
+    // Predicat pe un rând al snapshot-ului primit la evaluare
+    @FunctionalInterface
+    public interface RowMatcher {
+        boolean test(ApartmentSnapshot snapshot, int row);
+    }
+
+    public static IntPredicate compile(ApartmentSearchFilter filter, ApartmentSnapshot snapshot) {
+        List<Clause> clauses = orderedClauses(filter, snapshot);
+        if (clauses.isEmpty()) {
+            return row -> true;
+        }
+        IntPredicate[] ordered = clauses.stream().map(clause -> clause.bind(snapshot)).toArray(IntPredicate[]::new);
+        if (ordered.length == 1) {
+            return ordered[0];
+        }
+        return row -> {
+            for (IntPredicate predicate : ordered) {
+                if (!predicate.test(row)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    // Fără snapshot nu avem eșantion, deci clauzele se ordonează după selectivitățile implicite
+    public static RowMatcher compile(ApartmentSearchFilter filter) {
+        List<Clause> clauses = orderedClauses(filter, null);
+        if (clauses.isEmpty()) {
+            return (snapshot, row) -> true;
+        }
+        RowMatcher[] ordered = clauses.stream().map(Clause::matcher).toArray(RowMatcher[]::new);
+        if (ordered.length == 1) {
+            return ordered[0];
+        }
+        return (snapshot, row) -> {
+            for (RowMatcher matcher : ordered) {
+                if (!matcher.test(snapshot, row)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    // Numele clauzelor în ordinea în care vor fi evaluate; util pentru teste și diagnoză
+    static List<String> plan(ApartmentSearchFilter filter, ApartmentSnapshot snapshot) {
+        return orderedClauses(filter, snapshot).stream().map(Clause::name).toList();
+    }
+
+    private static List<Clause> orderedClauses(ApartmentSearchFilter filter, ApartmentSnapshot snapshot) {
+        List<Clause> clauses = clauses(filter, snapshot);
+        for (Clause clause : clauses) {
+            clause.estimate(snapshot);
+        }
+        clauses.sort(Comparator.comparingDouble(Clause::rank));
+        return clauses;
+    }
+
+    private static List<Clause> clauses(ApartmentSearchFilter filter, ApartmentSnapshot snapshot) {
+        List<Clause> clauses = new ArrayList<>();
+
+        // Valorile implicite de selectivitate sunt folosite doar când snapshot-ul e gol sau lipsește.
+        // Limitele lipsă devin infinit; NaN (valoare lipsă) nu trece de nicio comparație.
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            double minPrice = filter.minPrice() != null ? filter.minPrice() : Double.NEGATIVE_INFINITY;
+            double maxPrice = filter.maxPrice() != null ? filter.maxPrice() : Double.POSITIVE_INFINITY;
+            clauses.add(new Clause("pricePerNight", COMPARISON_COST, 0.5, (rows, row) -> {
+                double price = rows.price(row);
+                return price >= minPrice && price <= maxPrice;
+            }));
+        }
+        if (filter.minSquareMeters() != null || filter.maxSquareMeters() != null) {
+            double minSquareMeters = filter.minSquareMeters() != null ? filter.minSquareMeters() : Double.NEGATIVE_INFINITY;
+            double maxSquareMeters = filter.maxSquareMeters() != null ? filter.maxSquareMeters() : Double.POSITIVE_INFINITY;
+            clauses.add(new Clause("squareMeters", COMPARISON_COST, 0.5, (rows, row) -> {
+                double squareMeters = rows.squareMeters(row);
+                return squareMeters >= minSquareMeters && squareMeters <= maxSquareMeters;
+            }));
+        }
+        if (filter.numberOfRooms() != null) {
+            int numberOfRooms = filter.numberOfRooms();
+            clauses.add(new Clause("numberOfRooms", COMPARISON_COST, 0.25, (rows, row) -> rows.rooms(row) == numberOfRooms));
+        }
+        if (filter.numberOfBathrooms() != null) {
+            int numberOfBathrooms = filter.numberOfBathrooms();
+            clauses.add(new Clause("numberOfBathrooms", COMPARISON_COST, 0.4, (rows, row) -> rows.bathrooms(row) == numberOfBathrooms));
+        }
+        if (filter.isPetFriendly() != null) {
+            boolean isPetFriendly = filter.isPetFriendly();
+            clauses.add(new Clause("isPetFriendly", COMPARISON_COST, 0.5, (rows, row) -> rows.isPetFriendly(row) == isPetFriendly));
+        }
+        if (filter.smokingAllowed() != null) {
+            boolean smokingAllowed = filter.smokingAllowed();
+            clauses.add(new Clause("smokingAllowed", COMPARISON_COST, 0.5, (rows, row) -> rows.isSmokingAllowed(row) == smokingAllowed));
+        }
+        if (filter.minAverageRating() != null) {
+            double minAverageRating = filter.minAverageRating();
+            // Fără review-uri media e NaN, deci nu trece (ca media 0 din varianta cu review-uri)
+            clauses.add(new Clause("minAverageRating", COMPARISON_COST, 0.3,
+                    (rows, row) -> rows.averageRating(row) >= minAverageRating));
+        }
+        // Facilitățile se rezolvă o singură dată pe AmenityIndex; per rând rămâne doar un lookup în bitmap
+        if (filter.amenity() != null || filter.amenities() != null || filter.excludedAmenities() != null) {
+            List<String> included = new ArrayList<>();
+            if (filter.amenity() != null) {
+                included.add(filter.amenity());
+            }
+            if (filter.amenities() != null) {
+                included.addAll(filter.amenities());
+            }
+            List<String> excluded = filter.excludedAmenities();
+            if (snapshot == null) {
+                // Fără snapshot bitmap-ul se calculează pe cel primit la evaluare
+                clauses.add(new Clause("amenities", LOOKUP_COST, 0.3,
+                        (rows, row) -> rows.amenities().select(included, excluded).contains(row)));
+            } else {
+                // Bitmap-ul aparține acestui snapshot; clauza este legată doar de el (vezi compile cu snapshot)
+                RoaringBitmap selected = snapshot.amenities().select(included, excluded);
+                Clause clause = new Clause("amenities", LOOKUP_COST, 0.3, (rows, row) -> selected.contains(row));
+                // Selectivitatea e cunoscută exact din cardinalitatea bitmap-ului
+                if (snapshot.size() > 0) {
+                    clause.knownSelectivity((double) selected.getCardinality() / snapshot.size());
+                }
+                clauses.add(clause);
+            }
+        }
+        if (filter.location() != null) {
+            String location = TextNormalizer.normalize(filter.location());
+            clauses.add(new Clause("location", TEXT_COST, 0.2, (rows, row) -> {
+                ApartmentEntity apartment = rows.entity(row);
+                String key = apartment.getLocationKey();
+                if (key == null && apartment.getLocation() != null) {
+                    // Document încă nemigrat (vezi ApartmentSearchKeysMigration)
+                    key = TextNormalizer.normalize(apartment.getLocation());
+                }
+                return key != null && key.contains(location);
+            }));
+        }
+        return clauses;
+    }
+
+    private static final class Clause {
+        private final String name;
+        private final double cost;
+        private final RowMatcher matcher;
+        private double selectivity;
+        private boolean known;
+
+        Clause(String name, double cost, double defaultSelectivity, RowMatcher matcher) {
+            this.name = name;
+            this.cost = cost;
+            this.selectivity = defaultSelectivity;
+            this.matcher = matcher;
+        }
+
+        void knownSelectivity(double selectivity) {
+            this.selectivity = selectivity;
+            this.known = true;
+        }
+
+        // Fracțiunea din eșantion (rânduri luate cu pas fix) care trece de clauză
+        void estimate(ApartmentSnapshot snapshot) {
+            if (known || snapshot == null || snapshot.size() == 0) {
+                return;
+            }
+            int step = Math.max(1, snapshot.size() / SAMPLE_SIZE);
+            int tested = 0;
+            int passed = 0;
+            for (int row = 0; row < snapshot.size(); row += step) {
+                tested++;
+                if (matcher.test(snapshot, row)) {
+                    passed++;
+                }
+            }
+            selectivity = (double) passed / tested;
+        }
+
+        // Ordinea optimă pentru clauze independente: crescător după cost / probabilitatea de a elimina
+        double rank() {
+            return cost / Math.max(1e-6, 1 - selectivity);
+        }
+
+        String name() {
+            return name;
+        }
+
+        RowMatcher matcher() {
+            return matcher;
+        }
+
+        IntPredicate bind(ApartmentSnapshot snapshot) {
+            return row -> matcher.test(snapshot, row);
+        }
+    }
+}
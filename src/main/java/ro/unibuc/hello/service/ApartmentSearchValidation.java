@@ -0,0 +1,93 @@
+package ro.unibuc.hello.service;
+
+import ro.unibuc.hello.dto.ApartmentSearchFilter;
+import ro.unibuc.hello.exception.InvalidInputException;
+
+import java.util.List;
+import java.util.Set;
+
+// Validările parametrilor de la /apartments/search, comune ApartmentService și modulului reactiv,
+// ca cele două aplicații să răspundă cu aceleași mesaje
+public final class ApartmentSearchValidation {
+
+    // Câmpurile care pot fi cerute în proiecția de la /apartments/search
+    private static final Set<String> SEARCH_FIELDS = Set.of(
+            "id", "title", "location", "pricePerNight", "userId", "bookings", "reviews", "numberOfRooms",
+            "numberOfBathrooms", "isPetFriendly", "amenities", "squareMeters", "smokingAllowed");
+
+    private ApartmentSearchValidation() {
+    }
+
+    public static void validate(ApartmentSearchFilter filter) {
+        Double minPrice = filter.minPrice();
+        Double maxPrice = filter.maxPrice();
+        Double minSquareMeters = filter.minSquareMeters();
+        Double maxSquareMeters = filter.maxSquareMeters();
+        Integer numberOfRooms = filter.numberOfRooms();
+        Integer numberOfBathrooms = filter.numberOfBathrooms();
+        String amenity = filter.amenity();
+        String location = filter.location();
+        Double minAverageRating = filter.minAverageRating();
+
+        // Validări
+        if (minPrice != null && minPrice < 0) {
+            throw new InvalidInputException("Minimum price must be non-negative");
+        }
+        if (maxPrice != null && maxPrice < 0) {
+            throw new InvalidInputException("Maximum price must be non-negative");
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new InvalidInputException("Minimum price cannot be greater than maximum price");
+        }
+        if (minSquareMeters != null && minSquareMeters < 0) {
+            throw new InvalidInputException("Minimum square meters must be non-negative");
+        }
+        if (maxSquareMeters != null && maxSquareMeters < 0) {
+            throw new InvalidInputException("Maximum square meters must be non-negative");
+        }
+        if (minSquareMeters != null && maxSquareMeters != null && minSquareMeters > maxSquareMeters) {
+            throw new InvalidInputException("Minimum square meters cannot be greater than maximum square meters");
+        }
+        if (numberOfRooms != null && numberOfRooms <= 0) {
+            throw new InvalidInputException("Number of rooms must be positive");
+        }
+        if (numberOfBathrooms != null && numberOfBathrooms <= 0) {
+            throw new InvalidInputException("Number of bathrooms must be positive");
+        }
+        if (amenity != null && amenity.trim().isEmpty()) {
+            throw new InvalidInputException("Amenity must not be empty");
+        }
+        if (location != null && location.trim().isEmpty()) {
+            throw new InvalidInputException("Location must not be empty");
+        }
+        if (minAverageRating != null && (minAverageRating < 1 || minAverageRating > 5)) {
+            throw new InvalidInputException("Minimum average rating must be between 1 and 5");
+        }
+        validateAmenities(filter.amenities());
+        validateAmenities(filter.excludedAmenities());
+    }
+
+    public static void validateProjection(List<String> fields, Integer limit) {
+        if (fields != null) {
+            for (String field : fields) {
+                if (!SEARCH_FIELDS.contains(field)) {
+                    throw new InvalidInputException("Unknown field: " + field);
+                }
+            }
+        }
+        if (limit != null && limit <= 0) {
+            throw new InvalidInputException("Limit must be positive");
+        }
+    }
+
+    public static void validateAmenities(List<String> amenities) {
+        if (amenities == null) {
+            return;
+        }
+        for (String amenity : amenities) {
+            if (amenity == null || amenity.trim().isEmpty()) {
+                throw new InvalidInputException("Amenity must not be empty");
+            }
+        }
+    }
+}
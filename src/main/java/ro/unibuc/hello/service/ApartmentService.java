@@ -1,5 +1,6 @@
 package ro.unibuc.hello.service;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ro.unibuc.hello.data.ApartmentEntity;
 import ro.unibuc.hello.data.BookingEntity;
@@ -7,45 +8,87 @@ import ro.unibuc.hello.data.ReviewEntity;
 import ro.unibuc.hello.repository.ApartmentRepository;
 import ro.unibuc.hello.repository.BookingRepository;
 import ro.unibuc.hello.repository.ReviewRepository;
-import ro.unibuc.hello.repository.UserRepository;  
-import ro.unibuc.hello.data.UserEntity;
+import ro.unibuc.hello.dto.ApartmentSearchFilter;
+import ro.unibuc.hello.dto.CursorPage;
 import ro.unibuc.hello.exception.InvalidInputException;
+import ro.unibuc.hello.index.ApartmentCatalogue;
+import ro.unibuc.hello.index.ApartmentSnapshot;
+import ro.unibuc.hello.index.AvailabilityCalendar;
+import ro.unibuc.hello.index.EntityCache;
+import ro.unibuc.hello.index.ExistenceCache;
+import ro.unibuc.hello.index.SearchResultCache;
+import ro.unibuc.hello.util.IdPages;
+import ro.unibuc.hello.util.TextNormalizer;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
-import java.text.Normalizer;
+import java.util.stream.Stream;
 import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 @Service
 public class ApartmentService {
+    // Câte ID-uri intră într-un $in la citirea apartamentelor libere
+    private static final int ID_LOOKUP_BATCH_SIZE = 1000;
+
     private final ApartmentRepository apartmentRepository;
     private final BookingRepository bookingRepository;
-    private final UserRepository userRepository;  
+    private final ExistenceCache existenceCache;
     private final ReviewRepository reviewRepository;
-
-    public ApartmentService(ApartmentRepository apartmentRepository, BookingRepository bookingRepository, UserRepository userRepository, ReviewRepository reviewRepository) {
+    private final AvailabilityCalendar availabilityCalendar;
+    private final ApartmentCatalogue apartmentCatalogue;
+    private final EntityCache entityCache;
+    private final QueryCoalescer queryCoalescer;
+    private final SearchResultCache searchResultCache;
+    private final ApartmentSearchMode searchMode;
+
+    public ApartmentService(ApartmentRepository apartmentRepository, BookingRepository bookingRepository, ExistenceCache existenceCache, ReviewRepository reviewRepository,
+                            AvailabilityCalendar availabilityCalendar, ApartmentCatalogue apartmentCatalogue, EntityCache entityCache,
+                            QueryCoalescer queryCoalescer, SearchResultCache searchResultCache,
+                            @Value("${apartment.search.mode:QUERY}") ApartmentSearchMode searchMode) {
         this.apartmentRepository = apartmentRepository;
         this.bookingRepository = bookingRepository;
-        this.userRepository = userRepository;  
+        this.existenceCache = existenceCache;
         this.reviewRepository = reviewRepository;
+        this.availabilityCalendar = availabilityCalendar;
+        this.apartmentCatalogue = apartmentCatalogue;
+        this.entityCache = entityCache;
+        this.queryCoalescer = queryCoalescer;
+        this.searchResultCache = searchResultCache;
+        this.searchMode = searchMode;
     }
 
     public List<ApartmentEntity> getAllApartments() {
         return apartmentRepository.findAll();
     }
 
+    // Toate apartamentele, citite din cursor pe măsură ce sunt consumate; apelantul trebuie să închidă stream-ul
+    public Stream<ApartmentEntity> streamAllApartments() {
+        return apartmentRepository.streamAllBy();
+    }
+
+    // O pagină în ordinea _id; cursor este nextCursor de la pagina anterioară (null pentru prima)
+    public CursorPage<ApartmentEntity> getApartments(String cursor, int limit) {
+        return IdPages.page("apartments", cursor, limit, apartmentRepository::findAllByOrderByIdAsc,
+                apartmentRepository::findByIdGreaterThanOrderByIdAsc, apartmentRepository::findAfterStringIdOrderByIdAsc, ApartmentEntity::getId);
+    }
+
     public Optional<ApartmentEntity> getApartmentById(String id) {
-        return apartmentRepository.findById(id);
+        return entityCache.apartment(id, apartmentRepository::findById);
     }
 
     public ApartmentEntity createApartment(ApartmentEntity apartment) {
-        // Verificăm dacă userId există
-        Optional<UserEntity> user = userRepository.findById(apartment.getUserId());
-        if (user.isEmpty()) {
+        // Verificăm dacă userId există (doar existența, de obicei din cache)
+        if (!existenceCache.userExists(apartment.getUserId())) {
             throw new IllegalArgumentException("User with ID " + apartment.getUserId() + " does not exist.");
         }
         return apartmentRepository.save(apartment);
@@ -56,16 +99,35 @@ public class ApartmentService {
     }
 
     public List<ApartmentEntity> findAvailableApartments(LocalDate startDate, LocalDate endDate) {
-        List<ApartmentEntity> allApartments = apartmentRepository.findAll();
-        
-        List<BookingEntity> overlappingBookings = bookingRepository.findBookedApartmentIds(startDate, endDate);
-        Set<String> bookedApartmentIds = overlappingBookings.stream()
-                .map(BookingEntity::getApartmentId)
-                .collect(Collectors.toSet());
-        
-        return allApartments.stream()
-                .filter(apartment -> !bookedApartmentIds.contains(apartment.getId()))
-                .collect(Collectors.toList());
+        if (startDate.isAfter(endDate)) {
+            throw new InvalidInputException("Start date must not be after end date");
+        }
+        // Cererile identice simultane (același interval) împart aceeași citire
+        return queryCoalescer.coalesce("available", List.of(startDate, endDate), () -> {
+            // Calendarul în memorie dă ID-urile libere; din Mongo citim doar apartamentele respective
+            List<String> availableApartmentIds = availabilityCalendar.findAvailableApartmentIds(startDate, endDate);
+            return Collections.unmodifiableList(findAllByIdInOrder(availableApartmentIds));
+        });
+    }
+
+    // Loturi de ID_LOOKUP_BATCH_SIZE în loc de un singur $in cu toate ID-urile; rezultatul păstrează
+    // ordinea ID-urilor primite (findAllById nu garantează nicio ordine)
+    private List<ApartmentEntity> findAllByIdInOrder(List<String> ids) {
+        List<ApartmentEntity> result = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += ID_LOOKUP_BATCH_SIZE) {
+            List<String> batch = ids.subList(from, Math.min(from + ID_LOOKUP_BATCH_SIZE, ids.size()));
+            Map<String, ApartmentEntity> byId = new HashMap<>();
+            for (ApartmentEntity apartment : apartmentRepository.findAllById(batch)) {
+                byId.put(apartment.getId(), apartment);
+            }
+            for (String id : batch) {
+                ApartmentEntity apartment = byId.get(id);
+                if (apartment != null) {
+                    result.add(apartment);
+                }
+            }
+        }
+        return result;
     }
     
     public boolean isApartmentAvailable(String apartmentId, LocalDate startDate, LocalDate endDate) {
@@ -76,7 +138,8 @@ public class ApartmentService {
 
     // Funcție existentă: Apartamente pet-friendly
     public List<ApartmentEntity> getPetFriendlyApartments() {
-        return apartmentRepository.findByIsPetFriendly(true);
+        return cached("pet-friendly", filter(null, null, null, null, null, null, true, null, null, null, null),
+                () -> apartmentRepository.findByIsPetFriendly(true));
     }
 
     // Funcție existentă: Apartamente după numărul de camere
@@ -84,7 +147,8 @@ public class ApartmentService {
         if (numberOfRooms <= 0) {
             throw new InvalidInputException("Number of rooms must be greater than zero");
         }
-        return apartmentRepository.findByNumberOfRooms(numberOfRooms);
+        return cached("rooms", filter(null, null, null, null, numberOfRooms, null, null, null, null, null, null),
+                () -> apartmentRepository.findByNumberOfRooms(numberOfRooms));
     }
 
     // Funcție existentă: Apartamente după numărul de băi
@@ -92,7 +156,8 @@ public class ApartmentService {
         if (numberOfBathrooms <= 0) {
             throw new InvalidInputException("Number of bathrooms must be greater than zero");
         }
-        return apartmentRepository.findByNumberOfBathrooms(numberOfBathrooms);
+        return cached("bathrooms", filter(null, null, null, null, null, numberOfBathrooms, null, null, null, null, null),
+                () -> apartmentRepository.findByNumberOfBathrooms(numberOfBathrooms));
     }
 
     // Funcție: Apartamente cu suprafață minimă
@@ -100,7 +165,8 @@ public class ApartmentService {
         if (minSquareMeters == null || minSquareMeters < 0) {
             throw new InvalidInputException("Minimum square meters must be a non-negative value");
         }
-        return apartmentRepository.findBySquareMetersGreaterThanEqual(minSquareMeters);
+        return cached("square-meters", filter(null, null, minSquareMeters, null, null, null, null, null, null, null, null),
+                () -> apartmentRepository.findBySquareMetersGreaterThanEqual(minSquareMeters));
     }
 
     // Funcție: Apartamente sub un anumit preț
@@ -108,7 +174,8 @@ public class ApartmentService {
         if (maxPrice == null || maxPrice < 0) {
             throw new InvalidInputException("Maximum price must be a non-negative value");
         }
-        return apartmentRepository.findByPricePerNightLessThanEqual(maxPrice);
+        return cached("price", filter(null, maxPrice, null, null, null, null, null, null, null, null, null),
+                () -> apartmentRepository.findByPricePerNightLessThanEqual(maxPrice));
     }
 
     // Căutare amenities case-insensitive
@@ -116,12 +183,27 @@ public class ApartmentService {
         if (amenity == null || amenity.trim().isEmpty()) {
             throw new InvalidInputException("Amenity must not be empty");
         }
-        return apartmentRepository.findByAmenitiesContainingIgnoreCase(amenity);
+        return getApartmentsByAmenities(List.of(amenity), null);
+    }
+
+    // Apartamente care au toate facilitățile din amenities și niciuna din excludedAmenities,
+    // calculate ca intersecții de bitmap-uri pe AmenityIndex din catalogul din memorie
+    public List<ApartmentEntity> getApartmentsByAmenities(List<String> amenities, List<String> excludedAmenities) {
+        if (amenities == null || amenities.isEmpty()) {
+            throw new InvalidInputException("Amenity must not be empty");
+        }
+        ApartmentSearchValidation.validateAmenities(amenities);
+        ApartmentSearchValidation.validateAmenities(excludedAmenities);
+        ApartmentSearchFilter filter = new ApartmentSearchFilter(null, null, null, null, null, null, null, null,
+                null, null, null, amenities, excludedAmenities);
+        return cached("amenities", filter,
+                () -> apartmentCatalogue.select(snapshot -> snapshot.amenities().select(amenities, excludedAmenities)));
     }
 
     // Funcție: Apartamente unde fumatul este permis/interzis
     public List<ApartmentEntity> getApartmentsBySmokingAllowed(boolean smokingAllowed) {
-        return apartmentRepository.findBySmokingAllowed(smokingAllowed);
+        return cached("smoking", filter(null, null, null, null, null, null, null, smokingAllowed, null, null, null),
+                () -> apartmentRepository.findBySmokingAllowed(smokingAllowed));
     }
 
     // Metoda actualizată: Apartamente după locație (case-insensitive)
@@ -129,10 +211,9 @@ public class ApartmentService {
         if (location == null || location.trim().isEmpty()) {
             throw new InvalidInputException("Location must not be empty");
         }
-        String normalizedLocation = Normalizer.normalize(location, Normalizer.Form.NFD)
-            .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
-            .toLowerCase();
-        return apartmentRepository.findByLocationIgnoreCase(normalizedLocation);
+        // Doar textul căutat se normalizează; apartamentele au deja locationKey
+        return cached("location", filter(null, null, null, null, null, null, null, null, null, location, null),
+                () -> apartmentRepository.findByLocationKeyContaining(TextNormalizer.normalize(location)));
     }
 
     // Funcție: Filtru combinat (preț și suprafață)
@@ -156,75 +237,119 @@ public class ApartmentService {
         if (minSquareMeters > maxSquareMeters) {
             throw new InvalidInputException("Minimum square meters cannot be greater than maximum square meters");
         }
-        return apartmentRepository.findByPricePerNightBetweenAndSquareMetersBetween(
-                minPrice, maxPrice, minSquareMeters, maxSquareMeters);
+        ApartmentSearchFilter filter = filter(minPrice, maxPrice, minSquareMeters, maxSquareMeters,
+                null, null, null, null, null, null, null);
+        return cached("filter", filter, () -> {
+            if (searchMode == ApartmentSearchMode.MEMORY) {
+                // Aceleași limite inclusive ca @Query-ul din repository; scanăm doar coloanele de primitive
+                double fromPrice = minPrice, toPrice = maxPrice;
+                double fromSquareMeters = minSquareMeters, toSquareMeters = maxSquareMeters;
+                return apartmentCatalogue.filter(snapshot -> row -> {
+                    double price = snapshot.price(row);
+                    double squareMeters = snapshot.squareMeters(row);
+                    return price >= fromPrice && price <= toPrice
+                            && squareMeters >= fromSquareMeters && squareMeters <= toSquareMeters;
+                }, null);
+            }
+            return apartmentRepository.findByPricePerNightBetweenAndSquareMetersBetween(
+                    minPrice, maxPrice, minSquareMeters, maxSquareMeters);
+        });
     }
 
     public List<ApartmentEntity> searchApartments(
             Double minPrice, Double maxPrice, Double minSquareMeters, Double maxSquareMeters,
             Integer numberOfRooms, Integer numberOfBathrooms, Boolean isPetFriendly, Boolean smokingAllowed,
             String amenity, String location, Double minAverageRating) {
+        return searchApartments(new ApartmentSearchFilter(
+                minPrice, maxPrice, minSquareMeters, maxSquareMeters,
+                numberOfRooms, numberOfBathrooms, isPetFriendly, smokingAllowed,
+                amenity, location, minAverageRating), null, null);
+    }
 
-        // Validări
-        if (minPrice != null && minPrice < 0) {
-            throw new InvalidInputException("Minimum price must be non-negative");
-        }
-        if (maxPrice != null && maxPrice < 0) {
-            throw new InvalidInputException("Maximum price must be non-negative");
-        }
-        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
-            throw new InvalidInputException("Minimum price cannot be greater than maximum price");
-        }
-        if (minSquareMeters != null && minSquareMeters < 0) {
-            throw new InvalidInputException("Minimum square meters must be non-negative");
-        }
-        if (maxSquareMeters != null && maxSquareMeters < 0) {
-            throw new InvalidInputException("Maximum square meters must be non-negative");
-        }
-        if (minSquareMeters != null && maxSquareMeters != null && minSquareMeters > maxSquareMeters) {
-            throw new InvalidInputException("Minimum square meters cannot be greater than maximum square meters");
-        }
-        if (numberOfRooms != null && numberOfRooms <= 0) {
-            throw new InvalidInputException("Number of rooms must be positive");
-        }
-        if (numberOfBathrooms != null && numberOfBathrooms <= 0) {
-            throw new InvalidInputException("Number of bathrooms must be positive");
-        }
-        if (amenity != null && amenity.trim().isEmpty()) {
-            throw new InvalidInputException("Amenity must not be empty");
-        }
-        if (location != null && location.trim().isEmpty()) {
-            throw new InvalidInputException("Location must not be empty");
-        }
-        if (minAverageRating != null && (minAverageRating < 1 || minAverageRating > 5)) {
-            throw new InvalidInputException("Minimum average rating must be between 1 and 5");
+    // Filtrele prezente sunt compilate fie într-un singur query Mongo (vezi ApartmentSearchRepositoryImpl),
+    // fie într-un singur predicat evaluat peste catalogul din memorie (vezi ApartmentSearchPredicate)
+    public List<ApartmentEntity> searchApartments(ApartmentSearchFilter filter, List<String> fields, Integer limit) {
+        ApartmentSearchValidation.validate(filter);
+        ApartmentSearchValidation.validateProjection(fields, limit);
+
+        // Rezultatul vine din SearchResultCache, iar la un miss cererile echivalente simultane
+        // împart o singură execuție (vezi QueryCoalescer)
+        SearchKey key = new SearchKey(normalize(filter), fields != null ? new TreeSet<>(fields) : null, limit);
+        return searchResultCache.get("search", key, matcher(filter), () -> queryCoalescer.coalesce("search", key, () -> {
+            if (searchMode == ApartmentSearchMode.MEMORY) {
+                // În memorie nu aplicăm proiecția pe câmpuri; entitățile sunt deja încărcate complet
+                return Collections.unmodifiableList(
+                        apartmentCatalogue.filter(snapshot -> ApartmentSearchPredicate.compile(filter, snapshot), limit));
+            }
+            return Collections.unmodifiableList(apartmentRepository.search(filter, fields, limit));
+        }));
+    }
+
+    // Filtrele punctuale trec prin SearchResultCache, cu cheia dată de filtrul echivalent, canonicalizat
+    private List<ApartmentEntity> cached(String operation, ApartmentSearchFilter filter, Supplier<List<ApartmentEntity>> query) {
+        return searchResultCache.get(operation, normalize(filter), matcher(filter), query);
+    }
+
+    private static ApartmentSearchFilter filter(
+            Double minPrice, Double maxPrice, Double minSquareMeters, Double maxSquareMeters,
+            Integer numberOfRooms, Integer numberOfBathrooms, Boolean isPetFriendly, Boolean smokingAllowed,
+            String amenity, String location, Double minAverageRating) {
+        return new ApartmentSearchFilter(minPrice, maxPrice, minSquareMeters, maxSquareMeters,
+                numberOfRooms, numberOfBathrooms, isPetFriendly, smokingAllowed, amenity, location, minAverageRating);
+    }
+
+    // Ce apartament ar intra în rezultatul filtrului: aceleași reguli ca modul MEMORY, verificate de
+    // ApartmentSearchPredicateTest față de lanțul de filtre; compilat o dată, la inserarea în SearchResultCache,
+    // care îl evaluează la invalidare pe snapshot-ul cu un rând al apartamentului scris
+    private static Predicate<ApartmentSnapshot> matcher(ApartmentSearchFilter filter) {
+        ApartmentSearchPredicate.RowMatcher matcher = ApartmentSearchPredicate.compile(filter);
+        return written -> matcher.test(written, 0);
+    }
+
+    // Cheia de coalescing pentru /apartments/search; ordinea câmpurilor din proiecție nu contează
+    private record SearchKey(ApartmentSearchFilter filter, Set<String> fields, Integer limit) {
+    }
+
+    // Textele se compară normalizat (ca în ambele moduri de căutare), iar listele de facilități ca mulțimi
+    private static ApartmentSearchFilter normalize(ApartmentSearchFilter filter) {
+        return new ApartmentSearchFilter(
+                filter.minPrice(), filter.maxPrice(), filter.minSquareMeters(), filter.maxSquareMeters(),
+                filter.numberOfRooms(), filter.numberOfBathrooms(), filter.isPetFriendly(), filter.smokingAllowed(),
+                TextNormalizer.normalize(filter.amenity()), TextNormalizer.normalize(filter.location()),
+                filter.minAverageRating(), normalize(filter.amenities()), normalize(filter.excludedAmenities()));
+    }
+
+    private static List<String> normalize(List<String> amenities) {
+        if (amenities == null) {
+            return null;
         }
+        return amenities.stream().map(TextNormalizer::normalize).distinct().sorted().toList();
+    }
+
+    // Lanțul de filtre în Java, păstrat ca referință pentru testul diferențial al query-ului Mongo
+    public List<ApartmentEntity> searchApartmentsJava(
+            List<ApartmentEntity> apartments, List<ReviewEntity> reviews, ApartmentSearchFilter filter) {
+        Double minPrice = filter.minPrice();
+        Double maxPrice = filter.maxPrice();
+        Double minSquareMeters = filter.minSquareMeters();
+        Double maxSquareMeters = filter.maxSquareMeters();
+        Integer numberOfRooms = filter.numberOfRooms();
+        Integer numberOfBathrooms = filter.numberOfBathrooms();
+        Boolean isPetFriendly = filter.isPetFriendly();
+        Boolean smokingAllowed = filter.smokingAllowed();
+        String amenity = filter.amenity();
+        String location = filter.location();
+        Double minAverageRating = filter.minAverageRating();
 
         // Normalizare pentru locație și amenity
-        String normalizedLocation = location != null
-                ? Normalizer.normalize(location, Normalizer.Form.NFD)
-                    .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
-                    .toLowerCase()
-                : null;
-        String normalizedAmenity = amenity != null
-                ? Normalizer.normalize(amenity, Normalizer.Form.NFD)
-                    .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
-                    .toLowerCase()
-                : null;
-
-        // Pornim cu toate apartamentele
-        List<ApartmentEntity> results = apartmentRepository.findAll();
+        String normalizedLocation = TextNormalizer.normalize(location);
+        String normalizedAmenity = TextNormalizer.normalize(amenity);
+
+        List<ApartmentEntity> results = apartments;
 
         // Filtru pe rating mediu (doar dacă e specificat)
         if (minAverageRating != null) {
-            // Obținem toate review-urile
-            List<ReviewEntity> allReviews = reviewRepository.findAll();
-
-            // Calculăm media rating-urilor pentru fiecare apartament
-            Map<String, Double> averageRatings = allReviews.stream()
-                    .collect(Collectors.groupingBy(
-                            ReviewEntity::getApartmentId,
-                            Collectors.averagingInt(review -> review.getRating() != null ? review.getRating() : 0)));
+            Map<String, Double> averageRatings = averageRatings(reviews);
 
             // Aplicăm filtrul pe rating
             results = results.stream()
@@ -279,18 +404,34 @@ public class ApartmentService {
         if (normalizedAmenity != null) {
             results = results.stream()
                     .filter(a -> a.getAmenities() != null && a.getAmenities().stream()
-                            .map(amen -> Normalizer.normalize(amen, Normalizer.Form.NFD)
-                                    .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
-                                    .toLowerCase())
+                            .map(TextNormalizer::normalize)
                             .anyMatch(amen -> amen.contains(normalizedAmenity)))
                     .collect(Collectors.toList());
         }
+        if (filter.amenities() != null) {
+            for (String required : filter.amenities()) {
+                String normalizedRequired = TextNormalizer.normalize(required);
+                results = results.stream()
+                        .filter(a -> a.getAmenities() != null && a.getAmenities().stream()
+                                .map(TextNormalizer::normalize)
+                                .anyMatch(amen -> amen.contains(normalizedRequired)))
+                        .collect(Collectors.toList());
+            }
+        }
+        if (filter.excludedAmenities() != null) {
+            for (String excluded : filter.excludedAmenities()) {
+                String normalizedExcluded = TextNormalizer.normalize(excluded);
+                results = results.stream()
+                        .filter(a -> a.getAmenities() == null || a.getAmenities().stream()
+                                .map(TextNormalizer::normalize)
+                                .noneMatch(amen -> amen.contains(normalizedExcluded)))
+                        .collect(Collectors.toList());
+            }
+        }
         if (normalizedLocation != null) {
             results = results.stream()
-                    .filter(a -> a.getLocation() != null && Normalizer.normalize(a.getLocation(), Normalizer.Form.NFD)
-                            .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
-                            .toLowerCase()
-                            .contains(normalizedLocation))
+                    .filter(a -> a.getLocation() != null
+                            && TextNormalizer.normalize(a.getLocation()).contains(normalizedLocation))
                     .collect(Collectors.toList());
         }
 
@@ -307,26 +448,16 @@ public class ApartmentService {
             throw new InvalidInputException("Minimum average rating must be between 1 and 5");
         }
 
-        // Obținem toate apartamentele
-        List<ApartmentEntity> allApartments = apartmentRepository.findAll();
-
-        // Obținem toate review-urile
-        List<ReviewEntity> allReviews = reviewRepository.findAll();
+        // Media este stocată pe apartament (averageRating, indexat), deci nu mai citim review-urile
+        return cached("rating", filter(null, null, null, null, null, null, null, null, null, null, minAverageRating),
+                () -> apartmentRepository.findByAverageRatingGreaterThanEqual(minAverageRating));
+    }
 
-        // Calculăm media rating-urilor pentru fiecare apartament
-        Map<String, Double> averageRatings = allReviews.stream()
+    // Media rating-urilor pentru fiecare apartament
+    private static Map<String, Double> averageRatings(List<ReviewEntity> reviews) {
+        return reviews.stream()
                 .collect(Collectors.groupingBy(
                         ReviewEntity::getApartmentId,
                         Collectors.averagingInt(review -> review.getRating() != null ? review.getRating() : 0)));
-
-        // Filtrăm apartamentele cu media peste minAverageRating
-        return allApartments.stream()
-                .filter(apartment -> {
-                    Double avgRating = averageRatings.getOrDefault(apartment.getId(), 0.0);
-                    return avgRating >= minAverageRating;
-                })
-                .collect(Collectors.toList());
     }
-
-    
-}
\ No newline at end of file
+}
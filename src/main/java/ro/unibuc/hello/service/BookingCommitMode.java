@@ -0,0 +1,11 @@
+package ro.unibuc.hello.service;
+
+// Modul în care BookingService validează și salvează o rezervare nouă (proprietatea booking.commit-mode)
+public enum BookingCommitMode {
+    // Verificare pe indexul în memorie, apoi save
+    DIRECT,
+    // Câte un document per (apartamentId, zi) cu index unic; Mongo respinge suprapunerile
+    SLOTS,
+    // Cozi single-writer alese după apartmentId, cu saveAll pe loturi (vezi BookingWriteLanes)
+    LANES
+}
@@ -1,28 +1,82 @@
 package ro.unibuc.hello.service;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.data.BookingSlotEntity;
+import ro.unibuc.hello.dto.CursorPage;
+import ro.unibuc.hello.exception.ServiceUnavailableException;
+import ro.unibuc.hello.index.AvailabilityCalendar;
+import ro.unibuc.hello.index.BookingIntervalIndex;
+import ro.unibuc.hello.index.EntityCache;
+import ro.unibuc.hello.index.ExistenceCache;
 import ro.unibuc.hello.repository.BookingRepository;
-import ro.unibuc.hello.repository.UserRepository;
+import ro.unibuc.hello.repository.BookingSlotRepository;
 import ro.unibuc.hello.repository.ApartmentRepository;
+import ro.unibuc.hello.util.IdPages;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class BookingService {
 
     private final BookingRepository bookingRepository;
-    private final UserRepository userRepository;
+    private final ExistenceCache existenceCache;
     private final ApartmentRepository apartmentRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final AvailabilityCalendar availabilityCalendar;
+    private final EntityCache entityCache;
+    private final BookingSlotRepository bookingSlotRepository;
+    private final BookingWriteLanes bookingWriteLanes;
+    private final ConcurrentReads concurrentReads;
+    private final BookingCommitMode commitMode;
+    private final long lanesTimeoutMs;
+    private final int maxStayDays;
 
     @Autowired
-    public BookingService(BookingRepository bookingRepository, UserRepository userRepository, ApartmentRepository apartmentRepository) {
+    public BookingService(BookingRepository bookingRepository, ExistenceCache existenceCache, ApartmentRepository apartmentRepository,
+                          BookingIntervalIndex bookingIntervalIndex, AvailabilityCalendar availabilityCalendar, EntityCache entityCache,
+                          BookingSlotRepository bookingSlotRepository, BookingWriteLanes bookingWriteLanes,
+                          ConcurrentReads concurrentReads,
+                          @Value("${booking.commit-mode:DIRECT}") BookingCommitMode commitMode,
+                          @Value("${booking.lanes.timeout-ms:5000}") long lanesTimeoutMs,
+                          @Value("${booking.max-stay-days:365}") int maxStayDays) {
         this.bookingRepository = bookingRepository;
-        this.userRepository = userRepository;
+        this.existenceCache = existenceCache;
         this.apartmentRepository = apartmentRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.availabilityCalendar = availabilityCalendar;
+        this.entityCache = entityCache;
+        this.bookingSlotRepository = bookingSlotRepository;
+        this.bookingWriteLanes = bookingWriteLanes;
+        this.concurrentReads = concurrentReads;
+        this.commitMode = commitMode;
+        this.lanesTimeoutMs = lanesTimeoutMs;
+        this.maxStayDays = maxStayDays;
+    }
+
+    // Toate rezervările, citite din cursor pe măsură ce sunt consumate; apelantul trebuie să închidă stream-ul
+    public Stream<BookingEntity> streamAllBookings() {
+        return bookingRepository.streamAllBy();
+    }
+
+    // O pagină în ordinea _id; cursor este nextCursor de la pagina anterioară (null pentru prima)
+    public CursorPage<BookingEntity> getBookings(String cursor, int limit) {
+        return IdPages.page("bookings", cursor, limit, bookingRepository::findAllByOrderByIdAsc,
+                bookingRepository::findByIdGreaterThanOrderByIdAsc, bookingRepository::findAfterStringIdOrderByIdAsc, BookingEntity::getId);
     }
 
     public List<BookingEntity> getAllBookings() {
@@ -30,25 +84,57 @@ public class BookingService {
     }
 
     public Optional<BookingEntity> getBookingById(String id) {
-        return bookingRepository.findById(id);
+        return entityCache.booking(id, bookingRepository::findById);
     }
 
     public BookingEntity createBooking(BookingEntity booking) {
-        if (!apartmentRepository.existsById(booking.getApartmentId())) {
+        if (booking.getStartDate() == null || booking.getEndDate() == null) {
+            throw new IllegalArgumentException("Start date and end date are required.");
+        }
+        if (booking.getEndDate().isBefore(booking.getStartDate())) {
+            throw new IllegalArgumentException("End date must not be before start date.");
+        }
+        // Calendarul și sloturile au câte o intrare pe zi, deci durata trebuie limitată înainte de oricare dintre ele
+        if (ChronoUnit.DAYS.between(booking.getStartDate(), booking.getEndDate()) + 1 > maxStayDays) {
+            throw new IllegalArgumentException("A booking cannot be longer than " + maxStayDays + " days.");
+        }
+
+        // Verificările sunt independente, deci pornesc împreună (vezi ConcurrentReads); de obicei sunt răspunse
+        // din cache și din indexul în memorie, dar la un miss fiecare așteaptă după Mongo. În modurile SLOTS și
+        // LANES disponibilitatea se verifică la scriere, nu aici
+        boolean checkAvailability = commitMode == BookingCommitMode.DIRECT;
+        boolean apartmentExists;
+        boolean userExists;
+        boolean isAvailable = true;
+        try (ConcurrentReads.Scope reads = concurrentReads.open()) {
+            Supplier<Boolean> apartment = reads.fork(() -> existenceCache.apartmentExists(booking.getApartmentId()));
+            Supplier<Boolean> user = reads.fork(() -> existenceCache.userExists(booking.getUserId()));
+            Supplier<Boolean> overlap = checkAvailability
+                    ? reads.fork(() -> bookingIntervalIndex.hasOverlap(booking.getApartmentId(), booking.getStartDate(), booking.getEndDate()))
+                    : null;
+            reads.join();
+            apartmentExists = apartment.get();
+            userExists = user.get();
+            if (overlap != null) {
+                isAvailable = !overlap.get();
+            }
+        }
+
+        // Erorile rămân în aceeași ordine ca atunci când verificările rulau una după alta
+        if (!apartmentExists) {
             throw new IllegalArgumentException("Apartment with ID " + booking.getApartmentId() + " does not exist.");
         }
 
-        if (!userRepository.existsById(booking.getUserId())) {
+        if (!userExists) {
             throw new IllegalArgumentException("User with ID " + booking.getUserId() + " does not exist.");
         }
 
-        List<BookingEntity> allBookings = bookingRepository.findAll();
-        boolean isAvailable = isApartmentAvailableJava(
-                allBookings, 
-                booking.getApartmentId(),
-                booking.getStartDate(), 
-                booking.getEndDate()
-        );
+        if (commitMode == BookingCommitMode.SLOTS) {
+            return createBookingWithSlots(booking);
+        }
+        if (commitMode == BookingCommitMode.LANES) {
+            return createBookingOnLane(booking);
+        }
 
         if (!isAvailable) {
             throw new IllegalArgumentException("Apartment is not available for the selected dates.");
@@ -57,17 +143,83 @@ public class BookingService {
         return bookingRepository.save(booking);
     }
 
+    // Sloturile sunt inserate într-un singur insert ordonat; orice zi deja ocupată dă DuplicateKeyException,
+    // deci mai multe instanțe pot accepta rezervări în paralel fără nicio coordonare între ele
+    private BookingEntity createBookingWithSlots(BookingEntity booking) {
+        // Id-ul e mereu nou: cu un id trimis de client, curățarea de la conflict ar șterge sloturile altei
+        // rezervări, iar save ar suprascrie rezervarea respectivă lăsându-i sloturile vechi
+        booking.setId(new ObjectId().toHexString());
+
+        try {
+            bookingSlotRepository.insert(BookingSlotEntity.forBooking(booking));
+        } catch (DuplicateKeyException e) {
+            // Insert-ul ordonat se oprește la primul conflict; ștergem sloturile deja scrise
+            bookingSlotRepository.deleteByBookingId(booking.getId());
+            throw new IllegalArgumentException("Apartment is not available for the selected dates.");
+        }
+
+        try {
+            return bookingRepository.save(booking);
+        } catch (RuntimeException e) {
+            bookingSlotRepository.deleteByBookingId(booking.getId());
+            throw e;
+        }
+    }
+
+    // Validarea și salvarea se fac pe banda apartamentului; aici doar așteptăm rezultatul
+    private BookingEntity createBookingOnLane(BookingEntity booking) {
+        CompletableFuture<BookingEntity> result = bookingWriteLanes.submit(booking);
+        try {
+            return result.get(lanesTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw unwrapLaneFailure(e.getCause());
+        } catch (TimeoutException e) {
+            // Retragem cererea din coadă; dacă banda a preluat-o deja, scrierea e în curs și îi mai acordăm
+            // încă un timeout, ca apelantul să nu primească o eroare pentru o rezervare care totuși se salvează
+            if (result.cancel(false)) {
+                throw new ServiceUnavailableException("Timed out waiting for the booking to be committed.");
+            }
+            try {
+                return result.get(lanesTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | CancellationException failure) {
+                throw unwrapLaneFailure(failure.getCause() != null ? failure.getCause() : failure);
+            } catch (TimeoutException stillRunning) {
+                // Un Mongo blocat nu mai ține firul cererii; rezervarea poate apărea totuși mai târziu
+                throw new ServiceUnavailableException(
+                        "Timed out waiting for the booking to be committed; it may still be saved, check before retrying.");
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the booking to be committed.", interrupted);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(false);
+            throw new IllegalStateException("Interrupted while waiting for the booking to be committed.", e);
+        }
+    }
+
+    private static RuntimeException unwrapLaneFailure(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new IllegalStateException(cause);
+    }
+
     public void deleteBooking(String id) {
         bookingRepository.deleteById(id);
+        // Sloturile există doar în modul SLOTS; se eliberează după rezervare, ca o cădere între cele două
+        // să nu permită o dublă rezervare
+        if (commitMode == BookingCommitMode.SLOTS) {
+            bookingSlotRepository.deleteByBookingId(id);
+        }
     }
     
     public boolean isApartmentAvailable(String apartmentId, LocalDate startDate, LocalDate endDate) {
-        if (!apartmentRepository.existsById(apartmentId)) {
+        if (!existenceCache.apartmentExists(apartmentId)) {
             throw new IllegalArgumentException("Apartment with ID " + apartmentId + " does not exist.");
         }
         
-        List<BookingEntity> allBookings = bookingRepository.findAll();
-        return isApartmentAvailableJava(allBookings, apartmentId, startDate, endDate);
+        return !bookingIntervalIndex.hasOverlap(apartmentId, startDate, endDate);
     }
     
     public List<BookingEntity> getBookingsForApartment(String apartmentId) {
@@ -150,15 +302,6 @@ public class BookingService {
     }
     
     public List<String> findAvailableApartmentIds(LocalDate startDate, LocalDate endDate) {
-        List<BookingEntity> allBookings = bookingRepository.findAll();
-        List<String> bookedApartmentIds = findBookedApartmentIdsJava(allBookings, startDate, endDate);
-        
-        List<String> allApartmentIds = apartmentRepository.findAll().stream()
-                .map(apartment -> apartment.getId())
-                .collect(Collectors.toList());
-        
-        allApartmentIds.removeAll(bookedApartmentIds);
-        
-        return allApartmentIds;
+        return availabilityCalendar.findAvailableApartmentIds(startDate, endDate);
     }
 }
\ No newline at end of file
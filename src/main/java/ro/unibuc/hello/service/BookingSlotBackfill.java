@@ -0,0 +1,140 @@
+package ro.unibuc.hello.service;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.data.BookingSlotEntity;
+import ro.unibuc.hello.repository.BookingSlotRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * La pornirea în modul SLOTS aduce booking_slots în acord cu rezervările:
+ * șterge sloturile orfane (rezervarea lor nu mai există) și creează sloturile lipsă pentru rezervările
+ * existente (create în modul DIRECT sau scrise direct prin repository). Ambele liste vin din câte o agregare
+ * cu $lookup pe indexuri, deci rezervările care au deja sloturi nu costă câte o interogare fiecare.
+ */
+@Component
+public class BookingSlotBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingSlotBackfill.class);
+
+    private static final int DELETE_BATCH_SIZE = 1000;
+    // Sloturile mai noi pot aparține unei rezervări pe care altă instanță încă o salvează
+    private static final Duration ORPHAN_GRACE = Duration.ofMinutes(5);
+
+    private final MongoTemplate mongoTemplate;
+    private final BookingSlotRepository bookingSlotRepository;
+    private final BookingCommitMode commitMode;
+    private final int maxStayDays;
+
+    public BookingSlotBackfill(MongoTemplate mongoTemplate, BookingSlotRepository bookingSlotRepository,
+                               @Value("${booking.commit-mode:DIRECT}") BookingCommitMode commitMode,
+                               @Value("${booking.max-stay-days:365}") int maxStayDays) {
+        this.mongoTemplate = mongoTemplate;
+        this.bookingSlotRepository = bookingSlotRepository;
+        this.commitMode = commitMode;
+        this.maxStayDays = maxStayDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (commitMode != BookingCommitMode.SLOTS) {
+            return;
+        }
+        // Întâi orfanii, ca zilele lor să nu blocheze sloturile rezervărilor reale
+        int orphans = removeOrphanSlots();
+        int created = 0;
+        for (BookingEntity booking : findBookingsWithoutSlots()) {
+            if (createSlots(booking)) {
+                created++;
+            }
+        }
+        log.info("Booking slots backfill: removed slots of {} missing bookings, created slots for {} bookings", orphans, created);
+    }
+
+    // Rezervările cu startDate și fără niciun slot; bookingId din slot este _id-ul rezervării ca String
+    private List<BookingEntity> findBookingsWithoutSlots() {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("startDate", new Document("$ne", null))),
+                new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(BookingSlotEntity.class))
+                        .append("let", new Document("bookingId", new Document("$toString", "$_id")))
+                        .append("pipeline", List.of(
+                                new Document("$match", new Document("$expr",
+                                        new Document("$eq", List.of("$bookingId", "$$bookingId")))),
+                                new Document("$limit", 1),
+                                new Document("$project", new Document("_id", 1))))
+                        .append("as", "slots")),
+                new Document("$match", new Document("slots", new Document("$size", 0))),
+                new Document("$project", new Document("slots", 0)));
+
+        List<BookingEntity> bookings = new ArrayList<>();
+        for (Document document : mongoTemplate.getCollection(mongoTemplate.getCollectionName(BookingEntity.class))
+                .aggregate(pipeline).allowDiskUse(true)) {
+            bookings.add(mongoTemplate.getConverter().read(BookingEntity.class, document));
+        }
+        return bookings;
+    }
+
+    private boolean createSlots(BookingEntity booking) {
+        List<BookingSlotEntity> slots = BookingSlotEntity.forBooking(booking);
+        // Rezervările vechi, dinainte de booking.max-stay-days, primesc sloturi doar pentru primele maxStayDays zile
+        if (slots.size() > maxStayDays) {
+            log.warn("Booking {} spans {} days; only its first {} days were given slots",
+                    booking.getId(), slots.size(), maxStayDays);
+            slots = slots.subList(0, maxStayDays);
+        }
+        try {
+            bookingSlotRepository.insert(slots);
+            return true;
+        } catch (DuplicateKeyException e) {
+            bookingSlotRepository.deleteByBookingId(booking.getId());
+            log.warn("Booking {} overlaps an existing booking of apartment {}; no slots were created for it",
+                    booking.getId(), booking.getApartmentId());
+            return false;
+        }
+    }
+
+    // Sloturile al căror bookingId nu mai corespunde niciunei rezervări (ștergeri directe, căderi după insert)
+    private int removeOrphanSlots() {
+        ObjectId graceStart = new ObjectId(Date.from(Instant.now().minus(ORPHAN_GRACE)));
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("_id", new Document("$lt", graceStart))),
+                new Document("$group", new Document("_id", "$bookingId")),
+                // Id-urile valide ca ObjectId sunt stocate ca ObjectId în bookings, celelalte ca String
+                new Document("$addFields", new Document("bookingObjectId", new Document("$convert",
+                        new Document("input", "$_id").append("to", "objectId").append("onError", "$_id")))),
+                new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(BookingEntity.class))
+                        .append("localField", "bookingObjectId")
+                        .append("foreignField", "_id")
+                        .append("as", "booking")),
+                new Document("$match", new Document("booking", new Document("$size", 0))),
+                new Document("$project", new Document("_id", 1)));
+
+        List<String> orphanBookingIds = new ArrayList<>();
+        for (Document document : mongoTemplate.getCollection(mongoTemplate.getCollectionName(BookingSlotEntity.class))
+                .aggregate(pipeline).allowDiskUse(true)) {
+            orphanBookingIds.add(document.get("_id") != null ? document.get("_id").toString() : null);
+        }
+
+        for (int from = 0; from < orphanBookingIds.size(); from += DELETE_BATCH_SIZE) {
+            List<String> batch = orphanBookingIds.subList(from, Math.min(from + DELETE_BATCH_SIZE, orphanBookingIds.size()));
+            mongoTemplate.remove(new Query(Criteria.where("bookingId").in(batch)), BookingSlotEntity.class);
+        }
+        return orphanBookingIds.size();
+    }
+}
@@ -0,0 +1,236 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.index.BookingIntervalIndex;
+import ro.unibuc.hello.repository.BookingRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Calea de commit pentru modul LANES: fiecare rezervare ajunge, după hash-ul lui apartmentId,
+ * pe una dintre cele N benzi. O bandă are un singur thread care scrie, deci cererile pentru același
+ * apartament sunt serializate, iar cele pentru apartamente diferite rulează în paralel pe benzi diferite.
+ * Thread-ul unei benzi golește coada în loturi și le salvează cu un singur saveAll.
+ */
+@Component
+public class BookingWriteLanes {
+
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final MeterRegistry meterRegistry;
+    private final BookingCommitMode commitMode;
+    private final int maxBatchSize;
+    private final Lane[] lanes;
+
+    private volatile boolean running = false;
+
+    public BookingWriteLanes(BookingRepository bookingRepository, BookingIntervalIndex bookingIntervalIndex,
+                             MeterRegistry meterRegistry,
+                             @Value("${booking.commit-mode:DIRECT}") BookingCommitMode commitMode,
+                             @Value("${booking.lanes.count:8}") int laneCount,
+                             @Value("${booking.lanes.max-batch-size:64}") int maxBatchSize) {
+        if (laneCount <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Lane count and batch size must be positive.");
+        }
+        this.bookingRepository = bookingRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.meterRegistry = meterRegistry;
+        this.commitMode = commitMode;
+        this.maxBatchSize = maxBatchSize;
+        this.lanes = new Lane[laneCount];
+    }
+
+    // Thread-urile pornesc doar dacă modul LANES este activ
+    @PostConstruct
+    public void start() {
+        if (commitMode != BookingCommitMode.LANES || running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(i);
+            lanes[i].thread.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Lane lane : lanes) {
+            if (lane != null) {
+                lane.thread.interrupt();
+            }
+        }
+    }
+
+    public CompletableFuture<BookingEntity> submit(BookingEntity booking) {
+        if (!running) {
+            throw new IllegalStateException("Booking write lanes are not running.");
+        }
+        Lane lane = lanes[Math.floorMod(booking.getApartmentId().hashCode(), lanes.length)];
+        PendingBooking pending = new PendingBooking(booking, System.nanoTime());
+        lane.queue.add(pending);
+        return pending.result;
+    }
+
+    private record PendingBooking(BookingEntity booking, long enqueuedAt, LaneResult result) {
+
+        PendingBooking(BookingEntity booking, long enqueuedAt) {
+            this(booking, enqueuedAt, new LaneResult());
+        }
+    }
+
+    // Banda preia rezervarea (claim) înainte s-o valideze; cancel reușește doar cât timp nu a fost preluată,
+    // deci o cerere abandonată de apelant după timeout nu mai ajunge în Mongo
+    private static final class LaneResult extends CompletableFuture<BookingEntity> {
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return claim() && super.cancel(mayInterruptIfRunning);
+        }
+    }
+
+    private final class Lane implements Runnable {
+
+        private final BlockingQueue<PendingBooking> queue = new LinkedBlockingQueue<>();
+        private final Thread thread;
+        private final Timer latency;
+        private final Timer commitLatency;
+        private final DistributionSummary batchSize;
+
+        Lane(int index) {
+            String lane = String.valueOf(index);
+            this.thread = new Thread(this, "booking-lane-" + index);
+            this.thread.setDaemon(true);
+
+            Gauge.builder("booking.lanes.queue.depth", queue, BlockingQueue::size)
+                    .description("Rezervări care așteaptă în coada benzii")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+            this.latency = Timer.builder("booking.lanes.latency")
+                    .description("Timpul de la intrarea în coadă până la răspuns")
+                    .tag("lane", lane)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.commitLatency = Timer.builder("booking.lanes.commit.latency")
+                    .description("Durata validării și a saveAll pentru un lot")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+            this.batchSize = DistributionSummary.builder("booking.lanes.batch.size")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public void run() {
+            List<PendingBooking> batch = new ArrayList<>(maxBatchSize);
+            while (running) {
+                try {
+                    PendingBooking first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatchSize - 1);
+
+                    long start = System.nanoTime();
+                    try {
+                        commit(batch);
+                    } catch (RuntimeException e) {
+                        // Thread-ul benzii nu trebuie să moară; cererile încă deschise din lot primesc eroarea
+                        for (PendingBooking pending : batch) {
+                            pending.result().completeExceptionally(e);
+                        }
+                    }
+                    commitLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    batchSize.record(batch.size());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } finally {
+                    batch.clear();
+                }
+            }
+
+            IllegalStateException stopped = new IllegalStateException("Booking write lanes are shutting down.");
+            PendingBooking pending;
+            while ((pending = queue.poll()) != null) {
+                pending.result().completeExceptionally(stopped);
+            }
+        }
+
+        private void commit(List<PendingBooking> batch) {
+            List<PendingBooking> accepted = new ArrayList<>(batch.size());
+            for (PendingBooking pending : batch) {
+                // Cererile deja anulate de apelant nu mai sunt nici validate, nici scrise
+                if (pending.result().isDone() || !pending.result().claim()) {
+                    continue;
+                }
+                BookingEntity booking = pending.booking();
+                // Indexul nu conține încă rezervările acceptate în lotul curent, așa că le verificăm separat
+                if (bookingIntervalIndex.hasOverlap(booking.getApartmentId(), booking.getStartDate(), booking.getEndDate())
+                        || overlapsAccepted(accepted, booking)) {
+                    complete(pending, null,
+                            new IllegalArgumentException("Apartment is not available for the selected dates."));
+                } else {
+                    accepted.add(pending);
+                }
+            }
+            if (accepted.isEmpty()) {
+                return;
+            }
+
+            try {
+                List<BookingEntity> saved = bookingRepository.saveAll(accepted.stream().map(PendingBooking::booking).toList());
+                for (int i = 0; i < accepted.size(); i++) {
+                    complete(accepted.get(i), saved.get(i), null);
+                }
+            } catch (RuntimeException e) {
+                for (PendingBooking pending : accepted) {
+                    complete(pending, null, e);
+                }
+            }
+        }
+
+        private boolean overlapsAccepted(List<PendingBooking> accepted, BookingEntity booking) {
+            for (PendingBooking other : accepted) {
+                BookingEntity o = other.booking();
+                if (o.getApartmentId().equals(booking.getApartmentId())
+                        && !o.getStartDate().isAfter(booking.getEndDate())
+                        && !o.getEndDate().isBefore(booking.getStartDate())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void complete(PendingBooking pending, BookingEntity saved, RuntimeException error) {
+            latency.record(System.nanoTime() - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+            if (error != null) {
+                pending.result().completeExceptionally(error);
+            } else {
+                pending.result().complete(saved);
+            }
+        }
+    }
+}
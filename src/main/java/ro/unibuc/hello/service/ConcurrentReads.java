@@ -0,0 +1,126 @@
+package ro.unibuc.hello.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+/**
+ * Citirile independente dintr-o cerere (ex. verificările de la crearea unei rezervări), pornite împreună
+ * și așteptate împreună. Forma este cea a StructuredTaskScope.ShutdownOnFailure, încă preview în Java 21:
+ * citirile nu trăiesc mai mult decât blocul try-with-resources care le-a pornit, prima eroare le anulează
+ * pe celelalte și iese nemodificată din join().
+ * În modul VIRTUAL_THREADS fiecare citire are propriul fir virtual; în SEQUENTIAL rulează pe firul cererii.
+ */
+@Component
+public class ConcurrentReads {
+
+    private final ExecutorService executor;
+
+    public ConcurrentReads(@Value("${service.fan-out.mode:SEQUENTIAL}") FanOutMode mode) {
+        this.executor = mode == FanOutMode.VIRTUAL_THREADS
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fan-out-", 0).factory())
+                : null;
+    }
+
+    public Scope open() {
+        return new Scope(executor);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final ExecutorService executor;
+        private final List<FutureTask<?>> forked = new ArrayList<>();
+        private final List<CompletableFuture<?>> results = new ArrayList<>();
+        // Se completează cu prima eroare, ca join() să nu mai aștepte citirile rămase
+        private final CompletableFuture<Void> failure = new CompletableFuture<>();
+        private boolean joined;
+
+        private Scope(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        // Pornește citirea; rezultatul se poate lua din Supplier doar după join()
+        public <T> Supplier<T> fork(Supplier<T> read) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            FutureTask<T> task = new FutureTask<>(read::get) {
+                @Override
+                protected void done() {
+                    if (isCancelled()) {
+                        result.cancel(false);
+                        return;
+                    }
+                    try {
+                        result.complete(get());
+                    } catch (ExecutionException e) {
+                        result.completeExceptionally(e.getCause());
+                        failure.completeExceptionally(e.getCause());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+            forked.add(task);
+            results.add(result);
+            if (executor != null) {
+                executor.execute(task);
+            } else {
+                task.run();
+            }
+            return () -> {
+                if (!joined) {
+                    throw new IllegalStateException("join() must be called before reading a result");
+                }
+                return result.join();
+            };
+        }
+
+        // Așteaptă toate citirile sau prima eroare; eroarea unei citiri se propagă așa cum a fost aruncată
+        public void join() {
+            try {
+                CompletableFuture.anyOf(CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)), failure).get();
+                joined = true;
+            } catch (ExecutionException e) {
+                cancelRemaining();
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelRemaining();
+                throw new IllegalStateException("Interrupted while waiting for concurrent reads", e);
+            }
+        }
+
+        // Nicio citire nu rămâne să ruleze după blocul care a pornit-o
+        @Override
+        public void close() {
+            cancelRemaining();
+        }
+
+        private void cancelRemaining() {
+            for (FutureTask<?> task : forked) {
+                task.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package ro.unibuc.hello.service;
+
+// Cum rulează ConcurrentReads citirile independente din aceeași cerere (proprietatea service.fan-out.mode)
+public enum FanOutMode {
+    // Pe firul cererii, una după alta
+    SEQUENTIAL,
+    // Fiecare pe propriul fir virtual, în paralel
+    VIRTUAL_THREADS
+}
@@ -4,8 +4,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import ro.unibuc.hello.data.InformationEntity;
 import ro.unibuc.hello.repository.InformationRepository;
+import ro.unibuc.hello.dto.CursorPage;
 import ro.unibuc.hello.dto.Greeting;
 import ro.unibuc.hello.exception.EntityNotFoundException;
+import ro.unibuc.hello.util.IdPages;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -40,6 +42,21 @@ public class GreetingsService {
                 .collect(Collectors.toList());
     }
 
+    // O pagină în ordinea _id; cursor este nextCursor de la pagina anterioară (null pentru prima)
+    public CursorPage<Greeting> getGreetings(String cursor, int limit) {
+        return IdPages.page("greetings", cursor, limit,
+                pageLimit -> toGreetings(informationRepository.findAllByOrderByIdAsc(pageLimit)),
+                (afterId, pageLimit) -> toGreetings(informationRepository.findByIdGreaterThanOrderByIdAsc(afterId, pageLimit)),
+                (afterId, pageLimit) -> toGreetings(informationRepository.findAfterStringIdOrderByIdAsc(afterId, pageLimit)),
+                Greeting::getId);
+    }
+
+    private static List<Greeting> toGreetings(List<InformationEntity> entities) {
+        return entities.stream()
+                .map(entity -> new Greeting(entity.getId(), entity.getTitle()))
+                .collect(Collectors.toList());
+    }
+
     public Greeting getGreetingById(String id) throws EntityNotFoundException {
         Optional<InformationEntity> optionalEntity = informationRepository.findById(id);
         InformationEntity entity = optionalEntity.orElseThrow(() -> new EntityNotFoundException(id));
@@ -0,0 +1,84 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight pentru citirile grele: cererile identice care sosesc cât timp una este deja în execuție
+ * nu mai pornesc un query nou, ci așteaptă rezultatul primeia și primesc aceeași listă (nemodificabilă).
+ * Nu este un cache: cheia dispare imediat ce execuția se termină, deci o cerere sosită după aceea
+ * vede datele la zi. O excepție a execuției ajunge la toți cei care au așteptat-o.
+ * Metrici: queries.coalesced{operation, role=leader|follower}; follower = cerere deduplicată.
+ */
+@Component
+public class QueryCoalescer {
+
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public QueryCoalescer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("queries.coalesced.in_flight", inFlight, Map::size).register(meterRegistry);
+    }
+
+    private record Key(String operation, Object parameters) {
+    }
+
+    /**
+     * Rulează query-ul pentru (operation, parameters) sau se alătură execuției deja pornite.
+     * parameters trebuie să aibă equals/hashCode pe valori și să fie deja normalizați,
+     * astfel încât două cereri echivalente să dea aceeași cheie.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T coalesce(String operation, Object parameters, Supplier<T> query) {
+        Key key = new Key(operation, parameters);
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            counter(operation, "follower").increment();
+            return (T) await(running);
+        }
+
+        counter(operation, "leader").increment();
+        try {
+            T result = query.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    // Excepția execuției se propagă nemodificată, ca handler-ele din controllere să o trateze la fel
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private Counter counter(String operation, String role) {
+        return Counter.builder("queries.coalesced")
+                .tag("operation", operation)
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,193 @@
+package ro.unibuc.hello.service;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.index.LocalCaches;
+import ro.unibuc.hello.repository.ApartmentRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Recalculează din colecția reviews agregatele de rating stocate pe apartamente
+ * (ratingSum, ratingCount, ratingHistogram, averageRating).
+ * Corectează review-urile scrise direct în repository (seed, importuri) și orice $inc pierdut.
+ * Apartamentele sunt împărțite în loturi procesate în paralel; fiecare lot este o agregare
+ * pe reviews (indexul pe apartmentId) urmată de un singur bulk write, doar pentru apartamentele
+ * ale căror agregate diferă. Implicit nu rulează la pornire, ci la cerere (vezi RatingAggregatesRepairEndpoint).
+ */
+@Component
+public class RatingAggregatesRepair {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingAggregatesRepair.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final ApartmentRepository apartmentRepository;
+    private final LocalCaches localCaches;
+    private final int parallelism;
+    private final boolean onStartup;
+
+    public RatingAggregatesRepair(MongoTemplate mongoTemplate, ApartmentRepository apartmentRepository,
+                                  LocalCaches localCaches,
+                                  @Value("${rating.repair.parallelism:4}") int parallelism,
+                                  @Value("${rating.repair.on-startup:false}") boolean onStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.apartmentRepository = apartmentRepository;
+        this.localCaches = localCaches;
+        this.parallelism = parallelism;
+        this.onStartup = onStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void repairOnStartup() {
+        if (onStartup) {
+            repairAll();
+        }
+    }
+
+    // Returnează numărul de apartamente rescrise; la cerere prin /actuator/ratingrepair
+    public int repairAll() {
+        List<String> ids = apartmentRepository.findAllIds().stream().map(ApartmentEntity::getId).toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            List<Future<Integer>> batches = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                List<String> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+                batches.add(executor.submit(() -> repairBatch(batch)));
+            }
+            int repaired = 0;
+            for (Future<Integer> batch : batches) {
+                repaired += batch.get();
+            }
+            log.info("Recomputed rating aggregates for {} apartments", repaired);
+            return repaired;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rating aggregates repair was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rating aggregates repair failed", e.getCause());
+        } finally {
+            executor.shutdown();
+            // Entitățile din catalog și din cache-uri au acum agregate vechi
+            localCaches.apartmentRatingsInvalidated();
+        }
+    }
+
+    private int repairBatch(List<String> apartmentIds) {
+        // Agregatele curente se citesc înaintea review-urilor; scrierea de mai jos este condiționată de ele
+        Query current = new Query(Criteria.where("id").in(apartmentIds));
+        current.fields().include("ratingSum", "ratingCount", "ratingHistogram", "averageRating");
+        Map<String, ApartmentEntity> read = new HashMap<>();
+        for (ApartmentEntity apartment : mongoTemplate.find(current, ApartmentEntity.class)) {
+            read.put(apartment.getId(), apartment);
+        }
+
+        GroupOperation group = Aggregation.group("apartmentId").sum("rating").as("sum").count().as("count");
+        for (int rating = 1; rating <= 5; rating++) {
+            group = group.sum(ConditionalOperators.when(Criteria.where("rating").is(rating)).then(1).otherwise(0))
+                    .as("r" + rating);
+        }
+        // Review-urile fără rating nu intră în agregate, la fel ca în ReviewService
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("apartmentId").in(apartmentIds).and("rating").ne(null)), group);
+
+        Map<String, Document> stats = new HashMap<>();
+        for (Document result : mongoTemplate.aggregate(aggregation, ReviewEntity.class, Document.class)) {
+            stats.put(result.getString("_id"), result);
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ApartmentEntity.class);
+        int changed = 0;
+        for (String apartmentId : apartmentIds) {
+            ApartmentEntity apartment = read.get(apartmentId);
+            if (apartment == null) {
+                continue;
+            }
+            // Apartamentele fără review-uri sunt resetate, ca să nu păstreze agregate vechi
+            Document result = stats.get(apartmentId);
+            long sum = result != null ? ((Number) result.get("sum")).longValue() : 0;
+            int count = result != null ? ((Number) result.get("count")).intValue() : 0;
+            Map<String, Integer> histogram = new LinkedHashMap<>();
+            for (int rating = 1; rating <= 5; rating++) {
+                histogram.put(String.valueOf(rating), result != null ? ((Number) result.get("r" + rating)).intValue() : 0);
+            }
+            Double average = count > 0 ? (double) sum / count : null;
+
+            // Apartamentele deja corecte nu se rescriu, deci updatedAt nu le trimite inutil prin sincronizarea prin polling
+            if (apartment.getRatingSum() == sum && apartment.getRatingCount() == count
+                    && histogram.equals(normalized(apartment.getRatingHistogram()))
+                    && Objects.equals(apartment.getAverageRating(), average)) {
+                continue;
+            }
+
+            Update update = new Update().set("ratingSum", sum).set("ratingCount", count).set("ratingHistogram", histogram)
+                    .set("updatedAt", Instant.now());
+            if (average != null) {
+                update.set("averageRating", average);
+            } else {
+                update.unset("averageRating");
+            }
+            // Un $inc din ReviewService venit între citire și scriere schimbă contoarele; atunci update-ul nu se
+            // potrivește și apartamentul rămâne pe valorile incrementate, până la următoarea rulare
+            Criteria unchanged = Criteria.where("id").is(apartmentId)
+                    .and("ratingCount").in(readValue(apartment.getRatingCount()))
+                    .and("ratingSum").in(readValue(apartment.getRatingSum()));
+            bulk.updateOne(new Query(unchanged), update);
+            changed++;
+        }
+        if (changed == 0) {
+            return 0;
+        }
+
+        int repaired = bulk.execute().getModifiedCount();
+        if (repaired < changed) {
+            log.debug("Skipped {} apartments whose rating aggregates changed during the repair", changed - repaired);
+        }
+        return repaired;
+    }
+
+    // Documentele vechi nu au câmpurile de agregare, iar entitatea le citește ca 0
+    private static List<Object> readValue(long value) {
+        return value == 0 ? Arrays.asList(0, null) : List.of(value);
+    }
+
+    private static Map<String, Integer> normalized(Map<String, Integer> histogram) {
+        Map<String, Integer> normalized = new LinkedHashMap<>();
+        for (int rating = 1; rating <= 5; rating++) {
+            Integer value = histogram != null ? histogram.get(String.valueOf(rating)) : null;
+            normalized.put(String.valueOf(rating), value != null ? value : 0);
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,24 @@
+package ro.unibuc.hello.service;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// POST /actuator/ratingrepair: rulează RatingAggregatesRepair și întoarce numărul de apartamente rescrise
+@Component
+@Endpoint(id = "ratingrepair")
+public class RatingAggregatesRepairEndpoint {
+
+    private final RatingAggregatesRepair ratingAggregatesRepair;
+
+    public RatingAggregatesRepairEndpoint(RatingAggregatesRepair ratingAggregatesRepair) {
+        this.ratingAggregatesRepair = ratingAggregatesRepair;
+    }
+
+    @WriteOperation
+    public Map<String, Integer> repair() {
+        return Map.of("repaired", ratingAggregatesRepair.repairAll());
+    }
+}
@@ -0,0 +1,24 @@
+package ro.unibuc.hello.service;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// POST /actuator/reactionrepair: recalculează contoarele de reacții și întoarce numărul de review-uri rescrise
+@Component
+@Endpoint(id = "reactionrepair")
+public class ReactionCountsRepairEndpoint {
+
+    private final ReviewReactionBuffer reviewReactionBuffer;
+
+    public ReactionCountsRepairEndpoint(ReviewReactionBuffer reviewReactionBuffer) {
+        this.reviewReactionBuffer = reviewReactionBuffer;
+    }
+
+    @WriteOperation
+    public Map<String, Integer> repair() {
+        return Map.of("repaired", reviewReactionBuffer.recountAll());
+    }
+}
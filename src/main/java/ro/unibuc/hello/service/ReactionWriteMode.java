@@ -0,0 +1,9 @@
+package ro.unibuc.hello.service;
+
+// Cum scrie ReviewService reacțiile (proprietatea review.reactions.write-mode)
+public enum ReactionWriteMode {
+    // Fiecare reacție este scrisă imediat, cu operații atomice (vezi ReviewService.react)
+    DIRECT,
+    // Reacțiile sunt adunate în memorie și scrise periodic pe loturi (vezi ReviewReactionBuffer); doar cu o singură instanță
+    WRITE_BEHIND
+}
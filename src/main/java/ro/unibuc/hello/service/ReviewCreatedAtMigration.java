@@ -0,0 +1,70 @@
+package ro.unibuc.hello.service;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.ReviewEntity;
+
+import java.util.Date;
+
+/**
+ * La pornire completează createdAt pentru review-urile scrise înainte să existe câmpul, ca să apară
+ * în ordinea RECENT. Momentul se ia din ObjectId; review-urile cu alt tip de id ajung cele mai vechi.
+ */
+@Component
+public class ReviewCreatedAtMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewCreatedAtMigration.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    public ReviewCreatedAtMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        Query missingCreatedAt = new Query(Criteria.where("createdAt").exists(false));
+        missingCreatedAt.fields().include("_id");
+        String collection = mongoTemplate.getCollectionName(ReviewEntity.class);
+
+        int updated = 0;
+        BulkOperations batch = null;
+        int batchCount = 0;
+        try (CloseableIterator<Document> reviews = mongoTemplate.stream(missingCreatedAt, Document.class, collection)) {
+            while (reviews.hasNext()) {
+                Object id = reviews.next().get("_id");
+                Date createdAt = id instanceof ObjectId objectId ? objectId.getDate() : new Date(0);
+                if (batch == null) {
+                    batch = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                }
+                batch.updateOne(new Query(Criteria.where("_id").is(id)), new Update().set("createdAt", createdAt));
+                if (++batchCount == BATCH_SIZE) {
+                    batch.execute();
+                    updated += batchCount;
+                    batch = null;
+                    batchCount = 0;
+                }
+            }
+        }
+        if (batch != null) {
+            batch.execute();
+            updated += batchCount;
+        }
+        if (updated > 0) {
+            log.info("Filled createdAt for {} reviews", updated);
+        }
+    }
+}
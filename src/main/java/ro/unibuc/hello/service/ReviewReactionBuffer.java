@@ -0,0 +1,566 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.ReactionEntity;
+import ro.unibuc.hello.data.ReactionType;
+import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.repository.ReactionRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Modul WRITE_BEHIND pentru reacții: reacțiile la un review se adună în memorie pe o fereastră
+ * (review.reactions.flush-window-ms). Pentru fiecare utilizator contează doar ultima acțiune.
+ * La golire, toate reacțiile din fereastră devin un singur bulk write pe review_reactions
+ * (upsert / remove). Apoi contoarele review-urilor scrise sunt recalculate din review_reactions,
+ * cu o agregare pe indexul (reviewId, userId) și un bulk write pe reviews. Contoarele nu depind deci
+ * de reacția citită la prima atingere, care poate fi între timp depășită.
+ *
+ * Fiecare acțiune este adăugată într-un jurnal local (un segment pe fereastră) înainte de răspuns.
+ * Un segment se șterge doar după ce fereastra lui a ajuns în Mongo. La pornire segmentele rămase
+ * sunt reaplicate.
+ *
+ * Modul funcționează doar cu o singură instanță: starea curentă a reacțiilor este în memoria
+ * procesului, iar jurnalul este pe discul local. Două instanțe în WRITE_BEHIND și-ar suprascrie
+ * reacțiile una alteia.
+ */
+@Component
+public class ReviewReactionBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewReactionBuffer.class);
+
+    private static final String SEGMENT_PREFIX = "reactions-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String NONE = "NONE";
+    private static final int RECOUNT_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final ReactionRepository reactionRepository;
+    private final MeterRegistry meterRegistry;
+    private final ReactionWriteMode writeMode;
+    private final long flushWindowMs;
+    private final Path journalDir;
+
+    // reviewId -> reacțiile din fereastra curentă
+    private final Map<String, ReviewBuffer> pending = new ConcurrentHashMap<>();
+    // Ferestre scoase din pending dar încă nescrise; rămân sursa stării curente până ajung în Mongo
+    private final Map<String, ReviewBuffer> inFlight = new ConcurrentHashMap<>();
+    // Segmente ale căror ferestre nu au putut fi scrise; se șterg la următoarea golire reușită
+    private final List<Path> retainedSegments = new ArrayList<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Object journalLock = new Object();
+    private final Object flushLock = new Object();
+
+    private BufferedWriter journal;
+    private Path currentSegment;
+    private long segmentSequence;
+    private ScheduledExecutorService scheduler;
+    private Timer flushLatency;
+    private DistributionSummary flushOperations;
+    private volatile boolean running = false;
+
+    public ReviewReactionBuffer(MongoTemplate mongoTemplate, ReactionRepository reactionRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${review.reactions.write-mode:DIRECT}") ReactionWriteMode writeMode,
+                                @Value("${review.reactions.flush-window-ms:200}") long flushWindowMs,
+                                @Value("${review.reactions.journal-dir:reactions-journal}") String journalDir) {
+        if (flushWindowMs <= 0) {
+            throw new IllegalArgumentException("Flush window must be positive.");
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.reactionRepository = reactionRepository;
+        this.meterRegistry = meterRegistry;
+        this.writeMode = writeMode;
+        this.flushWindowMs = flushWindowMs;
+        this.journalDir = Paths.get(journalDir);
+    }
+
+    // Pornește doar dacă modul WRITE_BEHIND este activ
+    @PostConstruct
+    public void start() throws IOException {
+        if (writeMode != ReactionWriteMode.WRITE_BEHIND || running) {
+            return;
+        }
+        Gauge.builder("reviews.reactions.buffer.depth", depth, AtomicInteger::get)
+                .description("Reacții (review, utilizator) care așteaptă să fie scrise")
+                .register(meterRegistry);
+        flushLatency = Timer.builder("reviews.reactions.flush.latency")
+                .description("Durata scrierii unei ferestre de reacții în Mongo")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        flushOperations = DistributionSummary.builder("reviews.reactions.flush.operations")
+                .description("Operații trimise în bulk write la o golire")
+                .register(meterRegistry);
+
+        Files.createDirectories(journalDir);
+        recover();
+        openSegment();
+        flush();
+
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "review-reactions-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushWindowMs, flushWindowMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdown();
+        flushQuietly();
+        synchronized (journalLock) {
+            closeJournal();
+        }
+    }
+
+    public boolean isEnabled() {
+        return running;
+    }
+
+    // Review-ul are reacții în fereastra curentă sau în cea care se scrie, deci știm că există
+    public boolean isBuffered(String reviewId) {
+        return pending.containsKey(reviewId) || inFlight.containsKey(reviewId);
+    }
+
+    /**
+     * Stabilește reacția utilizatorului (null = fără reacție) și returnează reacția lui de dinainte,
+     * văzută prin buffer: fereastra curentă, apoi cea care se scrie, apoi Mongo.
+     */
+    public ReactionType set(String reviewId, String userId, ReactionType target) {
+        while (true) {
+            ReviewBuffer buffer = pending.computeIfAbsent(reviewId, ReviewBuffer::new);
+            // Starea din Mongo se citește în afara lock-ului, doar la prima atingere din fereastră
+            ReactionType persisted = buffer.entries.containsKey(userId) ? null : currentState(reviewId, userId);
+            synchronized (buffer) {
+                if (buffer.closed) {
+                    // Fereastra a fost preluată de flush între timp; reluăm cu una nouă
+                    continue;
+                }
+                Pending entry = buffer.entries.get(userId);
+                if (entry == null) {
+                    entry = new Pending(persisted);
+                    buffer.entries.put(userId, entry);
+                    depth.incrementAndGet();
+                }
+                ReactionType previous = entry.target;
+                if (previous != target) {
+                    entry.target = target;
+                    append(reviewId, userId, target);
+                }
+                return previous;
+            }
+        }
+    }
+
+    /**
+     * Renunță la reacțiile încă nescrise ale unui review șters. Așteaptă golirea în curs, ca fereastra
+     * deja preluată să nu scrie reacții după ce apelantul le-a șters din Mongo. O fereastră care
+     * a eșuat a fost pusă înapoi în pending, deci este eliminată tot aici.
+     */
+    public void discard(String reviewId) {
+        synchronized (flushLock) {
+            inFlight.remove(reviewId);
+            ReviewBuffer buffer = pending.remove(reviewId);
+            if (buffer != null) {
+                synchronized (buffer) {
+                    buffer.closed = true;
+                    depth.addAndGet(-buffer.entries.size());
+                }
+            }
+        }
+    }
+
+    // Scrie fereastra curentă în Mongo; apelată periodic și la oprire
+    public void flush() {
+        synchronized (flushLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            // Întâi rotim jurnalul: segmentul vechi conține doar acțiuni din ferestrele închise mai jos
+            Path segment = rotateJournal();
+
+            List<ReviewBuffer> batch = new ArrayList<>();
+            for (String reviewId : new ArrayList<>(pending.keySet())) {
+                ReviewBuffer buffer = pending.get(reviewId);
+                if (buffer == null) {
+                    continue;
+                }
+                inFlight.put(reviewId, buffer);
+                pending.remove(reviewId, buffer);
+                synchronized (buffer) {
+                    buffer.closed = true;
+                }
+                depth.addAndGet(-buffer.entries.size());
+                batch.add(buffer);
+            }
+
+            try {
+                flushOperations.record(write(batch));
+                for (Path retained : retainedSegments) {
+                    deleteSegment(retained);
+                }
+                retainedSegments.clear();
+                deleteSegment(segment);
+            } catch (RuntimeException e) {
+                log.warn("Flushing {} buffered reviews failed; they will be retried", batch.size(), e);
+                requeue(batch);
+                retainedSegments.add(segment);
+            } finally {
+                for (ReviewBuffer buffer : batch) {
+                    inFlight.remove(buffer.reviewId, buffer);
+                }
+                flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Thread-ul programat nu trebuie să moară
+            log.error("Unexpected error while flushing buffered reactions", e);
+        }
+    }
+
+    private ReactionType currentState(String reviewId, String userId) {
+        ReviewBuffer flushing = inFlight.get(reviewId);
+        if (flushing != null) {
+            Pending entry = flushing.entries.get(userId);
+            if (entry != null) {
+                return entry.target;
+            }
+        }
+        ReactionEntity reaction = reactionRepository.findByReviewIdAndUserId(reviewId, userId);
+        return reaction != null ? reaction.getType() : null;
+    }
+
+    // Returnează numărul de operații trimise
+    private int write(List<ReviewBuffer> batch) {
+        BulkOperations reactions = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReactionEntity.class);
+        int reactionOperations = 0;
+        List<String> written = new ArrayList<>();
+
+        for (ReviewBuffer buffer : batch) {
+            int before = reactionOperations;
+            for (Map.Entry<String, Pending> user : buffer.entries.entrySet()) {
+                Pending entry = user.getValue();
+                // La reluare nu știm ce a ajuns deja în Mongo, deci scriem starea finală pentru toți
+                if (!buffer.replayed && entry.original == entry.target) {
+                    continue;
+                }
+                Query reaction = new Query(Criteria.where("reviewId").is(buffer.reviewId).and("userId").is(user.getKey()));
+                if (entry.target == null) {
+                    reactions.remove(reaction);
+                } else {
+                    reactions.upsert(reaction, new Update()
+                            .set("type", entry.target)
+                            .setOnInsert("createdAt", Instant.now()));
+                }
+                reactionOperations++;
+            }
+            if (reactionOperations > before) {
+                written.add(buffer.reviewId);
+            }
+        }
+
+        if (reactionOperations == 0) {
+            return 0;
+        }
+        reactions.execute();
+        return reactionOperations + recountReactions(written);
+    }
+
+    /**
+     * Recalculează likeCount și dislikeCount pentru toate review-urile, din review_reactions; la cerere prin
+     * /actuator/reactionrepair. În modul DIRECT o cădere între scrierea reacției și $inc lasă contoarele
+     * decalate, iar nimic altceva nu le corectează. Returnează numărul de review-uri rescrise.
+     */
+    public int recountAll() {
+        // Fereastra curentă ajunge întâi în Mongo, ca recalcularea să o includă
+        flush();
+        Query all = new Query();
+        all.fields().include("likeCount", "dislikeCount");
+        int repaired = 0;
+        Map<String, ReviewEntity> batch = new HashMap<>();
+        try (Stream<ReviewEntity> reviews = mongoTemplate.stream(all, ReviewEntity.class)) {
+            for (ReviewEntity review : (Iterable<ReviewEntity>) reviews::iterator) {
+                batch.put(review.getId(), review);
+                if (batch.size() == RECOUNT_BATCH_SIZE) {
+                    repaired += recountReactions(new ArrayList<>(batch.keySet()), batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            repaired += recountReactions(new ArrayList<>(batch.keySet()), batch);
+        }
+        log.info("Recounted reaction counters for {} reviews", repaired);
+        return repaired;
+    }
+
+    private int recountReactions(List<String> reviewIds) {
+        return recountReactions(reviewIds, null);
+    }
+
+    // Contoarele se recalculează din reacțiile scrise, nu din diferențe: o singură agregare pe prefixul
+    // reviewId al indexului unic și un bulk write cu valorile finale. Cu read (contoarele citite înaintea
+    // agregării) se rescriu doar review-urile schimbate și doar dacă nu s-au modificat între timp: un $inc
+    // concurent din modul DIRECT câștigă, iar review-ul rămâne pentru următoarea rulare.
+    // Returnează numărul de operații, respectiv de review-uri rescrise
+    private int recountReactions(List<String> reviewIds, Map<String, ReviewEntity> read) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("reviewId").in(reviewIds)),
+                Aggregation.group("reviewId")
+                        .sum(ConditionalOperators.when(Criteria.where("type").is(ReactionType.LIKE.name())).then(1).otherwise(0))
+                        .as("likes")
+                        .sum(ConditionalOperators.when(Criteria.where("type").is(ReactionType.DISLIKE.name())).then(1).otherwise(0))
+                        .as("dislikes"));
+        Map<String, Document> counts = new HashMap<>();
+        for (Document result : mongoTemplate.aggregate(aggregation, ReactionEntity.class, Document.class)) {
+            counts.put(result.getString("_id"), result);
+        }
+
+        BulkOperations reviews = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReviewEntity.class);
+        int changed = 0;
+        for (String reviewId : reviewIds) {
+            // Un review fără nicio reacție rămasă nu apare în rezultat
+            Document result = counts.get(reviewId);
+            long likes = result != null ? ((Number) result.get("likes")).longValue() : 0;
+            long dislikes = result != null ? ((Number) result.get("dislikes")).longValue() : 0;
+            Criteria target = Criteria.where("id").is(reviewId);
+            if (read != null) {
+                ReviewEntity current = read.get(reviewId);
+                if (current.getLikeCount() == likes && current.getDislikeCount() == dislikes) {
+                    continue;
+                }
+                target = target.and("likeCount").in(readValue(current.getLikeCount()))
+                        .and("dislikeCount").in(readValue(current.getDislikeCount()));
+            }
+            reviews.updateOne(new Query(target), new Update().set("likeCount", likes).set("dislikeCount", dislikes));
+            changed++;
+        }
+        if (changed == 0) {
+            return 0;
+        }
+        int modified = reviews.execute().getModifiedCount();
+        return read != null ? modified : reviewIds.size();
+    }
+
+    // Review-urile vechi nu au câmpurile contoarelor, iar entitatea le citește ca 0
+    private static List<Object> readValue(long value) {
+        return value == 0 ? Arrays.asList(0, null) : List.of(value);
+    }
+
+    // Pune înapoi în fereastra curentă o fereastră nescrisă; acțiunile mai noi ale unui utilizator au prioritate
+    private void requeue(List<ReviewBuffer> batch) {
+        for (ReviewBuffer failed : batch) {
+            while (true) {
+                ReviewBuffer buffer = pending.computeIfAbsent(failed.reviewId, ReviewBuffer::new);
+                synchronized (buffer) {
+                    if (buffer.closed) {
+                        continue;
+                    }
+                    failed.entries.forEach((userId, entry) -> {
+                        if (buffer.entries.putIfAbsent(userId, entry) == null) {
+                            depth.incrementAndGet();
+                        }
+                    });
+                    // Nu știm ce parte a ajuns în Mongo, deci la următoarea golire se scriu toate reacțiile
+                    buffer.replayed = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    // Segmentele rămase de la o oprire bruscă devin o fereastră de reluat
+    private void recover() throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(journalDir)) {
+            segments = files.filter(ReviewReactionBuffer::isSegment)
+                    .sorted((a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)))
+                    .toList();
+        }
+        if (segments.isEmpty()) {
+            return;
+        }
+
+        int replayed = 0;
+        for (Path segment : segments) {
+            segmentSequence = Math.max(segmentSequence, sequenceOf(segment));
+            for (String line : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t");
+                // O linie incompletă poate rămâne doar la finalul unui segment scris în timpul opririi
+                if (fields.length != 3) {
+                    continue;
+                }
+                String reviewId = decode(fields[0]);
+                ReviewBuffer buffer = pending.computeIfAbsent(reviewId, ReviewBuffer::new);
+                buffer.replayed = true;
+                Pending entry = buffer.entries.computeIfAbsent(decode(fields[1]), userId -> {
+                    depth.incrementAndGet();
+                    return new Pending(null);
+                });
+                entry.target = NONE.equals(fields[2]) ? null : ReactionType.valueOf(fields[2]);
+                replayed++;
+            }
+        }
+        // Review-urile șterse între timp nu își mai primesc reacțiile înapoi
+        for (String reviewId : new ArrayList<>(pending.keySet())) {
+            if (!mongoTemplate.exists(new Query(Criteria.where("id").is(reviewId)), ReviewEntity.class)) {
+                depth.addAndGet(-pending.remove(reviewId).entries.size());
+            }
+        }
+        // Segmentele se șterg după prima golire reușită
+        retainedSegments.addAll(segments);
+        log.info("Replaying {} journaled reactions from {} segments", replayed, segments.size());
+    }
+
+    private void append(String reviewId, String userId, ReactionType target) {
+        String line = encode(reviewId) + "\t" + encode(userId) + "\t" + (target != null ? target.name() : NONE);
+        synchronized (journalLock) {
+            try {
+                journal.write(line);
+                journal.newLine();
+                // Ajunge în sistemul de operare înainte de răspuns, deci supraviețuiește unei opriri a procesului
+                journal.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not journal reaction", e);
+            }
+        }
+    }
+
+    // Închide segmentul curent, deschide altul și îl returnează pe cel închis
+    private Path rotateJournal() {
+        synchronized (journalLock) {
+            Path closed = currentSegment;
+            closeJournal();
+            try {
+                openSegment();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open a new reactions journal segment", e);
+            }
+            return closed;
+        }
+    }
+
+    private void openSegment() throws IOException {
+        currentSegment = journalDir.resolve(SEGMENT_PREFIX + (++segmentSequence) + SEGMENT_SUFFIX);
+        journal = Files.newBufferedWriter(currentSegment, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Could not close reactions journal segment {}", currentSegment, e);
+        }
+        journal = null;
+    }
+
+    private void deleteSegment(Path segment) {
+        if (segment == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(segment);
+        } catch (IOException e) {
+            // Reluarea lui la pornire este inofensivă
+            log.warn("Could not delete flushed reactions journal segment {}", segment, e);
+        }
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // ID-urile vin din request, deci le codificăm ca să nu conțină tab-uri sau linii noi
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static final class ReviewBuffer {
+        private final String reviewId;
+        private final Map<String, Pending> entries = new ConcurrentHashMap<>();
+        // Se schimbă doar sub lock-ul buffer-ului
+        private boolean closed;
+        // Fereastra este reluată (după un eșec sau din jurnal)
+        private volatile boolean replayed;
+
+        ReviewBuffer(String reviewId) {
+            this.reviewId = reviewId;
+        }
+    }
+
+    private static final class Pending {
+        // Reacția din Mongo la prima atingere din fereastră (null = fără reacție); decide doar dacă
+        // reacția trebuie scrisă, contoarele se recalculează din colecție
+        private final ReactionType original;
+        private volatile ReactionType target;
+
+        Pending(ReactionType original) {
+            this.original = original;
+            this.target = original;
+        }
+    }
+}
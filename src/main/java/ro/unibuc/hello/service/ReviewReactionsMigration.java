@@ -0,0 +1,94 @@
+package ro.unibuc.hello.service;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.ReactionEntity;
+import ro.unibuc.hello.data.ReactionType;
+import ro.unibuc.hello.data.ReviewEntity;
+
+import java.util.List;
+
+/**
+ * La pornire mută reacțiile păstrate în seturile likes/dislikes din review-urile vechi în colecția
+ * review_reactions, recalculează likeCount/dislikeCount din ea și scoate seturile din documente.
+ * Poate fi reluată: reacțiile deja mutate sunt ignorate de indexul unic.
+ */
+@Component
+public class ReviewReactionsMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewReactionsMigration.class);
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public ReviewReactionsMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        Query embedded = new Query(new Criteria().orOperator(
+                Criteria.where("likes").exists(true),
+                Criteria.where("dislikes").exists(true)));
+        embedded.fields().include("likes", "dislikes");
+        String reviews = mongoTemplate.getCollectionName(ReviewEntity.class);
+
+        int migrated = 0;
+        try (CloseableIterator<Document> documents = mongoTemplate.stream(embedded, Document.class, reviews)) {
+            while (documents.hasNext()) {
+                Document review = documents.next();
+                String reviewId = String.valueOf(review.get("_id"));
+                insertReactions(reviewId, review.getList("likes", String.class), ReactionType.LIKE);
+                insertReactions(reviewId, review.getList("dislikes", String.class), ReactionType.DISLIKE);
+
+                Query byId = new Query(Criteria.where("id").is(reviewId));
+                mongoTemplate.updateFirst(byId, new Update()
+                        .set("likeCount", countReactions(reviewId, ReactionType.LIKE))
+                        .set("dislikeCount", countReactions(reviewId, ReactionType.DISLIKE))
+                        .unset("likes")
+                        .unset("dislikes"), ReviewEntity.class);
+                migrated++;
+            }
+        }
+        if (migrated > 0) {
+            log.info("Moved embedded reactions of {} reviews to their own collection", migrated);
+        }
+    }
+
+    private void insertReactions(String reviewId, List<String> userIds, ReactionType type) {
+        if (userIds == null || userIds.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReactionEntity.class);
+        for (String userId : userIds) {
+            bulk.insert(new ReactionEntity(reviewId, userId, type));
+        }
+        // O rulare anterioară poate să fi mutat deja o parte; în modul UNORDERED restul inserărilor se aplică oricum
+        try {
+            bulk.execute();
+        } catch (DuplicateKeyException e) {
+            // toate erorile au fost chei duplicate
+        } catch (BulkOperationException e) {
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+                throw e;
+            }
+        }
+    }
+
+    private long countReactions(String reviewId, ReactionType type) {
+        return mongoTemplate.count(new Query(Criteria.where("reviewId").is(reviewId).and("type").is(type)), ReactionEntity.class);
+    }
+}
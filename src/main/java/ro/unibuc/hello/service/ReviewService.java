@@ -1,11 +1,25 @@
 package ro.unibuc.hello.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.ReactionEntity;
+import ro.unibuc.hello.data.ReactionType;
 import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.dto.CursorPage;
+import ro.unibuc.hello.dto.ReviewSort;
+import ro.unibuc.hello.exception.InvalidInputException;
+import ro.unibuc.hello.index.LocalCaches;
+import ro.unibuc.hello.index.ReviewEligibility;
+import ro.unibuc.hello.repository.ApartmentRepository;
+import ro.unibuc.hello.repository.ReactionRepository;
 import ro.unibuc.hello.repository.ReviewRepository;
-import ro.unibuc.hello.repository.BookingRepository;
+import ro.unibuc.hello.util.PageCursor;
 import org.springframework.data.domain.Sort; 
+import java.time.Instant;
 import java.util.List;  
 import java.util.Optional;  
 
@@ -13,13 +27,31 @@ import java.util.Optional;
 @Service
 public class ReviewService {
 
+    private static final int MAX_REACTIONS_PAGE_SIZE = 100;
+    private static final int MAX_REVIEWS_PAGE_SIZE = 100;
+    // Review-urile cu rating peste prag sunt "bune", restul "rele"
+    private static final int GOOD_RATING_THRESHOLD = 3;
+
+    // Listele ordonate după rating; cursorul unei liste nu este valid pentru alta
+    private enum RatingView { ALL, GOOD, BAD }
+
     private final ReviewRepository reviewRepository;
-    private final BookingRepository bookingRepository;
+    private final ReactionRepository reactionRepository;
+    private final ReviewEligibility reviewEligibility;
+    private final ApartmentRepository apartmentRepository;
+    private final LocalCaches localCaches;
+    private final ReviewReactionBuffer reactionBuffer;
 
     @Autowired
-    public ReviewService(ReviewRepository reviewRepository, BookingRepository bookingRepository) {
+    public ReviewService(ReviewRepository reviewRepository, ReactionRepository reactionRepository,
+                         ReviewEligibility reviewEligibility, ApartmentRepository apartmentRepository,
+                         LocalCaches localCaches, ReviewReactionBuffer reactionBuffer) {
         this.reviewRepository = reviewRepository;
-        this.bookingRepository = bookingRepository;
+        this.reactionRepository = reactionRepository;
+        this.reviewEligibility = reviewEligibility;
+        this.apartmentRepository = apartmentRepository;
+        this.localCaches = localCaches;
+        this.reactionBuffer = reactionBuffer;
     }
 
     // Metodă pentru a obține toate review-urile
@@ -44,105 +76,245 @@ public class ReviewService {
         }
 
         // Verificăm dacă utilizatorul a făcut un booking pentru apartamentul respectiv
-        boolean hasBookedApartment = bookingRepository.findByApartmentIdAndUserId(review.getApartmentId(), review.getUserId()).size() > 0;
+        // De obicei fără Mongo: filtrul Bloom respinge perechile fără rezervare, confirmările sunt în cache
+        boolean hasBookedApartment = reviewEligibility.hasBooked(review.getApartmentId(), review.getUserId());
         if (!hasBookedApartment) {
             throw new IllegalArgumentException("User must have booked the apartment before leaving a review.");
         }
 
-        // Dacă totul este valid, salvăm review-ul
-        return reviewRepository.save(review);
+        review.setCreatedAt(Instant.now());
+
+        // Dacă totul este valid, inserăm review-ul și îl adăugăm în agregatele apartamentului;
+        // insert (nu save), ca un id trimis de client să nu suprascrie un review existent
+        ReviewEntity saved;
+        try {
+            saved = reviewRepository.insert(review);
+        } catch (DuplicateKeyException e) {
+            throw new InvalidInputException("Review with id " + review.getId() + " already exists");
+        }
+        applyRating(saved, 1);
+        return saved;
     }
 
     // Metodă pentru a șterge un review
     public void deleteReview(String id) {
-        reviewRepository.deleteById(id);
+        ReviewEntity removed = reviewRepository.removeById(id);
+        if (removed != null) {
+            applyRating(removed, -1);
+            if (reactionBuffer.isEnabled()) {
+                reactionBuffer.discard(id);
+            }
+            reactionRepository.deleteByReviewId(id);
+        }
     }
 
+    // Actualizează agregatele de rating ale apartamentului; un review rămas nereflectat se corectează
+    // la următoarea rulare a RatingAggregatesRepair
+    private void applyRating(ReviewEntity review, int delta) {
+        // Review-urile fără rating (seed, importuri vechi) nu fac parte din agregate
+        if (review.getApartmentId() == null || review.getRating() == null) {
+            return;
+        }
+        ApartmentEntity apartment = apartmentRepository.applyRating(review.getApartmentId(), review.getRating(), delta);
+        // Update-urile prin MongoTemplate nu declanșează evenimentele de mapare, deci actualizăm aici structurile din memorie
+        if (apartment != null) {
+            localCaches.apartmentSaved(apartment);
+        }
+    }
+
+    // Ordinea urmează indexul (rating, _id), deci Mongo nu sortează în memorie
     public List<ReviewEntity> getAllReviewsSortedByRating() {
-        return reviewRepository.findAll(Sort.by(Sort.Order.desc("rating"))); // Sortare descrescătoare după rating
+        return reviewRepository.findAll(Sort.by(Sort.Direction.DESC, "rating", "id")); // Sortare descrescătoare după rating
     }
 
     // Metoda pentru a obține review-urile bune (rating > 3)
     public List<ReviewEntity> getGoodReviews() {
-        return reviewRepository.findByRatingGreaterThan(3, Sort.by(Sort.Order.desc("rating"))); // Review-uri cu rating > 3
+        return reviewRepository.findByRatingGreaterThan(GOOD_RATING_THRESHOLD, Sort.by(Sort.Direction.DESC, "rating", "id")); // Review-uri cu rating > 3
     }
 
     // Metoda pentru a obține review-urile rele (rating <= 3)
     public List<ReviewEntity> getBadReviews() {
-        return reviewRepository.findByRatingLessThanEqual(3, Sort.by(Sort.Order.asc("rating"))); // Review-uri cu rating <= 3
+        return reviewRepository.findByRatingLessThanEqual(GOOD_RATING_THRESHOLD, Sort.by(Sort.Direction.ASC, "rating", "id")); // Review-uri cu rating <= 3
     }
 
-// Adaugă un like la un review
-    public String addLike(String reviewId, String userId) {
-        Optional<ReviewEntity> review = reviewRepository.findById(reviewId);
-        if (review.isPresent()) {
-            ReviewEntity r = review.get();
+    // Variantele paginate: after este nextCursor de la pagina anterioară (null pentru prima)
+    public CursorPage<ReviewEntity> getAllReviewsSortedByRating(String after, int limit) {
+        return ratingPage(RatingView.ALL, null, null, Sort.Direction.DESC, after, limit);
+    }
 
-            // Dacă utilizatorul a dat deja un dislike, îl ștergem
-            if (r.getDislikes().contains(userId)) {
-                r.removeDislike(userId);
+    public CursorPage<ReviewEntity> getGoodReviews(String after, int limit) {
+        return ratingPage(RatingView.GOOD, GOOD_RATING_THRESHOLD, null, Sort.Direction.DESC, after, limit);
+    }
+
+    public CursorPage<ReviewEntity> getBadReviews(String after, int limit) {
+        return ratingPage(RatingView.BAD, null, GOOD_RATING_THRESHOLD, Sort.Direction.ASC, after, limit);
+    }
+
+    private CursorPage<ReviewEntity> ratingPage(RatingView view, Integer ratingAbove, Integer ratingAtMost,
+                                                Sort.Direction direction, String after, int limit) {
+        if (limit < 1 || limit > MAX_REVIEWS_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_REVIEWS_PAGE_SIZE);
+        }
+        Integer afterRating = null;
+        String afterId = null;
+        if (after != null) {
+            // listă | rating | id-ul ultimului review de pe pagina anterioară
+            String[] parts = PageCursor.decode(after, 3);
+            if (!view.name().equals(parts[0])) {
+                throw new IllegalArgumentException("Cursor does not belong to this list");
             }
+            afterRating = (Integer) parseSortValue(ReviewSort.RATING, parts[1]);
+            afterId = parts[2];
+        }
+        List<ReviewEntity> reviews = reviewRepository.findRatingPage(ratingAbove, ratingAtMost, direction, afterRating, afterId, limit + 1);
+        if (reviews.size() <= limit) {
+            return new CursorPage<>(reviews, null);
+        }
+        List<ReviewEntity> page = reviews.subList(0, limit);
+        ReviewEntity last = page.get(limit - 1);
+        return new CursorPage<>(page, PageCursor.encode(view.name(), sortValue(ReviewSort.RATING, last), last.getId()));
+    }
 
-            // Dacă utilizatorul a dat deja un like, nu facem nimic
-            if (r.getLikes().contains(userId)) {
-                return "User has already liked this review.";
+    // Review-urile unui apartament, paginate keyset: cursor este nextCursor de la pagina anterioară (null pentru prima)
+    public CursorPage<ReviewEntity> getApartmentReviews(String apartmentId, ReviewSort sort, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_REVIEWS_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_REVIEWS_PAGE_SIZE);
+        }
+        Object afterValue = null;
+        String afterId = null;
+        if (cursor != null) {
+            // sort | valoarea cheii | id-ul ultimului review de pe pagina anterioară
+            String[] parts = PageCursor.decode(cursor, 3);
+            if (!sort.name().equals(parts[0])) {
+                throw new IllegalArgumentException("Cursor does not match sort " + sort);
             }
+            afterValue = parseSortValue(sort, parts[1]);
+            afterId = parts[2];
+        }
+        // Un rezultat în plus ne spune dacă mai există o pagină
+        List<ReviewEntity> reviews = reviewRepository.findApartmentReviewsPage(apartmentId, sort, afterValue, afterId, limit + 1);
+        if (reviews.size() <= limit) {
+            return new CursorPage<>(reviews, null);
+        }
+        List<ReviewEntity> page = reviews.subList(0, limit);
+        ReviewEntity last = page.get(limit - 1);
+        return new CursorPage<>(page, PageCursor.encode(sort.name(), sortValue(sort, last), last.getId()));
+    }
 
-            // Adăugăm like
-            r.addLike(userId);
-            reviewRepository.save(r);
-            return "Like added successfully!";
+    // Un review fără valoare pentru cheie (fără rating sau createdAt) se codifică "" și se decodifică null
+    private static String sortValue(ReviewSort sort, ReviewEntity review) {
+        Object value = switch (sort) {
+            case RATING -> review.getRating();
+            case RECENT -> review.getCreatedAt() != null ? review.getCreatedAt().toEpochMilli() : null;
+            case LIKES -> review.getLikeCount();
+        };
+        return value != null ? String.valueOf(value) : "";
+    }
+
+    private static Object parseSortValue(ReviewSort sort, String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return switch (sort) {
+                case RATING -> Integer.valueOf(value);
+                case RECENT -> Instant.ofEpochMilli(Long.parseLong(value));
+                case LIKES -> Long.valueOf(value);
+            };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
         }
-        return "Review not found!";
+    }
+
+    // Adaugă un like la un review
+    public String addLike(String reviewId, String userId) {
+        return react(reviewId, userId, ReactionType.LIKE, "Like added successfully!", "User has already liked this review.");
     }
 
     // Adaugă un dislike la un review
     public String addDislike(String reviewId, String userId) {
-        Optional<ReviewEntity> review = reviewRepository.findById(reviewId);
-        if (review.isPresent()) {
-            ReviewEntity r = review.get();
+        return react(reviewId, userId, ReactionType.DISLIKE, "Dislike added successfully!", "User has already disliked this review.");
+    }
 
-            // Dacă utilizatorul a dat deja un like, îl ștergem
-            if (r.getLikes().contains(userId)) {
-                r.removeLike(userId);
+    // Șterge reacția utilizatorului la un review (like sau dislike)
+    public String removeReaction(String reviewId, String userId) {
+        if (reactionBuffer.isEnabled()) {
+            if (!reviewExists(reviewId)) {
+                return "Review not found!";
             }
-
-            // Dacă utilizatorul a dat deja un dislike, nu facem nimic
-            if (r.getDislikes().contains(userId)) {
-                return "User has already disliked this review.";
+            ReactionType previous = reactionBuffer.set(reviewId, userId, null);
+            if (previous == null) {
+                return "No reaction found to remove.";
             }
+            return previous == ReactionType.LIKE ? "Like removed successfully!" : "Dislike removed successfully!";
+        }
+        ReactionEntity removed = reactionRepository.removeByReviewIdAndUserId(reviewId, userId);
+        if (removed != null) {
+            adjustCounts(reviewId, removed.getType(), -1);
+            return removed.getType() == ReactionType.LIKE ? "Like removed successfully!" : "Dislike removed successfully!";
+        }
+        return reviewRepository.existsById(reviewId) ? "No reaction found to remove." : "Review not found!";
+    }
 
-            // Adăugăm dislike
-            r.addDislike(userId);
-            reviewRepository.save(r);
-            return "Dislike added successfully!";
+    // Cine a reacționat la un review, pe pagini ordonate după userId; type null înseamnă ambele tipuri
+    public List<ReactionEntity> getReactions(String reviewId, ReactionType type, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
         }
-        return "Review not found!";
+        if (size < 1 || size > MAX_REACTIONS_PAGE_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_REACTIONS_PAGE_SIZE);
+        }
+        Pageable pageable = PageRequest.of(page, size);
+        return type == null
+                ? reactionRepository.findByReviewIdOrderByUserId(reviewId, pageable)
+                : reactionRepository.findByReviewIdAndTypeOrderByUserId(reviewId, type, pageable);
     }
 
-    // Șterge reacția utilizatorului la un review (like sau dislike)
-    public String removeReaction(String reviewId, String userId) {
-        Optional<ReviewEntity> review = reviewRepository.findById(reviewId);
-        if (review.isPresent()) {
-            ReviewEntity r = review.get();
-
-            // Dacă utilizatorul a dat like
-            if (r.getLikes().contains(userId)) {
-                r.removeLike(userId);
-                reviewRepository.save(r);
-                return "Like removed successfully!";
+    // Fiecare tranziție (fără reacție -> reacție, reacție opusă -> reacție) este atomică pe documentul
+    // reacției, iar indexul unic (reviewId, userId) face ca doar o cerere să o câștige; doar aceea
+    // actualizează contoarele. Reîncercăm dacă reacția a fost ștearsă între timp de o cerere concurentă.
+    private String react(String reviewId, String userId, ReactionType type, String added, String alreadyPresent) {
+        if (reactionBuffer.isEnabled()) {
+            // Scrierea ajunge în Mongo la următoarea golire a buffer-ului
+            if (!reviewExists(reviewId)) {
+                return "Review not found!";
             }
-
-            // Dacă utilizatorul a dat dislike
-            if (r.getDislikes().contains(userId)) {
-                r.removeDislike(userId);
-                reviewRepository.save(r);
-                return "Dislike removed successfully!";
+            return reactionBuffer.set(reviewId, userId, type) == type ? alreadyPresent : added;
+        }
+        if (!reviewRepository.existsById(reviewId)) {
+            return "Review not found!";
+        }
+        while (true) {
+            try {
+                reactionRepository.insert(new ReactionEntity(reviewId, userId, type));
+                adjustCounts(reviewId, type, 1);
+                return added;
+            } catch (DuplicateKeyException e) {
+                // Utilizatorul are deja o reacție la acest review
             }
+            if (reactionRepository.changeType(reviewId, userId, type.opposite(), type) > 0) {
+                // Ambele contoare într-un singur $inc; o cădere după changeType se repară cu /actuator/reactionrepair
+                long delta = type == ReactionType.LIKE ? 1 : -1;
+                reviewRepository.incrementReactionCounts(reviewId, delta, -delta);
+                return added;
+            }
+            if (reactionRepository.existsByReviewIdAndUserIdAndType(reviewId, userId, type)) {
+                return alreadyPresent;
+            }
+        }
+    }
+
+    // Un review cu reacții în buffer a fost deja verificat în fereastra curentă
+    private boolean reviewExists(String reviewId) {
+        return reactionBuffer.isBuffered(reviewId) || reviewRepository.existsById(reviewId);
+    }
 
-            return "No reaction found to remove.";
+    private void adjustCounts(String reviewId, ReactionType type, long delta) {
+        if (type == ReactionType.LIKE) {
+            reviewRepository.incrementReactionCounts(reviewId, delta, 0);
+        } else {
+            reviewRepository.incrementReactionCounts(reviewId, 0, delta);
         }
-        return "Review not found!";
     }
 
 }
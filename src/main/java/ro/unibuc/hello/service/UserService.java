@@ -2,24 +2,35 @@ package ro.unibuc.hello.service;
 
 import org.springframework.stereotype.Service;
 import ro.unibuc.hello.data.UserEntity;
+import ro.unibuc.hello.dto.CursorPage;
+import ro.unibuc.hello.index.EntityCache;
 import ro.unibuc.hello.repository.UserRepository;
+import ro.unibuc.hello.util.IdPages;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
+    private final EntityCache entityCache;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, EntityCache entityCache) {
         this.userRepository = userRepository;
+        this.entityCache = entityCache;
     }
 
     public List<UserEntity> getAllUsers() {
         return userRepository.findAll();
     }
 
+    // O pagină în ordinea _id; cursor este nextCursor de la pagina anterioară (null pentru prima)
+    public CursorPage<UserEntity> getUsers(String cursor, int limit) {
+        return IdPages.page("users", cursor, limit, userRepository::findAllByOrderByIdAsc,
+                userRepository::findByIdGreaterThanOrderByIdAsc, userRepository::findAfterStringIdOrderByIdAsc, UserEntity::getId);
+    }
+
     public Optional<UserEntity> getUserById(String id) {
-        return userRepository.findById(id);
+        return entityCache.user(id, userRepository::findById);
     }
 
     public UserEntity createUser(UserEntity user) {
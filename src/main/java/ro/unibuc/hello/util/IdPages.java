@@ -0,0 +1,62 @@
+package ro.unibuc.hello.util;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Limit;
+import ro.unibuc.hello.dto.CursorPage;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Paginare keyset pe _id pentru listele simple (/apartments, /bookings, /users, /greetings).
+ * Cursorul conține numele listei și id-ul ultimului element; cerem limit + 1 documente ca să știm dacă
+ * mai urmează o pagină, deci nu avem nevoie nici de count, nici de skip.
+ * Într-o colecție care amestecă id-uri ObjectId cu id-uri String alese de client, ordinea _id pune
+ * întâi toate String-urile, apoi toate ObjectId-urile (ordinea tipurilor BSON), iar $gt compară doar în
+ * cadrul aceluiași tip. De aceea după un cursor String citim cu afterStringId, care adaugă ObjectId-urile.
+ */
+public final class IdPages {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private IdPages() {
+    }
+
+    /**
+     * first citește primele documente în ordinea _id, after pe cele cu _id mai mare decât un ObjectId,
+     * afterStringId pe cele de după un id String (String-urile mai mari și toate ObjectId-urile).
+     * Aruncă IllegalArgumentException pentru o limită în afara [1, MAX_LIMIT] sau un cursor invalid.
+     */
+    public static <T> CursorPage<T> page(String list, String cursor, int limit,
+                                         Function<Limit, List<T>> first,
+                                         BiFunction<String, Limit, List<T>> after,
+                                         BiFunction<String, Limit, List<T>> afterStringId,
+                                         Function<T, String> idOf) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        List<T> items;
+        if (cursor == null) {
+            items = first.apply(Limit.of(limit + 1));
+        } else {
+            // listă | id-ul ultimului element de pe pagina anterioară
+            String[] parts = PageCursor.decode(cursor, 2);
+            if (!list.equals(parts[0])) {
+                throw new IllegalArgumentException("Cursor does not belong to this list");
+            }
+            items = (isObjectId(parts[1]) ? after : afterStringId).apply(parts[1], Limit.of(limit + 1));
+        }
+        if (items.size() <= limit) {
+            return new CursorPage<>(items, null);
+        }
+        List<T> page = items.subList(0, limit);
+        return new CursorPage<>(page, PageCursor.encode(list, idOf.apply(page.get(limit - 1))));
+    }
+
+    // Spring Data stochează ca ObjectId orice id String valid ca ObjectId, deci așa se compară și cursorul
+    public static boolean isObjectId(String id) {
+        return ObjectId.isValid(id);
+    }
+}
@@ -0,0 +1,36 @@
+package ro.unibuc.hello.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opac pentru paginarea keyset: valorile cheii de sortare ale ultimului rezultat, codificate
+ * base64url ca clientul să nu depindă de formatul lor. Doar ultima parte poate conține separatorul.
+ */
+public final class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private PageCursor() {
+    }
+
+    public static String encode(String... parts) {
+        byte[] raw = String.join(SEPARATOR, parts).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    // Aruncă IllegalArgumentException dacă cursorul nu a fost produs de encode cu exact parts părți
+    public static String[] decode(String cursor, int parts) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String[] decoded = raw.split("\\" + SEPARATOR, parts);
+        if (decoded.length != parts) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,38 @@
+package ro.unibuc.hello.util;
+
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizarea textului folosită la căutare: fără diacritice și cu litere mici
+ * ("București" -> "bucuresti").
+ */
+public final class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+
+    private static final String REGEX_SPECIAL_CHARACTERS = "\\^$.|?*+()[]{}";
+
+    private TextNormalizer() {}
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return null;
+        }
+        return COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase();
+    }
+
+    // Expresie regulată care găsește textul exact (pentru căutări pe chei deja normalizate)
+    public static String escapeRegex(String text) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            if (REGEX_SPECIAL_CHARACTERS.indexOf(c) >= 0) {
+                regex.append('\\');
+            }
+            regex.append(c);
+        }
+        return regex.toString();
+    }
+}
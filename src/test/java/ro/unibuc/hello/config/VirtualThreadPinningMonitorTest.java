@@ -0,0 +1,60 @@
+package ro.unibuc.hello.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final Object monitor = new Object();
+
+    @Test
+    void location_SkipsJdkFrames() {
+        assertEquals("com.mongodb.internal.connection.DefaultConnectionPool",
+                VirtualThreadPinningMonitor.location(List.of(
+                        "jdk.internal.misc.Unsafe",
+                        "java.util.concurrent.locks.LockSupport",
+                        "com.mongodb.internal.connection.DefaultConnectionPool",
+                        "ro.unibuc.hello.service.BookingService")));
+        assertEquals("jdk", VirtualThreadPinningMonitor.location(List.of("java.lang.Thread", "sun.nio.ch.Net")));
+    }
+
+    @Test
+    void start_RecordsSynchronizedBlocksThatPinVirtualThreads() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor pinningMonitor = new VirtualThreadPinningMonitor(meterRegistry, true, 10);
+        pinningMonitor.start();
+        try {
+            // Un sleep în synchronized ține firul virtual lipit de purtător
+            Thread.ofVirtual().start(() -> {
+                synchronized (monitor) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }).join();
+
+            // Evenimentele JFR ajung în stream la fiecare flush (aproximativ o dată pe secundă)
+            Timer pinned = null;
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (pinned == null && System.nanoTime() < deadline) {
+                pinned = meterRegistry.find("virtual.threads.pinned")
+                        .tag("location", VirtualThreadPinningMonitorTest.class.getName())
+                        .timer();
+                Thread.sleep(100);
+            }
+            assertNotNull(pinned);
+            assertTrue(pinned.totalTime(TimeUnit.MILLISECONDS) >= 10);
+        } finally {
+            pinningMonitor.stop();
+        }
+    }
+}
@@ -10,8 +10,13 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.dto.ApartmentSearchFilter;
+import ro.unibuc.hello.dto.CursorPage;
+import ro.unibuc.hello.dto.ReviewSort;
 import ro.unibuc.hello.exception.InvalidInputException;
 import ro.unibuc.hello.service.ApartmentService;
+import ro.unibuc.hello.service.ReviewService;
 
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -29,6 +34,9 @@ class ApartmentControllerTest {
     @Mock
     private ApartmentService apartmentService;
 
+    @Mock
+    private ReviewService reviewService;
+
     @InjectMocks
     private ApartmentController apartmentController;
 
@@ -77,7 +85,7 @@ class ApartmentControllerTest {
         List<ApartmentEntity> apartments = Arrays.asList(luxuryApartment, modernFlat);
         when(apartmentService.getAllApartments()).thenReturn(apartments);
 
-        mockMvc.perform(get("/apartments"))
+        mockMvc.perform(get("/apartments").param("unpaged", "true"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value("67e0582d1bf7c4337e952c36"))
                 .andExpect(jsonPath("$[0].title").value("Luxury Apartment"))
@@ -85,6 +93,19 @@ class ApartmentControllerTest {
                 .andExpect(jsonPath("$[1].title").value("Modern Flat"));
     }
 
+    @Test
+    void getApartments_PagedByDefault() throws Exception {
+        when(apartmentService.getApartments(null, 1)).thenReturn(new CursorPage<>(List.of(luxuryApartment), "next"));
+
+        mockMvc.perform(get("/apartments").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(header().string("Link", "<http://localhost/apartments?limit=1&cursor=next>; rel=\"next\""));
+
+        verify(apartmentService, never()).getAllApartments();
+    }
+
     @Test
     void getApartmentById_Success() throws Exception {
         when(apartmentService.getApartmentById("67e0582d1bf7c4337e952c36")).thenReturn(Optional.of(luxuryApartment));
@@ -245,7 +266,7 @@ class ApartmentControllerTest {
     @Test
     void getApartmentsByAmenity_Success() throws Exception {
         List<ApartmentEntity> amenities = Arrays.asList(luxuryApartment, modernFlat);
-        when(apartmentService.getApartmentsByAmenity("Wi-Fi")).thenReturn(amenities);
+        when(apartmentService.getApartmentsByAmenities(Collections.singletonList("Wi-Fi"), null)).thenReturn(amenities);
 
         mockMvc.perform(get("/apartments/amenities")
                         .param("amenity", "Wi-Fi"))
@@ -256,7 +277,7 @@ class ApartmentControllerTest {
 
     @Test
     void getApartmentsByAmenity_InvalidInput() throws Exception {
-        when(apartmentService.getApartmentsByAmenity(""))
+        when(apartmentService.getApartmentsByAmenities(anyList(), isNull()))
                 .thenThrow(new InvalidInputException("Amenity must not be empty"));
 
         mockMvc.perform(get("/apartments/amenities")
@@ -265,6 +286,18 @@ class ApartmentControllerTest {
                 .andExpect(content().string("Amenity must not be empty"));
     }
 
+    @Test
+    void getApartmentsByAmenity_MultipleAndExcluded() throws Exception {
+        when(apartmentService.getApartmentsByAmenities(Arrays.asList("wi-fi", "balcon"), Collections.singletonList("tv")))
+                .thenReturn(Collections.emptyList());
+
+        mockMvc.perform(get("/apartments/amenities")
+                        .param("amenity", "wi-fi", "balcon")
+                        .param("excludedAmenity", "tv"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+    }
+
     @Test
     void getApartmentsBySmokingAllowed_Success() throws Exception {
         List<ApartmentEntity> smoking = Collections.singletonList(modernFlat);
@@ -334,8 +367,8 @@ class ApartmentControllerTest {
     @Test
     void searchApartments_Success() throws Exception {
         List<ApartmentEntity> filtered = Collections.singletonList(modernFlat);
-        when(apartmentService.searchApartments(null, 200.0, null, null, 2, null, null, true, "Wi-Fi", null, null))
-                .thenReturn(filtered);
+        ApartmentSearchFilter filter = new ApartmentSearchFilter(null, 200.0, null, null, 2, null, null, true, "Wi-Fi", null, null);
+        when(apartmentService.searchApartments(filter, null, null)).thenReturn(filtered);
 
         mockMvc.perform(get("/apartments/search")
                         .param("maxPrice", "200.0")
@@ -350,7 +383,8 @@ class ApartmentControllerTest {
 
     @Test
     void searchApartments_InvalidRating() throws Exception {
-        when(apartmentService.searchApartments(null, null, null, null, null, null, null, null, null, null, 6.0))
+        ApartmentSearchFilter filter = new ApartmentSearchFilter(null, null, null, null, null, null, null, null, null, null, 6.0);
+        when(apartmentService.searchApartments(filter, null, null))
                 .thenThrow(new InvalidInputException("Minimum average rating must be between 1 and 5"));
 
         mockMvc.perform(get("/apartments/search")
@@ -359,6 +393,20 @@ class ApartmentControllerTest {
                 .andExpect(content().string("Minimum average rating must be between 1 and 5"));
     }
 
+    @Test
+    void searchApartments_WithFieldsAndLimit() throws Exception {
+        ApartmentSearchFilter filter = new ApartmentSearchFilter(null, null, null, null, null, null, null, null, null, "Cluj", null);
+        when(apartmentService.searchApartments(filter, Arrays.asList("id", "title"), 5))
+                .thenReturn(Collections.singletonList(modernFlat));
+
+        mockMvc.perform(get("/apartments/search")
+                        .param("location", "Cluj")
+                        .param("fields", "id", "title")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("67e0582d1bf7c4337e952c37"));
+    }
+
     @Test
     void getApartmentsByMinAverageRating_Success() throws Exception {
         List<ApartmentEntity> rated = Collections.singletonList(luxuryApartment);
@@ -381,4 +429,30 @@ class ApartmentControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string("Minimum average rating must be between 1 and 5"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getApartmentReviews_ReturnsPageAndCursor() throws Exception {
+        ReviewEntity review = new ReviewEntity("r1", "Great", 5, "67e0582d1bf7c4337e952c36", "user1");
+        when(reviewService.getApartmentReviews("67e0582d1bf7c4337e952c36", ReviewSort.RECENT, "abc", 1))
+                .thenReturn(new CursorPage<>(List.of(review), "def"));
+
+        mockMvc.perform(get("/apartments/67e0582d1bf7c4337e952c36/reviews")
+                        .param("sort", "RECENT")
+                        .param("cursor", "abc")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("r1"))
+                .andExpect(header().string("X-Next-Cursor", "def"));
+    }
+
+    @Test
+    void getApartmentReviews_InvalidLimit() throws Exception {
+        when(reviewService.getApartmentReviews("67e0582d1bf7c4337e952c36", ReviewSort.RATING, null, 0))
+                .thenThrow(new IllegalArgumentException("Limit must be between 1 and 100"));
+
+        mockMvc.perform(get("/apartments/67e0582d1bf7c4337e952c36/reviews")
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Limit must be between 1 and 100"));
+    }
+}
@@ -22,10 +22,13 @@ import ro.unibuc.hello.repository.BookingRepository;
 import ro.unibuc.hello.repository.UserRepository;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -224,6 +227,49 @@ public class BookingControllerIntegrationTest {
                 .andExpect(jsonPath("$.available").value(true));
     }
 
+    @Test
+    public void testGetBookings_PagesFollowIdOrder() throws Exception {
+        for (int i = 2; i <= 5; i++) {
+            BookingEntity booking = new BookingEntity();
+            booking.setId("booking" + i);
+            booking.setApartmentId("apartment2");
+            booking.setUserId("user1");
+            booking.setStartDate(LocalDate.of(2025, 3, i * 2));
+            booking.setEndDate(LocalDate.of(2025, 3, i * 2 + 1));
+            bookingRepository.save(booking);
+        }
+
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/bookings").param("limit", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            var response = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse();
+            objectMapper.readTree(response.getContentAsString()).forEach(booking -> paged.add(booking.get("id").asText()));
+            cursor = response.getHeader("X-Next-Cursor");
+        } while (cursor != null);
+
+        assertEquals(Arrays.asList("booking1", "booking2", "booking3", "booking4", "booking5"), paged);
+
+        mockMvc.perform(get("/bookings").param("cursor", "%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testStreamBookings_AsNdjson() throws Exception {
+        var result = mockMvc.perform(get("/bookings").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(1, lines.length);
+        assertEquals("booking1", objectMapper.readTree(lines[0]).get("id").asText());
+        assertEquals("2025-01-01", objectMapper.readTree(lines[0]).get("startDate").asText());
+    }
+
     @Test
     public void testGetBookingsForApartment() throws Exception {
         mockMvc.perform(get("/bookings/by-apartment/apartment1"))
@@ -1,14 +1,21 @@
 package ro.unibuc.hello.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.exception.ServiceUnavailableException;
+import ro.unibuc.hello.dto.CursorPage;
 import ro.unibuc.hello.service.BookingService;
 
 import java.time.LocalDate;
@@ -16,6 +23,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,6 +36,11 @@ class BookingControllerTest {
     @Mock
     private BookingService bookingService;
 
+    // Ca ObjectMapper-ul configurat de Spring Boot: date ISO, nu timestamp-uri
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
     @InjectMocks
     private BookingController bookingController;
 
@@ -67,7 +80,7 @@ class BookingControllerTest {
         List<BookingEntity> bookings = Arrays.asList(booking1, booking2);
         when(bookingService.getAllBookings()).thenReturn(bookings);
 
-        mockMvc.perform(get("/bookings"))
+        mockMvc.perform(get("/bookings").param("unpaged", "true"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value("booking1"))
                 .andExpect(jsonPath("$[0].apartmentId").value(apartmentId1))
@@ -76,6 +89,36 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[1].apartmentId").value(apartmentId2));
     }
 
+    @Test
+    void streamBookings_WritesOneDocumentPerLine() throws Exception {
+        when(bookingService.streamAllBookings()).thenReturn(Stream.of(booking1, booking2));
+
+        MvcResult result = mockMvc.perform(get("/bookings").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, result.getResponse().getContentType());
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("booking1", objectMapper.readTree(lines[0]).get("id").asText());
+        assertEquals("booking2", objectMapper.readTree(lines[1]).get("id").asText());
+        verify(bookingService, never()).getAllBookings();
+    }
+
+    @Test
+    void getBookings_PagedByDefault() throws Exception {
+        when(bookingService.getBookings(null, 20)).thenReturn(new CursorPage<>(Arrays.asList(booking1, booking2), null));
+
+        mockMvc.perform(get("/bookings"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].id").value("booking2"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(header().doesNotExist("Link"));
+
+        verify(bookingService, never()).getAllBookings();
+    }
+
     @Test
     void getBookingById() throws Exception {
         when(bookingService.getBookingById("booking1")).thenReturn(Optional.of(booking1));
@@ -121,6 +164,19 @@ class BookingControllerTest {
     }
 
 
+    @Test
+    void createBooking_LaneTimeout_ReturnsServiceUnavailable() throws Exception {
+        when(bookingService.createBooking(any(BookingEntity.class)))
+                .thenThrow(new ServiceUnavailableException("Timed out waiting for the booking to be committed."));
+
+        mockMvc.perform(post("/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"startDate\":\"2025-01-01\",\"endDate\":\"2025-01-05\",\"apartmentId\":\"apartment1\",\"userId\":\"user1\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("Timed out waiting for the booking to be committed."));
+    }
+
+
     @Test
     void deleteBooking() throws Exception {
         doNothing().when(bookingService).deleteBooking("booking1");
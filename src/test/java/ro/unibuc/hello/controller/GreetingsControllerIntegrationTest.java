@@ -2,6 +2,7 @@ package ro.unibuc.hello.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import ro.unibuc.hello.dto.CursorPage;
 import ro.unibuc.hello.dto.Greeting;
 
 import org.junit.jupiter.api.*;
@@ -18,6 +19,11 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 
 import ro.unibuc.hello.service.GreetingsService;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
@@ -83,6 +89,19 @@ public class GreetingsControllerIntegrationTest {
             .andExpect(jsonPath("$[1].content").value("Hello 2"));
     }
 
+    @Test
+    public void testGetGreetings_PagesFromStringIdsIntoObjectIds() {
+        // "1" și "2" sunt id-uri String; cel generat de Mongo este ObjectId și vine după ele în ordinea _id
+        Greeting generated = greetingsService.saveGreeting(new Greeting(null, "Hello generated"));
+
+        CursorPage<Greeting> first = greetingsService.getGreetings(null, 2);
+        CursorPage<Greeting> second = greetingsService.getGreetings(first.nextCursor(), 2);
+
+        assertEquals(List.of("1", "2"), first.items().stream().map(Greeting::getId).toList());
+        assertEquals(List.of(generated.getId()), second.items().stream().map(Greeting::getId).toList());
+        assertNull(second.nextCursor());
+    }
+
     @Test
     public void testCreateGreeting() throws Exception {
         Greeting greeting = new Greeting("3", "Hello New");
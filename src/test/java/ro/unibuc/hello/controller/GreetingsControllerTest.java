@@ -8,6 +8,7 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ro.unibuc.hello.dto.CursorPage;
 import ro.unibuc.hello.dto.Greeting;
 import ro.unibuc.hello.exception.EntityNotFoundException;
 import ro.unibuc.hello.service.GreetingsService;
@@ -88,7 +89,7 @@ class GreetingsControllerTest {
         when(greetingsService.getAllGreetings()).thenReturn(greetings);
 
         // Act & Assert
-        mockMvc.perform(get("/greetings"))
+        mockMvc.perform(get("/greetings").param("unpaged", "true"))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$[0].id").value("1"))
             .andExpect(jsonPath("$[0].content").value("Hello"))
@@ -96,6 +97,28 @@ class GreetingsControllerTest {
             .andExpect(jsonPath("$[1].content").value("Hi"));
     }
 
+    @Test
+    void test_getGreetings_PagedByDefault() throws Exception {
+        when(greetingsService.getGreetings("abc", 1)).thenReturn(new CursorPage<>(List.of(new Greeting("2", "Hi")), "def"));
+
+        mockMvc.perform(get("/greetings").param("limit", "1").param("cursor", "abc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value("2"))
+            .andExpect(header().string("X-Next-Cursor", "def"))
+            .andExpect(header().string("Link", "<http://localhost/greetings?limit=1&cursor=def>; rel=\"next\""));
+
+        verify(greetingsService, never()).getAllGreetings();
+    }
+
+    @Test
+    void test_getGreetings_InvalidLimit() throws Exception {
+        when(greetingsService.getGreetings(null, 500)).thenThrow(new IllegalArgumentException("Limit must be between 1 and 100"));
+
+        mockMvc.perform(get("/greetings").param("limit", "500"))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string("Limit must be between 1 and 100"));
+    }
+
     @Test
     void test_createGreeting() throws Exception {
         // Arrange
@@ -146,6 +169,7 @@ class GreetingsControllerTest {
         verify(greetingsService, times(1)).deleteGreeting(id);
     
         // check if greeting is deleted
+        when(greetingsService.getGreetings(null, 20)).thenReturn(new CursorPage<>(List.of(), null));
         mockMvc.perform(get("/greetings"))
                .andExpect(status().isOk())
                .andExpect(jsonPath("$").isEmpty());
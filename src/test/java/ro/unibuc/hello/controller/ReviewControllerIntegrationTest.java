@@ -14,6 +14,8 @@ import org.mockito.Mock;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -29,12 +31,17 @@ import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.repository.ReactionRepository;
 import ro.unibuc.hello.repository.ReviewRepository;
 import ro.unibuc.hello.service.ReviewService;
 import ro.unibuc.hello.repository.UserRepository;
 import ro.unibuc.hello.repository.BookingRepository;
 
+
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -79,11 +86,15 @@ public class ReviewControllerIntegrationTest {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private ReactionRepository reactionRepository;
+
     private ObjectMapper objectMapper = new ObjectMapper();
 
     @BeforeEach
     public void cleanUp() {
         reviewRepository.deleteAll();
+        reactionRepository.deleteAll();
         userRepository.deleteAll();
         bookingRepository.deleteAll();
     }
@@ -117,6 +128,26 @@ public class ReviewControllerIntegrationTest {
                 .andExpect(content().string("Review successfully created!"));
     }
 
+    @Test
+    public void testCreateReview_ExistingId_IsRejected() throws Exception {
+        createTestData();
+        ReviewEntity review = new ReviewEntity("1", "Great apartment!", 4, "apartment123", "user123");
+        mockMvc.perform(post("/reviews")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(review)))
+                .andExpect(status().isOk());
+
+        // Același id nu suprascrie review-ul existent
+        ReviewEntity overwrite = new ReviewEntity("1", "Overwritten", 1, "apartment123", "user123");
+        mockMvc.perform(post("/reviews")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(overwrite)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Review with id 1 already exists"));
+
+        assertEquals("Great apartment!", reviewRepository.findById("1").orElseThrow().getComment());
+    }
+
     @Test
     public void testAddLikeToReview_Success() throws Exception {
         createTestData();
@@ -131,9 +162,15 @@ public class ReviewControllerIntegrationTest {
         // Verificare prin endpoint-ul de get
         mockMvc.perform(get("/reviews/1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.likes").isArray())
-                .andExpect(jsonPath("$.likes.length()").value(1))
-                .andExpect(jsonPath("$.likes[0]").value("user123"));
+                .andExpect(jsonPath("$.likeCount").value(1))
+                .andExpect(jsonPath("$.likes").doesNotExist());
+
+        // Cine a reacționat se citește din colecția separată, paginat
+        mockMvc.perform(get("/reviews/1/reactions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].userId").value("user123"))
+                .andExpect(jsonPath("$[0].type").value("LIKE"));
     }
 
     @Test
@@ -156,10 +193,101 @@ public class ReviewControllerIntegrationTest {
         // Verifică starea finală
         mockMvc.perform(get("/reviews/1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.likes").isArray())
-                .andExpect(jsonPath("$.likes.length()").value(0))
-                .andExpect(jsonPath("$.dislikes").isArray())
-                .andExpect(jsonPath("$.dislikes.length()").value(1))
-                .andExpect(jsonPath("$.dislikes[0]").value("user123"));
+                .andExpect(jsonPath("$.likeCount").value(0))
+                .andExpect(jsonPath("$.dislikeCount").value(1));
+
+        mockMvc.perform(get("/reviews/1/reactions").param("type", "DISLIKE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].userId").value("user123"));
+    }
+
+    @Test
+    public void testApartmentReviews_KeysetPagesCoverAllReviewsOnce() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            ReviewEntity review = new ReviewEntity(String.format("r%02d", i), "Review " + i, 1 + i % 5, "apartment123", "user" + i);
+            review.setLikeCount(i % 7);
+            reviewRepository.save(review);
+        }
+        // Review-ul altui apartament nu trebuie să apară
+        reviewRepository.save(new ReviewEntity("other", "Other", 5, "apartment456", "user1"));
+
+        List<String> ids = new ArrayList<>();
+        List<Integer> likeCounts = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/apartments/apartment123/reviews").param("sort", "LIKES").param("limit", "10");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            var response = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            objectMapper.readTree(response.getContentAsString()).forEach(review -> {
+                ids.add(review.get("id").asText());
+                likeCounts.add(review.get("likeCount").asInt());
+            });
+            cursor = response.getHeader("X-Next-Cursor");
+        } while (cursor != null);
+
+        assertEquals(25, ids.size());
+        assertEquals(25, new HashSet<>(ids).size());
+        for (int i = 1; i < likeCounts.size(); i++) {
+            assertTrue(likeCounts.get(i - 1) >= likeCounts.get(i));
+        }
+
+        mockMvc.perform(get("/apartments/apartment123/reviews").param("cursor", "%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testAllReviews_PagesReachReviewsWithoutRating() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            reviewRepository.save(new ReviewEntity(String.format("r%02d", i), "Review " + i, 1 + i, "apartment123", "user" + i));
+        }
+        // Review-uri vechi, fără rating: vin după toate celelalte în ordinea descrescătoare
+        for (int i = 4; i < 7; i++) {
+            reviewRepository.save(new ReviewEntity(String.format("r%02d", i), "Imported " + i, null, "apartment123", "user" + i));
+        }
+
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/reviews").param("limit", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            var response = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse();
+            objectMapper.readTree(response.getContentAsString()).forEach(review -> paged.add(review.get("id").asText()));
+            cursor = response.getHeader("X-Next-Cursor");
+        } while (cursor != null);
+
+        assertEquals(Arrays.asList("r03", "r02", "r01", "r00", "r06", "r05", "r04"), paged);
+    }
+
+    @Test
+    public void testBadReviews_PagesFollowRatingOrder() throws Exception {
+        for (int i = 0; i < 12; i++) {
+            reviewRepository.save(new ReviewEntity(String.format("r%02d", i), "Review " + i, 1 + i % 5, "apartment123", "user" + i));
+        }
+
+        List<String> paged = new ArrayList<>();
+        String after = null;
+        do {
+            var request = get("/reviews/bad").param("limit", "2");
+            if (after != null) {
+                request.param("after", after);
+            }
+            var response = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse();
+            objectMapper.readTree(response.getContentAsString()).forEach(review -> paged.add(review.get("id").asText()));
+            after = response.getHeader("X-Next-Cursor");
+        } while (after != null);
+
+        // Aceeași ordine ca lista completă: rating crescător, apoi id
+        List<String> all = new ArrayList<>();
+        objectMapper.readTree(mockMvc.perform(get("/reviews/bad").param("unpaged", "true")).andReturn().getResponse().getContentAsString())
+                .forEach(review -> all.add(review.get("id").asText()));
+        assertEquals(Arrays.asList("r00", "r05", "r10", "r01", "r06", "r11", "r02", "r07"), all);
+        assertEquals(all, paged);
     }
-}
\ No newline at end of file
+}
@@ -10,16 +10,17 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ro.unibuc.hello.controller.ReviewController;
+import ro.unibuc.hello.data.ReactionEntity;
+import ro.unibuc.hello.data.ReactionType;
 import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.dto.CursorPage;
 import ro.unibuc.hello.service.ReviewService;
 import ro.unibuc.hello.repository.BookingRepository; 
 import ro.unibuc.hello.data.BookingEntity; 
 
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 class ReviewControllerTest {
 
@@ -43,8 +44,6 @@ class ReviewControllerTest {
         
         // Setup ReviewEntity correctly
         review = new ReviewEntity("1", "Great apartment!", 4, "apartment123", "user123");
-        review.setLikes(new HashSet<>());
-        review.setDislikes(new HashSet<>());
     }
 
 
@@ -65,8 +64,6 @@ class ReviewControllerTest {
 
     @Test
     void testAddLike_Success() throws Exception {
-        Set<String> likes = new HashSet<>();
-        review.setLikes(likes);
         when(reviewService.addLike("1", "user123")).thenReturn("Like added successfully!");
 
         mockMvc.perform(post("/reviews/1/like")
@@ -79,8 +76,6 @@ class ReviewControllerTest {
 
     @Test
     void testAddDislike_Success() throws Exception {
-        Set<String> dislikes = new HashSet<>();
-        review.setDislikes(dislikes);
         when(reviewService.addDislike("1", "user123")).thenReturn("Dislike added successfully!");
 
         mockMvc.perform(post("/reviews/1/dislike")
@@ -132,7 +127,7 @@ void testGetAllReviewsSortedByRating_Success() throws Exception {
     );
     when(reviewService.getAllReviewsSortedByRating()).thenReturn(reviews);
 
-    mockMvc.perform(get("/reviews"))
+    mockMvc.perform(get("/reviews").param("unpaged", "true"))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$[0].rating").value(5))  // Ensure highest rating is first
             .andExpect(jsonPath("$[1].rating").value(3));
@@ -152,4 +147,61 @@ void testRemoveReaction_Success() throws Exception {
 }
 
 
+
+    @Test
+    void testGetReactions_ReturnsPage() throws Exception {
+        when(reviewService.getReactions("1", ReactionType.LIKE, 2, 10))
+                .thenReturn(List.of(new ReactionEntity("1", "user123", ReactionType.LIKE)));
+
+        mockMvc.perform(get("/reviews/1/reactions")
+                .param("type", "LIKE")
+                .param("page", "2")
+                .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].userId").value("user123"))
+                .andExpect(jsonPath("$[0].type").value("LIKE"));
+    }
+
+    @Test
+    void testGetReactions_InvalidSize() throws Exception {
+        when(reviewService.getReactions("1", null, 0, 500))
+                .thenThrow(new IllegalArgumentException("Size must be between 1 and 100"));
+
+        mockMvc.perform(get("/reviews/1/reactions")
+                .param("size", "500"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Size must be between 1 and 100"));
+    }
+@Test
+void testGetBadReviews_PagedReturnsNextCursorHeader() throws Exception {
+    List<ReviewEntity> reviews = Arrays.asList(new ReviewEntity("1", 1, "apartment123", "user123"));
+    when(reviewService.getBadReviews("abc", 1)).thenReturn(new CursorPage<>(reviews, "def"));
+
+    mockMvc.perform(get("/reviews/bad").param("limit", "1").param("after", "abc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Next-Cursor", "def"))
+            .andExpect(jsonPath("$[0].rating").value(1));
+
+    verify(reviewService, never()).getBadReviews();
+}
+@Test
+void testGetAllReviews_PagedByDefault() throws Exception {
+    List<ReviewEntity> reviews = Arrays.asList(new ReviewEntity("1", 5, "apartment123", "user123"));
+    when(reviewService.getAllReviewsSortedByRating("abc", 20)).thenReturn(new CursorPage<>(reviews, "def"));
+
+    // after este vechiul nume al lui cursor; link-ul către pagina următoare folosește cursor
+    mockMvc.perform(get("/reviews").param("after", "abc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Link", "<http://localhost/reviews?cursor=def>; rel=\"next\""));
+
+    verify(reviewService, never()).getAllReviewsSortedByRating();
+}
+@Test
+void testGetGoodReviews_LastPageHasNoCursor() throws Exception {
+    when(reviewService.getGoodReviews(null, 5)).thenReturn(new CursorPage<>(List.of(), null));
+
+    mockMvc.perform(get("/reviews/good").param("limit", "5"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Next-Cursor"));
+}
 }
@@ -0,0 +1,98 @@
+package ro.unibuc.hello.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.repository.ApartmentRepository;
+import ro.unibuc.hello.service.ApartmentSearchMode;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ApartmentCatalogueTest {
+
+    @Mock
+    private ApartmentRepository apartmentRepository;
+
+    private ApartmentCatalogue catalogue;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        catalogue = new ApartmentCatalogue(apartmentRepository, ApartmentSearchMode.MEMORY);
+    }
+
+    private static ApartmentEntity apartment(String id, Double price, int rooms) {
+        ApartmentEntity apartment = new ApartmentEntity();
+        apartment.setId(id);
+        apartment.setPricePerNight(price);
+        apartment.setNumberOfRooms(rooms);
+        return apartment;
+    }
+
+    @Test
+    void writes_ProduceANewSnapshot_AndKeepTheOldOneIntact() {
+        when(apartmentRepository.findAll()).thenReturn(Arrays.asList(apartment("a1", 100.0, 2), apartment("a2", 200.0, 3)));
+        ApartmentSnapshot before = catalogue.snapshot();
+
+        catalogue.put(apartment("a3", 300.0, 1));
+        catalogue.remove("a1");
+        ApartmentSnapshot after = catalogue.snapshot();
+
+        assertEquals(2, before.size());
+        assertEquals("a1", before.entity(0).getId());
+        assertEquals(2, after.size());
+        assertEquals("a2", after.entity(0).getId());
+        assertEquals(300.0, after.price(1));
+        assertSame(after, catalogue.snapshot());
+        verify(apartmentRepository, times(1)).findAll();
+    }
+
+    @Test
+    void ratingOnlyUpdate_PatchesTheSnapshotWithoutRebuildingIt() {
+        ApartmentEntity a1 = apartment("a1", 100.0, 2);
+        a1.setAmenities(Arrays.asList("Wi-Fi", "TV"));
+        when(apartmentRepository.findAll()).thenReturn(Arrays.asList(a1, apartment("a2", 200.0, 3)));
+        ApartmentSnapshot before = catalogue.snapshot();
+
+        ApartmentEntity rated = apartment("a1", 100.0, 2);
+        rated.setAmenities(Arrays.asList("Wi-Fi", "TV"));
+        rated.setAverageRating(4.5);
+        catalogue.put(rated);
+        ApartmentSnapshot after = catalogue.snapshot();
+
+        assertNotSame(before, after);
+        assertSame(before.amenities(), after.amenities());
+        assertSame(rated, after.entity(0));
+        assertEquals(4.5, after.averageRating(0));
+        assertTrue(Double.isNaN(before.averageRating(0)));
+
+        // O coloană schimbată (prețul) cere reconstruirea
+        catalogue.put(apartment("a2", 250.0, 3));
+        ApartmentSnapshot rebuilt = catalogue.snapshot();
+        assertNotSame(after.amenities(), rebuilt.amenities());
+        assertEquals(250.0, rebuilt.price(1));
+        assertEquals(4.5, rebuilt.averageRating(0));
+        verify(apartmentRepository, times(1)).findAll();
+    }
+
+    @Test
+    void filter_ScansColumns_AndRespectsLimit() {
+        when(apartmentRepository.findAll()).thenReturn(Arrays.asList(
+                apartment("a1", 100.0, 2), apartment("a2", null, 2), apartment("a3", 150.0, 200), apartment("a4", 120.0, 2)));
+
+        List<ApartmentEntity> cheap = catalogue.filter(snapshot -> row -> snapshot.price(row) < 130.0, null);
+        List<ApartmentEntity> first = catalogue.filter(snapshot -> row -> snapshot.rooms(row) == 2, 1);
+        List<ApartmentEntity> large = catalogue.filter(snapshot -> row -> snapshot.rooms(row) == 200, null);
+
+        // Prețul lipsă (NaN) nu trece de comparații; 200 de camere nu încape într-un byte
+        assertEquals(Arrays.asList("a1", "a4"), cheap.stream().map(ApartmentEntity::getId).toList());
+        assertEquals(1, first.size());
+        assertEquals("a3", large.get(0).getId());
+    }
+}
@@ -0,0 +1,134 @@
+package ro.unibuc.hello.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.repository.ApartmentRepository;
+import ro.unibuc.hello.repository.BookingRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AvailabilityCalendarTest {
+
+    @Mock
+    private ApartmentRepository apartmentRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private AvailabilityCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        calendar = new AvailabilityCalendar(apartmentRepository, bookingRepository, 365);
+    }
+
+    private static ApartmentEntity apartment(String id) {
+        ApartmentEntity apartment = new ApartmentEntity();
+        apartment.setId(id);
+        return apartment;
+    }
+
+    private static BookingEntity booking(String id, String apartmentId, LocalDate start, LocalDate end) {
+        BookingEntity booking = new BookingEntity(start, end, apartmentId, "user1");
+        booking.setId(id);
+        return booking;
+    }
+
+    @Test
+    void findAvailableApartmentIds_ExcludesBookedApartments() {
+        when(apartmentRepository.findAllIds()).thenReturn(Arrays.asList(apartment("a1"), apartment("a2"), apartment("a3")));
+        when(bookingRepository.findAll()).thenReturn(Arrays.asList(
+                booking("b1", "a1", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5)),
+                booking("b2", "a3", LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 5))));
+
+        List<String> result = calendar.findAvailableApartmentIds(LocalDate.of(2025, 1, 5), LocalDate.of(2025, 1, 10));
+
+        assertEquals(Arrays.asList("a2", "a3"), result);
+    }
+
+    @Test
+    void longLegacyBooking_IsKeptAsSpanAndStillBlocksItsDays() {
+        when(apartmentRepository.findAllIds()).thenReturn(Arrays.asList(apartment("a1"), apartment("a2")));
+        // 20 de ani, mult peste booking.max-stay-days: nu se desface în câte un bitmap pe zi
+        when(bookingRepository.findAll()).thenReturn(new ArrayList<>(Arrays.asList(
+                booking("legacy", "a1", LocalDate.of(2010, 1, 1), LocalDate.of(2029, 12, 31)))));
+
+        assertEquals(Arrays.asList("a2"), calendar.findAvailableApartmentIds(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 3)));
+        assertEquals(Arrays.asList("a2"), calendar.findAvailableApartmentIds(LocalDate.of(2029, 12, 31), LocalDate.of(2030, 1, 2)));
+        assertEquals(Arrays.asList("a1", "a2"), calendar.findAvailableApartmentIds(LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 2)));
+
+        calendar.removeBooking("legacy");
+        assertEquals(Arrays.asList("a1", "a2"), calendar.findAvailableApartmentIds(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 3)));
+    }
+
+    @Test
+    void writes_UpdateTheCalendar() {
+        when(apartmentRepository.findAllIds()).thenReturn(Arrays.asList(apartment("a1")));
+        when(bookingRepository.findAll()).thenReturn(new ArrayList<>());
+        LocalDate start = LocalDate.of(2025, 3, 1);
+        LocalDate end = LocalDate.of(2025, 3, 3);
+        assertEquals(Arrays.asList("a1"), calendar.findAvailableApartmentIds(start, end));
+
+        calendar.putApartment("a2");
+        calendar.putBooking(booking("b1", "a1", start, end));
+        assertEquals(Arrays.asList("a2"), calendar.findAvailableApartmentIds(start, end));
+
+        calendar.removeBooking("b1");
+        calendar.removeApartment("a2");
+        assertEquals(Arrays.asList("a1"), calendar.findAvailableApartmentIds(start, end));
+    }
+
+    @Test
+    void findAvailableApartmentIds_InvalidRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> calendar.findAvailableApartmentIds(LocalDate.of(2025, 1, 5), LocalDate.of(2025, 1, 1)));
+    }
+
+    @Test
+    void findAvailableApartmentIds_MatchesLinearScanOnRandomData() {
+        Random random = new Random(7);
+        LocalDate base = LocalDate.of(2025, 1, 1);
+        List<ApartmentEntity> apartments = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            apartments.add(apartment("a" + i));
+        }
+        List<BookingEntity> bookings = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            LocalDate start = base.plusDays(random.nextInt(120));
+            bookings.add(booking("b" + i, "a" + random.nextInt(50), start, start.plusDays(random.nextInt(8))));
+        }
+        when(apartmentRepository.findAllIds()).thenReturn(apartments);
+        when(bookingRepository.findAll()).thenReturn(bookings);
+
+        for (int i = 0; i < 200; i++) {
+            LocalDate start = base.plusDays(random.nextInt(130));
+            LocalDate end = start.plusDays(random.nextInt(15));
+
+            Set<String> booked = bookings.stream()
+                    .filter(b -> !b.getStartDate().isAfter(end) && !b.getEndDate().isBefore(start))
+                    .map(BookingEntity::getApartmentId)
+                    .collect(Collectors.toSet());
+            Set<String> expected = apartments.stream()
+                    .map(ApartmentEntity::getId)
+                    .filter(id -> !booked.contains(id))
+                    .collect(Collectors.toSet());
+
+            assertEquals(expected, new HashSet<>(calendar.findAvailableApartmentIds(start, end)));
+        }
+    }
+}
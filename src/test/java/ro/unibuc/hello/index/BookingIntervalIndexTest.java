@@ -0,0 +1,111 @@
+package ro.unibuc.hello.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.repository.BookingRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BookingIntervalIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        index = new BookingIntervalIndex(bookingRepository);
+    }
+
+    private static BookingEntity booking(String id, String apartmentId, LocalDate start, LocalDate end) {
+        BookingEntity booking = new BookingEntity(start, end, apartmentId, "user1");
+        booking.setId(id);
+        return booking;
+    }
+
+    @Test
+    void hasOverlap_LoadsFromRepositoryOnce() {
+        when(bookingRepository.findAll()).thenReturn(Collections.singletonList(
+                booking("b1", "apartment1", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5))));
+
+        assertTrue(index.hasOverlap("apartment1", LocalDate.of(2025, 1, 5), LocalDate.of(2025, 1, 8)));
+        assertFalse(index.hasOverlap("apartment1", LocalDate.of(2025, 1, 6), LocalDate.of(2025, 1, 8)));
+        assertFalse(index.hasOverlap("apartment2", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5)));
+
+        verify(bookingRepository, times(1)).findAll();
+    }
+
+    @Test
+    void put_AndRemove_UpdateTheApartmentRanges() {
+        when(bookingRepository.findAll()).thenReturn(Collections.singletonList(
+                booking("b1", "apartment1", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5))));
+        assertFalse(index.hasOverlap("apartment1", LocalDate.of(2025, 1, 8), LocalDate.of(2025, 1, 8)));
+
+        index.put(booking("b2", "apartment1", LocalDate.of(2025, 1, 6), LocalDate.of(2025, 1, 10)));
+        assertTrue(index.hasOverlap("apartment1", LocalDate.of(2025, 1, 8), LocalDate.of(2025, 1, 8)));
+
+        index.remove("b1");
+        assertFalse(index.hasOverlap("apartment1", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5)));
+        assertTrue(index.hasOverlap("apartment1", LocalDate.of(2025, 1, 6), LocalDate.of(2025, 1, 6)));
+    }
+
+    @Test
+    void put_BeforeLoad_IsIgnored() {
+        when(bookingRepository.findAll()).thenReturn(new ArrayList<>());
+
+        index.put(booking("b1", "apartment1", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5)));
+
+        // Sursa de adevăr la încărcare este repository-ul
+        assertFalse(index.hasOverlap("apartment1", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5)));
+    }
+
+    @Test
+    void hasOverlap_MatchesLinearScanOnRandomData() {
+        Random random = new Random(42);
+        LocalDate base = LocalDate.of(2025, 1, 1);
+        List<BookingEntity> bookings = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            LocalDate start = base.plusDays(random.nextInt(200));
+            bookings.add(booking("b" + i, "apartment" + random.nextInt(5), start, start.plusDays(random.nextInt(6))));
+        }
+        when(bookingRepository.findAll()).thenReturn(bookings);
+
+        for (int i = 0; i < 1000; i++) {
+            String apartmentId = "apartment" + random.nextInt(5);
+            LocalDate start = base.plusDays(random.nextInt(210));
+            LocalDate end = start.plusDays(random.nextInt(10));
+
+            boolean expected = bookings.stream()
+                    .filter(b -> b.getApartmentId().equals(apartmentId))
+                    .anyMatch(b -> !b.getStartDate().isAfter(end) && !b.getEndDate().isBefore(start));
+
+            assertEquals(expected, index.hasOverlap(apartmentId, start, end));
+        }
+    }
+
+    @Test
+    void remove_KeepsOverlappingLegacyBookings() {
+        when(bookingRepository.findAll()).thenReturn(Arrays.asList(
+                booking("b1", "apartment1", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 10)),
+                booking("b2", "apartment1", LocalDate.of(2025, 1, 5), LocalDate.of(2025, 1, 7))));
+        assertTrue(index.hasOverlap("apartment1", LocalDate.of(2025, 1, 9), LocalDate.of(2025, 1, 9)));
+
+        index.remove("b1");
+
+        assertTrue(index.hasOverlap("apartment1", LocalDate.of(2025, 1, 6), LocalDate.of(2025, 1, 6)));
+        assertFalse(index.hasOverlap("apartment1", LocalDate.of(2025, 1, 8), LocalDate.of(2025, 1, 10)));
+    }
+}
@@ -0,0 +1,115 @@
+package ro.unibuc.hello.index;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Scrierile făcute direct în Mongo (ca de o altă instanță, fără listener-ele acestui proces)
+ * trebuie să ajungă în LocalCaches, atât prin change stream, cât și prin polling.
+ */
+@SpringBootTest
+@Testcontainers
+@Tag("IntegrationTest")
+public class ClusterCacheSyncIntegrationTest {
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0.20")
+            .withExposedPorts(27017)
+            .withSharding();
+
+    @BeforeAll
+    public static void setUp() {
+        mongoDBContainer.start();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        mongoDBContainer.stop();
+    }
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        final String MONGO_URL = "mongodb://host.docker.internal:";
+        final String PORT = String.valueOf(mongoDBContainer.getMappedPort(27017));
+
+        registry.add("mongodb.connection.url", () -> MONGO_URL + PORT);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private ClusterCacheSync sync;
+
+    @AfterEach
+    public void stopSync() {
+        if (sync != null) {
+            sync.stop();
+        }
+    }
+
+    @Test
+    public void changeStream_AppliesRemoteWrites() {
+        LocalCaches localCaches = mock(LocalCaches.class);
+        // Un mongos suportă change streams, deci AUTO îl alege
+        sync = new ClusterCacheSync(mongoTemplate, localCaches, CacheSyncMode.AUTO, "it-stream", 100, 5000, 100);
+        sync.start();
+        assertEquals(CacheSyncMode.CHANGE_STREAM, sync.mode());
+
+        ObjectId id = insertRemoteApartment("Din altă instanță");
+        verify(localCaches, timeout(10000)).apartmentSaved(argThat(a -> id.toHexString().equals(a.getId())
+                && "Din altă instanță".equals(a.getTitle())));
+
+        mongoTemplate.getCollection("apartments").deleteOne(new Document("_id", id));
+        verify(localCaches, timeout(10000)).apartmentDeleted(id.toHexString());
+
+        // Token-ul salvat permite reluarea după repornire
+        sync.stop();
+        sync = null;
+        assertNotNull(mongoTemplate.findById("it-stream", Document.class, ClusterCacheSync.TOKENS_COLLECTION));
+        // Token-urile instanțelor care nu mai revin (pod-uri noi cu alt HOSTNAME) expiră
+        assertTrue(mongoTemplate.indexOps(ClusterCacheSync.TOKENS_COLLECTION).getIndexInfo().stream()
+                .anyMatch(index -> index.isIndexForFields(List.of("savedAt")) && index.getExpireAfter().isPresent()));
+    }
+
+    @Test
+    public void polling_AppliesRemoteWritesAndDeletions() {
+        LocalCaches localCaches = mock(LocalCaches.class);
+        sync = new ClusterCacheSync(mongoTemplate, localCaches, CacheSyncMode.POLLING, "it-poll", 100, 5000, 100);
+        sync.start();
+
+        ObjectId id = insertRemoteApartment("Găsit prin polling");
+        verify(localCaches, timeout(10000)).apartmentSaved(argThat(a -> id.toHexString().equals(a.getId())));
+
+        // O altă instanță în modul POLLING lasă o înregistrare a ștergerii
+        sync.recordDeletion("apartments", id.toHexString());
+        verify(localCaches, timeout(10000)).apartmentDeleted(id.toHexString());
+
+        // Documentul rămâne în fereastra de suprapunere, dar nu se aplică de două ori
+        verify(localCaches, after(500).times(1)).apartmentSaved(argThat(a -> id.toHexString().equals(a.getId())));
+    }
+
+    private ObjectId insertRemoteApartment(String title) {
+        ObjectId id = new ObjectId();
+        mongoTemplate.getCollection("apartments").insertOne(new Document("_id", id)
+                .append("title", title)
+                .append("pricePerNight", 100.0)
+                .append("updatedAt", new Date()));
+        return id;
+    }
+}
@@ -0,0 +1,146 @@
+package ro.unibuc.hello.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.UserEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityCacheTest {
+
+    private EntityCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new EntityCache(new SimpleMeterRegistry(), 100, 60, 60, 60);
+    }
+
+    private static ApartmentEntity apartment(String id) {
+        ApartmentEntity apartment = new ApartmentEntity();
+        apartment.setId(id);
+        return apartment;
+    }
+
+    @Test
+    void apartment_StampedeOnHotIdLoadsOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Optional<ApartmentEntity>>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.apartment("a1", id -> {
+                        loads.incrementAndGet();
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return Optional.of(apartment(id));
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<Optional<ApartmentEntity>> result : results) {
+                assertEquals("a1", result.get().orElseThrow().getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1L, cache.stats().get("apartments").get("loads"));
+    }
+
+    @Test
+    void putApartment_DuringLoad_DoesNotWaitAndWins() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Optional<ApartmentEntity>> stale = executor.submit(() -> cache.apartment("a1", id -> {
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Optional.of(apartment(id));
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            // Încărcarea rulează în afara compute-ului, deci scrierea pe aceeași cheie nu o așteaptă
+            ApartmentEntity fresh = apartment("a1");
+            cache.putApartment(fresh);
+            release.countDown();
+
+            assertNotSame(fresh, stale.get(5, TimeUnit.SECONDS).orElseThrow());
+            assertSame(fresh, cache.apartment("a1", id -> Optional.empty()).orElseThrow());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void apartment_FailedLoadIsNotCached() {
+        assertThrows(IllegalStateException.class, () -> cache.apartment("a1", id -> {
+            throw new IllegalStateException("mongo down");
+        }));
+
+        assertEquals("a1", cache.apartment("a1", id -> Optional.of(apartment(id))).orElseThrow().getId());
+    }
+
+    @Test
+    void user_MissingIdIsCachedUntilSaved() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertTrue(cache.user("u1", id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        }).isEmpty());
+        assertTrue(cache.user("u1", id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        }).isEmpty());
+        assertEquals(1, loads.get());
+
+        UserEntity user = new UserEntity();
+        user.setId("u1");
+        cache.putUser(user);
+
+        assertSame(user, cache.user("u1", id -> Optional.empty()).orElseThrow());
+    }
+
+    @Test
+    void evictBooking_ReloadsOnNextRead() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.booking("b1", id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        cache.evictBooking("b1");
+        cache.booking("b1", id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertEquals(2, loads.get());
+        assertEquals(2L, cache.stats().get("bookings").get("misses"));
+    }
+}
@@ -0,0 +1,89 @@
+package ro.unibuc.hello.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ro.unibuc.hello.repository.ApartmentRepository;
+import ro.unibuc.hello.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ExistenceCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ApartmentRepository apartmentRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExistenceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ExistenceCache(userRepository, apartmentRepository, meterRegistry, 100, 600, 600);
+    }
+
+    @Test
+    void userExists_QueriesOnceThenServesFromCache() {
+        when(userRepository.existsById("user1")).thenReturn(true);
+
+        assertTrue(cache.userExists("user1"));
+        assertTrue(cache.userExists("user1"));
+        assertTrue(cache.userExists("user1"));
+
+        verify(userRepository, times(1)).existsById("user1");
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "existence.users").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "existence.users").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void apartmentExists_CachesNegativeAnswersUntilSaved() {
+        assertFalse(cache.apartmentExists("apartment1"));
+        assertFalse(cache.apartmentExists("apartment1"));
+        verify(apartmentRepository, times(1)).existsById("apartment1");
+
+        cache.apartmentSaved("apartment1");
+
+        assertTrue(cache.apartmentExists("apartment1"));
+        verify(apartmentRepository, times(1)).existsById("apartment1");
+    }
+
+    @Test
+    void apartmentSavedDuringLoad_IsNotOverwrittenByStaleAnswer() {
+        // Interogarea rulează în afara cache-ului, deci listener-ul poate scrie între timp
+        when(apartmentRepository.existsById("apartment1")).thenAnswer(invocation -> {
+            cache.apartmentSaved("apartment1");
+            return false;
+        });
+
+        assertTrue(cache.apartmentExists("apartment1"));
+        assertTrue(cache.apartmentExists("apartment1"));
+        verify(apartmentRepository, times(1)).existsById("apartment1");
+    }
+
+    @Test
+    void userDeleted_IsSeenWithoutQuerying() {
+        cache.userSaved("user1");
+        cache.userDeleted("user1");
+
+        assertFalse(cache.userExists("user1"));
+        verify(userRepository, never()).existsById(anyString());
+    }
+
+    @Test
+    void invalidateApartments_FallsBackToRepository() {
+        cache.apartmentSaved("apartment1");
+        cache.invalidateApartments();
+
+        assertFalse(cache.apartmentExists("apartment1"));
+        verify(apartmentRepository).existsById("apartment1");
+    }
+}
@@ -0,0 +1,124 @@
+package ro.unibuc.hello.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.repository.BookingRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReviewEligibilityTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReviewEligibility eligibility;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        eligibility = new ReviewEligibility(bookingRepository, meterRegistry, 0.01, 100, false);
+    }
+
+    private static BookingEntity booking(String apartmentId, String userId) {
+        return new BookingEntity(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5), apartmentId, userId);
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get("reviews.eligibility.checks").tag("result", result).counter().count();
+    }
+
+    @Test
+    void hasBooked_RejectsMostUnbookedPairsWithoutQuerying() {
+        List<BookingEntity> bookings = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            bookings.add(booking("apartment" + i, "user" + i));
+        }
+        when(bookingRepository.findAllApartmentUserPairs()).thenReturn(bookings);
+
+        for (int i = 0; i < 1000; i++) {
+            eligibility.hasBooked("apartment" + i, "user" + (i + 1));
+        }
+
+        // Rata de fals pozitive este 1%, deci doar câteva perechi ajung în Mongo
+        assertTrue(checks("query") < 50, "Queries: " + checks("query"));
+        assertEquals(1000, checks("bloom_reject") + checks("query"));
+    }
+
+    @Test
+    void hasBooked_ConfirmsInMongoOnceThenCaches() {
+        when(bookingRepository.findAllApartmentUserPairs()).thenReturn(List.of(booking("apartment1", "user1")));
+        when(bookingRepository.existsByApartmentIdAndUserId("apartment1", "user1")).thenReturn(true);
+
+        assertTrue(eligibility.hasBooked("apartment1", "user1"));
+        assertTrue(eligibility.hasBooked("apartment1", "user1"));
+
+        verify(bookingRepository, times(1)).existsByApartmentIdAndUserId("apartment1", "user1");
+        assertEquals(1, checks("cache_hit"));
+    }
+
+    @Test
+    void hasBooked_WithConfirmNegatives_ConfirmsBloomNegativesInMongo() {
+        ReviewEligibility unsynced = new ReviewEligibility(bookingRepository, meterRegistry, 0.01, 100, true);
+        when(bookingRepository.findAllApartmentUserPairs()).thenReturn(List.of());
+        // Rezervare scrisă de altă instanță, pe care filtrul nu a văzut-o
+        when(bookingRepository.existsByApartmentIdAndUserId("apartment1", "user1")).thenReturn(true);
+
+        assertTrue(unsynced.hasBooked("apartment1", "user1"));
+        assertFalse(unsynced.hasBooked("apartment2", "user1"));
+        // A doua oară perechea este deja în filtru și în confirmări
+        assertTrue(unsynced.hasBooked("apartment1", "user1"));
+
+        verify(bookingRepository, times(1)).existsByApartmentIdAndUserId("apartment1", "user1");
+        assertEquals(2, checks("bloom_reject_query"));
+        assertEquals(0, checks("bloom_reject"));
+    }
+
+    @Test
+    void bookingSaved_MakesPairEligibleWithoutReload() {
+        when(bookingRepository.findAllApartmentUserPairs()).thenReturn(List.of());
+        assertFalse(eligibility.hasBooked("apartment1", "user1"));
+
+        eligibility.bookingSaved(booking("apartment1", "user1"));
+
+        assertTrue(eligibility.hasBooked("apartment1", "user1"));
+        verify(bookingRepository, times(1)).findAllApartmentUserPairs();
+        verify(bookingRepository, never()).existsByApartmentIdAndUserId(anyString(), anyString());
+    }
+
+    @Test
+    void bookingRemoved_FallsBackToMongo() {
+        when(bookingRepository.findAllApartmentUserPairs()).thenReturn(List.of());
+        eligibility.warmUp();
+        eligibility.bookingSaved(booking("apartment1", "user1"));
+
+        // Filtrul încă spune "poate", dar rezervarea nu mai există
+        eligibility.bookingRemoved();
+
+        assertFalse(eligibility.hasBooked("apartment1", "user1"));
+        verify(bookingRepository).existsByApartmentIdAndUserId("apartment1", "user1");
+    }
+
+    @Test
+    void bookingSaved_RebuildsFilterWhenOverCapacity() {
+        when(bookingRepository.findAllApartmentUserPairs()).thenReturn(List.of());
+        eligibility.hasBooked("apartment0", "user0");
+
+        for (int i = 0; i <= 1024; i++) {
+            eligibility.bookingSaved(booking("apartment" + i, "user" + i));
+        }
+        eligibility.hasBooked("apartment0", "user0");
+
+        verify(bookingRepository, times(2)).findAllApartmentUserPairs();
+    }
+}
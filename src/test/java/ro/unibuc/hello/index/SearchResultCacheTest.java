@@ -0,0 +1,125 @@
+package ro.unibuc.hello.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ro.unibuc.hello.data.ApartmentEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchResultCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SearchResultCache cache = new SearchResultCache(meterRegistry, 1000, 100, 60);
+
+    private static final Predicate<ApartmentSnapshot> PET_FRIENDLY = written -> written.isPetFriendly(0);
+
+    private static ApartmentEntity apartment(String id, boolean petFriendly) {
+        ApartmentEntity apartment = new ApartmentEntity();
+        apartment.setId(id);
+        apartment.setPetFriendly(petFriendly);
+        return apartment;
+    }
+
+    private static Supplier<List<ApartmentEntity>> counting(AtomicInteger loads, List<ApartmentEntity> result) {
+        return () -> {
+            loads.incrementAndGet();
+            return new ArrayList<>(result);
+        };
+    }
+
+    @Test
+    void get_ServesRepeatedQueriesFromCache() {
+        AtomicInteger loads = new AtomicInteger();
+        List<ApartmentEntity> result = List.of(apartment("a1", true));
+
+        cache.get("pet-friendly", true, PET_FRIENDLY, counting(loads, result));
+        List<ApartmentEntity> cached = cache.get("pet-friendly", true, PET_FRIENDLY, counting(loads, result));
+
+        assertEquals(1, loads.get());
+        assertEquals(result, cached);
+        assertThrows(UnsupportedOperationException.class, () -> cached.add(apartment("a2", true)));
+    }
+
+    @Test
+    void apartmentSaved_EvictsOnlyQueriesItWouldMatch() {
+        AtomicInteger petLoads = new AtomicInteger();
+        AtomicInteger otherLoads = new AtomicInteger();
+        cache.get("pet-friendly", true, PET_FRIENDLY, counting(petLoads, List.of(apartment("a1", true))));
+        cache.get("no-pets", false, PET_FRIENDLY.negate(), counting(otherLoads, List.of(apartment("a2", false))));
+
+        cache.apartmentSaved(apartment("a3", true));
+
+        cache.get("pet-friendly", true, PET_FRIENDLY, counting(petLoads, List.of()));
+        cache.get("no-pets", false, PET_FRIENDLY.negate(), counting(otherLoads, List.of()));
+        assertEquals(2, petLoads.get());
+        assertEquals(1, otherLoads.get());
+        assertEquals(1, meterRegistry.counter("search.results.write.checks", "result", "kept").count());
+    }
+
+    @Test
+    void apartmentSaved_EvictsQueriesThatContainedTheApartment() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("pet-friendly", true, PET_FRIENDLY, counting(loads, List.of(apartment("a1", true))));
+
+        // Nu mai este pet-friendly, deci trebuie să dispară din rezultat
+        cache.apartmentSaved(apartment("a1", false));
+        cache.get("pet-friendly", true, PET_FRIENDLY, counting(loads, List.of()));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void apartmentDeleted_EvictsOnlyQueriesThatContainedIt() {
+        AtomicInteger petLoads = new AtomicInteger();
+        AtomicInteger otherLoads = new AtomicInteger();
+        cache.get("pet-friendly", true, PET_FRIENDLY, counting(petLoads, List.of(apartment("a1", true))));
+        cache.get("no-pets", false, PET_FRIENDLY.negate(), counting(otherLoads, List.of(apartment("a2", false))));
+
+        cache.apartmentDeleted("a1");
+
+        cache.get("pet-friendly", true, PET_FRIENDLY, counting(petLoads, List.of()));
+        cache.get("no-pets", false, PET_FRIENDLY.negate(), counting(otherLoads, List.of()));
+        assertEquals(2, petLoads.get());
+        assertEquals(1, otherLoads.get());
+    }
+
+    @Test
+    void get_ResultLoadedDuringAWriteIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+        long before = cache.version();
+
+        // Scrierea are loc cât timp query-ul rulează, deci rezultatul poate să nu o conțină
+        cache.get("pet-friendly", true, PET_FRIENDLY, () -> {
+            loads.incrementAndGet();
+            cache.apartmentSaved(apartment("a9", false));
+            return List.of();
+        });
+        cache.get("pet-friendly", true, PET_FRIENDLY, counting(loads, List.of()));
+
+        assertEquals(before + 1, cache.version());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void constructor_RejectsMoreEntriesThanWeight() {
+        // Fiecare intrare cântărește cel puțin maxWeight / maxEntries, deci raportul trebuie să fie cel puțin 1
+        assertThrows(IllegalArgumentException.class, () -> new SearchResultCache(new SimpleMeterRegistry(), 100, 1000, 60));
+    }
+
+    @Test
+    void invalidate_DropsEverything() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("pet-friendly", true, PET_FRIENDLY, counting(loads, List.of()));
+
+        cache.invalidate();
+        cache.get("pet-friendly", true, PET_FRIENDLY, counting(loads, List.of()));
+
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,235 @@
+package ro.unibuc.hello.service;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.dto.ApartmentSearchFilter;
+import ro.unibuc.hello.repository.ApartmentRepository;
+import ro.unibuc.hello.repository.ReviewRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test diferențial: query-ul Mongo de la /apartments/search trebuie să întoarcă exact
+ * aceleași apartamente ca vechiul lanț de filtre în Java.
+ */
+@SpringBootTest
+@Testcontainers
+@Tag("IntegrationTest")
+public class ApartmentSearchIntegrationTest {
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0.20")
+            .withExposedPorts(27017)
+            .withSharding();
+
+    @BeforeAll
+    public static void setUp() {
+        mongoDBContainer.start();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        mongoDBContainer.stop();
+    }
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        final String MONGO_URL = "mongodb://host.docker.internal:";
+        final String PORT = String.valueOf(mongoDBContainer.getMappedPort(27017));
+
+        registry.add("mongodb.connection.url", () -> MONGO_URL + PORT);
+    }
+
+    private static final List<String> LOCATIONS = Arrays.asList(
+            "București", "BUCUREȘTI", "Bucuresti Sector 1", "Cluj-Napoca", "Iași", "Timișoara", "Brașov", "Constanța");
+    private static final List<String> AMENITIES = Arrays.asList(
+            "Wi-Fi", "TV", "balcon", "aer condiționat", "mașină de spălat", "Parcare (gratuită)", "Grădină");
+    private static final List<String> LOCATION_QUERIES = Arrays.asList(
+            "bucuresti", "BUCUREȘTI", "iasi", "Timișoara", "napoca", "sector 1", "brasov", "a");
+    private static final List<String> AMENITY_QUERIES = Arrays.asList(
+            "wi-fi", "Aer Conditionat", "masina", "(gratuita)", "GRADINA", "tv", "balcon");
+
+    @Autowired
+    private ApartmentService apartmentService;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ApartmentSearchKeysMigration apartmentSearchKeysMigration;
+
+    @Autowired
+    private RatingAggregatesRepair ratingAggregatesRepair;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final Random random = new Random(2025);
+
+    private List<ApartmentEntity> apartments;
+    private List<ReviewEntity> reviews;
+
+    @BeforeEach
+    public void addRandomData() {
+        reviewRepository.deleteAll();
+        apartmentRepository.deleteAll();
+
+        List<ApartmentEntity> generated = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ApartmentEntity apartment = new ApartmentEntity();
+            apartment.setTitle("Apartment " + i);
+            apartment.setLocation(LOCATIONS.get(random.nextInt(LOCATIONS.size())));
+            apartment.setPricePerNight(50.0 + random.nextInt(300));
+            apartment.setUserId("user1");
+            apartment.setNumberOfRooms(1 + random.nextInt(4));
+            apartment.setNumberOfBathrooms(1 + random.nextInt(3));
+            apartment.setPetFriendly(random.nextBoolean());
+            apartment.setSmokingAllowed(random.nextBoolean());
+            apartment.setSquareMeters(30.0 + random.nextInt(100));
+            List<String> amenities = new ArrayList<>();
+            for (String amenity : AMENITIES) {
+                if (random.nextInt(3) == 0) {
+                    amenities.add(amenity);
+                }
+            }
+            apartment.setAmenities(amenities);
+            generated.add(apartment);
+        }
+        apartments = apartmentRepository.saveAll(generated);
+
+        List<ReviewEntity> generatedReviews = new ArrayList<>();
+        for (ApartmentEntity apartment : apartments) {
+            int count = random.nextInt(4);
+            for (int i = 0; i < count; i++) {
+                generatedReviews.add(new ReviewEntity("Review", 1 + random.nextInt(5), apartment.getId(), "user" + i));
+            }
+        }
+        reviews = reviewRepository.saveAll(generatedReviews);
+        // Review-urile salvate direct nu trec prin ReviewService, deci recalculăm agregatele
+        ratingAggregatesRepair.repairAll();
+    }
+
+    @Test
+    public void searchApartments_MatchesJavaFilterChain() {
+        for (int i = 0; i < 300; i++) {
+            ApartmentSearchFilter filter = randomFilter();
+
+            Set<String> expected = ids(apartmentService.searchApartmentsJava(apartments, reviews, filter));
+            Set<String> actual = ids(apartmentService.searchApartments(filter, null, null));
+
+            assertEquals(expected, actual, "Filter: " + filter);
+        }
+    }
+
+    @Test
+    public void searchApartments_ProjectionAndLimit() {
+        ApartmentSearchFilter filter = new ApartmentSearchFilter(
+                null, null, null, null, null, null, null, null, null, null, null);
+
+        List<ApartmentEntity> result = apartmentService.searchApartments(filter, Arrays.asList("id", "title"), 5);
+
+        assertEquals(5, result.size());
+        assertNotNull(result.get(0).getTitle());
+        assertNull(result.get(0).getLocation());
+    }
+
+    @Test
+    public void migration_FillsMissingSearchKeys() {
+        mongoTemplate.updateMulti(new Query(), new Update().unset("locationKey").unset("amenityKeys"), ApartmentEntity.class);
+        ApartmentSearchFilter filter = new ApartmentSearchFilter(
+                null, null, null, null, null, null, null, null, "conditionat", "bucuresti", null);
+        assertTrue(apartmentService.searchApartments(filter, null, null).isEmpty());
+
+        apartmentSearchKeysMigration.migrate();
+
+        assertEquals(ids(apartmentService.searchApartmentsJava(apartments, reviews, filter)),
+                ids(apartmentService.searchApartments(filter, null, null)));
+        assertFalse(apartmentService.getApartmentsByLocation("Iasi").isEmpty());
+    }
+
+    @Test
+    public void ratingAggregates_IncrementsMatchRepair() {
+        String apartmentId = apartments.get(0).getId();
+        reviewRepository.deleteAll();
+        ratingAggregatesRepair.repairAll();
+
+        apartmentRepository.applyRating(apartmentId, 5, 1);
+        apartmentRepository.applyRating(apartmentId, 2, 1);
+        apartmentRepository.applyRating(apartmentId, 4, 1);
+        ApartmentEntity incremented = apartmentRepository.applyRating(apartmentId, 2, -1);
+
+        assertEquals(9, incremented.getRatingSum());
+        assertEquals(2, incremented.getRatingCount());
+        assertEquals(4.5, incremented.getAverageRating());
+        assertEquals(1, incremented.getRatingHistogram().get("5"));
+        assertEquals(0, incremented.getRatingHistogram().get("2"));
+
+        reviewRepository.saveAll(Arrays.asList(
+                new ReviewEntity("Review", 5, apartmentId, "user1"), new ReviewEntity("Review", 4, apartmentId, "user2")));
+        ratingAggregatesRepair.repairAll();
+        ApartmentEntity repaired = apartmentRepository.findById(apartmentId).orElseThrow();
+
+        assertEquals(incremented.getRatingSum(), repaired.getRatingSum());
+        assertEquals(incremented.getAverageRating(), repaired.getAverageRating());
+        assertEquals(1, repaired.getRatingHistogram().get("4"));
+        // Agregatele sunt deja corecte, deci a doua rulare nu rescrie nimic (și nu atinge updatedAt)
+        assertEquals(0, ratingAggregatesRepair.repairAll());
+        assertEquals(repaired.getUpdatedAt(), apartmentRepository.findById(apartmentId).orElseThrow().getUpdatedAt());
+        assertEquals(List.of(apartmentId), ids(apartmentService.getApartmentsByMinAverageRating(4.5)).stream().toList());
+
+        apartmentRepository.applyRating(apartmentId, 5, -1);
+        apartmentRepository.applyRating(apartmentId, 4, -1);
+        assertNull(apartmentRepository.findById(apartmentId).orElseThrow().getAverageRating());
+    }
+
+    private ApartmentSearchFilter randomFilter() {
+        Double minPrice = maybe(() -> 50.0 + random.nextInt(200));
+        Double maxPrice = maybe(() -> (minPrice != null ? minPrice : 50.0) + random.nextInt(200));
+        Double minSquareMeters = maybe(() -> 30.0 + random.nextInt(60));
+        Double maxSquareMeters = maybe(() -> (minSquareMeters != null ? minSquareMeters : 30.0) + random.nextInt(60));
+        return new ApartmentSearchFilter(
+                minPrice, maxPrice, minSquareMeters, maxSquareMeters,
+                maybe(() -> 1 + random.nextInt(4)),
+                maybe(() -> 1 + random.nextInt(3)),
+                maybe(random::nextBoolean),
+                maybe(random::nextBoolean),
+                maybe(() -> AMENITY_QUERIES.get(random.nextInt(AMENITY_QUERIES.size()))),
+                maybe(() -> LOCATION_QUERIES.get(random.nextInt(LOCATION_QUERIES.size()))),
+                maybe(() -> 1.0 + random.nextInt(5)),
+                maybe(() -> Arrays.asList(AMENITY_QUERIES.get(random.nextInt(AMENITY_QUERIES.size())),
+                        AMENITY_QUERIES.get(random.nextInt(AMENITY_QUERIES.size())))),
+                maybe(() -> Arrays.asList(AMENITY_QUERIES.get(random.nextInt(AMENITY_QUERIES.size())))));
+    }
+
+    // Fiecare filtru este prezent cu probabilitate 1/3
+    private <T> T maybe(Supplier<T> value) {
+        return random.nextInt(3) == 0 ? value.get() : null;
+    }
+
+    private static Set<String> ids(List<ApartmentEntity> apartments) {
+        return apartments.stream().map(ApartmentEntity::getId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,112 @@
+package ro.unibuc.hello.service;
+
+import org.junit.jupiter.api.Test;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.dto.ApartmentSearchFilter;
+import ro.unibuc.hello.index.ApartmentSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApartmentSearchPredicateTest {
+
+    private static final List<String> LOCATIONS = Arrays.asList("București", "Cluj-Napoca", "Iași", "Brașov");
+    private static final List<String> AMENITIES = Arrays.asList("Wi-Fi", "TV", "balcon", "aer condiționat");
+
+    // searchApartmentsJava nu folosește dependențele serviciului
+    private final ApartmentService apartmentService =
+            new ApartmentService(null, null, null, null, null, null, null, null, null, ApartmentSearchMode.MEMORY);
+
+    private static ApartmentEntity apartment(Random random, int i) {
+        ApartmentEntity apartment = new ApartmentEntity();
+        apartment.setId("a" + i);
+        apartment.setLocation(LOCATIONS.get(random.nextInt(LOCATIONS.size())));
+        apartment.setPricePerNight(50.0 + random.nextInt(300));
+        apartment.setSquareMeters(30.0 + random.nextInt(100));
+        apartment.setNumberOfRooms(1 + random.nextInt(4));
+        apartment.setNumberOfBathrooms(1 + random.nextInt(3));
+        apartment.setPetFriendly(random.nextBoolean());
+        apartment.setSmokingAllowed(random.nextBoolean());
+        apartment.setAmenities(AMENITIES.stream().filter(a -> random.nextBoolean()).collect(Collectors.toList()));
+        return apartment;
+    }
+
+    @Test
+    void compile_MatchesChainedFilters() {
+        Random random = new Random(11);
+        List<ApartmentEntity> apartments = new ArrayList<>();
+        List<ReviewEntity> reviews = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            apartments.add(apartment(random, i));
+            if (random.nextBoolean()) {
+                reviews.add(new ReviewEntity("ok", 1 + random.nextInt(5), "a" + i, "user1"));
+            }
+        }
+        // Agregatele pe care le-ar fi întreținut ReviewService
+        Map<String, Double> averageRatings = reviews.stream().collect(Collectors.groupingBy(
+                ReviewEntity::getApartmentId, Collectors.averagingInt(ReviewEntity::getRating)));
+        apartments.forEach(apartment -> apartment.setAverageRating(averageRatings.get(apartment.getId())));
+        ApartmentSnapshot snapshot = ApartmentSnapshot.of(apartments);
+
+        for (int i = 0; i < 500; i++) {
+            ApartmentSearchFilter filter = new ApartmentSearchFilter(
+                    random.nextInt(3) == 0 ? 50.0 + random.nextInt(200) : null,
+                    random.nextInt(3) == 0 ? 150.0 + random.nextInt(200) : null,
+                    random.nextInt(3) == 0 ? 30.0 + random.nextInt(60) : null,
+                    random.nextInt(3) == 0 ? 80.0 + random.nextInt(60) : null,
+                    random.nextInt(3) == 0 ? 1 + random.nextInt(4) : null,
+                    random.nextInt(3) == 0 ? 1 + random.nextInt(3) : null,
+                    random.nextInt(3) == 0 ? random.nextBoolean() : null,
+                    random.nextInt(3) == 0 ? random.nextBoolean() : null,
+                    random.nextInt(3) == 0 ? "CONDITIONAT" : null,
+                    random.nextInt(3) == 0 ? "iasi" : null,
+                    random.nextInt(3) == 0 ? 1.0 + random.nextInt(5) : null,
+                    random.nextInt(3) == 0 ? Arrays.asList("wi-fi", "BALCON") : null,
+                    random.nextInt(3) == 0 ? Arrays.asList("tv") : null);
+
+            IntPredicate predicate = ApartmentSearchPredicate.compile(filter, snapshot);
+            List<ApartmentEntity> expected = apartmentService.searchApartmentsJava(apartments, reviews, filter);
+
+            assertEquals(expected,
+                    IntStream.range(0, snapshot.size()).filter(predicate).mapToObj(snapshot::entity).toList(),
+                    "Filter: " + filter);
+            // Varianta compilată fără snapshot, evaluată pe câte un snapshot cu un rând (ca în SearchResultCache)
+            ApartmentSearchPredicate.RowMatcher matcher = ApartmentSearchPredicate.compile(filter);
+            assertEquals(expected,
+                    apartments.stream().filter(apartment -> matcher.test(ApartmentSnapshot.of(List.of(apartment)), 0)).toList(),
+                    "Filter: " + filter);
+        }
+    }
+
+    @Test
+    void plan_PutsSelectiveCheapClausesFirst() {
+        Random random = new Random(3);
+        List<ApartmentEntity> sample = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            sample.add(apartment(random, i));
+        }
+        // Prețul <= 60 elimină aproape tot, camerele = 2 cam 3/4, locația e scumpă
+        ApartmentSearchFilter filter = new ApartmentSearchFilter(
+                null, 60.0, null, null, 2, null, null, null, null, "cluj", null);
+
+        assertEquals(Arrays.asList("pricePerNight", "numberOfRooms", "location"),
+                ApartmentSearchPredicate.plan(filter, ApartmentSnapshot.of(sample)));
+    }
+
+    @Test
+    void compile_WithoutFilters_AcceptsEverything() {
+        ApartmentSearchFilter filter = new ApartmentSearchFilter(
+                null, null, null, null, null, null, null, null, null, null, null);
+
+        assertTrue(ApartmentSearchPredicate.compile(filter, ApartmentSnapshot.EMPTY).test(0));
+    }
+}
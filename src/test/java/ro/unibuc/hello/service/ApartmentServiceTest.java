@@ -1,25 +1,42 @@
 package ro.unibuc.hello.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.roaringbitmap.RoaringBitmap;
 import ro.unibuc.hello.data.ApartmentEntity;
 import ro.unibuc.hello.data.BookingEntity;
 import ro.unibuc.hello.data.ReviewEntity;
 import ro.unibuc.hello.data.UserEntity;
+import org.springframework.data.domain.Limit;
+import ro.unibuc.hello.dto.ApartmentSearchFilter;
+import ro.unibuc.hello.dto.CursorPage;
 import ro.unibuc.hello.exception.InvalidInputException;
+import ro.unibuc.hello.index.ApartmentCatalogue;
+import ro.unibuc.hello.index.ApartmentSnapshot;
+import ro.unibuc.hello.index.AvailabilityCalendar;
+import ro.unibuc.hello.index.EntityCache;
+import ro.unibuc.hello.index.ExistenceCache;
+import ro.unibuc.hello.index.SearchResultCache;
 import ro.unibuc.hello.repository.ApartmentRepository;
 import ro.unibuc.hello.repository.BookingRepository;
 import ro.unibuc.hello.repository.ReviewRepository;
-import ro.unibuc.hello.repository.UserRepository;
+import ro.unibuc.hello.util.PageCursor;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,11 +50,27 @@ class ApartmentServiceTest {
     private BookingRepository bookingRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private ExistenceCache existenceCache;
 
     @Mock
     private ReviewRepository reviewRepository;
 
+    @Mock
+    private AvailabilityCalendar availabilityCalendar;
+
+    @Mock
+    private ApartmentCatalogue apartmentCatalogue;
+
+    // Cache-ul real, ca citirile după id să ajungă la repository-ul mock-uit
+    @Spy
+    private EntityCache entityCache = new EntityCache(new SimpleMeterRegistry(), 100, 60, 60, 60);
+
+    @Spy
+    private QueryCoalescer queryCoalescer = new QueryCoalescer(new SimpleMeterRegistry());
+
+    @Spy
+    private SearchResultCache searchResultCache = new SearchResultCache(new SimpleMeterRegistry(), 1000, 100, 60);
+
     @InjectMocks
     private ApartmentService apartmentService;
 
@@ -99,6 +132,32 @@ class ApartmentServiceTest {
         assertEquals("Modern Flat", result.get(1).getTitle());
     }
 
+    @Test
+    void getApartments_ReturnsCursorOnlyWhenMoreRemain() {
+        when(apartmentRepository.findAllByOrderByIdAsc(argThat((Limit limit) -> limit.max() == 2))).thenReturn(Arrays.asList(luxuryApartment, modernFlat));
+
+        CursorPage < ApartmentEntity > first = apartmentService.getApartments(null, 1);
+
+        assertEquals(Collections.singletonList(luxuryApartment), first.items());
+        assertNotNull(first.nextCursor());
+
+        when(apartmentRepository.findByIdGreaterThanOrderByIdAsc(eq(luxuryApartment.getId()), argThat((Limit limit) -> limit.max() == 2)))
+                .thenReturn(Collections.singletonList(modernFlat));
+        CursorPage < ApartmentEntity > second = apartmentService.getApartments(first.nextCursor(), 1);
+
+        assertEquals(Collections.singletonList(modernFlat), second.items());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void getApartments_RejectsForeignCursorAndBadLimit() {
+        String usersCursor = PageCursor.encode("users", "user1");
+
+        assertThrows(IllegalArgumentException.class, () -> apartmentService.getApartments(usersCursor, 10));
+        assertThrows(IllegalArgumentException.class, () -> apartmentService.getApartments(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> apartmentService.getApartments(null, 101));
+    }
+
     @Test
     void getApartmentById_Success() {
         when(apartmentRepository.findById("67e0582d1bf7c4337e952c36")).thenReturn(Optional.of(luxuryApartment));
@@ -111,7 +170,7 @@ class ApartmentServiceTest {
 
     @Test
     void createApartment_Success() {
-        when(userRepository.findById("user1")).thenReturn(Optional.of(user));
+        when(existenceCache.userExists("user1")).thenReturn(true);
         when(apartmentRepository.save(luxuryApartment)).thenReturn(luxuryApartment);
 
         ApartmentEntity result = apartmentService.createApartment(luxuryApartment);
@@ -122,7 +181,7 @@ class ApartmentServiceTest {
 
     @Test
     void createApartment_UserNotFound() {
-        when(userRepository.findById("user1")).thenReturn(Optional.empty());
+        when(existenceCache.userExists("user1")).thenReturn(false);
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             apartmentService.createApartment(luxuryApartment);
@@ -142,15 +201,49 @@ class ApartmentServiceTest {
 
     @Test
     void findAvailableApartments_SomeAvailable() {
-        List < ApartmentEntity > allApartments = Arrays.asList(luxuryApartment, modernFlat);
-        List < BookingEntity > bookings = Collections.singletonList(new BookingEntity(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5), luxuryApartment.getId(), "user1"));
-        when(apartmentRepository.findAll()).thenReturn(allApartments);
-        when(bookingRepository.findBookedApartmentIds(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5))).thenReturn(bookings);
+        List < String > availableIds = Collections.singletonList(modernFlat.getId());
+        when(availabilityCalendar.findAvailableApartmentIds(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5))).thenReturn(availableIds);
+        when(apartmentRepository.findAllById(availableIds)).thenReturn(Collections.singletonList(modernFlat));
 
         List < ApartmentEntity > result = apartmentService.findAvailableApartments(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5));
 
         assertEquals(1, result.size());
         assertEquals("Modern Flat", result.get(0).getTitle());
+        verify(apartmentRepository, never()).findAll();
+    }
+
+    @Test
+    void findAvailableApartments_LooksUpIdsInBatchesAndKeepsCalendarOrder() {
+        List<String> availableIds = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            availableIds.add(String.format("a%04d", i));
+        }
+        when(availabilityCalendar.findAvailableApartmentIds(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5))).thenReturn(availableIds);
+        // Mongo întoarce fiecare lot în ordine inversă
+        when(apartmentRepository.findAllById(anyList())).thenAnswer(invocation -> {
+            List<String> batch = invocation.getArgument(0);
+            List<ApartmentEntity> found = new ArrayList<>();
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                ApartmentEntity apartment = new ApartmentEntity();
+                apartment.setId(batch.get(i));
+                found.add(apartment);
+            }
+            return found;
+        });
+
+        List<ApartmentEntity> result = apartmentService.findAvailableApartments(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5));
+
+        assertEquals(availableIds, result.stream().map(ApartmentEntity::getId).collect(Collectors.toList()));
+        verify(apartmentRepository, times(2)).findAllById(anyList());
+    }
+
+    @Test
+    void findAvailableApartments_InvalidDateRange() {
+        InvalidInputException exception = assertThrows(InvalidInputException.class, () -> {
+            apartmentService.findAvailableApartments(LocalDate.of(2025, 1, 5), LocalDate.of(2025, 1, 1));
+        });
+
+        assertEquals("Start date must not be after end date", exception.getMessage());
     }
 
     @Test
@@ -207,31 +300,114 @@ class ApartmentServiceTest {
 
     @Test
     void getApartmentsByMinAverageRating_Success() {
-        List < ApartmentEntity > allApartments = Arrays.asList(luxuryApartment, modernFlat);
-        List < ReviewEntity > reviews = Arrays.asList(review1, review2, new ReviewEntity("OK", 3, modernFlat.getId(), "user1"));
-        when(apartmentRepository.findAll()).thenReturn(allApartments);
-        when(reviewRepository.findAll()).thenReturn(reviews);
+        luxuryApartment.setAverageRating(4.5);
+        when(apartmentRepository.findByAverageRatingGreaterThanEqual(4.0)).thenReturn(Collections.singletonList(luxuryApartment));
 
         List < ApartmentEntity > result = apartmentService.getApartmentsByMinAverageRating(4.0);
 
         assertEquals(1, result.size());
         assertEquals("Luxury Apartment", result.get(0).getTitle()); // Media 4.5 > 4
+        verify(reviewRepository, never()).findAll();
     }
 
     @Test
     void searchApartments_CombinedFilters() {
         List < ApartmentEntity > allApartments = Arrays.asList(luxuryApartment, modernFlat);
         List < ReviewEntity > reviews = Arrays.asList(review1, review2, new ReviewEntity("OK", 3, modernFlat.getId(), "user1"));
-        when(apartmentRepository.findAll()).thenReturn(allApartments);
-        when(reviewRepository.findAll()).thenReturn(reviews);
 
-        List < ApartmentEntity > result = apartmentService.searchApartments(
-            null, 200.0, null, null, 2, null, null, true, "Wi-Fi", null, null);
+        List < ApartmentEntity > result = apartmentService.searchApartmentsJava(allApartments, reviews, new ApartmentSearchFilter(
+            null, 200.0, null, null, 2, null, null, true, "Wi-Fi", null, null));
 
         assertEquals(1, result.size());
         assertEquals("Modern Flat", result.get(0).getTitle());
     }
 
+    @Test
+    void searchApartments_DelegatesToRepositorySearch() {
+        ApartmentSearchFilter filter = new ApartmentSearchFilter(null, 200.0, null, null, 2, null, null, true, "Wi-Fi", null, 4.0);
+        when(apartmentRepository.search(filter, Arrays.asList("id", "title"), 10))
+                .thenReturn(Collections.singletonList(luxuryApartment));
+
+        List < ApartmentEntity > result = apartmentService.searchApartments(filter, Arrays.asList("id", "title"), 10);
+
+        assertEquals(1, result.size());
+        verify(apartmentRepository, never()).findAll();
+    }
+
+    @Test
+    void searchApartments_MemoryMode_FiltersTheCatalogue() {
+        ApartmentService memoryService = memoryService(Arrays.asList(luxuryApartment, modernFlat));
+        ApartmentSearchFilter filter = new ApartmentSearchFilter(null, null, null, null, null, null, true, null, null, "bucuresti", null);
+
+        List < ApartmentEntity > result = memoryService.searchApartments(filter, null, null);
+
+        assertEquals(Collections.singletonList(luxuryApartment), result);
+        verify(apartmentRepository, never()).search(any(), any(), any());
+        verify(reviewRepository, never()).findAll();
+    }
+
+    @Test
+    void getApartmentsByPriceAndSquareMeters_MemoryMode_UsesInclusiveBounds() {
+        ApartmentService memoryService = memoryService(Arrays.asList(luxuryApartment, modernFlat));
+
+        // 180.0 și 65.5 sunt chiar limitele, deci Modern Flat intră (ca la $gte/$lte din repository)
+        assertEquals(Arrays.asList(luxuryApartment, modernFlat),
+                memoryService.getApartmentsByPriceAndSquareMeters(180.0, 300.0, 65.5, 100.0));
+        assertEquals(Collections.singletonList(luxuryApartment),
+                memoryService.getApartmentsByPriceAndSquareMeters(181.0, 300.0, 65.0, 100.0));
+        verify(apartmentRepository, never()).findByPricePerNightBetweenAndSquareMetersBetween(any(), any(), any(), any());
+    }
+
+    @Test
+    void getApartmentsByAmenities_IntersectsBitmaps() {
+        ApartmentSnapshot snapshot = ApartmentSnapshot.of(Arrays.asList(luxuryApartment, modernFlat));
+        when(apartmentCatalogue.select(any())).thenAnswer(invocation -> {
+            Function < ApartmentSnapshot, RoaringBitmap > selector = invocation.getArgument(0);
+            return snapshot.materialize(selector.apply(snapshot));
+        });
+
+        assertEquals(Arrays.asList(luxuryApartment, modernFlat),
+                apartmentService.getApartmentsByAmenities(Collections.singletonList("WI-FI"), null));
+        assertEquals(Collections.singletonList(luxuryApartment),
+                apartmentService.getApartmentsByAmenities(Arrays.asList("wi-fi", "aer conditionat"), null));
+        assertEquals(Collections.singletonList(modernFlat),
+                apartmentService.getApartmentsByAmenities(Collections.singletonList("tv"), Collections.singletonList("balcon")));
+        assertTrue(apartmentService.getApartmentsByAmenities(Collections.singletonList("piscina"), null).isEmpty());
+    }
+
+    @Test
+    void getApartmentsByAmenities_BlankExcludedAmenity() {
+        InvalidInputException exception = assertThrows(InvalidInputException.class, () -> {
+            apartmentService.getApartmentsByAmenities(Collections.singletonList("tv"), Collections.singletonList(" "));
+        });
+
+        assertEquals("Amenity must not be empty", exception.getMessage());
+    }
+
+    // Serviciu în modul MEMORY peste un catalog mock care scanează un snapshot real
+    private ApartmentService memoryService(List < ApartmentEntity > apartments) {
+        ApartmentSnapshot snapshot = ApartmentSnapshot.of(apartments);
+        when(apartmentCatalogue.filter(any(), any())).thenAnswer(invocation -> {
+            Function < ApartmentSnapshot, IntPredicate > compiler = invocation.getArgument(0);
+            IntPredicate predicate = compiler.apply(snapshot);
+            return IntStream.range(0, snapshot.size()).filter(predicate).mapToObj(snapshot::entity).toList();
+        });
+        return new ApartmentService(apartmentRepository, bookingRepository, existenceCache,
+                reviewRepository, availabilityCalendar, apartmentCatalogue, entityCache, queryCoalescer,
+                searchResultCache, ApartmentSearchMode.MEMORY);
+    }
+
+    @Test
+    void searchApartments_UnknownField() {
+        ApartmentSearchFilter filter = new ApartmentSearchFilter(null, null, null, null, null, null, null, null, null, null, null);
+
+        InvalidInputException exception = assertThrows(InvalidInputException.class, () -> {
+            apartmentService.searchApartments(filter, Collections.singletonList("password"), null);
+        });
+
+        assertEquals("Unknown field: password", exception.getMessage());
+    }
+
     @Test
     void searchApartments_InvalidRating() {
         InvalidInputException exception = assertThrows(InvalidInputException.class, () -> {
@@ -244,10 +420,9 @@ class ApartmentServiceTest {
     @Test
     void searchApartments_ByLocationWithDiacritics() {
         List < ApartmentEntity > allApartments = Arrays.asList(luxuryApartment, modernFlat);
-        when(apartmentRepository.findAll()).thenReturn(allApartments);
 
-        List < ApartmentEntity > result = apartmentService.searchApartments(
-            null, null, null, null, null, null, null, null, null, "Bucuresti", null);
+        List < ApartmentEntity > result = apartmentService.searchApartmentsJava(allApartments, Collections.emptyList(), new ApartmentSearchFilter(
+            null, null, null, null, null, null, null, null, null, "Bucuresti", null));
 
         assertEquals(1, result.size());
         assertEquals("București", result.get(0).getLocation());
@@ -341,9 +516,7 @@ class ApartmentServiceTest {
 
     @Test
     void getApartmentsByMinAverageRating_NoReviews() {
-        List < ApartmentEntity > allApartments = Arrays.asList(luxuryApartment, modernFlat);
-        when(apartmentRepository.findAll()).thenReturn(allApartments);
-        when(reviewRepository.findAll()).thenReturn(Collections.emptyList());
+        when(apartmentRepository.findByAverageRatingGreaterThanEqual(4.0)).thenReturn(Collections.emptyList());
 
         List < ApartmentEntity > result = apartmentService.getApartmentsByMinAverageRating(4.0);
 
@@ -371,10 +544,9 @@ class ApartmentServiceTest {
     @Test
     void searchApartments_FilterByBathrooms() {
         List < ApartmentEntity > allApartments = Arrays.asList(luxuryApartment, modernFlat);
-        when(apartmentRepository.findAll()).thenReturn(allApartments);
 
-        List < ApartmentEntity > result = apartmentService.searchApartments(
-            null, null, null, null, null, 2, null, null, null, null, null);
+        List < ApartmentEntity > result = apartmentService.searchApartmentsJava(allApartments, Collections.emptyList(), new ApartmentSearchFilter(
+            null, null, null, null, null, 2, null, null, null, null, null));
 
         assertEquals(1, result.size());
         assertEquals("Luxury Apartment", result.get(0).getTitle());
@@ -383,10 +555,9 @@ class ApartmentServiceTest {
     @Test
     void searchApartments_FilterByMultipleCriteria() {
         List < ApartmentEntity > allApartments = Arrays.asList(luxuryApartment, modernFlat);
-        when(apartmentRepository.findAll()).thenReturn(allApartments);
 
-        List < ApartmentEntity > result = apartmentService.searchApartments(
-            200.0, 300.0, 80.0, null, 3, null, true, false, "balcon", null, null);
+        List < ApartmentEntity > result = apartmentService.searchApartmentsJava(allApartments, Collections.emptyList(), new ApartmentSearchFilter(
+            200.0, 300.0, 80.0, null, 3, null, true, false, "balcon", null, null));
 
         assertEquals(1, result.size());
         assertEquals("Luxury Apartment", result.get(0).getTitle());
@@ -395,10 +566,9 @@ class ApartmentServiceTest {
     @Test
     void searchApartments_NoResults() {
         List < ApartmentEntity > allApartments = Arrays.asList(luxuryApartment, modernFlat);
-        when(apartmentRepository.findAll()).thenReturn(allApartments);
 
-        List < ApartmentEntity > result = apartmentService.searchApartments(
-            null, null, null, null, 4, null, null, null, null, null, null); // Niciun apartament cu 4 camere
+        List < ApartmentEntity > result = apartmentService.searchApartmentsJava(allApartments, Collections.emptyList(), new ApartmentSearchFilter(
+            null, null, null, null, 4, null, null, null, null, null, null)); // Niciun apartament cu 4 camere
 
         assertEquals(0, result.size());
     }
@@ -431,11 +601,9 @@ class ApartmentServiceTest {
             new ReviewEntity("Great!", null, luxuryApartment.getId(), "user1"),
             new ReviewEntity("OK", 3, modernFlat.getId(), "user1")
         );
-        when(apartmentRepository.findAll()).thenReturn(allApartments);
-        when(reviewRepository.findAll()).thenReturn(reviews);
 
-        List < ApartmentEntity > result = apartmentService.searchApartments(
-            null, null, null, null, null, null, null, null, null, null, 4.0);
+        List < ApartmentEntity > result = apartmentService.searchApartmentsJava(allApartments, reviews, new ApartmentSearchFilter(
+            null, null, null, null, null, null, null, null, null, null, 4.0));
 
         assertTrue(result.isEmpty()); // Niciun apartament nu are rating >= 4
     }
@@ -444,28 +612,25 @@ class ApartmentServiceTest {
     @Test
     void searchApartments_FilterByMaxSquareMeters() {
         List < ApartmentEntity > allApartments = Arrays.asList(luxuryApartment, modernFlat);
-        when(apartmentRepository.findAll()).thenReturn(allApartments);
 
-        List < ApartmentEntity > result = apartmentService.searchApartments(
-            null, null, null, 70.0, null, null, null, null, null, null, null);
+        List < ApartmentEntity > result = apartmentService.searchApartmentsJava(allApartments, Collections.emptyList(), new ApartmentSearchFilter(
+            null, null, null, 70.0, null, null, null, null, null, null, null));
 
         assertEquals(1, result.size());
         assertEquals("Modern Flat", result.get(0).getTitle()); // 65.5 <= 70
     }
 
     @Test
-    void getApartmentsByMinAverageRating_NullRatings() {
-        List < ApartmentEntity > allApartments = Arrays.asList(luxuryApartment, modernFlat);
-        List < ReviewEntity > reviews = Arrays.asList(
-            new ReviewEntity("Great!", null, luxuryApartment.getId(), "user1"),
-            new ReviewEntity("OK", 3, modernFlat.getId(), "user1")
-        );
-        when(apartmentRepository.findAll()).thenReturn(allApartments);
-        when(reviewRepository.findAll()).thenReturn(reviews);
+    void searchApartments_MemoryMode_ReadsStoredAverageRating() {
+        luxuryApartment.setAverageRating(4.5);
+        modernFlat.setAverageRating(3.0);
+        ApartmentService memoryService = memoryService(Arrays.asList(luxuryApartment, modernFlat));
 
-        List < ApartmentEntity > result = apartmentService.getApartmentsByMinAverageRating(4.0);
+        List < ApartmentEntity > result = memoryService.searchApartments(new ApartmentSearchFilter(
+            null, null, null, null, null, null, null, null, null, null, 4.0), null, null);
 
-        assertTrue(result.isEmpty()); // Niciun apartament nu are rating >= 4
+        assertEquals(Collections.singletonList(luxuryApartment), result);
+        verify(reviewRepository, never()).findAll();
     }
 
    
@@ -484,7 +649,7 @@ class ApartmentServiceTest {
     void getApartmentsByLocation_SuccessWithDiacritics() {
         List<ApartmentEntity> locations = Collections.singletonList(luxuryApartment);
         // După normalizare, "București" devine "bucuresti"
-        when(apartmentRepository.findByLocationIgnoreCase("bucuresti")).thenReturn(locations);
+        when(apartmentRepository.findByLocationKeyContaining("bucuresti")).thenReturn(locations);
 
         List<ApartmentEntity> result = apartmentService.getApartmentsByLocation("București");
 
@@ -492,11 +657,33 @@ class ApartmentServiceTest {
         assertEquals("București", result.get(0).getLocation());
     }
 
+    @Test
+    void getApartmentsByLocation_CachedUntilAMatchingApartmentIsSaved() {
+        when(apartmentRepository.findByLocationKeyContaining("bucuresti")).thenReturn(Collections.singletonList(luxuryApartment));
+
+        apartmentService.getApartmentsByLocation("București");
+        // Aceeași cerere, scrisă altfel, are aceeași cheie canonică
+        apartmentService.getApartmentsByLocation("BUCURESTI");
+        verify(apartmentRepository, times(1)).findByLocationKeyContaining("bucuresti");
+
+        // Un apartament din Cluj nu poate schimba rezultatul
+        searchResultCache.apartmentSaved(modernFlat);
+        apartmentService.getApartmentsByLocation("bucurești");
+        verify(apartmentRepository, times(1)).findByLocationKeyContaining("bucuresti");
+
+        ApartmentEntity newApartment = new ApartmentEntity();
+        newApartment.setId("67e0582d1bf7c4337e952c38");
+        newApartment.setLocation("Sector 1, București");
+        searchResultCache.apartmentSaved(newApartment);
+        apartmentService.getApartmentsByLocation("București");
+        verify(apartmentRepository, times(2)).findByLocationKeyContaining("bucuresti");
+    }
+
     @Test
     void getApartmentsByLocation_SuccessNoDiacritics() {
         List<ApartmentEntity> locations = Collections.singletonList(luxuryApartment);
         // Fără diacritice, tot "bucuresti"
-        when(apartmentRepository.findByLocationIgnoreCase("bucuresti")).thenReturn(locations);
+        when(apartmentRepository.findByLocationKeyContaining("bucuresti")).thenReturn(locations);
 
         List<ApartmentEntity> result = apartmentService.getApartmentsByLocation("Bucuresti");
 
@@ -508,7 +695,7 @@ class ApartmentServiceTest {
     void getApartmentsByLocation_SuccessCaseInsensitive() {
         List<ApartmentEntity> locations = Collections.singletonList(luxuryApartment);
         // Testăm cu uppercase, dar normalizarea face "BUCURESTI" -> "bucuresti"
-        when(apartmentRepository.findByLocationIgnoreCase("bucuresti")).thenReturn(locations);
+        when(apartmentRepository.findByLocationKeyContaining("bucuresti")).thenReturn(locations);
 
         List<ApartmentEntity> result = apartmentService.getApartmentsByLocation("BUCUREȘTI");
 
@@ -1,24 +1,35 @@
 package ro.unibuc.hello.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import ro.unibuc.hello.data.ApartmentEntity;
 import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.data.BookingSlotEntity;
+import ro.unibuc.hello.exception.ServiceUnavailableException;
+import ro.unibuc.hello.index.AvailabilityCalendar;
+import ro.unibuc.hello.index.BookingIntervalIndex;
+import ro.unibuc.hello.index.EntityCache;
+import ro.unibuc.hello.index.ExistenceCache;
 import ro.unibuc.hello.repository.ApartmentRepository;
 import ro.unibuc.hello.repository.BookingRepository;
+import ro.unibuc.hello.repository.BookingSlotRepository;
 import ro.unibuc.hello.repository.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -35,7 +46,12 @@ class BookingServiceTest {
     @Mock
     private ApartmentRepository apartmentRepository;
 
-    @InjectMocks
+    @Mock
+    private BookingSlotRepository bookingSlotRepository;
+
+    @Mock
+    private BookingWriteLanes bookingWriteLanes;
+
     private BookingService bookingService;
 
     private BookingEntity booking1;
@@ -47,6 +63,8 @@ class BookingServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        // Indexurile reale, încărcate leneș din repository-urile mock-uite
+        bookingService = bookingServiceWithMode(BookingCommitMode.DIRECT);
 
         booking1 = new BookingEntity(
                 LocalDate.of(2025, 1, 1),
@@ -65,6 +83,20 @@ class BookingServiceTest {
         booking2.setId("booking2");
     }
 
+    private BookingService bookingServiceWithMode(BookingCommitMode commitMode) {
+        return bookingServiceWithMode(commitMode, new ConcurrentReads(FanOutMode.SEQUENTIAL));
+    }
+
+    private BookingService bookingServiceWithMode(BookingCommitMode commitMode, ConcurrentReads concurrentReads) {
+        // Cache-ul real, peste repository-urile mock-uite
+        ExistenceCache existenceCache = new ExistenceCache(userRepository, apartmentRepository, new SimpleMeterRegistry(), 1000, 600, 5);
+        return new BookingService(bookingRepository, existenceCache, apartmentRepository,
+                new BookingIntervalIndex(bookingRepository),
+                new AvailabilityCalendar(apartmentRepository, bookingRepository, 365),
+                new EntityCache(new SimpleMeterRegistry(), 100, 60, 60, 60),
+                bookingSlotRepository, bookingWriteLanes, concurrentReads, commitMode, 1000, 30);
+    }
+
     @Test
     void getAllBookings() {
         List<BookingEntity> bookings = Arrays.asList(booking1, booking2);
@@ -168,11 +200,223 @@ class BookingServiceTest {
         assertTrue(exception.getMessage().contains("not available"));
     }
 
+    @Test
+    void testCreateBooking_VirtualThreadFanOut() {
+        ConcurrentReads concurrentReads = new ConcurrentReads(FanOutMode.VIRTUAL_THREADS);
+        BookingService fanOutService = bookingServiceWithMode(BookingCommitMode.DIRECT, concurrentReads);
+        BookingEntity newBooking = new BookingEntity(
+                LocalDate.of(2025, 1, 3),
+                LocalDate.of(2025, 1, 8),
+                apartmentId1,
+                userId1
+        );
+
+        // Toate trei citirile pleacă împreună, fiecare pe un fir virtual
+        List<Boolean> virtualThreads = new CopyOnWriteArrayList<>();
+        when(apartmentRepository.existsById(apartmentId1)).thenAnswer(invocation -> {
+            virtualThreads.add(Thread.currentThread().isVirtual());
+            return false;
+        });
+        when(userRepository.existsById(userId1)).thenAnswer(invocation -> {
+            virtualThreads.add(Thread.currentThread().isVirtual());
+            return false;
+        });
+        when(bookingRepository.findAll()).thenAnswer(invocation -> {
+            virtualThreads.add(Thread.currentThread().isVirtual());
+            return Arrays.asList(booking1);
+        });
+
+        // Deși toate verificările eșuează, eroarea raportată este tot prima, ca la rularea secvențială
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> fanOutService.createBooking(newBooking)
+        );
+        assertEquals("Apartment with ID apartment1 does not exist.", exception.getMessage());
+        assertEquals(List.of(true, true, true), virtualThreads);
+        concurrentReads.stop();
+    }
+
+    @Test
+    void testCreateBooking_SlotsMode_Success() {
+        BookingService slotsService = bookingServiceWithMode(BookingCommitMode.SLOTS);
+        BookingEntity newBooking = new BookingEntity(
+                LocalDate.of(2025, 2, 1),
+                LocalDate.of(2025, 2, 3),
+                apartmentId1,
+                userId1
+        );
+
+        when(apartmentRepository.existsById(apartmentId1)).thenReturn(true);
+        when(userRepository.existsById(userId1)).thenReturn(true);
+        when(bookingRepository.save(any(BookingEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        BookingEntity result = slotsService.createBooking(newBooking);
+
+        assertNotNull(result.getId());
+        verify(bookingSlotRepository, times(1)).insert(argThat((Iterable<BookingSlotEntity> slots) ->
+                slots.spliterator().getExactSizeIfKnown() == 3));
+        verify(bookingRepository, never()).findAll();
+    }
+
+    @Test
+    void testCreateBooking_SlotsMode_Conflict() {
+        BookingService slotsService = bookingServiceWithMode(BookingCommitMode.SLOTS);
+        BookingEntity newBooking = new BookingEntity(
+                LocalDate.of(2025, 1, 3),
+                LocalDate.of(2025, 1, 8),
+                apartmentId1,
+                userId1
+        );
+
+        when(apartmentRepository.existsById(apartmentId1)).thenReturn(true);
+        when(userRepository.existsById(userId1)).thenReturn(true);
+        when(bookingSlotRepository.insert(anyIterable())).thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> slotsService.createBooking(newBooking)
+        );
+        assertTrue(exception.getMessage().contains("not available"));
+        verify(bookingSlotRepository, times(1)).deleteByBookingId(newBooking.getId());
+        verify(bookingRepository, never()).save(any(BookingEntity.class));
+    }
+
+    @Test
+    void testCreateBooking_SlotsMode_ClientIdIsReplaced() {
+        BookingService slotsService = bookingServiceWithMode(BookingCommitMode.SLOTS);
+        BookingEntity newBooking = new BookingEntity(
+                LocalDate.of(2025, 1, 3),
+                LocalDate.of(2025, 1, 8),
+                apartmentId1,
+                userId1
+        );
+        newBooking.setId("existingBooking");
+
+        when(apartmentRepository.existsById(apartmentId1)).thenReturn(true);
+        when(userRepository.existsById(userId1)).thenReturn(true);
+        when(bookingSlotRepository.insert(anyIterable())).thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+
+        assertThrows(IllegalArgumentException.class, () -> slotsService.createBooking(newBooking));
+        // Conflictul nu trebuie să elibereze sloturile rezervării existente
+        verify(bookingSlotRepository, never()).deleteByBookingId("existingBooking");
+        assertNotEquals("existingBooking", newBooking.getId());
+    }
+
+    @Test
+    void testCreateBooking_LanesMode_Conflict() {
+        BookingService lanesService = bookingServiceWithMode(BookingCommitMode.LANES);
+        BookingEntity newBooking = new BookingEntity(
+                LocalDate.of(2025, 1, 3),
+                LocalDate.of(2025, 1, 8),
+                apartmentId1,
+                userId1
+        );
+
+        when(apartmentRepository.existsById(apartmentId1)).thenReturn(true);
+        when(userRepository.existsById(userId1)).thenReturn(true);
+        when(bookingWriteLanes.submit(newBooking)).thenReturn(CompletableFuture.failedFuture(
+                new IllegalArgumentException("Apartment is not available for the selected dates.")));
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> lanesService.createBooking(newBooking)
+        );
+        assertTrue(exception.getMessage().contains("not available"));
+    }
+
+    @Test
+    void testCreateBooking_LanesMode_TimeoutCancelsPendingBooking() {
+        BookingService lanesService = bookingServiceWithMode(BookingCommitMode.LANES);
+        BookingEntity newBooking = new BookingEntity(
+                LocalDate.of(2025, 1, 3),
+                LocalDate.of(2025, 1, 8),
+                apartmentId1,
+                userId1
+        );
+        CompletableFuture<BookingEntity> neverCommitted = new CompletableFuture<>();
+
+        when(apartmentRepository.existsById(apartmentId1)).thenReturn(true);
+        when(userRepository.existsById(userId1)).thenReturn(true);
+        when(bookingWriteLanes.submit(newBooking)).thenReturn(neverCommitted);
+
+        assertThrows(ServiceUnavailableException.class, () -> lanesService.createBooking(newBooking));
+        assertTrue(neverCommitted.isCancelled());
+    }
+
+    @Test
+    void testCreateBooking_LanesMode_RunningCommitIsAwaitedOnlyOnceMore() {
+        BookingService lanesService = bookingServiceWithMode(BookingCommitMode.LANES);
+        BookingEntity newBooking = new BookingEntity(
+                LocalDate.of(2025, 1, 3),
+                LocalDate.of(2025, 1, 8),
+                apartmentId1,
+                userId1
+        );
+        // Banda a preluat deja rezervarea, deci nu mai poate fi retrasă, iar Mongo nu răspunde
+        CompletableFuture<BookingEntity> stuckCommit = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                return false;
+            }
+        };
+
+        when(apartmentRepository.existsById(apartmentId1)).thenReturn(true);
+        when(userRepository.existsById(userId1)).thenReturn(true);
+        when(bookingWriteLanes.submit(newBooking)).thenReturn(stuckCommit);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(ServiceUnavailableException.class, () -> lanesService.createBooking(newBooking)));
+    }
+
+    @Test
+    void testCreateBooking_MissingDates() {
+        BookingEntity newBooking = new BookingEntity(LocalDate.of(2025, 1, 3), null, apartmentId1, userId1);
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> bookingService.createBooking(newBooking)
+        );
+        assertEquals("Start date and end date are required.", exception.getMessage());
+    }
+
+    @Test
+    void testCreateBooking_StayTooLong() {
+        BookingService slotsService = bookingServiceWithMode(BookingCommitMode.SLOTS);
+        BookingEntity newBooking = new BookingEntity(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 15), apartmentId1, userId1);
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> slotsService.createBooking(newBooking)
+        );
+        assertTrue(exception.getMessage().contains("30 days"));
+        verifyNoInteractions(bookingSlotRepository);
+        verify(bookingRepository, never()).save(any(BookingEntity.class));
+    }
+
+    @Test
+    void testCreateBooking_EndBeforeStart() {
+        BookingEntity newBooking = new BookingEntity(LocalDate.of(2025, 1, 8), LocalDate.of(2025, 1, 3), apartmentId1, userId1);
+
+        assertThrows(IllegalArgumentException.class, () -> bookingService.createBooking(newBooking));
+        verify(bookingRepository, never()).save(any(BookingEntity.class));
+    }
+
     @Test
     void testDeleteBooking() {
         bookingService.deleteBooking("booking1");
 
         verify(bookingRepository, times(1)).deleteById("booking1");
+        verifyNoInteractions(bookingSlotRepository);
+    }
+
+    @Test
+    void testDeleteBooking_SlotsMode() {
+        BookingService slotsService = bookingServiceWithMode(BookingCommitMode.SLOTS);
+
+        slotsService.deleteBooking("booking1");
+
+        verify(bookingRepository, times(1)).deleteById("booking1");
+        verify(bookingSlotRepository, times(1)).deleteByBookingId("booking1");
     }
 
     @Test
@@ -285,7 +529,7 @@ class BookingServiceTest {
         when(apartment2.getId()).thenReturn(apartmentId2);
 
         when(bookingRepository.findAll()).thenReturn(Arrays.asList(booking1));
-        when(apartmentRepository.findAll()).thenReturn(Arrays.asList(apartment1, apartment2));
+        when(apartmentRepository.findAllIds()).thenReturn(Arrays.asList(apartment1, apartment2));
 
         List<String> result = bookingService.findAvailableApartmentIds(startDate, endDate);
 
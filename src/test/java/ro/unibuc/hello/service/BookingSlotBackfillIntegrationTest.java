@@ -0,0 +1,111 @@
+package ro.unibuc.hello.service;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.data.BookingSlotEntity;
+import ro.unibuc.hello.repository.BookingRepository;
+import ro.unibuc.hello.repository.BookingSlotRepository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Backfill-ul de la pornirea în modul SLOTS: sloturi pentru rezervările care nu le au (cele lungi tăiate la
+ * booking.max-stay-days), ștergerea sloturilor orfane mai vechi decât perioada de grație.
+ */
+@SpringBootTest
+@Testcontainers
+@Tag("IntegrationTest")
+public class BookingSlotBackfillIntegrationTest {
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0.20")
+            .withExposedPorts(27017)
+            .withSharding();
+
+    @BeforeAll
+    public static void setUp() {
+        mongoDBContainer.start();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        mongoDBContainer.stop();
+    }
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        final String MONGO_URL = "mongodb://host.docker.internal:";
+        final String PORT = String.valueOf(mongoDBContainer.getMappedPort(27017));
+
+        registry.add("mongodb.connection.url", () -> MONGO_URL + PORT);
+        registry.add("booking.commit-mode", () -> "SLOTS");
+        registry.add("booking.max-stay-days", () -> "30");
+    }
+
+    @Autowired
+    private BookingSlotBackfill bookingSlotBackfill;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingSlotRepository bookingSlotRepository;
+
+    @BeforeEach
+    public void cleanUp() {
+        bookingRepository.deleteAll();
+        bookingSlotRepository.deleteAll();
+    }
+
+    private static BookingSlotEntity slot(String bookingId, LocalDate day, Instant createdAt) {
+        BookingSlotEntity slot = new BookingSlotEntity("apartment1", day, bookingId);
+        slot.setId(new ObjectId(Date.from(createdAt)).toHexString());
+        return slot;
+    }
+
+    @Test
+    public void backfill_CreatesMissingSlotsAndClipsLongBookings() {
+        BookingEntity shortStay = bookingRepository.save(new BookingEntity(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 3), "apartment1", "user1"));
+        BookingEntity legacy = bookingRepository.save(new BookingEntity(LocalDate.of(2020, 1, 1), LocalDate.of(2022, 12, 31), "apartment2", "user1"));
+        // Are deja sloturi, deci rămâne neatinsă
+        BookingEntity covered = bookingRepository.save(new BookingEntity(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 5), "apartment1", "user1"));
+        bookingSlotRepository.insert(new BookingSlotEntity("apartment1", LocalDate.of(2025, 2, 1), covered.getId()));
+
+        bookingSlotBackfill.backfill();
+
+        assertTrue(bookingSlotRepository.existsByBookingId(shortStay.getId()));
+        assertEquals(3 + 30 + 1, bookingSlotRepository.count());
+    }
+
+    @Test
+    public void backfill_RemovesOrphanSlotsOutsideTheGracePeriod() {
+        BookingEntity booking = bookingRepository.save(new BookingEntity(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 1), "apartment1", "user1"));
+        Instant old = Instant.now().minus(1, ChronoUnit.HOURS);
+        bookingSlotRepository.insert(slot(booking.getId(), LocalDate.of(2025, 1, 1), old));
+        bookingSlotRepository.insert(slot("deleted-booking", LocalDate.of(2025, 3, 1), old));
+        bookingSlotRepository.insert(slot(new ObjectId().toHexString(), LocalDate.of(2025, 3, 2), old));
+        // Orfan recent: poate fi o rezervare pe care altă instanță încă o salvează
+        bookingSlotRepository.insert(slot("in-flight", LocalDate.of(2025, 3, 3), Instant.now()));
+
+        bookingSlotBackfill.backfill();
+
+        assertTrue(bookingSlotRepository.existsByBookingId(booking.getId()));
+        assertFalse(bookingSlotRepository.existsByBookingId("deleted-booking"));
+        assertTrue(bookingSlotRepository.existsByBookingId("in-flight"));
+        assertEquals(2, bookingSlotRepository.count());
+    }
+}
@@ -0,0 +1,140 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ro.unibuc.hello.data.BookingEntity;
+import ro.unibuc.hello.index.BookingIntervalIndex;
+import ro.unibuc.hello.repository.BookingRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class BookingWriteLanesTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingIntervalIndex bookingIntervalIndex;
+    private SimpleMeterRegistry meterRegistry;
+    private BookingWriteLanes lanes;
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bookingIntervalIndex = new BookingIntervalIndex(bookingRepository);
+        meterRegistry = new SimpleMeterRegistry();
+
+        when(bookingRepository.findAll()).thenReturn(new ArrayList<>());
+        // Simulăm BookingIndexListener: după saveAll rezervările ajung în index
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<BookingEntity> bookings = invocation.getArgument(0);
+            for (BookingEntity booking : bookings) {
+                booking.setId("booking" + ids.incrementAndGet());
+                bookingIntervalIndex.put(booking);
+            }
+            return bookings;
+        });
+
+        lanes = new BookingWriteLanes(bookingRepository, bookingIntervalIndex, meterRegistry,
+                BookingCommitMode.LANES, 4, 16);
+        lanes.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        lanes.stop();
+    }
+
+    private static BookingEntity booking(String apartmentId, LocalDate start, LocalDate end) {
+        return new BookingEntity(start, end, apartmentId, "user1");
+    }
+
+    @Test
+    void submit_SameApartmentSameDates_OnlyOneWins() {
+        List<CompletableFuture<BookingEntity>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            results.add(lanes.submit(booking("apartment1", LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 3))));
+        }
+
+        long succeeded = results.stream().filter(result -> {
+            try {
+                result.join();
+                return true;
+            } catch (CompletionException e) {
+                assertInstanceOf(IllegalArgumentException.class, e.getCause());
+                return false;
+            }
+        }).count();
+
+        assertEquals(1, succeeded);
+    }
+
+    @Test
+    void submit_DifferentApartments_AllSucceed() {
+        List<CompletableFuture<BookingEntity>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            results.add(lanes.submit(booking("apartment" + i, LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 3))));
+        }
+
+        for (CompletableFuture<BookingEntity> result : results) {
+            assertNotNull(result.join().getId());
+        }
+        assertNotNull(meterRegistry.find("booking.lanes.queue.depth").tag("lane", "0").gauge());
+        assertTrue(meterRegistry.find("booking.lanes.latency").timers().stream().mapToLong(t -> t.count()).sum() >= 100);
+    }
+
+    @Test
+    void cancel_BeforeLaneClaimsBooking_IsNeverSaved() throws Exception {
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<BookingEntity> saved = new CopyOnWriteArrayList<>();
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<BookingEntity> bookings = invocation.getArgument(0);
+            saving.countDown();
+            release.await();
+            saved.addAll(bookings);
+            return bookings;
+        });
+
+        // Prima rezervare ține banda ocupată în saveAll; a doua așteaptă în coada aceleiași benzi
+        CompletableFuture<BookingEntity> first = lanes.submit(booking("apartment1", LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 3)));
+        assertTrue(saving.await(5, TimeUnit.SECONDS));
+        BookingEntity abandoned = booking("apartment1", LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 3));
+        CompletableFuture<BookingEntity> second = lanes.submit(abandoned);
+
+        assertFalse(first.cancel(false));
+        assertTrue(second.cancel(false));
+        release.countDown();
+
+        assertNotNull(first.join());
+        assertTrue(second.isCancelled());
+        lanes.stop();
+        assertFalse(saved.contains(abandoned));
+    }
+
+    @Test
+    void submit_WhenModeIsNotLanes_Fails() {
+        BookingWriteLanes directLanes = new BookingWriteLanes(bookingRepository, bookingIntervalIndex, meterRegistry,
+                BookingCommitMode.DIRECT, 4, 16);
+        directLanes.start();
+
+        assertThrows(IllegalStateException.class,
+                () -> directLanes.submit(booking("apartment1", LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 3))));
+    }
+}
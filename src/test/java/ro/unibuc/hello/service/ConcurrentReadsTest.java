@@ -0,0 +1,100 @@
+package ro.unibuc.hello.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentReadsTest {
+
+    private final ConcurrentReads virtualReads = new ConcurrentReads(FanOutMode.VIRTUAL_THREADS);
+
+    @AfterEach
+    void tearDown() {
+        virtualReads.stop();
+    }
+
+    @Test
+    void fork_VirtualThreads_RunsReadsConcurrently() {
+        // Fiecare citire așteaptă după cealaltă, deci se termină doar dacă rulează în același timp
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Supplier<String> read = () -> {
+            bothStarted.countDown();
+            try {
+                assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return Thread.currentThread().isVirtual() ? "virtual" : "platform";
+        };
+
+        try (ConcurrentReads.Scope reads = virtualReads.open()) {
+            Supplier<String> first = reads.fork(read);
+            Supplier<String> second = reads.fork(read);
+            reads.join();
+
+            assertEquals("virtual", first.get());
+            assertEquals("virtual", second.get());
+        }
+    }
+
+    @Test
+    void join_FirstFailure_PropagatesAndCancelsTheRest() throws InterruptedException {
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch slowInterrupted = new CountDownLatch(1);
+
+        try (ConcurrentReads.Scope reads = virtualReads.open()) {
+            reads.fork(() -> {
+                slowStarted.countDown();
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                    slowInterrupted.countDown();
+                }
+                return "slow";
+            });
+            assertTrue(slowStarted.await(5, TimeUnit.SECONDS));
+            reads.fork(() -> {
+                throw new IllegalArgumentException("Apartment with ID a1 does not exist.");
+            });
+
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, reads::join);
+            assertEquals("Apartment with ID a1 does not exist.", exception.getMessage());
+        }
+        // Citirea lentă nu a fost așteptată, ci anulată
+        assertTrue(slowInterrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void fork_Sequential_RunsOnTheCallingThread() {
+        ConcurrentReads sequentialReads = new ConcurrentReads(FanOutMode.SEQUENTIAL);
+        Thread caller = Thread.currentThread();
+        AtomicBoolean firstDone = new AtomicBoolean();
+
+        try (ConcurrentReads.Scope reads = sequentialReads.open()) {
+            Supplier<Boolean> first = reads.fork(() -> {
+                firstDone.set(true);
+                return Thread.currentThread() == caller;
+            });
+            Supplier<Boolean> second = reads.fork(() -> firstDone.get() && Thread.currentThread() == caller);
+            reads.join();
+
+            assertTrue(first.get());
+            assertTrue(second.get());
+        }
+    }
+
+    @Test
+    void get_BeforeJoin_IsRejected() {
+        try (ConcurrentReads.Scope reads = virtualReads.open()) {
+            Supplier<String> read = reads.fork(() -> "value");
+
+            assertThrows(IllegalStateException.class, read::get);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ro.unibuc.hello.exception.InvalidInputException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryCoalescer coalescer = new QueryCoalescer(meterRegistry);
+
+    @Test
+    void coalesce_ConcurrentIdenticalQueries_ShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<List<String>> leader = executor.submit(() -> coalescer.coalesce("search", List.of("cluj"), () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                await(release);
+                return List.of("a1");
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            List<Future<List<String>>> followers = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                followers.add(executor.submit(() -> coalescer.coalesce("search", List.of("cluj"), () -> {
+                    executions.incrementAndGet();
+                    return List.of("other");
+                })));
+            }
+            // Așteptăm ca toți să se fi alăturat execuției în curs
+            while (meterRegistry.counter("queries.coalesced", "operation", "search", "role", "follower").count() < 7) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            List<String> result = leader.get(5, TimeUnit.SECONDS);
+            for (Future<List<String>> follower : followers) {
+                assertSame(result, follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+            assertEquals(1, meterRegistry.counter("queries.coalesced", "operation", "search", "role", "leader").count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void coalesce_AfterCompletion_RunsAgain() {
+        AtomicInteger executions = new AtomicInteger();
+
+        coalescer.coalesce("available", List.of("2025-01-01"), executions::incrementAndGet);
+        coalescer.coalesce("available", List.of("2025-01-01"), executions::incrementAndGet);
+
+        // Nu este un cache: fiecare cerere care nu se suprapune cu alta citește din nou
+        assertEquals(2, executions.get());
+        assertEquals(0, meterRegistry.get("queries.coalesced.in_flight").gauge().value());
+    }
+
+    @Test
+    void coalesce_FailureIsPropagatedToFollowers() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = executor.submit(() -> coalescer.coalesce("search", "bad", () -> {
+                started.countDown();
+                await(release);
+                throw new InvalidInputException("Limit must be positive");
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Object> follower = executor.submit(() -> coalescer.coalesce("search", "bad", () -> "unused"));
+            while (meterRegistry.counter("queries.coalesced", "operation", "search", "role", "follower").count() < 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception followerFailure = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(InvalidInputException.class, leaderFailure.getCause());
+            assertInstanceOf(InvalidInputException.class, followerFailure.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void coalesce_DifferentParameters_DoNotShare() {
+        assertEquals("cluj", coalescer.coalesce("search", "cluj", () -> "cluj"));
+        assertEquals("iasi", coalescer.coalesce("search", "iasi", () -> "iasi"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
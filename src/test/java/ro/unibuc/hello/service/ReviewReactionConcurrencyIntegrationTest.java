@@ -0,0 +1,179 @@
+package ro.unibuc.hello.service;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import ro.unibuc.hello.data.ReactionType;
+import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.repository.ReactionRepository;
+import ro.unibuc.hello.repository.ReviewRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de stres: mii de reacții concurente la același review, inclusiv cereri duplicate ale aceluiași
+ * utilizator, trebuie să lase reacțiile și contoarele exacte (fără actualizări pierdute).
+ */
+@SpringBootTest
+@Testcontainers
+@Tag("IntegrationTest")
+public class ReviewReactionConcurrencyIntegrationTest {
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0.20")
+            .withExposedPorts(27017)
+            .withSharding();
+
+    @BeforeAll
+    public static void setUp() {
+        mongoDBContainer.start();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        mongoDBContainer.stop();
+    }
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        final String MONGO_URL = "mongodb://host.docker.internal:";
+        final String PORT = String.valueOf(mongoDBContainer.getMappedPort(27017));
+
+        registry.add("mongodb.connection.url", () -> MONGO_URL + PORT);
+    }
+
+    private static final int USERS = 2000;
+    private static final int DUPLICATES = 3;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ReactionRepository reactionRepository;
+
+    @Autowired
+    private ReviewReactionBuffer reviewReactionBuffer;
+
+    private String reviewId;
+
+    @BeforeEach
+    public void createReview() {
+        reviewRepository.deleteAll();
+        reactionRepository.deleteAll();
+        reviewId = reviewRepository.save(new ReviewEntity("Popular", 5, "apartment1", "author")).getId();
+    }
+
+    @Test
+    public void concurrentReactions_KeepExactCounts() throws Exception {
+        // Fiecare utilizator dă like de mai multe ori în paralel; doar prima cerere trebuie să conteze
+        List<Callable<String>> likes = new ArrayList<>();
+        for (int user = 0; user < USERS; user++) {
+            String userId = "user" + user;
+            for (int i = 0; i < DUPLICATES; i++) {
+                likes.add(() -> reviewService.addLike(reviewId, userId));
+            }
+        }
+        List<String> likeResults = runConcurrently(likes);
+
+        assertEquals(USERS, count(likeResults, "Like added successfully!"));
+        assertEquals(USERS * (DUPLICATES - 1), count(likeResults, "User has already liked this review."));
+        assertCounts(USERS, 0);
+
+        // Utilizatorii pari trec la dislike (tot cu duplicate), o parte din cei impari își retrag like-ul
+        List<Callable<String>> changes = new ArrayList<>();
+        int switched = 0;
+        int removed = 0;
+        for (int user = 0; user < USERS; user++) {
+            String userId = "user" + user;
+            if (user % 2 == 0) {
+                switched++;
+                for (int i = 0; i < DUPLICATES; i++) {
+                    changes.add(() -> reviewService.addDislike(reviewId, userId));
+                }
+            } else if (user % 3 == 0) {
+                removed++;
+                changes.add(() -> reviewService.removeReaction(reviewId, userId));
+            }
+        }
+        List<String> changeResults = runConcurrently(changes);
+
+        assertEquals(switched, count(changeResults, "Dislike added successfully!"));
+        assertEquals(removed, count(changeResults, "Like removed successfully!"));
+        assertCounts(USERS - switched - removed, switched);
+    }
+
+    @Test
+    public void recountAll_RepairsCountersLeftBehindByACrash() {
+        reviewService.addLike(reviewId, "user1");
+        reviewService.addDislike(reviewId, "user2");
+        // Ca o cădere între scrierea reacției și $inc
+        ReviewEntity drifted = reviewRepository.findById(reviewId).orElseThrow();
+        drifted.setLikeCount(7);
+        reviewRepository.save(drifted);
+
+        assertEquals(1, reviewReactionBuffer.recountAll());
+        assertCounts(1, 1);
+        // Contoarele corecte nu se mai rescriu
+        assertEquals(0, reviewReactionBuffer.recountAll());
+    }
+
+    private void assertCounts(int expectedLikes, int expectedDislikes) {
+        ReviewEntity review = reviewRepository.findById(reviewId).orElseThrow();
+        assertEquals(expectedLikes, review.getLikeCount());
+        assertEquals(expectedDislikes, review.getDislikeCount());
+        // Contoarele trebuie să corespundă exact documentelor din colecția de reacții
+        assertEquals(expectedLikes, countReactions(ReactionType.LIKE));
+        assertEquals(expectedDislikes, countReactions(ReactionType.DISLIKE));
+    }
+
+    private long countReactions(ReactionType type) {
+        return reactionRepository.findAll().stream()
+                .filter(reaction -> reviewId.equals(reaction.getReviewId()) && reaction.getType() == type)
+                .count();
+    }
+
+    // Pornește toate sarcinile odată, ca să maximizăm suprapunerea
+    private static List<String> runConcurrently(List<Callable<String>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (Callable<String> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<String> results = new ArrayList<>();
+            for (Future<String> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long count(List<String> results, String expected) {
+        return results.stream().filter(expected::equals).count();
+    }
+}
@@ -0,0 +1,183 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import ro.unibuc.hello.data.ReactionEntity;
+import ro.unibuc.hello.data.ReactionType;
+import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.repository.ReactionRepository;
+import ro.unibuc.hello.repository.ReviewRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Modul WRITE_BEHIND: reacțiile se adună în memorie și ajung în Mongo compensate la golire,
+ * iar segmentele de jurnal rămase după o oprire bruscă sunt reaplicate la pornire.
+ */
+@SpringBootTest(properties = {
+        "review.reactions.write-mode=WRITE_BEHIND",
+        // Fereastră lungă, ca testul să controleze momentul golirii
+        "review.reactions.flush-window-ms=600000"
+})
+@Testcontainers
+@Tag("IntegrationTest")
+public class ReviewReactionWriteBehindIntegrationTest {
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0.20")
+            .withExposedPorts(27017)
+            .withSharding();
+
+    @BeforeAll
+    public static void setUp() {
+        mongoDBContainer.start();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        mongoDBContainer.stop();
+    }
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) throws IOException {
+        final String MONGO_URL = "mongodb://host.docker.internal:";
+        final String PORT = String.valueOf(mongoDBContainer.getMappedPort(27017));
+
+        registry.add("mongodb.connection.url", () -> MONGO_URL + PORT);
+        String journalDir = Files.createTempDirectory("reactions-journal").toString();
+        registry.add("review.reactions.journal-dir", () -> journalDir);
+    }
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ReviewReactionBuffer reactionBuffer;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ReactionRepository reactionRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private String reviewId;
+
+    @BeforeEach
+    public void createReview() {
+        reactionBuffer.flush();
+        reviewRepository.deleteAll();
+        reactionRepository.deleteAll();
+        reviewId = reviewRepository.save(new ReviewEntity("Popular", 5, "apartment1", "author")).getId();
+    }
+
+    @Test
+    public void reactions_AreCoalescedUntilFlush() {
+        for (int user = 0; user < 50; user++) {
+            assertEquals("Like added successfully!", reviewService.addLike(reviewId, "user" + user));
+        }
+        // Ultima acțiune a fiecărui utilizator câștigă
+        for (int user = 0; user < 10; user++) {
+            assertEquals("Dislike added successfully!", reviewService.addDislike(reviewId, "user" + user));
+        }
+        for (int user = 10; user < 20; user++) {
+            assertEquals("Like removed successfully!", reviewService.removeReaction(reviewId, "user" + user));
+        }
+        assertEquals("User has already liked this review.", reviewService.addLike(reviewId, "user30"));
+
+        // Nimic nu a ajuns încă în Mongo
+        assertEquals(0, reactionRepository.count());
+        assertEquals(50, meterRegistry.get("reviews.reactions.buffer.depth").gauge().value());
+
+        reactionBuffer.flush();
+
+        ReviewEntity review = reviewRepository.findById(reviewId).orElseThrow();
+        assertEquals(30, review.getLikeCount());
+        assertEquals(10, review.getDislikeCount());
+        assertEquals(40, reactionRepository.count());
+        assertEquals(ReactionType.DISLIKE, reactionRepository.findByReviewIdAndUserId(reviewId, "user3").getType());
+        assertNull(reactionRepository.findByReviewIdAndUserId(reviewId, "user15"));
+        assertEquals(0, meterRegistry.get("reviews.reactions.buffer.depth").gauge().value());
+        assertTrue(meterRegistry.get("reviews.reactions.flush.latency").timer().count() > 0);
+
+        // După golire starea se citește din Mongo
+        assertEquals("User has already disliked this review.", reviewService.addDislike(reviewId, "user3"));
+        assertEquals("No reaction found to remove.", reviewService.removeReaction(reviewId, "user15"));
+    }
+
+    @Test
+    public void flush_RecountsDriftedCounters() {
+        reactionRepository.insert(new ReactionEntity(reviewId, "user1", ReactionType.LIKE));
+        // Contor deviat de valoarea reală, de exemplu de o scriere directă
+        ReviewEntity drifted = reviewRepository.findById(reviewId).orElseThrow();
+        drifted.setLikeCount(100);
+        reviewRepository.save(drifted);
+
+        assertEquals("Like added successfully!", reviewService.addLike(reviewId, "user2"));
+        reactionBuffer.flush();
+
+        ReviewEntity review = reviewRepository.findById(reviewId).orElseThrow();
+        assertEquals(2, review.getLikeCount());
+        assertEquals(0, review.getDislikeCount());
+    }
+
+    @Test
+    public void deleteReview_DiscardsBufferedReactions() {
+        assertEquals("Like added successfully!", reviewService.addLike(reviewId, "user1"));
+        reviewService.deleteReview(reviewId);
+        reactionBuffer.flush();
+
+        assertEquals(0, reactionRepository.count());
+        assertFalse(reactionBuffer.isBuffered(reviewId));
+        assertEquals(0, meterRegistry.get("reviews.reactions.buffer.depth").gauge().value());
+    }
+
+    @Test
+    public void journal_IsReplayedAfterACrash() throws IOException {
+        // Reacții deja scrise, ca reluarea să recalculeze contoarele pornind de la ele
+        reactionRepository.insert(new ReactionEntity(reviewId, "user1", ReactionType.LIKE));
+
+        // Segment rămas de la un proces oprit înainte de golire
+        Path journalDir = Files.createTempDirectory("reactions-crash");
+        Path segment = journalDir.resolve("reactions-7.journal");
+        Files.write(segment, List.of(
+                reviewId + "\tuser1\tLIKE",
+                reviewId + "\tuser2\tLIKE",
+                reviewId + "\tuser2\tNONE",
+                reviewId + "\tuser%09tab\tDISLIKE",
+                reviewId + "\tuser3"), StandardCharsets.UTF_8);
+
+        ReviewReactionBuffer restarted = new ReviewReactionBuffer(mongoTemplate, reactionRepository,
+                new SimpleMeterRegistry(), ReactionWriteMode.WRITE_BEHIND, 600000, journalDir.toString());
+        restarted.start();
+        restarted.stop();
+
+        ReviewEntity review = reviewRepository.findById(reviewId).orElseThrow();
+        assertEquals(1, review.getLikeCount());
+        assertEquals(1, review.getDislikeCount());
+        assertNull(reactionRepository.findByReviewIdAndUserId(reviewId, "user2"));
+        assertEquals(ReactionType.DISLIKE, reactionRepository.findByReviewIdAndUserId(reviewId, "user\ttab").getType());
+        assertFalse(Files.exists(segment));
+    }
+}
@@ -4,11 +4,20 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import ro.unibuc.hello.data.ApartmentEntity;
+import ro.unibuc.hello.data.ReactionEntity;
+import ro.unibuc.hello.data.ReactionType;
 import ro.unibuc.hello.data.ReviewEntity;
+import ro.unibuc.hello.dto.CursorPage;
+import ro.unibuc.hello.dto.ReviewSort;
+import ro.unibuc.hello.exception.InvalidInputException;
+import ro.unibuc.hello.index.LocalCaches;
+import ro.unibuc.hello.index.ReviewEligibility;
 import ro.unibuc.hello.service.ReviewService;
-import ro.unibuc.hello.data.BookingEntity; 
+import ro.unibuc.hello.repository.ApartmentRepository;
 import ro.unibuc.hello.repository.ReviewRepository;
-import ro.unibuc.hello.repository.BookingRepository;
+import ro.unibuc.hello.repository.ReactionRepository;
+import org.springframework.dao.DuplicateKeyException;
 
 import java.util.*;
 import org.springframework.data.domain.Sort;
@@ -19,7 +28,19 @@ public class ReviewServiceTest {
     private ReviewRepository reviewRepository;
 
     @Mock
-    private BookingRepository bookingRepository;
+    private ReactionRepository reactionRepository;
+
+    @Mock
+    private ReviewEligibility reviewEligibility;
+
+    @Mock
+    private ReviewReactionBuffer reactionBuffer;
+
+    @Mock
+    private ApartmentRepository apartmentRepository;
+
+    @Mock
+    private LocalCaches localCaches;
 
     @InjectMocks
     private ReviewService reviewService;
@@ -30,45 +51,65 @@ public class ReviewServiceTest {
     public void setUp() {
         MockitoAnnotations.openMocks(this);
         review = new ReviewEntity("1", 4, "apartment123", "user123");
-        review.setLikes(new HashSet<>());
-        review.setDislikes(new HashSet<>());
+        when(reviewRepository.existsById("1")).thenReturn(true);
     }
 
     @Test
     public void testCreateReview_Success() {
         // Mocks
-        when(bookingRepository.findByApartmentIdAndUserId(anyString(), anyString()))
-            .thenReturn(Collections.singletonList(new BookingEntity()));  // Folosește BookingEntity în loc de Object
+        when(reviewEligibility.hasBooked(anyString(), anyString())).thenReturn(true);
 
-        when(reviewRepository.save(any(ReviewEntity.class))).thenReturn(review);
+        when(reviewRepository.insert(any(ReviewEntity.class))).thenReturn(review);
         ReviewEntity createdReview = reviewService.createReview(review);
 
         assertEquals(review.getId(), createdReview.getId());
-        verify(reviewRepository, times(1)).save(any(ReviewEntity.class));
+        verify(reviewRepository, times(1)).insert(any(ReviewEntity.class));
+        verify(reviewRepository, never()).save(any(ReviewEntity.class));
+        verify(apartmentRepository).applyRating("apartment123", 4, 1);
     }
 
     @Test
-    public void testAddLike_Success() {
-        Set<String> likes = new HashSet<>();
-        review.setLikes(likes);  // Folosim HashSet<String> pentru likes
-        when(reviewRepository.findById(anyString())).thenReturn(Optional.of(review));
+    public void testCreateReview_ExistingId_IsRejectedWithoutTouchingAggregates() {
+        when(reviewEligibility.hasBooked(anyString(), anyString())).thenReturn(true);
+        when(reviewRepository.insert(any(ReviewEntity.class))).thenThrow(new DuplicateKeyException("duplicate"));
+
+        InvalidInputException exception = assertThrows(InvalidInputException.class, () -> reviewService.createReview(review));
 
+        assertEquals("Review with id 1 already exists", exception.getMessage());
+        verify(apartmentRepository, never()).applyRating(anyString(), any(), anyInt());
+    }
+
+    @Test
+    public void testCreateReview_RefreshesCatalogueWithUpdatedAggregates() {
+        ApartmentEntity apartment = new ApartmentEntity();
+        apartment.setId("apartment123");
+        apartment.setAverageRating(4.0);
+        when(reviewEligibility.hasBooked(anyString(), anyString())).thenReturn(true);
+        when(reviewRepository.insert(any(ReviewEntity.class))).thenReturn(review);
+        when(apartmentRepository.applyRating("apartment123", 4, 1)).thenReturn(apartment);
+
+        reviewService.createReview(review);
+
+        verify(localCaches).apartmentSaved(apartment);
+    }
+
+    @Test
+    public void testAddLike_Success() {
         String response = reviewService.addLike("1", "userId123");
         
         assertEquals("Like added successfully!", response);
-        assertTrue(likes.contains("userId123"));
+        verify(reactionRepository).insert(any(ReactionEntity.class));
+        // Review-ul primește doar $inc pe contor, nu este rescris
+        verify(reviewRepository).incrementReactionCounts("1", 1, 0);
+        verify(reviewRepository, never()).save(any(ReviewEntity.class));
     }
 
     @Test
     public void testAddDislike_Success() {
-        Set<String> dislikes = new HashSet<>();
-        review.setDislikes(dislikes);  // Folosim HashSet<String> pentru dislikes
-        when(reviewRepository.findById(anyString())).thenReturn(Optional.of(review));
-
         String response = reviewService.addDislike("1", "userId123");
         
         assertEquals("Dislike added successfully!", response);
-        assertTrue(dislikes.contains("userId123"));
+        verify(reviewRepository).incrementReactionCounts("1", 0, 1);
     }
 
     @Test
@@ -94,7 +135,7 @@ public void testGetGoodReviews_Success() {
     );
 
     // Mock findByRatingGreaterThan pentru rating > 3
-    when(reviewRepository.findByRatingGreaterThan(3, Sort.by(Sort.Order.desc("rating"))))
+    when(reviewRepository.findByRatingGreaterThan(3, Sort.by(Sort.Direction.DESC, "rating", "id")))
         .thenReturn(Collections.singletonList(reviews.get(0))); // doar review cu rating 4
 
     List<ReviewEntity> goodReviews = reviewService.getGoodReviews();
@@ -112,7 +153,7 @@ public void testGetBadReviews_Success() {
     );
 
     // Mock findByRatingLessThanEqual pentru rating <= 3
-    when(reviewRepository.findByRatingLessThanEqual(3, Sort.by(Sort.Order.asc("rating"))))
+    when(reviewRepository.findByRatingLessThanEqual(3, Sort.by(Sort.Direction.ASC, "rating", "id")))
         .thenReturn(Collections.singletonList(reviews.get(1))); // doar review cu rating 2
 
     List<ReviewEntity> badReviews = reviewService.getBadReviews();
@@ -151,8 +192,7 @@ public void testCreateReview_UserNotBookedApartment() {
     ReviewEntity validReview = new ReviewEntity("1", 4, "apartment123", "user123");
 
     // Mocks
-    when(bookingRepository.findByApartmentIdAndUserId(anyString(), anyString()))
-            .thenReturn(Collections.emptyList()); // Utilizatorul nu a făcut niciun booking
+    when(reviewEligibility.hasBooked(anyString(), anyString())).thenReturn(false); // Utilizatorul nu a făcut niciun booking
 
     // Verifică dacă se aruncă excepția corespunzătoare
     IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -163,87 +203,210 @@ public void testCreateReview_UserNotBookedApartment() {
 }
 @Test
 public void testAddLike_RemoveDislike() {
-    Set<String> likes = new HashSet<>();
-    Set<String> dislikes = new HashSet<>();
-    review.setLikes(likes);
-    review.setDislikes(dislikes);
-
-    // Adaugă un dislike înainte de a da un like
-    dislikes.add("user123");
-
-    when(reviewRepository.findById(anyString())).thenReturn(Optional.of(review));
+    // Utilizatorul are deja un dislike, deci adăugarea simplă nu se aplică și dislike-ul devine like
+    when(reactionRepository.insert(any(ReactionEntity.class))).thenThrow(new DuplicateKeyException("duplicate"));
+    when(reactionRepository.changeType("1", "user123", ReactionType.DISLIKE, ReactionType.LIKE)).thenReturn(1L);
 
-    // Dă un like la review
     String response = reviewService.addLike("1", "user123");
 
     assertEquals("Like added successfully!", response);
-    assertTrue(likes.contains("user123"));
-    assertFalse(dislikes.contains("user123"));  // Verifică că dislike-ul a fost eliminat
+    // Ambele contoare într-un singur $inc
+    verify(reviewRepository).incrementReactionCounts("1", 1, -1);
+    verify(reviewRepository, times(1)).incrementReactionCounts(anyString(), anyLong(), anyLong());
 }
 @Test
 public void testAddDislike_RemoveLike() {
-    Set<String> likes = new HashSet<>();
-    Set<String> dislikes = new HashSet<>();
-    review.setLikes(likes);
-    review.setDislikes(dislikes);
-
-    // Adaugă un like înainte de a da un dislike
-    likes.add("user123");
-
-    when(reviewRepository.findById(anyString())).thenReturn(Optional.of(review));
+    when(reactionRepository.insert(any(ReactionEntity.class))).thenThrow(new DuplicateKeyException("duplicate"));
+    when(reactionRepository.changeType("1", "user123", ReactionType.LIKE, ReactionType.DISLIKE)).thenReturn(1L);
 
-    // Dă un dislike la review
     String response = reviewService.addDislike("1", "user123");
 
     assertEquals("Dislike added successfully!", response);
-    assertTrue(dislikes.contains("user123"));
-    assertFalse(likes.contains("user123"));  // Verifică că like-ul a fost eliminat
+    verify(reviewRepository).incrementReactionCounts("1", -1, 1);
 }
 @Test
 public void testDeleteReview_Success() {
     // Mocks
-    doNothing().when(reviewRepository).deleteById(anyString());
+    when(reviewRepository.removeById("1")).thenReturn(review);
 
     reviewService.deleteReview("1");
 
-    verify(reviewRepository, times(1)).deleteById("1");
+    verify(reviewRepository, times(1)).removeById("1");
+    verify(apartmentRepository).applyRating("apartment123", 4, -1);
 }
 @Test
-public void testRemoveLike_Success() {
-    Set<String> likes = new HashSet<>();
-    review.setLikes(likes);
+public void testDeleteReview_Missing_LeavesAggregatesUntouched() {
+    when(reviewRepository.removeById("missing")).thenReturn(null);
 
-    likes.add("user123");
+    reviewService.deleteReview("missing");
 
-    when(reviewRepository.findById(anyString())).thenReturn(Optional.of(review));
+    verify(apartmentRepository, never()).applyRating(anyString(), any(), anyInt());
+}
+@Test
+public void testRemoveLike_Success() {
+    when(reactionRepository.removeByReviewIdAndUserId("1", "user123"))
+        .thenReturn(new ReactionEntity("1", "user123", ReactionType.LIKE));
 
     String response = reviewService.removeReaction("1", "user123");
 
     assertEquals("Like removed successfully!", response);
-    assertFalse(likes.contains("user123"));
+    verify(reviewRepository).incrementReactionCounts("1", -1, 0);
 }
 
 @Test
 public void testRemoveDislike_Success() {
-    Set<String> dislikes = new HashSet<>();
-    review.setDislikes(dislikes);
-
-    dislikes.add("user123");
-
-    when(reviewRepository.findById(anyString())).thenReturn(Optional.of(review));
+    when(reactionRepository.removeByReviewIdAndUserId("1", "user123"))
+        .thenReturn(new ReactionEntity("1", "user123", ReactionType.DISLIKE));
 
     String response = reviewService.removeReaction("1", "user123");
 
     assertEquals("Dislike removed successfully!", response);
-    assertFalse(dislikes.contains("user123"));
 }
 @Test
 public void testAddLike_ReviewNotFound() {
-    when(reviewRepository.findById(anyString())).thenReturn(Optional.empty());
+    when(reviewRepository.existsById("nonexistent")).thenReturn(false);
 
     String response = reviewService.addLike("nonexistent", "user123");
 
     assertEquals("Review not found!", response);
+    verify(reactionRepository, never()).insert(any(ReactionEntity.class));
+}
+@Test
+public void testAddLike_AlreadyLiked() {
+    when(reactionRepository.insert(any(ReactionEntity.class))).thenThrow(new DuplicateKeyException("duplicate"));
+    when(reactionRepository.existsByReviewIdAndUserIdAndType("1", "user123", ReactionType.LIKE)).thenReturn(true);
+
+    String response = reviewService.addLike("1", "user123");
+
+    assertEquals("User has already liked this review.", response);
+    verify(reviewRepository, never()).incrementReactionCounts(anyString(), anyLong(), anyLong());
+}
+@Test
+public void testRemoveReaction_NoReaction() {
+    String response = reviewService.removeReaction("1", "user123");
+
+    assertEquals("No reaction found to remove.", response);
+}
+
+@Test
+public void testGetReactions_FiltersByType() {
+    List<ReactionEntity> page = List.of(new ReactionEntity("1", "user123", ReactionType.LIKE));
+    when(reactionRepository.findByReviewIdAndTypeOrderByUserId(eq("1"), eq(ReactionType.LIKE), any())).thenReturn(page);
+
+    assertEquals(page, reviewService.getReactions("1", ReactionType.LIKE, 0, 20));
+}
+@Test
+public void testGetReactions_InvalidSize() {
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+        () -> reviewService.getReactions("1", null, 0, 500));
+
+    assertEquals("Size must be between 1 and 100", exception.getMessage());
+}
+@Test
+public void testDeleteReview_RemovesReactions() {
+    when(reviewRepository.removeById("1")).thenReturn(review);
+
+    reviewService.deleteReview("1");
+
+    verify(reactionRepository).deleteByReviewId("1");
+}
+
+@Test
+public void testAddLike_WriteBehind_UsesBuffer() {
+    when(reactionBuffer.isEnabled()).thenReturn(true);
+    when(reactionBuffer.set("1", "user123", ReactionType.LIKE)).thenReturn(ReactionType.DISLIKE, ReactionType.LIKE);
+
+    assertEquals("Like added successfully!", reviewService.addLike("1", "user123"));
+    assertEquals("User has already liked this review.", reviewService.addLike("1", "user123"));
+    verify(reactionRepository, never()).insert(any(ReactionEntity.class));
+    verify(reviewRepository, never()).incrementReactionCounts(anyString(), anyLong(), anyLong());
+}
+@Test
+public void testRemoveReaction_WriteBehind_ReviewNotFound() {
+    when(reactionBuffer.isEnabled()).thenReturn(true);
+    when(reviewRepository.existsById("missing")).thenReturn(false);
+
+    assertEquals("Review not found!", reviewService.removeReaction("missing", "user123"));
+    verify(reactionBuffer, never()).set(anyString(), anyString(), any());
+}
+
+@Test
+public void testGetApartmentReviews_ReturnsCursorForNextPage() {
+    ReviewEntity first = new ReviewEntity("r1", "Great", 5, "apartment123", "user1");
+    ReviewEntity second = new ReviewEntity("r2", "Good", 4, "apartment123", "user2");
+    ReviewEntity third = new ReviewEntity("r3", "Ok", 4, "apartment123", "user3");
+    when(reviewRepository.findApartmentReviewsPage("apartment123", ReviewSort.RATING, null, null, 3))
+        .thenReturn(List.of(first, second, third));
+    when(reviewRepository.findApartmentReviewsPage("apartment123", ReviewSort.RATING, 4, "r2", 3))
+        .thenReturn(List.of(third));
+
+    CursorPage<ReviewEntity> page = reviewService.getApartmentReviews("apartment123", ReviewSort.RATING, null, 2);
+    assertEquals(List.of(first, second), page.items());
+    assertNotNull(page.nextCursor());
+
+    CursorPage<ReviewEntity> last = reviewService.getApartmentReviews("apartment123", ReviewSort.RATING, page.nextCursor(), 2);
+    assertEquals(List.of(third), last.items());
+    assertNull(last.nextCursor());
+}
+@Test
+public void testGetApartmentReviews_CursorAfterReviewWithoutRating() {
+    ReviewEntity rated = new ReviewEntity("r1", "Great", 5, "apartment123", "user1");
+    ReviewEntity unrated = new ReviewEntity("r2", "Imported", null, "apartment123", "user2");
+    ReviewEntity older = new ReviewEntity("r0", "Imported", null, "apartment123", "user3");
+    when(reviewRepository.findApartmentReviewsPage("apartment123", ReviewSort.RATING, null, null, 3))
+        .thenReturn(List.of(rated, unrated, older));
+    when(reviewRepository.findApartmentReviewsPage("apartment123", ReviewSort.RATING, null, "r2", 3))
+        .thenReturn(List.of(older));
+
+    String cursor = reviewService.getApartmentReviews("apartment123", ReviewSort.RATING, null, 2).nextCursor();
+
+    // Cursorul unui review fără rating este valid și continuă cu celelalte review-uri fără rating
+    CursorPage<ReviewEntity> last = reviewService.getApartmentReviews("apartment123", ReviewSort.RATING, cursor, 2);
+    assertEquals(List.of(older), last.items());
+}
+@Test
+public void testGetApartmentReviews_CursorFromOtherSort() {
+    ReviewEntity first = new ReviewEntity("r1", "Great", 5, "apartment123", "user1");
+    ReviewEntity second = new ReviewEntity("r2", "Good", 4, "apartment123", "user2");
+    when(reviewRepository.findApartmentReviewsPage("apartment123", ReviewSort.LIKES, null, null, 2))
+        .thenReturn(List.of(first, second));
+    String cursor = reviewService.getApartmentReviews("apartment123", ReviewSort.LIKES, null, 1).nextCursor();
+
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+        () -> reviewService.getApartmentReviews("apartment123", ReviewSort.RATING, cursor, 1));
+
+    assertEquals("Cursor does not match sort RATING", exception.getMessage());
+}
+@Test
+public void testGetApartmentReviews_InvalidCursor() {
+    assertThrows(IllegalArgumentException.class,
+        () -> reviewService.getApartmentReviews("apartment123", ReviewSort.RECENT, "not a cursor", 20));
+    verify(reviewRepository, never()).findApartmentReviewsPage(anyString(), any(), any(), any(), anyInt());
+}
+
+@Test
+public void testGetGoodReviews_Paged() {
+    ReviewEntity first = new ReviewEntity("r1", "Great", 5, "apartment123", "user1");
+    ReviewEntity second = new ReviewEntity("r2", "Good", 4, "apartment123", "user2");
+    when(reviewRepository.findRatingPage(3, null, Sort.Direction.DESC, null, null, 2)).thenReturn(List.of(first, second));
+    when(reviewRepository.findRatingPage(3, null, Sort.Direction.DESC, 5, "r1", 2)).thenReturn(List.of(second));
+
+    CursorPage<ReviewEntity> page = reviewService.getGoodReviews(null, 1);
+    assertEquals(List.of(first), page.items());
+
+    CursorPage<ReviewEntity> last = reviewService.getGoodReviews(page.nextCursor(), 1);
+    assertEquals(List.of(second), last.items());
+    assertNull(last.nextCursor());
+}
+@Test
+public void testGetBadReviews_RejectsCursorOfOtherList() {
+    ReviewEntity first = new ReviewEntity("r1", "Great", 5, "apartment123", "user1");
+    ReviewEntity second = new ReviewEntity("r2", "Good", 4, "apartment123", "user2");
+    when(reviewRepository.findRatingPage(3, null, Sort.Direction.DESC, null, null, 2)).thenReturn(List.of(first, second));
+    String cursor = reviewService.getGoodReviews(null, 1).nextCursor();
+
+    assertThrows(IllegalArgumentException.class, () -> reviewService.getBadReviews(cursor, 1));
+    assertThrows(IllegalArgumentException.class, () -> reviewService.getBadReviews(null, 0));
 }
 
 }